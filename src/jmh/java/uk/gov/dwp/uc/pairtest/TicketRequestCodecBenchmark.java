@@ -0,0 +1,64 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading a mixed request off the wire: decoding into objects against validating in place with a
+ * {@link TicketRequestFlyweight}. The flyweight path should report no allocation under {@code -prof gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketRequestCodecBenchmark {
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+    private final TicketRequestFlyweight flyweight = new TicketRequestFlyweight();
+
+    @Setup
+    public void setup() {
+        TicketRequestCodec.encode(buffer, 42L, 123_456L,
+                new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2),
+                new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 2),
+                new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1));
+        buffer.flip();
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        var order = TicketRequestCodec.decode(buffer);
+        buffer.rewind();
+        try {
+            new TicketPurchaseRequest(order.getTicketTypeRequests()).validate();
+            blackhole.consume(order);
+        } catch (InvalidPurchaseException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void validateInPlace(Blackhole blackhole) {
+        try {
+            flyweight.wrap(buffer, 0).validate();
+            blackhole.consume(flyweight.getAccountId());
+        } catch (InvalidPurchaseException e) {
+            blackhole.consume(e);
+        }
+    }
+}
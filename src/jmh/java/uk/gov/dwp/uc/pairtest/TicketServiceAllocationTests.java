@@ -0,0 +1,42 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs {@link TicketServiceBenchmark#purchaseTicketsPrimitive} under the GC profiler and fails if the primitive
+ * entry point allocates. Part of {@code mvn -Pbenchmark test}, so it is only run where the benchmarks are built.
+ */
+public class TicketServiceAllocationTests {
+    // Well under the 24 bytes of the smallest object the purchase could allocate, leaving room for profiler noise
+    private static final double MAX_BYTES_PER_PURCHASE = 8.0;
+
+    @Test
+    public void purchaseTicketsPrimitive_WhenRunUnderTheGcProfiler_DoesNotAllocate() throws RunnerException {
+        for (TicketServiceBenchmark.Workload workload : TicketServiceBenchmark.Workload.values()) {
+            var options = new OptionsBuilder()
+                    .include(TicketServiceBenchmark.class.getName() + ".purchaseTicketsPrimitive$")
+                    .param("workload", workload.name())
+                    .addProfiler(GCProfiler.class)
+                    .warmupIterations(3)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(3)
+                    .measurementTime(TimeValue.seconds(1))
+                    .forks(1)
+                    .shouldFailOnError(true)
+                    .build();
+
+            for (RunResult result : new Runner(options).run()) {
+                var bytesPerPurchase = result.getSecondaryResults().get("gc.alloc.rate.norm").getScore();
+                Assertions.assertTrue(bytesPerPurchase <= MAX_BYTES_PER_PURCHASE,
+                        workload + " allocated " + bytesPerPurchase + " bytes per purchase");
+            }
+        }
+    }
+}
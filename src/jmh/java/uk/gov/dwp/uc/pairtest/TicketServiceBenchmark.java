@@ -0,0 +1,116 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and allocation baseline for {@link TicketServiceImpl#purchaseTickets}.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}; the profile attaches the GC profiler by default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketServiceBenchmark {
+    private static final long ACCOUNT_ID = 1L;
+
+    public enum Workload {
+        SINGLE_TYPE,
+        MIXED,
+        INVALID
+    }
+
+    @Param
+    public Workload workload;
+
+    private TicketService ticketService;
+
+    private TicketTypeRequest[] ticketTypeRequests;
+
+    private int numberOfAdultTickets;
+    private int numberOfChildTickets;
+    private int numberOfInfantTickets;
+
+    @Setup
+    public void setup() {
+        ticketService = new TicketServiceImpl(new SeatReservationServiceImpl(), new TicketPaymentServiceImpl());
+
+        switch (workload) {
+            case SINGLE_TYPE:
+                ticketTypeRequests = new TicketTypeRequest[]{
+                        new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)
+                };
+                numberOfAdultTickets = 2;
+                break;
+            case MIXED:
+                ticketTypeRequests = new TicketTypeRequest[]{
+                        new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2),
+                        new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 2),
+                        new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1)
+                };
+                numberOfAdultTickets = 2;
+                numberOfChildTickets = 2;
+                numberOfInfantTickets = 1;
+                break;
+            case INVALID:
+                ticketTypeRequests = new TicketTypeRequest[]{
+                        new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 2),
+                        new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1)
+                };
+                numberOfChildTickets = 2;
+                numberOfInfantTickets = 1;
+                break;
+            default:
+                throw new IllegalStateException("Unknown workload: " + workload);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void purchaseTickets(Blackhole blackhole) {
+        purchase(blackhole);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void purchaseTicketsContended(Blackhole blackhole) {
+        purchase(blackhole);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void purchaseTicketsPrimitive(Blackhole blackhole) {
+        try {
+            ticketService.purchaseTickets(ACCOUNT_ID, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+        } catch (InvalidPurchaseException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    private void purchase(Blackhole blackhole) {
+        try {
+            ticketService.purchaseTickets(ACCOUNT_ID, ticketTypeRequests);
+        } catch (InvalidPurchaseException e) {
+            blackhole.consume(e);
+        }
+    }
+}
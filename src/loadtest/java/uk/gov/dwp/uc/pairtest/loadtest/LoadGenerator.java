@@ -0,0 +1,194 @@
+package uk.gov.dwp.uc.pairtest.loadtest;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.metrics.LatencyHistogram;
+import uk.gov.dwp.uc.pairtest.resilience.FaultInjectingSeatReservationService;
+import uk.gov.dwp.uc.pairtest.resilience.FaultInjectingTicketPaymentService;
+
+import java.time.Duration;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for a {@link TicketService}. Purchases are scheduled at a fixed arrival rate whether
+ * or not earlier ones have finished, and are run by up to {@code concurrency} threads at once, as real buyers
+ * would arrive at an on-sale.
+ * <p>
+ * Response times are measured from when each purchase was due to start rather than from when a thread got round
+ * to it. A stall therefore shows up in the results for every purchase that should have been sent during it,
+ * instead of as one slow sample among requests that were never sent (coordinated omission). The uncorrected
+ * service time is reported alongside for comparison.
+ * <p>
+ * Run against local stand-ins for the third party services with
+ * {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="arrivals-per-second=5000 payment.latency=PT0.05S"},
+ * passing any {@link LoadProfile} key plus {@code seat-reservation.latency}, {@code seat-reservation.failure-rate},
+ * {@code payment.latency} and {@code payment.failure-rate}.
+ */
+public class LoadGenerator {
+    private static final int ADULT = TicketTypeRequest.Type.ADULT.ordinal();
+    private static final int CHILD = TicketTypeRequest.Type.CHILD.ordinal();
+    private static final int INFANT = TicketTypeRequest.Type.INFANT.ordinal();
+    private static final int NUMBER_OF_INVALID_KINDS = 4;
+
+    private final TicketService ticketService;
+    private final LoadProfile profile;
+    private final int[] cumulativeTypeWeights;
+
+    public LoadGenerator(TicketService ticketService, LoadProfile profile) {
+        if(ticketService == null) {
+            throw new IllegalArgumentException("ticketService cannot be null");
+        }
+
+        if(profile == null) {
+            throw new IllegalArgumentException("profile cannot be null");
+        }
+
+        this.ticketService = ticketService;
+        this.profile = profile;
+
+        var types = TicketTypeRequest.Type.values();
+        this.cumulativeTypeWeights = new int[types.length];
+        var total = 0;
+        for (TicketTypeRequest.Type type : types) {
+            total += profile.getTypeWeight(type);
+            cumulativeTypeWeights[type.ordinal()] = total;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        var configuration = new Properties();
+        for (String arg : args) {
+            var separator = arg.indexOf('=');
+            if(separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but was " + arg);
+            }
+            configuration.setProperty(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        var seatReservationService = new FaultInjectingSeatReservationService();
+        seatReservationService.setLatency(Duration.parse(take(configuration, "seat-reservation.latency", "PT0.005S")));
+        seatReservationService.setFailureRate(Double.parseDouble(take(configuration, "seat-reservation.failure-rate", "0")));
+        var ticketPaymentService = new FaultInjectingTicketPaymentService();
+        ticketPaymentService.setLatency(Duration.parse(take(configuration, "payment.latency", "PT0.02S")));
+        ticketPaymentService.setFailureRate(Double.parseDouble(take(configuration, "payment.failure-rate", "0")));
+
+        var generator = new LoadGenerator(new TicketServiceImpl(seatReservationService, ticketPaymentService), LoadProfile.from(configuration));
+        System.out.println(generator.run());
+    }
+
+    private static String take(Properties configuration, String key, String defaultValue) {
+        var value = (String) configuration.remove(key);
+        return value == null ? defaultValue : value.trim();
+    }
+
+    public LoadReport run() throws InterruptedException {
+        var responseTime = new LatencyHistogram();
+        var serviceTime = new LatencyHistogram();
+        var succeeded = new LongAdder();
+        var rejected = new LongAdder();
+        var failed = new LongAdder();
+        var nextPurchase = new AtomicLong();
+        var intervalNanos = 1e9 / profile.getArrivalsPerSecond();
+
+        var threads = new Thread[profile.getConcurrency()];
+        var startNanos = System.nanoTime();
+        var endNanos = startNanos + profile.getDuration().toNanos();
+        for (int worker = 0; worker < threads.length; worker++) {
+            var random = new SplittableRandom(profile.getSeed() + worker);
+            threads[worker] = new Thread(() -> {
+                var counts = new int[cumulativeTypeWeights.length];
+                while (true) {
+                    var intendedStartNanos = startNanos + (long) (nextPurchase.getAndIncrement() * intervalNanos);
+                    if(intendedStartNanos - endNanos >= 0) {
+                        return;
+                    }
+
+                    long waitNanos;
+                    while ((waitNanos = intendedStartNanos - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(waitNanos);
+                    }
+
+                    var accountId = 1 + random.nextInt(profile.getNumberOfAccounts());
+                    nextPurchase(random, counts);
+                    var actualStartNanos = System.nanoTime();
+                    try {
+                        ticketService.purchaseTickets(accountId, counts[ADULT], counts[CHILD], counts[INFANT]);
+                        succeeded.increment();
+                    } catch (InvalidPurchaseException e) {
+                        rejected.increment();
+                    } catch (RuntimeException e) {
+                        failed.increment();
+                    }
+
+                    var finishedNanos = System.nanoTime();
+                    responseTime.record(finishedNanos - intendedStartNanos);
+                    serviceTime.record(finishedNanos - actualStartNanos);
+                }
+            }, "load-generator-" + worker);
+            threads[worker].setDaemon(true);
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        return new LoadReport(
+                Duration.ofNanos(System.nanoTime() - startNanos),
+                succeeded.sum(),
+                rejected.sum(),
+                failed.sum(),
+                responseTime.snapshot(),
+                serviceTime.snapshot());
+    }
+
+    private void nextPurchase(SplittableRandom random, int[] counts) {
+        counts[ADULT] = 0;
+        counts[CHILD] = 0;
+        counts[INFANT] = 0;
+
+        if(random.nextDouble() < profile.getInvalidRatio()) {
+            switch (random.nextInt(NUMBER_OF_INVALID_KINDS)) {
+                case 0:
+                    // No tickets at all
+                    break;
+                case 1:
+                    counts[ADULT] = 21;
+                    break;
+                case 2:
+                    counts[ADULT] = 1;
+                    counts[INFANT] = 2;
+                    break;
+                default:
+                    counts[CHILD] = 1;
+                    break;
+            }
+            return;
+        }
+
+        var numberOfTickets = 1 + random.nextInt(profile.getMaxTicketsPerPurchase());
+        counts[ADULT] = 1;
+        var totalWeight = cumulativeTypeWeights[cumulativeTypeWeights.length - 1];
+        for (int ticket = 1; ticket < numberOfTickets; ticket++) {
+            var pick = random.nextInt(totalWeight);
+            var type = 0;
+            while (pick >= cumulativeTypeWeights[type]) {
+                type++;
+            }
+
+            // Keep valid purchases valid: every infant sits on an adult's lap
+            if(type == INFANT && counts[INFANT] >= counts[ADULT]) {
+                type = ADULT;
+            }
+            counts[type]++;
+        }
+    }
+}
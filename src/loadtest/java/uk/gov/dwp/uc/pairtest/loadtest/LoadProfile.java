@@ -0,0 +1,160 @@
+package uk.gov.dwp.uc.pairtest.loadtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Shape of the traffic a {@link LoadGenerator} offers, read from properties such as:
+ * <pre>
+ * arrivals-per-second=2000
+ * duration=PT60S
+ * concurrency=256
+ * accounts=100000
+ * max-tickets-per-purchase=6
+ * mix.ADULT=70
+ * mix.CHILD=20
+ * mix.INFANT=10
+ * invalid-ratio=0.05
+ * seed=42
+ * </pre>
+ * Every key is optional and defaults to the values above. {@code mix.*} are relative weights for the type of
+ * each ticket after the first, which is always an adult; {@code invalid-ratio} is the share of purchases that
+ * deliberately break one of the purchase rules.
+ * <p>
+ * Immutable Object
+ */
+public final class LoadProfile {
+    private final double arrivalsPerSecond;
+    private final Duration duration;
+    private final int concurrency;
+    private final int numberOfAccounts;
+    private final int maxTicketsPerPurchase;
+    private final int[] typeWeights;
+    private final double invalidRatio;
+    private final long seed;
+
+    private LoadProfile(
+            double arrivalsPerSecond,
+            Duration duration,
+            int concurrency,
+            int numberOfAccounts,
+            int maxTicketsPerPurchase,
+            int[] typeWeights,
+            double invalidRatio,
+            long seed) {
+        this.arrivalsPerSecond = arrivalsPerSecond;
+        this.duration = duration;
+        this.concurrency = concurrency;
+        this.numberOfAccounts = numberOfAccounts;
+        this.maxTicketsPerPurchase = maxTicketsPerPurchase;
+        this.typeWeights = typeWeights;
+        this.invalidRatio = invalidRatio;
+        this.seed = seed;
+    }
+
+    public static LoadProfile from(Properties configuration) {
+        if(configuration == null) {
+            throw new IllegalArgumentException("configuration cannot be null");
+        }
+
+        var arrivalsPerSecond = 2000d;
+        var duration = Duration.ofSeconds(60);
+        var concurrency = 256;
+        var numberOfAccounts = 100_000;
+        var maxTicketsPerPurchase = 6;
+        var typeWeights = new int[]{70, 20, 10};
+        var invalidRatio = 0.05;
+        var seed = 42L;
+
+        for (String key : configuration.stringPropertyNames()) {
+            var value = configuration.getProperty(key).trim();
+            try {
+                switch (key) {
+                    case "arrivals-per-second":
+                        arrivalsPerSecond = Double.parseDouble(value);
+                        require(arrivalsPerSecond > 0, "must be greater than 0");
+                        break;
+                    case "duration":
+                        duration = Duration.parse(value);
+                        require(!duration.isNegative() && !duration.isZero(), "must be greater than 0");
+                        break;
+                    case "concurrency":
+                        concurrency = Integer.parseInt(value);
+                        require(concurrency > 0, "must be greater than 0");
+                        break;
+                    case "accounts":
+                        numberOfAccounts = Integer.parseInt(value);
+                        require(numberOfAccounts > 0, "must be greater than 0");
+                        break;
+                    case "max-tickets-per-purchase":
+                        maxTicketsPerPurchase = Integer.parseInt(value);
+                        require(maxTicketsPerPurchase > 0, "must be greater than 0");
+                        break;
+                    case "invalid-ratio":
+                        invalidRatio = Double.parseDouble(value);
+                        require(invalidRatio >= 0 && invalidRatio <= 1, "must be between 0 and 1");
+                        break;
+                    case "seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    default:
+                        if(!key.startsWith("mix.")) {
+                            throw new IllegalArgumentException("Unknown load profile key: " + key);
+                        }
+                        var weight = Integer.parseInt(value);
+                        require(weight >= 0, "cannot be negative");
+                        typeWeights[TicketTypeRequest.Type.valueOf(key.substring("mix.".length())).ordinal()] = weight;
+                        break;
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid load profile entry " + key + "=" + value, e);
+            }
+        }
+
+        if(typeWeights[TicketTypeRequest.Type.ADULT.ordinal()] == 0) {
+            throw new IllegalArgumentException("mix.ADULT must be greater than 0");
+        }
+
+        return new LoadProfile(arrivalsPerSecond, duration, concurrency, numberOfAccounts, maxTicketsPerPurchase, typeWeights, invalidRatio, seed);
+    }
+
+    private static void require(boolean condition, String message) {
+        if(!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    public double getArrivalsPerSecond() {
+        return arrivalsPerSecond;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getNumberOfAccounts() {
+        return numberOfAccounts;
+    }
+
+    public int getMaxTicketsPerPurchase() {
+        return maxTicketsPerPurchase;
+    }
+
+    public int getTypeWeight(TicketTypeRequest.Type type) {
+        return typeWeights[type.ordinal()];
+    }
+
+    public double getInvalidRatio() {
+        return invalidRatio;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,99 @@
+package uk.gov.dwp.uc.pairtest.loadtest;
+
+import uk.gov.dwp.uc.pairtest.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Outcome of a {@link LoadGenerator} run. Latencies are in nanoseconds.
+ * <p>
+ * Immutable Object
+ */
+public final class LoadReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Duration elapsed;
+    private final long succeeded;
+    private final long rejected;
+    private final long failed;
+    private final LatencyHistogram.Snapshot responseTime;
+    private final LatencyHistogram.Snapshot serviceTime;
+
+    LoadReport(Duration elapsed, long succeeded, long rejected, long failed, LatencyHistogram.Snapshot responseTime, LatencyHistogram.Snapshot serviceTime) {
+        this.elapsed = elapsed;
+        this.succeeded = succeeded;
+        this.rejected = rejected;
+        this.failed = failed;
+        this.responseTime = responseTime;
+        this.serviceTime = serviceTime;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public long getNumberOfPurchases() {
+        return succeeded + rejected + failed;
+    }
+
+    public long getNumberOfSuccessfulPurchases() {
+        return succeeded;
+    }
+
+    /**
+     * Purchases turned down with an {@link uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException}.
+     */
+    public long getNumberOfRejectedPurchases() {
+        return rejected;
+    }
+
+    /**
+     * Purchases that failed with any other exception, such as a third party failure.
+     */
+    public long getNumberOfFailedPurchases() {
+        return failed;
+    }
+
+    public double getThroughputPerSecond() {
+        return getNumberOfPurchases() / (elapsed.toNanos() / 1e9);
+    }
+
+    /**
+     * Time from when each purchase was due to start until it finished, corrected for coordinated omission.
+     */
+    public LatencyHistogram.Snapshot getResponseTime() {
+        return responseTime;
+    }
+
+    /**
+     * Time each purchase spent inside the ticket service, which hides any time it spent waiting to be sent.
+     */
+    public LatencyHistogram.Snapshot getServiceTime() {
+        return serviceTime;
+    }
+
+    @Override
+    public String toString() {
+        var report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "purchases      %d in %.1fs (%d succeeded, %d rejected, %d failed)%n",
+                getNumberOfPurchases(), elapsed.toNanos() / 1e9, succeeded, rejected, failed));
+        report.append(String.format(Locale.ROOT, "throughput     %.1f/s%n", getThroughputPerSecond()));
+        report.append(String.format(Locale.ROOT, "%-14s", "latency (ms)"));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format(Locale.ROOT, "%10s", "p" + (percentile == (long) percentile ? String.valueOf((long) percentile) : String.valueOf(percentile))));
+        }
+        report.append(String.format(Locale.ROOT, "%10s%n", "max"));
+        appendRow(report, "response", responseTime);
+        appendRow(report, "service", serviceTime);
+        return report.toString();
+    }
+
+    private static void appendRow(StringBuilder report, String name, LatencyHistogram.Snapshot latency) {
+        report.append(String.format(Locale.ROOT, "%-14s", name));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format(Locale.ROOT, "%10.3f", latency.getValueAtPercentile(percentile) / 1e6));
+        }
+        report.append(String.format(Locale.ROOT, "%10.3f%n", latency.getMax() / 1e6));
+    }
+}
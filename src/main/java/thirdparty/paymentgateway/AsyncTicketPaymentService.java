@@ -0,0 +1,9 @@
+package thirdparty.paymentgateway;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncTicketPaymentService {
+
+    CompletableFuture<Void> makePayment(long accountId, int totalAmountToPay);
+
+}
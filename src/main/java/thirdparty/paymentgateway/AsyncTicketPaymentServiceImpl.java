@@ -0,0 +1,13 @@
+package thirdparty.paymentgateway;
+
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncTicketPaymentServiceImpl implements AsyncTicketPaymentService {
+
+    @Override
+    public CompletableFuture<Void> makePayment(long accountId, int totalAmountToPay) {
+        // Real implementation omitted, assume working code will take the payment without blocking the caller.
+        return CompletableFuture.completedFuture(null);
+    }
+
+}
@@ -0,0 +1,7 @@
+package thirdparty.paymentgateway;
+
+public interface BatchTicketPaymentService extends TicketPaymentService {
+
+    void makePayments(long[] accountIds, int[] totalAmountsToPay);
+
+}
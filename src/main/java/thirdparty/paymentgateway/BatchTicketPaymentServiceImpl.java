@@ -0,0 +1,10 @@
+package thirdparty.paymentgateway;
+
+public class BatchTicketPaymentServiceImpl extends TicketPaymentServiceImpl implements BatchTicketPaymentService {
+
+    @Override
+    public void makePayments(long[] accountIds, int[] totalAmountsToPay) {
+        // Real implementation omitted, assume working code will take all the payments in one call.
+    }
+
+}
@@ -0,0 +1,7 @@
+package thirdparty.paymentgateway;
+
+public interface RefundableTicketPaymentService extends TicketPaymentService {
+
+    void refundPayment(long accountId, int totalAmountToRefund);
+
+}
@@ -0,0 +1,10 @@
+package thirdparty.paymentgateway;
+
+public class RefundableTicketPaymentServiceImpl extends TicketPaymentServiceImpl implements RefundableTicketPaymentService {
+
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        // Real implementation omitted, assume working code will refund the payment to the card it was taken from.
+    }
+
+}
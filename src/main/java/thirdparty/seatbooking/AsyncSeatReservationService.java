@@ -0,0 +1,9 @@
+package thirdparty.seatbooking;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncSeatReservationService {
+
+    CompletableFuture<Void> reserveSeat(long accountId, int totalSeatsToAllocate);
+
+}
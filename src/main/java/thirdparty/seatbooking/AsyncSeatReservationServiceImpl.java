@@ -0,0 +1,13 @@
+package thirdparty.seatbooking;
+
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncSeatReservationServiceImpl implements AsyncSeatReservationService {
+
+    @Override
+    public CompletableFuture<Void> reserveSeat(long accountId, int totalSeatsToAllocate) {
+        // Real implementation omitted, assume working code will make the seat reservation without blocking the caller.
+        return CompletableFuture.completedFuture(null);
+    }
+
+}
@@ -0,0 +1,7 @@
+package thirdparty.seatbooking;
+
+public interface BatchSeatReservationService extends SeatReservationService {
+
+    void reserveSeats(long[] accountIds, int[] totalSeatsToAllocate);
+
+}
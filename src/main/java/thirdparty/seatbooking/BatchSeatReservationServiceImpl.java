@@ -0,0 +1,10 @@
+package thirdparty.seatbooking;
+
+public class BatchSeatReservationServiceImpl extends SeatReservationServiceImpl implements BatchSeatReservationService {
+
+    @Override
+    public void reserveSeats(long[] accountIds, int[] totalSeatsToAllocate) {
+        // Real implementation omitted, assume working code will make all the seat reservations in one call.
+    }
+
+}
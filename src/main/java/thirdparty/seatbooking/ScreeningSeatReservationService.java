@@ -0,0 +1,7 @@
+package thirdparty.seatbooking;
+
+public interface ScreeningSeatReservationService extends SeatReservationService {
+
+    void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate);
+
+}
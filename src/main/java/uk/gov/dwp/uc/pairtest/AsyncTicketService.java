@@ -0,0 +1,18 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncTicketService {
+
+    CompletableFuture<PurchaseResult> purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests);
+
+    /**
+     * Buys one order for its screening.
+     */
+    CompletableFuture<PurchaseResult> purchaseTickets(TicketPurchaseOrder ticketPurchaseOrder);
+
+}
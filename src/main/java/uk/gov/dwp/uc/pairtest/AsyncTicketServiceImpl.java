@@ -0,0 +1,215 @@
+package uk.gov.dwp.uc.pairtest;
+
+import thirdparty.paymentgateway.AsyncTicketPaymentService;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.AsyncSeatReservationService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.pricing.PriceTable;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+import uk.gov.dwp.uc.pairtest.rules.PurchaseRules;
+
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Non-blocking counterpart of {@link TicketServiceImpl}. Validation and pricing run on the configured executor
+ * and the seat reservation and payment are chained without holding a thread while the third parties respond.
+ * Invalid purchases complete normally with a failed {@link PurchaseResult}; third party failures complete the
+ * future exceptionally.
+ * <p>
+ * Purchases are checked against the same {@link PurchaseRules} as the blocking service when given them. The
+ * asynchronous seat service knows nothing of screenings, so an order's screening chooses its rules and prices
+ * only. An executor created by the service itself is shut down by {@link #close()}; one passed in is left to
+ * its owner.
+ */
+public class AsyncTicketServiceImpl implements AsyncTicketService, AutoCloseable {
+    private final AsyncSeatReservationService seatReservationService;
+    private final AsyncTicketPaymentService ticketPaymentService;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final PricingEngine pricingEngine;
+    private final Clock clock;
+    private final PurchaseRules rules;
+
+    public AsyncTicketServiceImpl(AsyncSeatReservationService seatReservationService, AsyncTicketPaymentService ticketPaymentService) {
+        this(seatReservationService, ticketPaymentService, newDefaultExecutor(), true, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseRules.STANDARD);
+    }
+
+    public AsyncTicketServiceImpl(AsyncSeatReservationService seatReservationService, AsyncTicketPaymentService ticketPaymentService, Executor executor) {
+        this(seatReservationService, ticketPaymentService, executor, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC());
+    }
+
+    public AsyncTicketServiceImpl(
+            AsyncSeatReservationService seatReservationService,
+            AsyncTicketPaymentService ticketPaymentService,
+            Executor executor,
+            PricingEngine pricingEngine,
+            Clock clock) {
+        this(seatReservationService, ticketPaymentService, executor, pricingEngine, clock, PurchaseRules.STANDARD);
+    }
+
+    public AsyncTicketServiceImpl(
+            AsyncSeatReservationService seatReservationService,
+            AsyncTicketPaymentService ticketPaymentService,
+            Executor executor,
+            PricingEngine pricingEngine,
+            Clock clock,
+            PurchaseRules rules) {
+        this(seatReservationService, ticketPaymentService, executor, false, pricingEngine, clock, rules);
+    }
+
+    /**
+     * Adapts the blocking third party services by running each call on {@code executor}.
+     */
+    public AsyncTicketServiceImpl(SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService, Executor executor) {
+        this(adapt(seatReservationService, executor), adapt(ticketPaymentService, executor), executor);
+    }
+
+    private AsyncTicketServiceImpl(
+            AsyncSeatReservationService seatReservationService,
+            AsyncTicketPaymentService ticketPaymentService,
+            Executor executor,
+            boolean ownsExecutor,
+            PricingEngine pricingEngine,
+            Clock clock,
+            PurchaseRules rules) {
+        if(executor == null) {
+            throw new IllegalArgumentException("executor cannot be null");
+        }
+
+        if(pricingEngine == null) {
+            throw new IllegalArgumentException("pricingEngine cannot be null");
+        }
+
+        if(clock == null) {
+            throw new IllegalArgumentException("clock cannot be null");
+        }
+
+        if(rules == null) {
+            throw new IllegalArgumentException("rules cannot be null");
+        }
+
+        this.seatReservationService = seatReservationService;
+        this.ticketPaymentService = ticketPaymentService;
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        this.pricingEngine = pricingEngine;
+        this.clock = clock;
+        this.rules = rules;
+    }
+
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        if(accountId == null) {
+            throw new IllegalArgumentException("accountId cannot be null");
+        }
+
+        if(ticketTypeRequests == null) {
+            throw new IllegalArgumentException("ticketTypeRequests cannot be null");
+        }
+
+        return purchaseTickets(new TicketPurchaseOrder(accountId, ticketTypeRequests));
+    }
+
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTickets(TicketPurchaseOrder ticketPurchaseOrder) {
+        if(ticketPurchaseOrder == null) {
+            throw new IllegalArgumentException("ticketPurchaseOrder cannot be null");
+        }
+
+        var screeningId = ticketPurchaseOrder.getScreeningId();
+        var accountId = ticketPurchaseOrder.getAccountId();
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    var ticketsRequest = new TicketPurchaseRequest(ticketPurchaseOrder.getTicketTypeRequests());
+                    rules.check(
+                            screeningId,
+                            accountId,
+                            ticketsRequest.getNumberOfAdultTickets(),
+                            ticketsRequest.getNumberOfChildTickets(),
+                            ticketsRequest.getNumberOfInfantTickets());
+                    return ticketsRequest;
+                }, executor)
+                .thenCompose(ticketsRequest -> {
+                    var numberOfTickets = ticketsRequest.getTotalNumberOfTickets();
+                    PurchaseResult pendingResult;
+                    try {
+                        var priceTable = pricingEngine.getPriceTable(screeningId, clock.millis());
+                        pendingResult = PurchaseResult.success(accountId, ticketsRequest.getNumberOfSeats(), ticketsRequest.getTotalPrice(priceTable));
+                    } catch (RuntimeException e) {
+                        rules.cancelPurchase(screeningId, accountId, numberOfTickets);
+                        throw e;
+                    }
+
+                    return seatReservationService
+                            .reserveSeat(accountId, pendingResult.getTotalSeatsReserved())
+                            .thenCompose(ignored -> ticketPaymentService.makePayment(accountId, pendingResult.getTotalAmountPaid()))
+                            .whenComplete((ignored, throwable) -> {
+                                if(throwable == null) {
+                                    rules.recordPurchase(screeningId, accountId, numberOfTickets);
+                                } else {
+                                    rules.cancelPurchase(screeningId, accountId, numberOfTickets);
+                                }
+                            })
+                            .thenApply(ignored -> pendingResult);
+                })
+                .handle((purchaseResult, throwable) -> {
+                    if(throwable == null) {
+                        return CompletableFuture.completedFuture(purchaseResult);
+                    }
+
+                    var cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    if(cause instanceof InvalidPurchaseException) {
+                        return CompletableFuture.completedFuture(PurchaseResult.failure(accountId, (InvalidPurchaseException) cause));
+                    }
+
+                    return CompletableFuture.<PurchaseResult>failedFuture(cause);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Shuts down the executor if this service created it, letting purchases already started finish.
+     */
+    @Override
+    public void close() {
+        if(ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private static AsyncSeatReservationService adapt(SeatReservationService seatReservationService, Executor executor) {
+        return (accountId, totalSeatsToAllocate) -> CompletableFuture.runAsync(
+                () -> seatReservationService.reserveSeat(accountId, totalSeatsToAllocate), executor);
+    }
+
+    private static AsyncTicketPaymentService adapt(TicketPaymentService ticketPaymentService, Executor executor) {
+        return (accountId, totalAmountToPay) -> CompletableFuture.runAsync(
+                () -> ticketPaymentService.makePayment(accountId, totalAmountToPay), executor);
+    }
+
+    /**
+     * Virtual threads when the runtime has them, otherwise a cached pool of daemon threads.
+     */
+    static ExecutorService newDefaultExecutor() {
+        try {
+            var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                var thread = new Thread(runnable, "async-ticket-service");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
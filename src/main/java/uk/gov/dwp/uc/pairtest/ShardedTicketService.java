@@ -0,0 +1,213 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches purchases onto a fixed number of single-threaded shards chosen by account. Every purchase for an
+ * account runs on the same thread, one after another in submission order, so per-account checks made by the
+ * underlying {@link TicketService} need no locking; different accounts spread over all the shards and run in
+ * parallel.
+ * <p>
+ * Each shard has a bounded queue. When it is full the caller waits up to {@code maxEnqueueWait} for space and
+ * then gets a failed {@link PurchaseResult} with {@link InvalidPurchaseException#ServiceUnavailable}, so a hot
+ * account or an overloaded node pushes back on its callers instead of queueing without limit.
+ * <p>
+ * Futures are completed on the shard thread; callers doing more than trivial work with the result should use
+ * the {@code ...Async} variants so the shard is not held up.
+ */
+public class ShardedTicketService implements AsyncTicketService, AutoCloseable {
+    private final TicketService ticketService;
+    private final Shard[] shards;
+    private final long maxEnqueueWaitNanos;
+    private volatile boolean closed;
+
+    public ShardedTicketService(TicketService ticketService) {
+        this(ticketService, Runtime.getRuntime().availableProcessors(), 1024, Duration.ZERO);
+    }
+
+    public ShardedTicketService(TicketService ticketService, int numberOfShards, int queueCapacityPerShard, Duration maxEnqueueWait) {
+        if(ticketService == null) {
+            throw new IllegalArgumentException("ticketService cannot be null");
+        }
+
+        if(numberOfShards <= 0) {
+            throw new IllegalArgumentException("numberOfShards must be greater than 0");
+        }
+
+        if(queueCapacityPerShard <= 0) {
+            throw new IllegalArgumentException("queueCapacityPerShard must be greater than 0");
+        }
+
+        if(maxEnqueueWait == null || maxEnqueueWait.isNegative()) {
+            throw new IllegalArgumentException("maxEnqueueWait cannot be null or negative");
+        }
+
+        this.ticketService = ticketService;
+        this.maxEnqueueWaitNanos = maxEnqueueWait.toNanos();
+        this.shards = new Shard[numberOfShards];
+        for (int shard = 0; shard < numberOfShards; shard++) {
+            shards[shard] = new Shard(shard, queueCapacityPerShard);
+        }
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        return purchaseTickets(new TicketPurchaseOrder(accountId, ticketTypeRequests));
+    }
+
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTickets(TicketPurchaseOrder ticketPurchaseOrder) {
+        if(ticketPurchaseOrder == null) {
+            throw new IllegalArgumentException("ticketPurchaseOrder cannot be null");
+        }
+
+        var purchase = new Purchase(ticketPurchaseOrder);
+        var shard = shards[shardFor(ticketPurchaseOrder.getAccountId())];
+
+        if(closed || !shard.offer(purchase, maxEnqueueWaitNanos)) {
+            purchase.reject();
+            return purchase.result;
+        }
+
+        if(closed && shard.queue.remove(purchase)) {
+            purchase.reject();
+        }
+        return purchase.result;
+    }
+
+    int shardFor(long accountId) {
+        // Murmur3 finaliser, so sequential account ids do not land on sequential shards
+        var hash = accountId;
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) Long.remainderUnsigned(hash, shards.length);
+    }
+
+    /**
+     * Stops accepting purchases, lets every shard finish what is already queued and waits for them to exit.
+     */
+    @Override
+    public synchronized void close() {
+        if(closed) {
+            return;
+        }
+
+        closed = true;
+        var interrupted = false;
+        for (Shard shard : shards) {
+            while (true) {
+                try {
+                    shard.queue.put(Purchase.SHUTDOWN);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+
+        for (Shard shard : shards) {
+            while (shard.thread.isAlive()) {
+                try {
+                    shard.thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+
+            Purchase purchase;
+            while ((purchase = shard.queue.poll()) != null) {
+                purchase.reject();
+            }
+        }
+
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(Purchase purchase) {
+        try {
+            purchase.result.complete(ticketService.purchaseTickets(purchase.order));
+        } catch (InvalidPurchaseException e) {
+            purchase.result.complete(PurchaseResult.failure(purchase.order.getAccountId(), e));
+        } catch (RuntimeException | Error e) {
+            purchase.result.completeExceptionally(e);
+        }
+    }
+
+    private final class Shard implements Runnable {
+        private final ArrayBlockingQueue<Purchase> queue;
+        private final Thread thread;
+
+        private Shard(int index, int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, "purchase-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private boolean offer(Purchase purchase, long maxWaitNanos) {
+            if(maxWaitNanos == 0) {
+                return queue.offer(purchase);
+            }
+
+            try {
+                return queue.offer(purchase, maxWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public void run() {
+            var batch = new ArrayList<Purchase>();
+            var shutdown = false;
+            while (!shutdown) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    continue;
+                }
+
+                // One lock acquisition for everything already waiting rather than one per purchase
+                queue.drainTo(batch);
+                for (Purchase purchase : batch) {
+                    if(purchase == Purchase.SHUTDOWN) {
+                        shutdown = true;
+                    } else {
+                        process(purchase);
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private static final class Purchase {
+        private static final Purchase SHUTDOWN = new Purchase(null);
+
+        private final TicketPurchaseOrder order;
+        private final CompletableFuture<PurchaseResult> result = new CompletableFuture<>();
+
+        private Purchase(TicketPurchaseOrder order) {
+            this.order = order;
+        }
+
+        private void reject() {
+            result.complete(PurchaseResult.failure(order.getAccountId(), InvalidPurchaseException.ServiceUnavailable));
+        }
+    }
+}
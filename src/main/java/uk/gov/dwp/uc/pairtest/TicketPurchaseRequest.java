@@ -0,0 +1,75 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.pricing.PriceTable;
+import uk.gov.dwp.uc.pairtest.rules.PurchaseRules;
+
+/**
+ * Totals of a single purchase by ticket type, checked against {@link PurchaseRules#STANDARD}.
+ * Shared by the blocking and asynchronous ticket services. The static overloads work on the raw counts
+ * so callers that already have them never allocate.
+ */
+class TicketPurchaseRequest {
+    private int numberOfAdultTickets;
+
+    private int numberOfChildTickets;
+
+    private int numberOfInfantTickets;
+
+    public TicketPurchaseRequest(TicketTypeRequest[] ticketTypeRequests) throws InvalidPurchaseException {
+        for (TicketTypeRequest ticketTypeRequest : ticketTypeRequests) {
+            switch (ticketTypeRequest.getTicketType())
+            {
+                case ADULT:
+                    numberOfAdultTickets += ticketTypeRequest.getNoOfTickets();
+                    break;
+                case CHILD:
+                    numberOfChildTickets += ticketTypeRequest.getNoOfTickets();
+                    break;
+                case INFANT:
+                    numberOfInfantTickets += ticketTypeRequest.getNoOfTickets();
+                    break;
+                default:
+                    throw new InvalidPurchaseException("Unknown ticket type: " + ticketTypeRequest.getTicketType());
+            }
+        }
+    }
+
+    public void validate() throws InvalidPurchaseException {
+        validate(numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+    }
+
+    public static void validate(int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) throws InvalidPurchaseException {
+        // The standard rules are the same for every screening and account
+        PurchaseRules.STANDARD.check(TicketService.DEFAULT_SCREENING_ID, 0L, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+    }
+
+    public int getNumberOfAdultTickets() {
+        return numberOfAdultTickets;
+    }
+
+    public int getNumberOfChildTickets() {
+        return numberOfChildTickets;
+    }
+
+    public int getNumberOfInfantTickets() {
+        return numberOfInfantTickets;
+    }
+
+    public int getTotalNumberOfTickets() {
+        return numberOfAdultTickets + numberOfChildTickets + numberOfInfantTickets;
+    }
+
+    public int getNumberOfSeats() {
+        return getNumberOfSeats(numberOfAdultTickets, numberOfChildTickets);
+    }
+
+    public int getTotalPrice(PriceTable priceTable) {
+        return priceTable.getTotalPrice(numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+    }
+
+    public static int getNumberOfSeats(int numberOfAdultTickets, int numberOfChildTickets) {
+        return numberOfAdultTickets + numberOfChildTickets;
+    }
+}
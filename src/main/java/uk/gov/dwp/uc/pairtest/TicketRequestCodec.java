@@ -0,0 +1,204 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a purchase request, read and written directly on a {@link ByteBuffer}.
+ * <pre>
+ * request := screeningId:varlong accountId:varlong entryCount:varint entry*
+ * entry   := ordinal:2 bits | count:6 bits [count - 63:varint when the 6 bits are all set]
+ * batch   := requestCount:varint request*
+ * </pre>
+ * Varints are unsigned LEB128: seven bits per byte, low bits first, high bit set on every byte but the last.
+ * A typical request for a small account id fits in five or six bytes.
+ * <p>
+ * Encoders write at the buffer's position and advance it, throwing {@link java.nio.BufferOverflowException} if
+ * the request does not fit. Decoders advance past what they read and throw {@link IllegalArgumentException}
+ * for malformed input. To check or purchase a request without allocating, read it in place with a
+ * {@link TicketRequestFlyweight} instead.
+ */
+public final class TicketRequestCodec {
+    static final TicketTypeRequest.Type[] TYPES = TicketTypeRequest.Type.values();
+    static final int COUNT_BITS = 6;
+    static final int INLINE_COUNT_LIMIT = (1 << COUNT_BITS) - 1;
+
+    private TicketRequestCodec() {
+    }
+
+    public static void encode(ByteBuffer buffer, long screeningId, long accountId, TicketTypeRequest... ticketTypeRequests) {
+        if(buffer == null) {
+            throw new IllegalArgumentException("buffer cannot be null");
+        }
+
+        if(ticketTypeRequests == null) {
+            throw new IllegalArgumentException("ticketTypeRequests cannot be null");
+        }
+
+        writeVarLong(buffer, screeningId);
+        writeVarLong(buffer, accountId);
+        writeVarLong(buffer, ticketTypeRequests.length);
+        for (TicketTypeRequest ticketTypeRequest : ticketTypeRequests) {
+            if(ticketTypeRequest == null) {
+                throw new IllegalArgumentException("ticketTypeRequests cannot contain null requests");
+            }
+
+            writeEntry(buffer, ticketTypeRequest.getTicketType(), ticketTypeRequest.getNoOfTickets());
+        }
+    }
+
+    /**
+     * Writes one entry per ticket type with a non-zero count, without building any {@link TicketTypeRequest}.
+     */
+    public static void encode(ByteBuffer buffer, long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) {
+        if(buffer == null) {
+            throw new IllegalArgumentException("buffer cannot be null");
+        }
+
+        if(numberOfAdultTickets < 0 || numberOfChildTickets < 0 || numberOfInfantTickets < 0) {
+            throw new IllegalArgumentException("number of tickets cannot be negative");
+        }
+
+        writeVarLong(buffer, screeningId);
+        writeVarLong(buffer, accountId);
+        writeVarLong(buffer, (numberOfAdultTickets > 0 ? 1 : 0) + (numberOfChildTickets > 0 ? 1 : 0) + (numberOfInfantTickets > 0 ? 1 : 0));
+        if(numberOfAdultTickets > 0) {
+            writeEntry(buffer, TicketTypeRequest.Type.ADULT, numberOfAdultTickets);
+        }
+        if(numberOfChildTickets > 0) {
+            writeEntry(buffer, TicketTypeRequest.Type.CHILD, numberOfChildTickets);
+        }
+        if(numberOfInfantTickets > 0) {
+            writeEntry(buffer, TicketTypeRequest.Type.INFANT, numberOfInfantTickets);
+        }
+    }
+
+    public static void encodeBatch(ByteBuffer buffer, List<TicketPurchaseOrder> ticketPurchaseOrders) {
+        if(buffer == null) {
+            throw new IllegalArgumentException("buffer cannot be null");
+        }
+
+        if(ticketPurchaseOrders == null) {
+            throw new IllegalArgumentException("ticketPurchaseOrders cannot be null");
+        }
+
+        writeVarLong(buffer, ticketPurchaseOrders.size());
+        for (TicketPurchaseOrder order : ticketPurchaseOrders) {
+            if(order == null) {
+                throw new IllegalArgumentException("ticketPurchaseOrders cannot contain null orders");
+            }
+
+            encode(buffer, order.getScreeningId(), order.getAccountId(), order.getTicketTypeRequests());
+        }
+    }
+
+    public static TicketPurchaseOrder decode(ByteBuffer buffer) {
+        if(buffer == null) {
+            throw new IllegalArgumentException("buffer cannot be null");
+        }
+
+        var screeningId = readVarLong(buffer);
+        var accountId = readVarLong(buffer);
+        var numberOfEntries = readCount(buffer);
+
+        // Every entry takes at least a byte, so a corrupt count cannot make us allocate more than the input
+        if(numberOfEntries > buffer.remaining()) {
+            throw new IllegalArgumentException("malformed ticket request: truncated");
+        }
+
+        var ticketTypeRequests = new TicketTypeRequest[numberOfEntries];
+        for (int entry = 0; entry < numberOfEntries; entry++) {
+            var header = readByte(buffer);
+            var count = header & INLINE_COUNT_LIMIT;
+            if(count == INLINE_COUNT_LIMIT) {
+                count = addCount(count, readCount(buffer));
+            }
+
+            if(count == 0) {
+                throw new IllegalArgumentException("malformed ticket request: empty entry");
+            }
+            ticketTypeRequests[entry] = new TicketTypeRequest(readType(header), count);
+        }
+        return new TicketPurchaseOrder(screeningId, accountId, ticketTypeRequests);
+    }
+
+    public static List<TicketPurchaseOrder> decodeBatch(ByteBuffer buffer) {
+        if(buffer == null) {
+            throw new IllegalArgumentException("buffer cannot be null");
+        }
+
+        var numberOfRequests = readCount(buffer);
+        // Every request takes at least three bytes
+        var orders = new ArrayList<TicketPurchaseOrder>(Math.min(numberOfRequests, buffer.remaining() / 3));
+        for (int request = 0; request < numberOfRequests; request++) {
+            orders.add(decode(buffer));
+        }
+        return orders;
+    }
+
+    private static void writeEntry(ByteBuffer buffer, TicketTypeRequest.Type type, int count) {
+        var header = type.ordinal() << COUNT_BITS;
+        if(count < INLINE_COUNT_LIMIT) {
+            buffer.put((byte) (header | count));
+            return;
+        }
+
+        buffer.put((byte) (header | INLINE_COUNT_LIMIT));
+        writeVarLong(buffer, count - INLINE_COUNT_LIMIT);
+    }
+
+    static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        var value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            var b = readByte(buffer);
+            value |= (long) (b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed ticket request: varint too long");
+    }
+
+    private static int readCount(ByteBuffer buffer) {
+        return toCount(readVarLong(buffer));
+    }
+
+    private static int readByte(ByteBuffer buffer) {
+        if(!buffer.hasRemaining()) {
+            throw new IllegalArgumentException("malformed ticket request: truncated");
+        }
+        return buffer.get();
+    }
+
+    static int toCount(long count) {
+        if(count < 0 || count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("malformed ticket request: count out of range");
+        }
+        return (int) count;
+    }
+
+    static int addCount(int inline, int extra) {
+        var count = (long) inline + extra;
+        return count > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) count;
+    }
+
+    static TicketTypeRequest.Type readType(int header) {
+        var ordinal = (header & 0xFF) >>> COUNT_BITS;
+        if(ordinal >= TYPES.length) {
+            throw new IllegalArgumentException("malformed ticket request: unknown ticket type " + ordinal);
+        }
+        return TYPES[ordinal];
+    }
+}
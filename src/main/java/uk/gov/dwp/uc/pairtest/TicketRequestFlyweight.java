@@ -0,0 +1,156 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.rules.PurchaseRules;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable view of one request in {@link TicketRequestCodec} form, read in place. {@link #wrap} parses the
+ * request with absolute reads, leaving the buffer's position alone, and keeps only the per-type totals, so a
+ * gateway can validate and forward millions of requests through one instance without creating any objects.
+ * <p>
+ * Not thread-safe; give each thread its own.
+ */
+public class TicketRequestFlyweight {
+    private ByteBuffer buffer;
+    private int offset;
+    private int cursor;
+    private long screeningId;
+    private long accountId;
+    private int numberOfAdultTickets;
+    private int numberOfChildTickets;
+    private int numberOfInfantTickets;
+
+    /**
+     * Points this view at the request starting at {@code offset}.
+     *
+     * @throws IllegalArgumentException if the request is malformed or runs past the buffer's limit
+     */
+    public TicketRequestFlyweight wrap(ByteBuffer buffer, int offset) {
+        if(buffer == null) {
+            throw new IllegalArgumentException("buffer cannot be null");
+        }
+
+        if(offset < 0 || offset > buffer.limit()) {
+            throw new IllegalArgumentException("offset must be within the buffer");
+        }
+
+        this.buffer = buffer;
+        this.offset = offset;
+        this.cursor = offset;
+        this.numberOfAdultTickets = 0;
+        this.numberOfChildTickets = 0;
+        this.numberOfInfantTickets = 0;
+
+        screeningId = readVarLong();
+        accountId = readVarLong();
+        var numberOfEntries = TicketRequestCodec.toCount(readVarLong());
+        for (int entry = 0; entry < numberOfEntries; entry++) {
+            var header = readByte();
+            var count = header & TicketRequestCodec.INLINE_COUNT_LIMIT;
+            if(count == TicketRequestCodec.INLINE_COUNT_LIMIT) {
+                count = TicketRequestCodec.addCount(count, TicketRequestCodec.toCount(readVarLong()));
+            }
+
+            if(count == 0) {
+                throw new IllegalArgumentException("malformed ticket request: empty entry");
+            }
+
+            switch (TicketRequestCodec.readType(header)) {
+                case ADULT:
+                    numberOfAdultTickets = TicketRequestCodec.addCount(numberOfAdultTickets, count);
+                    break;
+                case CHILD:
+                    numberOfChildTickets = TicketRequestCodec.addCount(numberOfChildTickets, count);
+                    break;
+                default:
+                    numberOfInfantTickets = TicketRequestCodec.addCount(numberOfInfantTickets, count);
+            }
+        }
+        return this;
+    }
+
+    public long getScreeningId() {
+        return screeningId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getNumberOfTickets(TicketTypeRequest.Type type) {
+        switch (type) {
+            case ADULT:
+                return numberOfAdultTickets;
+            case CHILD:
+                return numberOfChildTickets;
+            default:
+                return numberOfInfantTickets;
+        }
+    }
+
+    public int getNumberOfSeats() {
+        return TicketPurchaseRequest.getNumberOfSeats(numberOfAdultTickets, numberOfChildTickets);
+    }
+
+    /**
+     * Bytes taken by the wrapped request; the next request in a batch starts this far past the current one.
+     */
+    public int getEncodedLength() {
+        return cursor - offset;
+    }
+
+    /**
+     * Applies the standard per-transaction limits, as {@link PurchaseRules#STANDARD} does, without building any
+     * {@link TicketTypeRequest}. A {@link TicketService} configured with other rules may still reject the request;
+     * use {@link #validate(PurchaseRules)} to check against those.
+     */
+    public void validate() throws InvalidPurchaseException {
+        TicketPurchaseRequest.validate(numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+    }
+
+    /**
+     * Checks the wrapped request against {@code rules} for its screening and account. Rules that count across
+     * transactions may reserve the purchase as they would for a {@link TicketService}, so the caller then owes
+     * them {@link PurchaseRules#recordPurchase} or {@link PurchaseRules#cancelPurchase}.
+     */
+    public void validate(PurchaseRules rules) throws InvalidPurchaseException {
+        if(rules == null) {
+            throw new IllegalArgumentException("rules cannot be null");
+        }
+
+        rules.check(screeningId, accountId, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+    }
+
+    /**
+     * Purchases the wrapped request through the primitive screening entry point.
+     */
+    public void purchase(TicketService ticketService) throws InvalidPurchaseException {
+        if(ticketService == null) {
+            throw new IllegalArgumentException("ticketService cannot be null");
+        }
+
+        ticketService.purchaseTickets(screeningId, accountId, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+    }
+
+    private long readVarLong() {
+        var value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            var b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed ticket request: varint too long");
+    }
+
+    private int readByte() {
+        if(cursor >= buffer.limit()) {
+            throw new IllegalArgumentException("malformed ticket request: truncated");
+        }
+        return buffer.get(cursor++);
+    }
+}
@@ -1,10 +1,32 @@
 package uk.gov.dwp.uc.pairtest;
 
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
 
+import java.util.List;
+
 public interface TicketService {
 
+    long DEFAULT_SCREENING_ID = 0L;
+
     void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException;
 
+    void purchaseTickets(long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) throws InvalidPurchaseException;
+
+    void purchaseTickets(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) throws InvalidPurchaseException;
+
+    /**
+     * Buys one order for its screening, reporting a rejected purchase as a failed {@link PurchaseResult} rather
+     * than throwing.
+     */
+    PurchaseResult purchaseTickets(TicketPurchaseOrder ticketPurchaseOrder);
+
+    /**
+     * Buys each order independently. Every order gets its own result in the same position, and an order that
+     * cannot be completed is undone before it is reported, whatever happens to the others.
+     */
+    List<PurchaseResult> purchaseTicketsBatch(List<TicketPurchaseOrder> ticketPurchaseOrders);
+
 }
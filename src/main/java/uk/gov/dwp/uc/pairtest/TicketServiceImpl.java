@@ -1,22 +1,103 @@
 package uk.gov.dwp.uc.pairtest;
 
+import thirdparty.paymentgateway.BatchTicketPaymentService;
+import thirdparty.paymentgateway.RefundableTicketPaymentService;
 import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.BatchSeatReservationService;
+import thirdparty.seatbooking.ScreeningSeatReservationService;
 import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatHold;
+import uk.gov.dwp.uc.pairtest.inventory.SeatHoldService;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseRecord;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.pricing.PriceTable;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+import uk.gov.dwp.uc.pairtest.rules.PurchaseRules;
 
-public class TicketServiceImpl implements TicketService {
-    private final int MAX_TICKETS_PER_TRANSACTION = 20;
-    private final int ADULT_TICKET_PRICE = 20;
-    private final int CHILD_TICKET_PRICE = 10;
-    private final int INFANT_TICKET_PRICE = 0;
+import java.time.Clock;
+import java.util.List;
 
+public class TicketServiceImpl implements TicketService {
     private final SeatReservationService seatReservationService;
     private final TicketPaymentService ticketPaymentService;
+    private final PricingEngine pricingEngine;
+    private final Clock clock;
+    private final PurchaseMetrics metrics;
+    private final boolean timed;
+    private final PurchaseJournal journal;
+    private final boolean journaled;
+    private final PurchaseRules rules;
 
     public TicketServiceImpl(SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService) {
+        this(seatReservationService, ticketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC());
+    }
+
+    public TicketServiceImpl(SeatReservationService seatReservationService, TicketPaymentService ticketPaymentService, PricingEngine pricingEngine, Clock clock) {
+        this(seatReservationService, ticketPaymentService, pricingEngine, clock, PurchaseMetrics.NOOP);
+    }
+
+    public TicketServiceImpl(
+            SeatReservationService seatReservationService,
+            TicketPaymentService ticketPaymentService,
+            PricingEngine pricingEngine,
+            Clock clock,
+            PurchaseMetrics metrics) {
+        this(seatReservationService, ticketPaymentService, pricingEngine, clock, metrics, PurchaseJournal.NOOP);
+    }
+
+    public TicketServiceImpl(
+            SeatReservationService seatReservationService,
+            TicketPaymentService ticketPaymentService,
+            PricingEngine pricingEngine,
+            Clock clock,
+            PurchaseMetrics metrics,
+            PurchaseJournal journal) {
+        this(seatReservationService, ticketPaymentService, pricingEngine, clock, metrics, journal, PurchaseRules.STANDARD);
+    }
+
+    public TicketServiceImpl(
+            SeatReservationService seatReservationService,
+            TicketPaymentService ticketPaymentService,
+            PricingEngine pricingEngine,
+            Clock clock,
+            PurchaseMetrics metrics,
+            PurchaseJournal journal,
+            PurchaseRules rules) {
+        if(pricingEngine == null) {
+            throw new IllegalArgumentException("pricingEngine cannot be null");
+        }
+
+        if(clock == null) {
+            throw new IllegalArgumentException("clock cannot be null");
+        }
+
+        if(metrics == null) {
+            throw new IllegalArgumentException("metrics cannot be null");
+        }
+
+        if(journal == null) {
+            throw new IllegalArgumentException("journal cannot be null");
+        }
+
+        if(rules == null) {
+            throw new IllegalArgumentException("rules cannot be null");
+        }
+
         this.seatReservationService = seatReservationService;
         this.ticketPaymentService = ticketPaymentService;
+        this.pricingEngine = pricingEngine;
+        this.clock = clock;
+        this.metrics = metrics;
+        // Skip the clock reads entirely when nothing is listening
+        this.timed = metrics != PurchaseMetrics.NOOP;
+        this.journal = journal;
+        this.journaled = journal != PurchaseJournal.NOOP;
+        this.rules = rules;
     }
 
     @Override
@@ -30,82 +111,468 @@ public class TicketServiceImpl implements TicketService {
         }
 
         var ticketsRequest = new TicketPurchaseRequest(ticketTypeRequests);
-        validateTicketPurchaseRequest(ticketsRequest);
+        purchaseTickets(
+                accountId.longValue(),
+                ticketsRequest.getNumberOfAdultTickets(),
+                ticketsRequest.getNumberOfChildTickets(),
+                ticketsRequest.getNumberOfInfantTickets());
+    }
 
-        // Ideally this would be wrapped in a transaction
-        seatReservationService.reserveSeat(accountId, getNumberOfSeats(ticketsRequest));
-        ticketPaymentService.makePayment(accountId, getTotalPrice(ticketsRequest));
+    @Override
+    public void purchaseTickets(long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) throws InvalidPurchaseException {
+        purchaseTickets(DEFAULT_SCREENING_ID, accountId, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+    }
+
+    @Override
+    public void purchaseTickets(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) throws InvalidPurchaseException {
+        purchase(screeningId, accountId, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
     }
 
-    private void validateTicketPurchaseRequest(TicketPurchaseRequest ticketPurchaseRequest) throws InvalidPurchaseException {
-        if(ticketPurchaseRequest.getTotalNumberOfTickets() == 0) {
-            throw InvalidPurchaseException.NoTickets;
+    @Override
+    public PurchaseResult purchaseTickets(TicketPurchaseOrder ticketPurchaseOrder) {
+        if(ticketPurchaseOrder == null) {
+            throw new IllegalArgumentException("ticketPurchaseOrder cannot be null");
         }
 
-        if(ticketPurchaseRequest.getTotalNumberOfTickets() > MAX_TICKETS_PER_TRANSACTION) {
-            throw InvalidPurchaseException.TooManyTickets;
+        var ticketsRequest = new TicketPurchaseRequest(ticketPurchaseOrder.getTicketTypeRequests());
+        try {
+            var totalAmountPaid = purchase(
+                    ticketPurchaseOrder.getScreeningId(),
+                    ticketPurchaseOrder.getAccountId(),
+                    ticketsRequest.getNumberOfAdultTickets(),
+                    ticketsRequest.getNumberOfChildTickets(),
+                    ticketsRequest.getNumberOfInfantTickets());
+            return PurchaseResult.success(ticketPurchaseOrder.getAccountId(), ticketsRequest.getNumberOfSeats(), totalAmountPaid);
+        } catch (InvalidPurchaseException e) {
+            return PurchaseResult.failure(ticketPurchaseOrder.getAccountId(), e);
         }
+    }
 
-        if(ticketPurchaseRequest.getNumberOfInfantTickets() > ticketPurchaseRequest.getNumberOfAdultTickets()) {
-            throw InvalidPurchaseException.TooManyInfantTickets;
+    /**
+     * Each order is sold on its own screening through the same hold, payment and confirmation steps as a single
+     * purchase. When the payment service takes batches, the orders that got their seats are paid for in one call
+     * and then confirmed one by one; otherwise each order is bought in turn. An order that fails for a reason
+     * other than an {@link InvalidPurchaseException} has been undone by the time it is reported as
+     * {@link InvalidPurchaseException#ServiceUnavailable}, so the other orders' results are never lost.
+     */
+    @Override
+    public List<PurchaseResult> purchaseTicketsBatch(List<TicketPurchaseOrder> ticketPurchaseOrders) {
+        if(ticketPurchaseOrders == null) {
+            throw new IllegalArgumentException("ticketPurchaseOrders cannot be null");
         }
 
-        if(ticketPurchaseRequest.getNumberOfChildTickets() > 0 && ticketPurchaseRequest.getNumberOfAdultTickets() == 0) {
-            throw InvalidPurchaseException.TooManyChildTickets;
+        for (TicketPurchaseOrder order : ticketPurchaseOrders) {
+            if(order == null) {
+                throw new IllegalArgumentException("ticketPurchaseOrders cannot contain null orders");
+            }
+        }
+
+        if(ticketPaymentService instanceof BatchTicketPaymentService && ticketPurchaseOrders.size() > 1) {
+            return purchaseWithBatchPayment(ticketPurchaseOrders);
         }
+
+        var results = new PurchaseResult[ticketPurchaseOrders.size()];
+        for (int i = 0; i < results.length; i++) {
+            var order = ticketPurchaseOrders.get(i);
+            try {
+                results[i] = purchaseTickets(order);
+            } catch (RuntimeException e) {
+                results[i] = PurchaseResult.failure(order.getAccountId(), InvalidPurchaseException.ServiceUnavailable);
+            }
+        }
+        return List.of(results);
     }
 
-    private static int getNumberOfSeats(TicketPurchaseRequest ticketPurchaseRequest)
-    {
-        return ticketPurchaseRequest.getNumberOfAdultTickets() + ticketPurchaseRequest.getNumberOfChildTickets();
+    /**
+     * The single purchase is kept on primitive locals rather than a {@link Sale}, so that with the default
+     * services it allocates nothing.
+     */
+    private int purchase(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) {
+        try {
+            var validationStarted = startTimer();
+            rules.check(screeningId, accountId, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+            metrics.recordValidationLatency(elapsedSince(validationStarted));
+
+            var numberOfTickets = numberOfAdultTickets + numberOfChildTickets + numberOfInfantTickets;
+            var totalSeatsToAllocate = TicketPurchaseRequest.getNumberOfSeats(numberOfAdultTickets, numberOfChildTickets);
+            int totalAmountToPay;
+            PurchaseRecord purchase = null;
+            SeatHold unconfirmedHold = null;
+            var amountPaid = 0;
+            try {
+                var priceTable = pricingEngine.getPriceTable(screeningId, clock.millis());
+                totalAmountToPay = priceTable.getTotalPrice(numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+                if(journaled) {
+                    purchase = journal.accept(screeningId, accountId, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets, totalAmountToPay);
+                }
+
+                unconfirmedHold = reserveSeats(screeningId, accountId, totalSeatsToAllocate);
+                recordSeatsReserved(purchase);
+                makePayment(accountId, totalAmountToPay);
+                amountPaid = totalAmountToPay;
+                if(unconfirmedHold != null) {
+                    record(purchase, PurchaseRecord.State.PAID);
+                    ((SeatHoldService) seatReservationService).confirm(unconfirmedHold);
+                    unconfirmedHold = null;
+                }
+                record(purchase, PurchaseRecord.State.COMPLETED);
+            } catch (RuntimeException e) {
+                throw abort(screeningId, accountId, numberOfTickets, purchase, unconfirmedHold, amountPaid, e);
+            }
+
+            rules.recordPurchase(screeningId, accountId, numberOfTickets);
+            metrics.recordTicketsSold(numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+            return totalAmountToPay;
+        } catch (InvalidPurchaseException e) {
+            metrics.recordInvalidPurchase(e);
+            throw e;
+        }
     }
 
-    private int getTotalPrice(TicketPurchaseRequest ticketPurchaseRequest)
-    {
-        return (ticketPurchaseRequest.getNumberOfAdultTickets() * ADULT_TICKET_PRICE) +
-                (ticketPurchaseRequest.getNumberOfChildTickets() * CHILD_TICKET_PRICE) +
-                (ticketPurchaseRequest.getNumberOfInfantTickets() * INFANT_TICKET_PRICE);
+    private List<PurchaseResult> purchaseWithBatchPayment(List<TicketPurchaseOrder> ticketPurchaseOrders) {
+        var results = new PurchaseResult[ticketPurchaseOrders.size()];
+        var sales = new Sale[results.length];
+        var numberOfSales = 0;
+
+        for (int i = 0; i < results.length; i++) {
+            var order = ticketPurchaseOrders.get(i);
+            Sale sale;
+            try {
+                var ticketsRequest = new TicketPurchaseRequest(order.getTicketTypeRequests());
+                sale = accept(
+                        order.getScreeningId(),
+                        order.getAccountId(),
+                        ticketsRequest.getNumberOfAdultTickets(),
+                        ticketsRequest.getNumberOfChildTickets(),
+                        ticketsRequest.getNumberOfInfantTickets());
+            } catch (RuntimeException e) {
+                results[i] = failure(order.getAccountId(), e);
+                continue;
+            }
+            sale.index = i;
+            sales[numberOfSales++] = sale;
+        }
+
+        numberOfSales = reserveSeats(sales, numberOfSales, results);
+        if(numberOfSales == 0) {
+            return List.of(results);
+        }
+
+        if(journaled) {
+            try {
+                for (int i = 0; i < numberOfSales; i++) {
+                    journal.record(sales[i].purchase, PurchaseRecord.State.SEATS_RESERVED);
+                }
+                journal.sync();
+            } catch (RuntimeException e) {
+                // Nothing is paid for yet, so every sale can still be undone
+                for (int i = 0; i < numberOfSales; i++) {
+                    fail(sales[i], abort(sales[i], e), results);
+                }
+                return List.of(results);
+            }
+        }
+
+        numberOfSales = makePayments(sales, numberOfSales, results);
+        for (int i = 0; i < numberOfSales; i++) {
+            var sale = sales[i];
+            try {
+                complete(sale);
+            } catch (RuntimeException e) {
+                fail(sale, abort(sale, e), results);
+                continue;
+            }
+
+            rules.recordPurchase(sale.screeningId, sale.accountId, sale.getNumberOfTickets());
+            metrics.recordTicketsSold(sale.numberOfAdultTickets, sale.numberOfChildTickets, sale.numberOfInfantTickets);
+            results[sale.index] = PurchaseResult.success(sale.accountId, sale.totalSeatsToAllocate, sale.totalAmountToPay);
+        }
+        return List.of(results);
     }
 
-    private static class TicketPurchaseRequest {
-        public TicketPurchaseRequest(TicketTypeRequest[] ticketTypeRequests) throws InvalidPurchaseException {
-            for (TicketTypeRequest ticketTypeRequest : ticketTypeRequests) {
-                switch (ticketTypeRequest.getTicketType())
-                {
-                    case ADULT:
-                        numberOfAdultTickets += ticketTypeRequest.getNoOfTickets();
-                        break;
-                    case CHILD:
-                        numberOfChildTickets += ticketTypeRequest.getNoOfTickets();
-                        break;
-                    case INFANT:
-                        numberOfInfantTickets += ticketTypeRequest.getNoOfTickets();
-                        break;
-                    default:
-                        throw new InvalidPurchaseException("Unknown ticket type: " + ticketTypeRequest.getTicketType());
+    /**
+     * Checks the rules, prices the purchase and journals it as accepted. Rules that count purchases have counted
+     * this one from the check on, so a failure to price or journal it gives the count back here and every later
+     * failure has to go through {@link #abort}.
+     */
+    private Sale accept(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) {
+        var validationStarted = startTimer();
+        rules.check(screeningId, accountId, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+        metrics.recordValidationLatency(elapsedSince(validationStarted));
+
+        try {
+            var priceTable = pricingEngine.getPriceTable(screeningId, clock.millis());
+            var sale = new Sale(
+                    screeningId,
+                    accountId,
+                    numberOfAdultTickets,
+                    numberOfChildTickets,
+                    numberOfInfantTickets,
+                    priceTable.getTotalPrice(numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets));
+            if(journaled) {
+                sale.purchase = journal.accept(screeningId, accountId, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets, sale.totalAmountToPay);
+            }
+            return sale;
+        } catch (RuntimeException e) {
+            rules.cancelPurchase(screeningId, accountId, numberOfAdultTickets + numberOfChildTickets + numberOfInfantTickets);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the seat hold to confirm once the payment is taken, or null if the seats were reserved outright.
+     */
+    private SeatHold reserveSeats(long screeningId, long accountId, int totalSeatsToAllocate) {
+        var reservationStarted = startTimer();
+        SeatHold seatHold = null;
+        if(seatReservationService instanceof SeatHoldService) {
+            seatHold = ((SeatHoldService) seatReservationService).hold(screeningId, accountId, totalSeatsToAllocate);
+        } else if(seatReservationService instanceof ScreeningSeatReservationService) {
+            // Without a SeatHoldService there is no way to give the seats back if the payment fails
+            ((ScreeningSeatReservationService) seatReservationService).reserveSeat(screeningId, accountId, totalSeatsToAllocate);
+        } else {
+            seatReservationService.reserveSeat(accountId, totalSeatsToAllocate);
+        }
+        metrics.recordSeatReservationLatency(elapsedSince(reservationStarted));
+        return seatHold;
+    }
+
+    /**
+     * Gets seats for each sale, returning how many did with those sales moved to the front. A batch seat service
+     * that knows nothing of screenings is asked once; it reserves all or none, so when it refuses, each sale is
+     * tried on its own to find the ones that cannot be seated.
+     */
+    private int reserveSeats(Sale[] sales, int numberOfSales, PurchaseResult[] results) {
+        if(numberOfSales > 1
+                && seatReservationService instanceof BatchSeatReservationService
+                && !(seatReservationService instanceof ScreeningSeatReservationService)) {
+            var accountIds = new long[numberOfSales];
+            var totalSeatsToAllocate = new int[numberOfSales];
+            for (int i = 0; i < numberOfSales; i++) {
+                accountIds[i] = sales[i].accountId;
+                totalSeatsToAllocate[i] = sales[i].totalSeatsToAllocate;
+            }
+
+            var reservationStarted = startTimer();
+            try {
+                ((BatchSeatReservationService) seatReservationService).reserveSeats(accountIds, totalSeatsToAllocate);
+                return numberOfSales;
+            } catch (InvalidPurchaseException e) {
+                // Nothing was reserved, fall through and find out which sales can be seated
+            } catch (RuntimeException e) {
+                for (int i = 0; i < numberOfSales; i++) {
+                    fail(sales[i], abort(sales[i], e), results);
                 }
+                return 0;
+            } finally {
+                metrics.recordSeatReservationLatency(elapsedSince(reservationStarted));
+            }
+        }
+
+        var numberSeated = 0;
+        for (int i = 0; i < numberOfSales; i++) {
+            var sale = sales[i];
+            try {
+                sale.seatHold = reserveSeats(sale.screeningId, sale.accountId, sale.totalSeatsToAllocate);
+                sales[numberSeated++] = sale;
+            } catch (RuntimeException e) {
+                fail(sale, abort(sale, e), results);
+            }
+        }
+        return numberSeated;
+    }
+
+    /**
+     * Pays for every sale in one call, returning how many were paid with those sales moved to the front. The batch
+     * payment is all or none, so when it is refused each sale is paid for on its own to find the ones that
+     * cannot be.
+     */
+    private int makePayments(Sale[] sales, int numberOfSales, PurchaseResult[] results) {
+        var accountIds = new long[numberOfSales];
+        var totalAmountsToPay = new int[numberOfSales];
+        for (int i = 0; i < numberOfSales; i++) {
+            accountIds[i] = sales[i].accountId;
+            totalAmountsToPay[i] = sales[i].totalAmountToPay;
+        }
+
+        var paymentStarted = startTimer();
+        try {
+            ((BatchTicketPaymentService) ticketPaymentService).makePayments(accountIds, totalAmountsToPay);
+            return numberOfSales;
+        } catch (InvalidPurchaseException e) {
+            // Nothing was taken, fall through and find out which sales can be paid for
+        } catch (RuntimeException e) {
+            for (int i = 0; i < numberOfSales; i++) {
+                fail(sales[i], abort(sales[i], e), results);
+            }
+            return 0;
+        } finally {
+            metrics.recordPaymentLatency(elapsedSince(paymentStarted));
+        }
+
+        var numberPaid = 0;
+        for (int i = 0; i < numberOfSales; i++) {
+            var sale = sales[i];
+            try {
+                makePayment(sale.accountId, sale.totalAmountToPay);
+                sales[numberPaid++] = sale;
+            } catch (RuntimeException e) {
+                fail(sale, abort(sale, e), results);
+            }
+        }
+        return numberPaid;
+    }
+
+    /**
+     * Called once the payment has been taken.
+     */
+    private void complete(Sale sale) {
+        sale.paid = true;
+        if(sale.seatHold != null) {
+            record(sale.purchase, PurchaseRecord.State.PAID);
+
+            // If the hold expired during a slow payment and the seats have since sold, this throws HoldExpired after
+            // the payment was taken, and abort has to refund it
+            ((SeatHoldService) seatReservationService).confirm(sale.seatHold);
+            sale.seatsConfirmed = true;
+        }
+        record(sale.purchase, PurchaseRecord.State.COMPLETED);
+    }
+
+    private RuntimeException abort(Sale sale, RuntimeException cause) {
+        return abort(
+                sale.screeningId,
+                sale.accountId,
+                sale.getNumberOfTickets(),
+                sale.purchase,
+                sale.seatsConfirmed ? null : sale.seatHold,
+                sale.paid ? sale.totalAmountToPay : 0,
+                cause);
+    }
+
+    /**
+     * Undoes whatever of the purchase has happened, giving back held seats, the payment and anything the rules
+     * counted, and returns the failure to report for it. A payment that was taken but cannot be refunded is still
+     * owed to the customer, so the purchase stays counted by the rules, is journaled as
+     * {@link PurchaseRecord.State#REFUND_REQUIRED} for recovery to hand back and is reported as
+     * {@link InvalidPurchaseException#RefundPending} instead of {@code cause}.
+     */
+    private RuntimeException abort(
+            long screeningId,
+            long accountId,
+            int numberOfTickets,
+            PurchaseRecord purchase,
+            SeatHold unconfirmedHold,
+            int amountPaid,
+            RuntimeException cause) {
+        if(unconfirmedHold != null) {
+            ((SeatHoldService) seatReservationService).release(unconfirmedHold);
+        }
+
+        if(amountPaid > 0 && !refund(accountId, amountPaid)) {
+            if(purchase != null) {
+                journal.record(purchase, PurchaseRecord.State.REFUND_REQUIRED);
+                journal.sync();
             }
+            return InvalidPurchaseException.RefundPending;
         }
 
-        private int numberOfAdultTickets;
+        rules.cancelPurchase(screeningId, accountId, numberOfTickets);
+        try {
+            record(purchase, PurchaseRecord.State.ABORTED);
+        } catch (RuntimeException e) {
+            // Everything is already given back; recovery finds the purchase still open and settles it
+        }
+        return cause;
+    }
 
-        private int numberOfChildTickets;
+    private boolean refund(long accountId, int amountPaid) {
+        if(!(ticketPaymentService instanceof RefundableTicketPaymentService)) {
+            return false;
+        }
 
-        private int numberOfInfantTickets;
+        try {
+            ((RefundableTicketPaymentService) ticketPaymentService).refundPayment(accountId, amountPaid);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private void fail(Sale sale, RuntimeException e, PurchaseResult[] results) {
+        results[sale.index] = failure(sale.accountId, e);
+    }
 
-        public int getNumberOfAdultTickets() {
-            return numberOfAdultTickets;
+    private PurchaseResult failure(long accountId, RuntimeException e) {
+        if(e instanceof InvalidPurchaseException) {
+            metrics.recordInvalidPurchase((InvalidPurchaseException) e);
+            return PurchaseResult.failure(accountId, (InvalidPurchaseException) e);
         }
+        return PurchaseResult.failure(accountId, InvalidPurchaseException.ServiceUnavailable);
+    }
+
+    private void makePayment(long accountId, int totalAmountToPay) {
+        var paymentStarted = startTimer();
+        try {
+            ticketPaymentService.makePayment(accountId, totalAmountToPay);
+        } finally {
+            metrics.recordPaymentLatency(elapsedSince(paymentStarted));
+        }
+    }
+
+    /**
+     * Forced to disk before the payment is taken, so that after a crash a payment that might have gone through
+     * is always found by recovery.
+     */
+    private void recordSeatsReserved(PurchaseRecord purchase) {
+        if(purchase != null) {
+            journal.record(purchase, PurchaseRecord.State.SEATS_RESERVED);
+            journal.sync();
+        }
+    }
 
-        public int getNumberOfChildTickets() {
-            return numberOfChildTickets;
+    private void record(PurchaseRecord purchase, PurchaseRecord.State state) {
+        if(purchase != null) {
+            journal.record(purchase, state);
         }
+    }
+
+    private long startTimer() {
+        return timed ? System.nanoTime() : 0L;
+    }
+
+    private long elapsedSince(long started) {
+        return timed ? System.nanoTime() - started : 0L;
+    }
+
+    /**
+     * One order of a batch on its way through the seat and payment services.
+     */
+    private static final class Sale {
+        private final long screeningId;
+        private final long accountId;
+        private final int numberOfAdultTickets;
+        private final int numberOfChildTickets;
+        private final int numberOfInfantTickets;
+        private final int totalSeatsToAllocate;
+        private final int totalAmountToPay;
+        private PurchaseRecord purchase;
+        private SeatHold seatHold;
+        private boolean paid;
+        private boolean seatsConfirmed;
+        private int index;
 
-        public int getNumberOfInfantTickets() {
-            return numberOfInfantTickets;
+        private Sale(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets, int totalAmountToPay) {
+            this.screeningId = screeningId;
+            this.accountId = accountId;
+            this.numberOfAdultTickets = numberOfAdultTickets;
+            this.numberOfChildTickets = numberOfChildTickets;
+            this.numberOfInfantTickets = numberOfInfantTickets;
+            this.totalSeatsToAllocate = TicketPurchaseRequest.getNumberOfSeats(numberOfAdultTickets, numberOfChildTickets);
+            this.totalAmountToPay = totalAmountToPay;
         }
 
-        public int getTotalNumberOfTickets() {
+        private int getNumberOfTickets() {
             return numberOfAdultTickets + numberOfChildTickets + numberOfInfantTickets;
         }
     }
@@ -0,0 +1,231 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Admission layer in front of a {@link TicketService}. Every purchase is charged against the account's
+ * {@link TokenBucketRateLimiter} and rejected with {@link InvalidPurchaseException#TooManyRequests} once the
+ * bucket is empty.
+ * <p>
+ * Purchases made with an idempotency key are also remembered in a bounded LRU cache for {@code idempotencyKeyTtl}
+ * after they were last seen. A retry with the same account and key gets the original {@link PurchaseResult}
+ * back without reserving or charging again, and without spending a token; a retry that arrives while the
+ * original is still in flight waits for it. Only definitive outcomes are remembered: a success, or a rejection
+ * that retrying cannot change. A purchase that failed with an unexpected exception, was rate limited, or failed
+ * with {@link InvalidPurchaseException#ServiceUnavailable} or another "try again later" failure can be retried
+ * with the same key. Reusing a key for a different order while the first is remembered throws
+ * {@link IllegalArgumentException} rather than handing back the first order's result.
+ */
+public class AdmissionControlledTicketService implements TicketService {
+    private final TicketService ticketService;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final BoundedLruCache<IdempotencyKey, Purchase> purchases;
+
+    public AdmissionControlledTicketService(
+            TicketService ticketService,
+            TokenBucketRateLimiter rateLimiter,
+            int maximumIdempotencyKeys,
+            Duration idempotencyKeyTtl,
+            Clock clock) {
+        if(ticketService == null) {
+            throw new IllegalArgumentException("ticketService cannot be null");
+        }
+
+        if(rateLimiter == null) {
+            throw new IllegalArgumentException("rateLimiter cannot be null");
+        }
+
+        if(idempotencyKeyTtl == null) {
+            throw new IllegalArgumentException("idempotencyKeyTtl cannot be null");
+        }
+
+        this.ticketService = ticketService;
+        this.rateLimiter = rateLimiter;
+        this.purchases = new BoundedLruCache<>(maximumIdempotencyKeys, idempotencyKeyTtl.toMillis(), clock);
+    }
+
+    public PurchaseResult purchaseTickets(String idempotencyKey, Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        if(idempotencyKey == null) {
+            throw new IllegalArgumentException("idempotencyKey cannot be null");
+        }
+
+        var order = new TicketPurchaseOrder(accountId, ticketTypeRequests);
+        var key = new IdempotencyKey(accountId, idempotencyKey);
+
+        var previous = purchases.get(key);
+        if(previous != null) {
+            return previous.await(order, idempotencyKey);
+        }
+
+        if(!rateLimiter.tryAcquire(accountId)) {
+            return PurchaseResult.failure(accountId, InvalidPurchaseException.TooManyRequests);
+        }
+
+        var pending = new Purchase(order);
+        var existing = purchases.computeIfAbsent(key, k -> pending);
+        if(existing != pending) {
+            return existing.await(order, idempotencyKey);
+        }
+
+        try {
+            var result = ticketService.purchaseTickets(order);
+            if(!isDefinitive(result)) {
+                purchases.remove(key, pending);
+            }
+            pending.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            purchases.remove(key, pending);
+            pending.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        if(accountId == null) {
+            throw new IllegalArgumentException("accountId cannot be null");
+        }
+
+        admit(accountId);
+        ticketService.purchaseTickets(accountId, ticketTypeRequests);
+    }
+
+    @Override
+    public void purchaseTickets(long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) throws InvalidPurchaseException {
+        admit(accountId);
+        ticketService.purchaseTickets(accountId, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+    }
+
+    @Override
+    public void purchaseTickets(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) throws InvalidPurchaseException {
+        admit(accountId);
+        ticketService.purchaseTickets(screeningId, accountId, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+    }
+
+    @Override
+    public PurchaseResult purchaseTickets(TicketPurchaseOrder ticketPurchaseOrder) {
+        if(ticketPurchaseOrder == null) {
+            throw new IllegalArgumentException("ticketPurchaseOrder cannot be null");
+        }
+
+        if(!rateLimiter.tryAcquire(ticketPurchaseOrder.getAccountId())) {
+            return PurchaseResult.failure(ticketPurchaseOrder.getAccountId(), InvalidPurchaseException.TooManyRequests);
+        }
+        return ticketService.purchaseTickets(ticketPurchaseOrder);
+    }
+
+    @Override
+    public List<PurchaseResult> purchaseTicketsBatch(List<TicketPurchaseOrder> ticketPurchaseOrders) {
+        if(ticketPurchaseOrders == null) {
+            throw new IllegalArgumentException("ticketPurchaseOrders cannot be null");
+        }
+
+        var results = new PurchaseResult[ticketPurchaseOrders.size()];
+        var admittedOrders = new ArrayList<TicketPurchaseOrder>(results.length);
+        var admittedIndexes = new int[results.length];
+        for (int i = 0; i < results.length; i++) {
+            var order = ticketPurchaseOrders.get(i);
+            if(order == null) {
+                throw new IllegalArgumentException("ticketPurchaseOrders cannot contain null orders");
+            }
+
+            if(rateLimiter.tryAcquire(order.getAccountId())) {
+                admittedIndexes[admittedOrders.size()] = i;
+                admittedOrders.add(order);
+            } else {
+                results[i] = PurchaseResult.failure(order.getAccountId(), InvalidPurchaseException.TooManyRequests);
+            }
+        }
+
+        if(!admittedOrders.isEmpty()) {
+            var admittedResults = ticketService.purchaseTicketsBatch(admittedOrders);
+            for (int i = 0; i < admittedResults.size(); i++) {
+                results[admittedIndexes[i]] = admittedResults.get(i);
+            }
+        }
+
+        return List.of(results);
+    }
+
+    private void admit(long accountId) {
+        if(!rateLimiter.tryAcquire(accountId)) {
+            throw InvalidPurchaseException.TooManyRequests;
+        }
+    }
+
+    /**
+     * False for failures that say nothing about the purchase itself and may well succeed if tried again.
+     */
+    private static boolean isDefinitive(PurchaseResult result) {
+        var failure = result.getFailure();
+        return failure != InvalidPurchaseException.ServiceUnavailable
+                && failure != InvalidPurchaseException.TooManyRequests
+                && failure != InvalidPurchaseException.QuotaExceeded
+                && failure != InvalidPurchaseException.HoldExpired;
+    }
+
+    private static final class Purchase {
+        private final TicketPurchaseOrder order;
+        private final CompletableFuture<PurchaseResult> result = new CompletableFuture<>();
+
+        private Purchase(TicketPurchaseOrder order) {
+            this.order = order;
+        }
+
+        private PurchaseResult await(TicketPurchaseOrder retriedOrder, String idempotencyKey) {
+            if(!PurchaseOrders.isSameOrder(order, retriedOrder)) {
+                throw new IllegalArgumentException("idempotencyKey " + idempotencyKey + " was already used for a different order");
+            }
+
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if(e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static final class IdempotencyKey {
+        private final long accountId;
+        private final String key;
+
+        private IdempotencyKey(long accountId, String key) {
+            this.accountId = accountId;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) {
+                return true;
+            }
+
+            if(!(o instanceof IdempotencyKey)) {
+                return false;
+            }
+
+            var other = (IdempotencyKey) o;
+            return accountId == other.accountId && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(accountId) + key.hashCode();
+        }
+    }
+}
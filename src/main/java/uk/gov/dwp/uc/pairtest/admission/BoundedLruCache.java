@@ -0,0 +1,131 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Size- and idle-time-bounded map split into independently locked segments. Each segment is an access-ordered
+ * {@link LinkedHashMap}, so lookups, inserts and evictions are O(1), and threads working on different keys
+ * usually take different locks. Entries not touched for {@code maxIdleMillis} are dropped when next seen or
+ * when they reach the eldest end of their segment.
+ */
+class BoundedLruCache<K, V> {
+    private final Segment<K, V>[] segments;
+    private final int mask;
+    private final long maxIdleMillis;
+    private final Clock clock;
+
+    @SuppressWarnings("unchecked")
+    BoundedLruCache(int maximumSize, long maxIdleMillis, Clock clock) {
+        if(maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be greater than 0");
+        }
+
+        if(maxIdleMillis <= 0) {
+            throw new IllegalArgumentException("maxIdleMillis must be greater than 0");
+        }
+
+        var numberOfSegments = Math.min(64, Integer.highestOneBit(maximumSize));
+        this.segments = new Segment[numberOfSegments];
+        for (int segment = 0; segment < numberOfSegments; segment++) {
+            segments[segment] = new Segment<>(Math.max(1, maximumSize / numberOfSegments), maxIdleMillis);
+        }
+        this.mask = numberOfSegments - 1;
+        this.maxIdleMillis = maxIdleMillis;
+        this.clock = clock;
+    }
+
+    V get(K key) {
+        var segment = segmentFor(key);
+        var now = clock.millis();
+        synchronized (segment) {
+            var entry = segment.get(key);
+            if(entry == null) {
+                return null;
+            }
+
+            if(isExpired(entry, now)) {
+                segment.remove(key);
+                return null;
+            }
+
+            entry.lastAccessMillis = now;
+            return entry.value;
+        }
+    }
+
+    V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        var segment = segmentFor(key);
+        var now = clock.millis();
+        synchronized (segment) {
+            var entry = segment.get(key);
+            if(entry != null && !isExpired(entry, now)) {
+                entry.lastAccessMillis = now;
+                return entry.value;
+            }
+
+            var value = mappingFunction.apply(key);
+            segment.now = now;
+            segment.put(key, new Entry<>(value, now));
+            return value;
+        }
+    }
+
+    void remove(K key, V value) {
+        var segment = segmentFor(key);
+        synchronized (segment) {
+            var entry = segment.get(key);
+            if(entry != null && entry.value == value) {
+                segment.remove(key);
+            }
+        }
+    }
+
+    int size() {
+        var size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        var hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return now - entry.lastAccessMillis >= maxIdleMillis;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private long lastAccessMillis;
+
+        private Entry(V value, long lastAccessMillis) {
+            this.value = value;
+            this.lastAccessMillis = lastAccessMillis;
+        }
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+        private final int maximumSize;
+        private final long maxIdleMillis;
+        private long now;
+
+        private Segment(int maximumSize, long maxIdleMillis) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+            this.maxIdleMillis = maxIdleMillis;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            return size() > maximumSize || now - eldest.getValue().lastAccessMillis >= maxIdleMillis;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unbounded multi-producer, single-consumer queue of linked nodes. {@link #offer} is a compare-and-set of the
+ * tail and one ordered write; it never blocks, and only retries when another producer moved the tail first.
+ * {@link #poll} must only ever be called from one thread.
+ * <p>
+ * Every node carries its sequence number, one more than the node it is linked after, and it is set before the
+ * node becomes the tail. The sequence {@link #offer} returns is therefore exactly the number of elements
+ * offered ahead of this one, in the order {@link #poll} will return them.
+ * <p>
+ * A producer links its node just after moving the tail, so for that moment the consumer can see the queue
+ * end early and {@link #poll} returns null although an element has been offered. Callers that need to know
+ * the queue is really empty have to count elements themselves.
+ */
+final class MpscLinkedQueue<E> {
+    private final AtomicReference<Node<E>> tail;
+    private Node<E> head;
+
+    MpscLinkedQueue() {
+        var stub = new Node<E>(null);
+        stub.sequence = -1;
+        this.head = stub;
+        this.tail = new AtomicReference<>(stub);
+    }
+
+    long offer(E value) {
+        var node = new Node<>(value);
+        while (true) {
+            var previous = tail.get();
+            node.sequence = previous.sequence + 1;
+            if(tail.compareAndSet(previous, node)) {
+                previous.lazySet(node);
+                return node.sequence;
+            }
+        }
+    }
+
+    /**
+     * How many elements have ever been offered, including any still being linked in. Safe to call from any
+     * thread.
+     */
+    long getNumberOffered() {
+        return tail.get().sequence + 1;
+    }
+
+    E poll() {
+        var next = head.get();
+        if(next == null) {
+            return null;
+        }
+
+        var value = next.value;
+        // The polled node becomes the new stub, so drop its value for the garbage collector
+        next.value = null;
+        head = next;
+        return value;
+    }
+
+    private static final class Node<E> extends AtomicReference<Node<E>> {
+        private E value;
+        // Written before the node is published as the tail, so any thread that reads the tail sees it
+        private long sequence;
+
+        private Node(E value) {
+            this.value = value;
+        }
+    }
+}
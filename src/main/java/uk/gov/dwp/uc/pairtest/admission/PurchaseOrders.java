@@ -0,0 +1,36 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+
+/**
+ * Comparisons between orders, for telling a retry of the same purchase from a different purchase made under the
+ * same account or key.
+ */
+final class PurchaseOrders {
+    private PurchaseOrders() {
+    }
+
+    /**
+     * True if both orders are for the same account and screening with the same ticket type requests in the same
+     * order.
+     */
+    static boolean isSameOrder(TicketPurchaseOrder first, TicketPurchaseOrder second) {
+        if(first.getAccountId() != second.getAccountId() || first.getScreeningId() != second.getScreeningId()) {
+            return false;
+        }
+
+        var firstRequests = first.getTicketTypeRequests();
+        var secondRequests = second.getTicketTypeRequests();
+        if(firstRequests.length != secondRequests.length) {
+            return false;
+        }
+
+        for (int i = 0; i < firstRequests.length; i++) {
+            if(firstRequests[i].getTicketType() != secondRequests[i].getTicketType()
+                    || firstRequests[i].getNoOfTickets() != secondRequests[i].getNoOfTickets()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import java.time.Clock;
+
+/**
+ * Per-account token buckets. Each account may burst up to {@code capacity} purchases and then makes
+ * {@code refillPerSecond} more per second.
+ * <p>
+ * Buckets live in a {@link BoundedLruCache}. A bucket left idle long enough to refill completely carries no
+ * information, so it is allowed to be evicted after that long; under memory pressure the least recently seen
+ * accounts lose their bucket first and simply start again from full.
+ */
+public class TokenBucketRateLimiter {
+    private final long capacity;
+    private final double refillPerMilli;
+    private final Clock clock;
+    private final BoundedLruCache<Long, Bucket> buckets;
+
+    public TokenBucketRateLimiter(long capacity, double refillPerSecond, int maximumAccounts, Clock clock) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+
+        if(!(refillPerSecond > 0)) {
+            throw new IllegalArgumentException("refillPerSecond must be greater than 0");
+        }
+
+        if(clock == null) {
+            throw new IllegalArgumentException("clock cannot be null");
+        }
+
+        this.capacity = capacity;
+        this.refillPerMilli = refillPerSecond / 1000;
+        this.clock = clock;
+        var timeToRefillMillis = (long) Math.ceil(capacity / refillPerMilli);
+        this.buckets = new BoundedLruCache<>(maximumAccounts, Math.max(1, timeToRefillMillis), clock);
+    }
+
+    public boolean tryAcquire(long accountId) {
+        var now = clock.millis();
+        var bucket = buckets.computeIfAbsent(accountId, id -> new Bucket(capacity, now));
+        synchronized (bucket) {
+            var elapsed = Math.max(0, now - bucket.lastRefillMillis);
+            bucket.tokens = Math.min(capacity, bucket.tokens + elapsed * refillPerMilli);
+            bucket.lastRefillMillis = Math.max(bucket.lastRefillMillis, now);
+            if(bucket.tokens < 1) {
+                return false;
+            }
+
+            bucket.tokens -= 1;
+            return true;
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefillMillis;
+
+        private Bucket(double tokens, long lastRefillMillis) {
+            this.tokens = tokens;
+            this.lastRefillMillis = lastRefillMillis;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import uk.gov.dwp.uc.pairtest.AsyncTicketService;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Virtual waiting room in front of a {@link TicketService}, for on-sales where far more people arrive at once
+ * than the service can take. Every purchase joins the queue for its account's tier and is admitted one at a
+ * time, at no more than {@code admitsPerSecond} and with no more than {@code maxConcurrentPurchases} purchases
+ * running at once, so the service sees a steady flow however big the surge.
+ * <p>
+ * Admission is first come, first served within a tier, and tier 0 goes first: a lower tier is only admitted
+ * while every higher tier is empty, so members can be put ahead of the general sale. An account holds at most
+ * one place. Joining again with the same order while it is still waiting returns the place it already has, so
+ * retrying never gets anyone further forward and an early arrival is never overtaken by someone retrying faster.
+ * Joining with a different order while waiting is not queued and fails straight away with
+ * {@link InvalidPurchaseException#TooManyRequests}, leaving the original place as it was.
+ * <p>
+ * Each tier is an {@link MpscLinkedQueue} read only by the room's dispatcher thread, so joining is a few atomic
+ * operations however many clients are waiting. When {@code maximumWaiting} purchases are already waiting, or
+ * the room is closed, the purchase fails straight away with {@link InvalidPurchaseException#ServiceUnavailable}.
+ */
+public class WaitingRoom implements AsyncTicketService, AutoCloseable {
+    private final TicketService ticketService;
+    private final long admitIntervalNanos;
+    private final LongToIntFunction tierOf;
+    private final long maximumWaiting;
+    private final MpscLinkedQueue<Place>[] queues;
+    private final AtomicLong[] admittedCounts;
+    private final AtomicLong waiting = new AtomicLong();
+    private final ConcurrentHashMap<Long, Place> waitingAccounts = new ConcurrentHashMap<>();
+    private final Semaphore purchaseSlots;
+    private final ExecutorService executor;
+    private final Thread dispatcher;
+    private volatile boolean idle;
+    private volatile boolean closed;
+
+    public WaitingRoom(TicketService ticketService, double admitsPerSecond) {
+        this(ticketService, admitsPerSecond, Runtime.getRuntime().availableProcessors(), 1, accountId -> 0, 10_000_000);
+    }
+
+    @SuppressWarnings("unchecked")
+    public WaitingRoom(
+            TicketService ticketService,
+            double admitsPerSecond,
+            int maxConcurrentPurchases,
+            int numberOfTiers,
+            LongToIntFunction tierOf,
+            long maximumWaiting) {
+        if(ticketService == null) {
+            throw new IllegalArgumentException("ticketService cannot be null");
+        }
+
+        if(!(admitsPerSecond > 0)) {
+            throw new IllegalArgumentException("admitsPerSecond must be greater than 0");
+        }
+
+        if(maxConcurrentPurchases <= 0) {
+            throw new IllegalArgumentException("maxConcurrentPurchases must be greater than 0");
+        }
+
+        if(numberOfTiers <= 0) {
+            throw new IllegalArgumentException("numberOfTiers must be greater than 0");
+        }
+
+        if(tierOf == null) {
+            throw new IllegalArgumentException("tierOf cannot be null");
+        }
+
+        if(maximumWaiting <= 0) {
+            throw new IllegalArgumentException("maximumWaiting must be greater than 0");
+        }
+
+        this.ticketService = ticketService;
+        this.admitIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / admitsPerSecond));
+        this.tierOf = tierOf;
+        this.maximumWaiting = maximumWaiting;
+        this.queues = new MpscLinkedQueue[numberOfTiers];
+        this.admittedCounts = new AtomicLong[numberOfTiers];
+        for (int tier = 0; tier < numberOfTiers; tier++) {
+            queues[tier] = new MpscLinkedQueue<>();
+            admittedCounts[tier] = new AtomicLong();
+        }
+        this.purchaseSlots = new Semaphore(maxConcurrentPurchases);
+
+        var threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrentPurchases, runnable -> {
+            var thread = new Thread(runnable, "waiting-room-purchase-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = new Thread(this::dispatch, "waiting-room-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        return join(accountId, ticketTypeRequests).getResult();
+    }
+
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTickets(TicketPurchaseOrder ticketPurchaseOrder) {
+        return join(ticketPurchaseOrder).getResult();
+    }
+
+    public Place join(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        return join(new TicketPurchaseOrder(accountId, ticketTypeRequests));
+    }
+
+    public Place join(TicketPurchaseOrder ticketPurchaseOrder) {
+        if(ticketPurchaseOrder == null) {
+            throw new IllegalArgumentException("ticketPurchaseOrder cannot be null");
+        }
+
+        var order = ticketPurchaseOrder;
+        var accountId = order.getAccountId();
+        var tier = tierOf.applyAsInt(accountId);
+        if(tier < 0 || tier >= queues.length) {
+            throw new IllegalArgumentException("tier " + tier + " for account " + accountId + " does not exist");
+        }
+
+        var place = new Place(order, tier);
+        var existing = waitingAccounts.putIfAbsent(accountId, place);
+        if(existing != null) {
+            if(PurchaseOrders.isSameOrder(existing.order, order)) {
+                return existing;
+            }
+
+            place.reject(InvalidPurchaseException.TooManyRequests);
+            return place;
+        }
+
+        // Counted before the closed check, so close() knows to wait for this place if it gets queued
+        if(waiting.incrementAndGet() > maximumWaiting || closed) {
+            waiting.decrementAndGet();
+            waitingAccounts.remove(accountId, place);
+            place.reject(InvalidPurchaseException.ServiceUnavailable);
+            return place;
+        }
+
+        // Taken from the queue itself, so it matches the order the dispatcher will admit in
+        place.sequence = queues[tier].offer(place);
+        if(idle) {
+            LockSupport.unpark(dispatcher);
+        }
+        return place;
+    }
+
+    public long getNumberOfWaiting() {
+        return waiting.get();
+    }
+
+    /**
+     * Stops accepting purchases, fails everything still waiting with
+     * {@link InvalidPurchaseException#ServiceUnavailable} and lets purchases already admitted finish.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(dispatcher);
+
+        var interrupted = false;
+        while (dispatcher.isAlive()) {
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        executor.shutdown();
+
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch() {
+        var nextAdmitNanos = System.nanoTime();
+        while (!closed) {
+            var untilNextAdmit = nextAdmitNanos - System.nanoTime();
+            if(untilNextAdmit > 0) {
+                LockSupport.parkNanos(untilNextAdmit);
+                continue;
+            }
+
+            if(!acquirePurchaseSlot()) {
+                continue;
+            }
+
+            var place = pollHighestTier();
+            if(place == null) {
+                purchaseSlots.release();
+                awaitPlaces();
+                continue;
+            }
+
+            // No credit builds up while the room is empty, so the first arrivals after a lull are still paced
+            nextAdmitNanos = Math.max(nextAdmitNanos, System.nanoTime()) + admitIntervalNanos;
+            admit(place);
+        }
+
+        // Keep draining until every counted place has been seen, including ones still being linked in
+        while (waiting.get() > 0) {
+            var place = pollHighestTier();
+            if(place == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            waitingAccounts.remove(place.order.getAccountId(), place);
+            place.reject(InvalidPurchaseException.ServiceUnavailable);
+        }
+    }
+
+    private boolean acquirePurchaseSlot() {
+        try {
+            return purchaseSlots.tryAcquire(1, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private Place pollHighestTier() {
+        for (int tier = 0; tier < queues.length; tier++) {
+            var place = queues[tier].poll();
+            if(place != null) {
+                waiting.decrementAndGet();
+                admittedCounts[tier].lazySet(admittedCounts[tier].get() + 1);
+                return place;
+            }
+        }
+        return null;
+    }
+
+    private void awaitPlaces() {
+        // A place counted but not yet linked in is a moment away, so spin for it rather than park
+        if(waiting.get() > 0) {
+            Thread.onSpinWait();
+            return;
+        }
+
+        idle = true;
+        // Checked again after setting idle, so a joiner either sees idle and unparks us or is seen here
+        if(waiting.get() == 0 && !closed) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        idle = false;
+    }
+
+    private void admit(Place place) {
+        waitingAccounts.remove(place.order.getAccountId(), place);
+        place.admitted = true;
+        executor.execute(() -> {
+            try {
+                place.result.complete(ticketService.purchaseTickets(place.order));
+            } catch (InvalidPurchaseException e) {
+                place.result.complete(PurchaseResult.failure(place.order.getAccountId(), e));
+            } catch (RuntimeException | Error e) {
+                place.result.completeExceptionally(e);
+            } finally {
+                purchaseSlots.release();
+            }
+        });
+    }
+
+    /**
+     * One account's place in the waiting room. The position is how many purchases will be admitted before this
+     * one if nobody else joins a higher tier, and the estimated wait assumes they are admitted at the full
+     * admit rate, so both are best estimates rather than promises; they fall to zero once the purchase has
+     * been admitted.
+     */
+    public final class Place {
+        private final TicketPurchaseOrder order;
+        private final int tier;
+        private final CompletableFuture<PurchaseResult> result = new CompletableFuture<>();
+        // -1 until the place has been linked into its queue
+        private volatile long sequence = -1;
+        private volatile boolean admitted;
+
+        private Place(TicketPurchaseOrder order, int tier) {
+            this.order = order;
+            this.tier = tier;
+        }
+
+        public CompletableFuture<PurchaseResult> getResult() {
+            return result;
+        }
+
+        public int getTier() {
+            return tier;
+        }
+
+        public boolean isAdmitted() {
+            return admitted;
+        }
+
+        public long getPosition() {
+            if(admitted || result.isDone()) {
+                return 0;
+            }
+
+            var ahead = sequence >= 0 ? sequence : queues[tier].getNumberOffered();
+            var position = Math.max(0, ahead - admittedCounts[tier].get());
+            for (int higherTier = 0; higherTier < tier; higherTier++) {
+                position += Math.max(0, queues[higherTier].getNumberOffered() - admittedCounts[higherTier].get());
+            }
+            return position;
+        }
+
+        public Duration getEstimatedWait() {
+            return Duration.ofNanos(getPosition() * admitIntervalNanos);
+        }
+
+        private void reject(InvalidPurchaseException failure) {
+            result.complete(PurchaseResult.failure(order.getAccountId(), failure));
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports group bookings from a CSV file of {@code accountId,adults,children,infants} rows, with an optional
+ * header line. Rows are read a chunk at a time and each chunk is handed to a worker thread, which buys its rows
+ * one by one through {@link TicketService#purchaseTickets(TicketPurchaseOrder)}. Every row is checked against
+ * the same rules as a single purchase and gets its own outcome, so a purchase that fails outright never takes
+ * the rest of its chunk with it.
+ * <p>
+ * At most {@code parallelism * 2} chunks are read ahead of the results being written, which bounds memory
+ * however long the file is. Results are written in input order as
+ * {@code line,accountId,status,seats,amount,reason}, where status is {@link Status#SUCCESS},
+ * {@link Status#REJECTED} with the {@link uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException} reason,
+ * {@link Status#MALFORMED} for rows that could not be read, or {@link Status#FAILED} for rows whose purchase
+ * failed outright.
+ */
+public class BulkBookingImporter {
+    public enum Status {
+        SUCCESS,
+        REJECTED,
+        MALFORMED,
+        FAILED
+    }
+
+    private static final Status[] STATUSES = Status.values();
+    static final String RESULTS_HEADER = "line,accountId,status,seats,amount,reason";
+
+    private final TicketService ticketService;
+    private final int parallelism;
+    private final int rowsPerChunk;
+
+    public BulkBookingImporter(TicketService ticketService) {
+        this(ticketService, Runtime.getRuntime().availableProcessors(), 1000);
+    }
+
+    public BulkBookingImporter(TicketService ticketService, int parallelism, int rowsPerChunk) {
+        if(ticketService == null) {
+            throw new IllegalArgumentException("ticketService cannot be null");
+        }
+
+        if(parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be greater than 0");
+        }
+
+        if(rowsPerChunk <= 0) {
+            throw new IllegalArgumentException("rowsPerChunk must be greater than 0");
+        }
+
+        this.ticketService = ticketService;
+        this.parallelism = parallelism;
+        this.rowsPerChunk = rowsPerChunk;
+    }
+
+    public BulkImportSummary importBookings(Path bookings, Path results) throws IOException {
+        if(bookings == null) {
+            throw new IllegalArgumentException("bookings cannot be null");
+        }
+
+        if(results == null) {
+            throw new IllegalArgumentException("results cannot be null");
+        }
+
+        var threadNumber = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            var thread = new Thread(runnable, "bulk-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (var reader = Files.newBufferedReader(bookings, StandardCharsets.UTF_8);
+             var writer = Files.newBufferedWriter(results, StandardCharsets.UTF_8)) {
+            return importBookings(reader, writer, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BulkImportSummary importBookings(BufferedReader reader, BufferedWriter writer, ExecutorService executor) throws IOException {
+        var statusCounts = new long[STATUSES.length];
+        var inFlight = new ArrayDeque<Future<ChunkResult>>();
+        var maxInFlight = parallelism * 2;
+
+        writer.write(RESULTS_HEADER);
+        writer.newLine();
+
+        var lineNumber = 0;
+        var chunk = new Chunk(rowsPerChunk);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if(line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                continue;
+            }
+
+            chunk.add(lineNumber, line);
+            if(chunk.isFull()) {
+                var full = chunk;
+                inFlight.add(executor.submit(() -> process(full)));
+                chunk = new Chunk(rowsPerChunk);
+
+                if(inFlight.size() >= maxInFlight) {
+                    write(inFlight.remove(), writer, statusCounts);
+                }
+            }
+        }
+
+        if(!chunk.isEmpty()) {
+            var last = chunk;
+            inFlight.add(executor.submit(() -> process(last)));
+        }
+
+        while (!inFlight.isEmpty()) {
+            write(inFlight.remove(), writer, statusCounts);
+        }
+        return new BulkImportSummary(
+                statusCounts[Status.SUCCESS.ordinal()],
+                statusCounts[Status.REJECTED.ordinal()],
+                statusCounts[Status.MALFORMED.ordinal()],
+                statusCounts[Status.FAILED.ordinal()]);
+    }
+
+    private ChunkResult process(Chunk chunk) {
+        var result = new ChunkResult(chunk);
+        for (int row = 0; row < chunk.size; row++) {
+            TicketPurchaseOrder order;
+            try {
+                order = parse(chunk.lines[row]);
+            } catch (IllegalArgumentException e) {
+                result.set(row, accountIdOf(chunk.lines[row]), Status.MALFORMED, 0, 0, e.getMessage());
+                continue;
+            }
+
+            PurchaseResult purchaseResult;
+            try {
+                purchaseResult = ticketService.purchaseTickets(order);
+            } catch (RuntimeException e) {
+                result.set(row, accountIdOf(chunk.lines[row]), Status.FAILED, 0, 0, String.valueOf(e.getMessage()));
+                continue;
+            }
+
+            var accountId = String.valueOf(purchaseResult.getAccountId());
+            if(purchaseResult.isSuccessful()) {
+                result.set(row, accountId, Status.SUCCESS, purchaseResult.getTotalSeatsReserved(), purchaseResult.getTotalAmountPaid(), "");
+            } else {
+                result.set(row, accountId, Status.REJECTED, 0, 0, purchaseResult.getFailure().getMessage());
+            }
+        }
+        return result;
+    }
+
+    private static void write(Future<ChunkResult> pending, Writer writer, long[] statusCounts) throws IOException {
+        ChunkResult chunkResult;
+        try {
+            chunkResult = pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("bulk import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("bulk import chunk failed", e.getCause());
+        }
+
+        for (int row = 0; row < chunkResult.lines.length; row++) {
+            statusCounts[chunkResult.statuses[row].ordinal()]++;
+            writer.write(chunkResult.lines[row]);
+            writer.write(System.lineSeparator());
+        }
+    }
+
+    static TicketPurchaseOrder parse(String line) {
+        var fields = line.split(",", -1);
+        if(fields.length != 4) {
+            throw new IllegalArgumentException("expected accountId,adults,children,infants");
+        }
+
+        long accountId;
+        int[] counts = new int[3];
+        try {
+            accountId = Long.parseLong(fields[0].trim());
+            for (int type = 0; type < counts.length; type++) {
+                counts[type] = Integer.parseInt(fields[type + 1].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("expected accountId,adults,children,infants");
+        }
+
+        var ticketTypeRequests = new ArrayList<TicketTypeRequest>(counts.length);
+        var types = TicketTypeRequest.Type.values();
+        for (int type = 0; type < counts.length; type++) {
+            if(counts[type] < 0) {
+                throw new IllegalArgumentException("number of tickets cannot be negative");
+            }
+
+            if(counts[type] > 0) {
+                ticketTypeRequests.add(new TicketTypeRequest(types[type], counts[type]));
+            }
+        }
+        return new TicketPurchaseOrder(accountId, ticketTypeRequests.toArray(TicketTypeRequest[]::new));
+    }
+
+    private static boolean isHeader(String line) {
+        var first = line.trim();
+        return !first.isEmpty() && !Character.isDigit(first.charAt(0)) && first.charAt(0) != '-';
+    }
+
+    private static String accountIdOf(String line) {
+        var comma = line.indexOf(',');
+        var accountId = (comma < 0 ? line : line.substring(0, comma)).trim();
+        // Keep whatever was sent from breaking the results file
+        return accountId.replace('"', ' ').replace(',', ' ');
+    }
+
+    private static String quote(String value) {
+        if(value.isEmpty()) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static final class Chunk {
+        private final int[] lineNumbers;
+        private final String[] lines;
+        private int size;
+
+        private Chunk(int capacity) {
+            this.lineNumbers = new int[capacity];
+            this.lines = new String[capacity];
+        }
+
+        private void add(int lineNumber, String line) {
+            lineNumbers[size] = lineNumber;
+            lines[size] = line;
+            size++;
+        }
+
+        private boolean isFull() {
+            return size == lines.length;
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    private static final class ChunkResult {
+        private final int[] lineNumbers;
+        private final String[] lines;
+        private final Status[] statuses;
+
+        private ChunkResult(Chunk chunk) {
+            this.lineNumbers = chunk.lineNumbers;
+            this.lines = new String[chunk.size];
+            this.statuses = new Status[chunk.size];
+        }
+
+        private void set(int row, String accountId, Status status, int seats, int amount, String reason) {
+            statuses[row] = status;
+            lines[row] = lineNumbers[row] + "," + accountId + "," + status + "," + seats + "," + amount + "," + quote(reason);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+/**
+ * Immutable Object
+ */
+public final class BulkImportSummary {
+    private final long successful;
+    private final long rejected;
+    private final long malformed;
+    private final long failed;
+
+    BulkImportSummary(long successful, long rejected, long malformed, long failed) {
+        this.successful = successful;
+        this.rejected = rejected;
+        this.malformed = malformed;
+        this.failed = failed;
+    }
+
+    public long getNumberOfRows() {
+        return successful + rejected + malformed + failed;
+    }
+
+    public long getNumberOfSuccessfulRows() {
+        return successful;
+    }
+
+    /**
+     * Rows turned down by the purchase rules, reported with their {@code InvalidPurchaseException} reason.
+     */
+    public long getNumberOfRejectedRows() {
+        return rejected;
+    }
+
+    public long getNumberOfMalformedRows() {
+        return malformed;
+    }
+
+    public long getNumberOfFailedRows() {
+        return failed;
+    }
+}
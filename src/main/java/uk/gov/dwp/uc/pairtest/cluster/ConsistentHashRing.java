@@ -0,0 +1,115 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Maps screenings to the nodes that own them. Each node is placed on a 64-bit ring at
+ * {@code virtualNodesPerNode} pseudo-random points, and a screening belongs to the first node point at or after
+ * its own hash. A node joining or leaving therefore only moves the screenings on the arcs it gains or loses,
+ * about {@code 1/n} of them, and the many points per node keep the arcs evenly sized.
+ * <p>
+ * Immutable Object
+ */
+public final class ConsistentHashRing {
+    private final List<String> nodeIds;
+    private final int virtualNodesPerNode;
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodesPerNode) {
+        if(nodeIds == null) {
+            throw new IllegalArgumentException("nodeIds cannot be null");
+        }
+
+        if(virtualNodesPerNode <= 0) {
+            throw new IllegalArgumentException("virtualNodesPerNode must be greater than 0");
+        }
+
+        var sortedNodeIds = new TreeSet<String>();
+        for (String nodeId : nodeIds) {
+            if(nodeId == null) {
+                throw new IllegalArgumentException("nodeIds cannot contain null ids");
+            }
+            sortedNodeIds.add(nodeId);
+        }
+
+        var placements = new ArrayList<Placement>(sortedNodeIds.size() * virtualNodesPerNode);
+        for (String nodeId : sortedNodeIds) {
+            var nodeHash = hash(nodeId);
+            for (int virtualNode = 0; virtualNode < virtualNodesPerNode; virtualNode++) {
+                placements.add(new Placement(mix(nodeHash + virtualNode), nodeId));
+            }
+        }
+        placements.sort(Comparator.comparingLong((Placement placement) -> placement.point).thenComparing(placement -> placement.nodeId));
+
+        this.nodeIds = List.copyOf(sortedNodeIds);
+        this.virtualNodesPerNode = virtualNodesPerNode;
+        this.points = new long[placements.size()];
+        this.owners = new String[placements.size()];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = placements.get(i).point;
+            owners[i] = placements.get(i).nodeId;
+        }
+    }
+
+    public List<String> getNodeIds() {
+        return nodeIds;
+    }
+
+    public String ownerOf(long screeningId) {
+        if(points.length == 0) {
+            throw new IllegalStateException("ring has no nodes");
+        }
+
+        var index = Arrays.binarySearch(points, mix(screeningId));
+        if(index < 0) {
+            index = -(index + 1);
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public ConsistentHashRing withNode(String nodeId) {
+        var nodeIds = new ArrayList<>(this.nodeIds);
+        nodeIds.add(nodeId);
+        return new ConsistentHashRing(nodeIds, virtualNodesPerNode);
+    }
+
+    public ConsistentHashRing withoutNode(String nodeId) {
+        var nodeIds = new ArrayList<>(this.nodeIds);
+        nodeIds.remove(nodeId);
+        return new ConsistentHashRing(nodeIds, virtualNodesPerNode);
+    }
+
+    // FNV-1a, so a node lands on the same points in every JVM
+    private static long hash(String nodeId) {
+        var hash = 0xcbf29ce484222325L;
+        for (byte b : nodeId.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Murmur3 finaliser, so sequential ids spread round the ring
+    private static long mix(long value) {
+        var hash = value;
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static final class Placement {
+        private final long point;
+        private final String nodeId;
+
+        private Placement(long point, String nodeId) {
+            this.point = point;
+            this.nodeId = nodeId;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatMap;
+
+/**
+ * Operations one node of a {@link PartitionedSeatInventory} serves. Calls may cross a network, so arguments and
+ * results are plain values, and any call may fail with {@link InvalidPurchaseException#ServiceUnavailable} if the
+ * node cannot be reached.
+ * <p>
+ * Calls about a screening the node no longer holds throw {@link ScreeningMovedException}.
+ */
+public interface InventoryNode {
+
+    void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate) throws InvalidPurchaseException;
+
+    int getRemainingSeats(long screeningId) throws InvalidPurchaseException;
+
+    /**
+     * Takes ownership of a screening, replacing any forwarding address left when it last moved away.
+     */
+    void addScreening(long screeningId, SeatMap seatMap, int remainingSeats);
+
+    long[] getScreeningIds();
+
+    /**
+     * Freezes a screening for handing over by taking all of its remaining seats, which are returned in the transfer.
+     * Reservations for it fail with {@link ScreeningMovedException} until the transfer is completed or aborted.
+     * A screening that is already frozen returns the same transfer again, so an interrupted move can be resumed.
+     */
+    ScreeningTransfer beginTransfer(long screeningId) throws InvalidPurchaseException;
+
+    /**
+     * Drops a screening frozen by {@link #beginTransfer} and leaves a forwarding address to {@code newOwnerId}, kept
+     * for as long as routers may still have the old membership.
+     */
+    void completeTransfer(long screeningId, String newOwnerId);
+
+    /**
+     * Gives a frozen screening its seats back; does nothing if the transfer has already been completed or aborted.
+     */
+    void abortTransfer(ScreeningTransfer transfer);
+}
@@ -0,0 +1,10 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+public interface InventoryTransport {
+
+    /**
+     * Client for the node with the given id. Connecting is lazy: an unreachable node fails on its first call, not here.
+     */
+    InventoryNode connect(String nodeId);
+
+}
@@ -0,0 +1,183 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+import uk.gov.dwp.uc.pairtest.inventory.SeatMap;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link InventoryNode} backed by a {@link SeatInventory} in this JVM.
+ * <p>
+ * A screening is frozen for transfer by taking all of its remaining seats rather than by locking, so reservations
+ * keep their lock-free path: one that ran before the freeze is part of what is handed over, and one that runs
+ * after it finds no seats, sees the screening is moving and is redirected. One that found no seats because of a
+ * transfer that was then aborted tries again, rather than reporting seats as sold out that were only frozen.
+ * <p>
+ * Forwarding addresses are kept for {@code forwardingTtl} after a screening leaves, so routers with an
+ * out-of-date ring still find it, and then forgotten, so a node that hands screenings over for months does not
+ * keep every address it ever left. Routers have to be told the new membership within that time.
+ * <p>
+ * The frozen transfer is kept until it is completed or aborted, so a move that was interrupted can be resumed by
+ * calling {@link #beginTransfer} again, and completing or aborting a transfer twice does nothing the second time.
+ */
+public class LocalInventoryNode implements InventoryNode {
+    private static final Duration DEFAULT_FORWARDING_TTL = Duration.ofMinutes(10);
+
+    private final SeatInventory inventory;
+    private final long forwardingTtlMillis;
+    private final Clock clock;
+    private final Set<Long> transferring = ConcurrentHashMap.newKeySet();
+    private final Map<Long, ScreeningTransfer> frozen = new ConcurrentHashMap<>();
+    private final Map<Long, ForwardingAddress> movedTo = new ConcurrentHashMap<>();
+    private volatile long abortedTransfers;
+
+    public LocalInventoryNode(SeatInventory inventory) {
+        this(inventory, DEFAULT_FORWARDING_TTL, Clock.systemUTC());
+    }
+
+    public LocalInventoryNode(SeatInventory inventory, Duration forwardingTtl, Clock clock) {
+        if(inventory == null) {
+            throw new IllegalArgumentException("inventory cannot be null");
+        }
+
+        if(forwardingTtl == null || forwardingTtl.isNegative() || forwardingTtl.isZero()) {
+            throw new IllegalArgumentException("forwardingTtl must be greater than 0");
+        }
+
+        if(clock == null) {
+            throw new IllegalArgumentException("clock cannot be null");
+        }
+
+        this.inventory = inventory;
+        this.forwardingTtlMillis = forwardingTtl.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate) throws InvalidPurchaseException {
+        while (true) {
+            var abortedBefore = abortedTransfers;
+            throwIfMoved(screeningId);
+            try {
+                inventory.reserveSeat(screeningId, accountId, totalSeatsToAllocate);
+                return;
+            } catch (InvalidPurchaseException e) {
+                // A screening being handed over has no seats left here, and one that has been handed over is gone
+                if(e != InvalidPurchaseException.NotEnoughSeats && e != InvalidPurchaseException.UnknownScreening) {
+                    throw e;
+                }
+
+                throwIfMoved(screeningId);
+                if(abortedTransfers == abortedBefore) {
+                    throw e;
+                }
+                // A transfer was aborted meanwhile and may have given back the seats this found missing
+            }
+        }
+    }
+
+    @Override
+    public int getRemainingSeats(long screeningId) throws InvalidPurchaseException {
+        throwIfMoved(screeningId);
+        int remainingSeats;
+        try {
+            remainingSeats = inventory.getRemainingSeats(screeningId);
+        } catch (InvalidPurchaseException e) {
+            throwIfMoved(screeningId);
+            throw e;
+        }
+
+        throwIfMoved(screeningId);
+        return remainingSeats;
+    }
+
+    @Override
+    public void addScreening(long screeningId, SeatMap seatMap, int remainingSeats) {
+        inventory.addScreening(screeningId, seatMap, remainingSeats);
+        movedTo.remove(screeningId);
+    }
+
+    @Override
+    public long[] getScreeningIds() {
+        return inventory.getScreeningIds();
+    }
+
+    @Override
+    public synchronized ScreeningTransfer beginTransfer(long screeningId) throws InvalidPurchaseException {
+        var transfer = frozen.get(screeningId);
+        if(transfer != null) {
+            return transfer;
+        }
+
+        // Marked as moving before the seats are taken, so a reservation that finds none left is redirected
+        transferring.add(screeningId);
+        try {
+            var seatMap = inventory.getSeatMap(screeningId);
+            transfer = new ScreeningTransfer(screeningId, seatMap, inventory.takeRemainingSeats(screeningId));
+        } catch (RuntimeException e) {
+            transferring.remove(screeningId);
+            throw e;
+        }
+
+        frozen.put(screeningId, transfer);
+        return transfer;
+    }
+
+    @Override
+    public synchronized void completeTransfer(long screeningId, String newOwnerId) {
+        if(newOwnerId == null) {
+            throw new IllegalArgumentException("newOwnerId cannot be null");
+        }
+
+        var now = clock.millis();
+        movedTo.values().removeIf(forwardingAddress -> forwardingAddress.hasExpired(now));
+        movedTo.put(screeningId, new ForwardingAddress(newOwnerId, now + forwardingTtlMillis));
+        inventory.removeScreening(screeningId);
+        frozen.remove(screeningId);
+        transferring.remove(screeningId);
+    }
+
+    @Override
+    public synchronized void abortTransfer(ScreeningTransfer transfer) {
+        if(frozen.remove(transfer.getScreeningId()) == null) {
+            return;
+        }
+
+        inventory.releaseSeats(transfer.getScreeningId(), transfer.getRemainingSeats());
+        transferring.remove(transfer.getScreeningId());
+        abortedTransfers++;
+    }
+
+    private void throwIfMoved(long screeningId) {
+        var forwardingAddress = movedTo.get(screeningId);
+        if(forwardingAddress != null) {
+            if(!forwardingAddress.hasExpired(clock.millis())) {
+                throw new ScreeningMovedException(screeningId, forwardingAddress.newOwnerId);
+            }
+            movedTo.remove(screeningId, forwardingAddress);
+        }
+
+        if(transferring.contains(screeningId)) {
+            throw new ScreeningMovedException(screeningId, null);
+        }
+    }
+
+    private static final class ForwardingAddress {
+        private final String newOwnerId;
+        private final long expiresAtMillis;
+
+        private ForwardingAddress(String newOwnerId, long expiresAtMillis) {
+            this.newOwnerId = newOwnerId;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean hasExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+}
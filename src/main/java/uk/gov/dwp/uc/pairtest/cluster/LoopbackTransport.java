@@ -0,0 +1,99 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+import uk.gov.dwp.uc.pairtest.inventory.SeatMap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Simulated cluster in one JVM: every node is a {@link LocalInventoryNode} called directly, with no serialization
+ * or network. A node can be disconnected, after which calls to it fail with
+ * {@link InvalidPurchaseException#ServiceUnavailable} as a timed-out remote call would, and reconnected.
+ */
+public class LoopbackTransport implements InventoryTransport {
+    private final Map<String, InventoryNode> nodes = new ConcurrentHashMap<>();
+    private final Set<String> disconnected = ConcurrentHashMap.newKeySet();
+
+    public LocalInventoryNode addNode(String nodeId) {
+        if(nodeId == null) {
+            throw new IllegalArgumentException("nodeId cannot be null");
+        }
+
+        var node = new LocalInventoryNode(new SeatInventory());
+        if(nodes.putIfAbsent(nodeId, node) != null) {
+            throw new IllegalArgumentException("node " + nodeId + " already exists");
+        }
+        return node;
+    }
+
+    public void disconnect(String nodeId) {
+        disconnected.add(nodeId);
+    }
+
+    public void reconnect(String nodeId) {
+        disconnected.remove(nodeId);
+    }
+
+    @Override
+    public InventoryNode connect(String nodeId) {
+        if(nodeId == null) {
+            throw new IllegalArgumentException("nodeId cannot be null");
+        }
+
+        return new Connection(nodeId);
+    }
+
+    private final class Connection implements InventoryNode {
+        private final String nodeId;
+
+        private Connection(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        private InventoryNode node() {
+            var node = nodes.get(nodeId);
+            if(node == null || disconnected.contains(nodeId)) {
+                throw InvalidPurchaseException.ServiceUnavailable;
+            }
+            return node;
+        }
+
+        @Override
+        public void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate) {
+            node().reserveSeat(screeningId, accountId, totalSeatsToAllocate);
+        }
+
+        @Override
+        public int getRemainingSeats(long screeningId) {
+            return node().getRemainingSeats(screeningId);
+        }
+
+        @Override
+        public void addScreening(long screeningId, SeatMap seatMap, int remainingSeats) {
+            node().addScreening(screeningId, seatMap, remainingSeats);
+        }
+
+        @Override
+        public long[] getScreeningIds() {
+            return node().getScreeningIds();
+        }
+
+        @Override
+        public ScreeningTransfer beginTransfer(long screeningId) {
+            return node().beginTransfer(screeningId);
+        }
+
+        @Override
+        public void completeTransfer(long screeningId, String newOwnerId) {
+            node().completeTransfer(screeningId, newOwnerId);
+        }
+
+        @Override
+        public void abortTransfer(ScreeningTransfer transfer) {
+            node().abortTransfer(transfer);
+        }
+    }
+}
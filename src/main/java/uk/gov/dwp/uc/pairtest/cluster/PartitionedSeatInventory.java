@@ -0,0 +1,239 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import thirdparty.seatbooking.ScreeningSeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatMap;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Seat inventory partitioned by screening across nodes on a {@link ConsistentHashRing}. Give it to
+ * {@link uk.gov.dwp.uc.pairtest.TicketServiceImpl} as its seat reservation service and each reservation is routed
+ * to the node that owns the screening. Every application instance has its own router over a shared set of nodes.
+ * <p>
+ * {@link #addNode} and {@link #removeNode} move the screenings whose owner changes while reservations carry on.
+ * The old owner freezes each one by taking its remaining seats, the new owner takes it over with those seats,
+ * and the old owner then drops it and leaves a forwarding address. Reservations that arrive mid-move wait up to
+ * {@code maxTransferWait} for it to finish; ones that reach an old owner are redirected, so a router whose ring
+ * is out of date still reaches the right node, one hop later. Membership changes and new screenings should go
+ * through one router at a time; others can be told the new membership with {@link #setNodeIds}.
+ * <p>
+ * A membership change that fails part way, say because a node dropped off mid-move, leaves the ring as it was and
+ * may leave a screening frozen on its old owner, or frozen there with a copy already on the new owner. Retrying
+ * the same change resumes such a move from where it stopped: the old owner hands back the transfer it froze, a
+ * copy the new owner already holds is kept, and the old owner then lets the screening go. A move is only rolled
+ * back when the new owner is known not to hold the screening, so its seats are never live on two nodes at once.
+ * <p>
+ * Screenings are not replicated, so a node that fails takes its screenings with it until it comes back, and a
+ * node that has left should keep answering until every router has stopped sending to it.
+ */
+public class PartitionedSeatInventory implements ScreeningSeatReservationService {
+    private static final int MAX_REDIRECTS = 8;
+    private static final long TRANSFER_POLL_NANOS = 100_000L;
+
+    private final InventoryTransport transport;
+    private final int virtualNodesPerNode;
+    private final long maxTransferWaitNanos;
+    private final ConcurrentHashMap<String, InventoryNode> connections = new ConcurrentHashMap<>();
+    private volatile ConsistentHashRing ring;
+
+    public PartitionedSeatInventory(InventoryTransport transport, Collection<String> nodeIds) {
+        this(transport, nodeIds, 128, Duration.ofSeconds(1));
+    }
+
+    public PartitionedSeatInventory(InventoryTransport transport, Collection<String> nodeIds, int virtualNodesPerNode, Duration maxTransferWait) {
+        if(transport == null) {
+            throw new IllegalArgumentException("transport cannot be null");
+        }
+
+        if(maxTransferWait == null || maxTransferWait.isNegative()) {
+            throw new IllegalArgumentException("maxTransferWait cannot be null or negative");
+        }
+
+        this.transport = transport;
+        this.virtualNodesPerNode = virtualNodesPerNode;
+        this.maxTransferWaitNanos = maxTransferWait.toNanos();
+        this.ring = new ConsistentHashRing(nodeIds, virtualNodesPerNode);
+        if(ring.getNodeIds().isEmpty()) {
+            throw new IllegalArgumentException("nodeIds must contain at least one node");
+        }
+    }
+
+    public List<String> getNodeIds() {
+        return ring.getNodeIds();
+    }
+
+    public String getOwnerId(long screeningId) {
+        return ring.ownerOf(screeningId);
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        reserveSeat(TicketService.DEFAULT_SCREENING_ID, accountId, totalSeatsToAllocate);
+    }
+
+    @Override
+    public void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate) {
+        var nodeId = ring.ownerOf(screeningId);
+        var redirects = 0;
+        var transferWaitStarted = 0L;
+        while (true) {
+            try {
+                node(nodeId).reserveSeat(screeningId, accountId, totalSeatsToAllocate);
+                return;
+            } catch (ScreeningMovedException e) {
+                if(e.getNewOwnerId() != null) {
+                    if(++redirects > MAX_REDIRECTS) {
+                        throw InvalidPurchaseException.ServiceUnavailable;
+                    }
+                    nodeId = e.getNewOwnerId();
+                } else {
+                    transferWaitStarted = awaitTransfer(transferWaitStarted);
+                }
+            }
+        }
+    }
+
+    public int getRemainingSeats(long screeningId) {
+        var nodeId = ring.ownerOf(screeningId);
+        var redirects = 0;
+        var transferWaitStarted = 0L;
+        while (true) {
+            try {
+                return node(nodeId).getRemainingSeats(screeningId);
+            } catch (ScreeningMovedException e) {
+                if(e.getNewOwnerId() != null) {
+                    if(++redirects > MAX_REDIRECTS) {
+                        throw InvalidPurchaseException.ServiceUnavailable;
+                    }
+                    nodeId = e.getNewOwnerId();
+                } else {
+                    transferWaitStarted = awaitTransfer(transferWaitStarted);
+                }
+            }
+        }
+    }
+
+    public synchronized void addScreening(long screeningId, SeatMap seatMap) {
+        if(seatMap == null) {
+            throw new IllegalArgumentException("seatMap cannot be null");
+        }
+
+        node(ring.ownerOf(screeningId)).addScreening(screeningId, seatMap, seatMap.getCapacity());
+    }
+
+    /**
+     * Adds a node to the ring and moves onto it the screenings it now owns.
+     */
+    public synchronized void addNode(String nodeId) {
+        if(nodeId == null) {
+            throw new IllegalArgumentException("nodeId cannot be null");
+        }
+
+        if(ring.getNodeIds().contains(nodeId)) {
+            throw new IllegalArgumentException("node " + nodeId + " is already in the ring");
+        }
+
+        rebalance(ring.withNode(nodeId));
+    }
+
+    /**
+     * Moves every screening off a node and then takes it out of the ring.
+     */
+    public synchronized void removeNode(String nodeId) {
+        if(!ring.getNodeIds().contains(nodeId)) {
+            throw new IllegalArgumentException("node " + nodeId + " is not in the ring");
+        }
+
+        if(ring.getNodeIds().size() == 1) {
+            throw new IllegalStateException("cannot remove the last node");
+        }
+
+        rebalance(ring.withoutNode(nodeId));
+    }
+
+    /**
+     * Routes by a membership changed through another router, without moving anything.
+     */
+    public synchronized void setNodeIds(Collection<String> nodeIds) {
+        var updated = new ConsistentHashRing(nodeIds, virtualNodesPerNode);
+        if(updated.getNodeIds().isEmpty()) {
+            throw new IllegalArgumentException("nodeIds must contain at least one node");
+        }
+        ring = updated;
+    }
+
+    private void rebalance(ConsistentHashRing updated) {
+        // Every current node is asked, not just those losing arcs, in case an earlier move was interrupted
+        for (String nodeId : ring.getNodeIds()) {
+            var node = node(nodeId);
+            for (long screeningId : node.getScreeningIds()) {
+                var newOwnerId = updated.ownerOf(screeningId);
+                if(!newOwnerId.equals(nodeId)) {
+                    move(screeningId, node, newOwnerId);
+                }
+            }
+        }
+        ring = updated;
+    }
+
+    private void move(long screeningId, InventoryNode from, String toNodeId) {
+        var transfer = from.beginTransfer(screeningId);
+        var to = node(toNodeId);
+        try {
+            // Resuming a move that stopped after the new owner took the screening
+            if(!holds(to, screeningId)) {
+                to.addScreening(screeningId, transfer.getSeatMap(), transfer.getRemainingSeats());
+            }
+        } catch (RuntimeException e) {
+            abortUnlessHeld(transfer, from, to);
+            throw e;
+        }
+        from.completeTransfer(screeningId, toNodeId);
+    }
+
+    private static void abortUnlessHeld(ScreeningTransfer transfer, InventoryNode from, InventoryNode to) {
+        try {
+            // The add may have landed before the call failed, so roll back only once the new owner is known not to hold it
+            if(!holds(to, transfer.getScreeningId())) {
+                from.abortTransfer(transfer);
+            }
+        } catch (RuntimeException e) {
+            // Left frozen for the next rebalance to finish; the caller sees the failure that stopped the move
+        }
+    }
+
+    private static boolean holds(InventoryNode node, long screeningId) {
+        for (long heldScreeningId : node.getScreeningIds()) {
+            if(heldScreeningId == screeningId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long awaitTransfer(long waitStarted) {
+        var now = System.nanoTime();
+        if(waitStarted == 0L) {
+            waitStarted = now;
+        } else if(now - waitStarted > maxTransferWaitNanos) {
+            throw InvalidPurchaseException.ServiceUnavailable;
+        }
+
+        LockSupport.parkNanos(TRANSFER_POLL_NANOS);
+        return waitStarted;
+    }
+
+    private InventoryNode node(String nodeId) {
+        var node = connections.get(nodeId);
+        if(node == null) {
+            node = connections.computeIfAbsent(nodeId, transport::connect);
+        }
+        return node;
+    }
+}
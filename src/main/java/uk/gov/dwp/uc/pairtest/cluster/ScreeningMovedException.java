@@ -0,0 +1,27 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+/**
+ * Thrown by an {@link InventoryNode} for a screening it no longer holds. {@link #getNewOwnerId()} is where the
+ * screening went, or null while it is still being handed over, in which case the call should be retried shortly.
+ */
+public class ScreeningMovedException extends RuntimeException {
+    private final long screeningId;
+    private final String newOwnerId;
+
+    public ScreeningMovedException(long screeningId, String newOwnerId) {
+        // Routine during rebalancing, so skip the stack trace
+        super(newOwnerId == null
+                ? "Screening " + screeningId + " is being moved"
+                : "Screening " + screeningId + " has moved to " + newOwnerId, null, false, false);
+        this.screeningId = screeningId;
+        this.newOwnerId = newOwnerId;
+    }
+
+    public long getScreeningId() {
+        return screeningId;
+    }
+
+    public String getNewOwnerId() {
+        return newOwnerId;
+    }
+}
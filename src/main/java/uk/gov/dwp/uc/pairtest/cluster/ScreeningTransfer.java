@@ -0,0 +1,34 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import uk.gov.dwp.uc.pairtest.inventory.SeatMap;
+
+/**
+ * Immutable Object
+ */
+public final class ScreeningTransfer {
+    private final long screeningId;
+    private final SeatMap seatMap;
+    private final int remainingSeats;
+
+    public ScreeningTransfer(long screeningId, SeatMap seatMap, int remainingSeats) {
+        if(seatMap == null) {
+            throw new IllegalArgumentException("seatMap cannot be null");
+        }
+
+        this.screeningId = screeningId;
+        this.seatMap = seatMap;
+        this.remainingSeats = remainingSeats;
+    }
+
+    public long getScreeningId() {
+        return screeningId;
+    }
+
+    public SeatMap getSeatMap() {
+        return seatMap;
+    }
+
+    public int getRemainingSeats() {
+        return remainingSeats;
+    }
+}
@@ -0,0 +1,55 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+/**
+ * Immutable Object
+ */
+
+public class PurchaseResult {
+
+    private final long accountId;
+    private final int totalSeatsReserved;
+    private final int totalAmountPaid;
+    private final InvalidPurchaseException failure;
+
+    private PurchaseResult(long accountId, int totalSeatsReserved, int totalAmountPaid, InvalidPurchaseException failure) {
+        this.accountId = accountId;
+        this.totalSeatsReserved = totalSeatsReserved;
+        this.totalAmountPaid = totalAmountPaid;
+        this.failure = failure;
+    }
+
+    public static PurchaseResult success(long accountId, int totalSeatsReserved, int totalAmountPaid) {
+        return new PurchaseResult(accountId, totalSeatsReserved, totalAmountPaid, null);
+    }
+
+    public static PurchaseResult failure(long accountId, InvalidPurchaseException failure) {
+        if(failure == null) {
+            throw new IllegalArgumentException("failure cannot be null");
+        }
+
+        return new PurchaseResult(accountId, 0, 0, failure);
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public boolean isSuccessful() {
+        return failure == null;
+    }
+
+    public int getTotalSeatsReserved() {
+        return totalSeatsReserved;
+    }
+
+    public int getTotalAmountPaid() {
+        return totalAmountPaid;
+    }
+
+    public InvalidPurchaseException getFailure() {
+        return failure;
+    }
+
+}
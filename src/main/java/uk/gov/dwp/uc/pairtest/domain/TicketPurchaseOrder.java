@@ -0,0 +1,47 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+
+import java.util.Arrays;
+
+/**
+ * Immutable Object
+ */
+
+public class TicketPurchaseOrder {
+
+    private final long screeningId;
+    private final long accountId;
+    private final TicketTypeRequest[] ticketTypeRequests;
+
+    public TicketPurchaseOrder(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        this(TicketService.DEFAULT_SCREENING_ID, accountId, ticketTypeRequests);
+    }
+
+    public TicketPurchaseOrder(long screeningId, Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        if(accountId == null) {
+            throw new IllegalArgumentException("accountId cannot be null");
+        }
+
+        if(ticketTypeRequests == null) {
+            throw new IllegalArgumentException("ticketTypeRequests cannot be null");
+        }
+
+        this.screeningId = screeningId;
+        this.accountId = accountId;
+        this.ticketTypeRequests = Arrays.copyOf(ticketTypeRequests, ticketTypeRequests.length);
+    }
+
+    public long getScreeningId() {
+        return screeningId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public TicketTypeRequest[] getTicketTypeRequests() {
+        return Arrays.copyOf(ticketTypeRequests, ticketTypeRequests.length);
+    }
+
+}
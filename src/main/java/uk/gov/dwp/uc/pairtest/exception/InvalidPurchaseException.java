@@ -12,4 +12,20 @@ public class InvalidPurchaseException extends RuntimeException {
     public static InvalidPurchaseException TooManyInfantTickets = new InvalidPurchaseException("Cannot purchase more infant tickets than adult tickets");
 
     public static InvalidPurchaseException TooManyChildTickets = new InvalidPurchaseException("Cannot purchase child tickets without adult tickets");
+
+    public static InvalidPurchaseException UnknownScreening = new InvalidPurchaseException("Screening does not exist");
+
+    public static InvalidPurchaseException NotEnoughSeats = new InvalidPurchaseException("Not enough seats remaining for this screening");
+
+    public static InvalidPurchaseException TooManyRequests = new InvalidPurchaseException("Too many purchase attempts for this account, try again later");
+
+    public static InvalidPurchaseException TooManyAccounts = new InvalidPurchaseException("Too many accounts have bought tickets for this screening, no more can be counted");
+
+    public static InvalidPurchaseException QuotaExceeded = new InvalidPurchaseException("Ticket limit for this account reached, try again later");
+
+    public static InvalidPurchaseException HoldExpired = new InvalidPurchaseException("Seat hold expired before the purchase completed");
+
+    public static InvalidPurchaseException RefundPending = new InvalidPurchaseException("Seats could not be confirmed after payment was taken, the payment will be refunded");
+
+    public static InvalidPurchaseException ServiceUnavailable = new InvalidPurchaseException("Ticketing is temporarily unavailable, try again later");
 }
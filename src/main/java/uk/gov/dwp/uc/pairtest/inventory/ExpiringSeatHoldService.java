@@ -0,0 +1,234 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link SeatHoldService} over a {@link SeatInventory}, expiring holds with a hashed timer wheel.
+ * <p>
+ * New holds are pushed onto a lock-free intake stack, so {@link #hold} never waits for the sweeper. On each tick
+ * the sweeper moves the intake into wheel buckets by deadline and walks the one bucket that is due. Confirmed and
+ * released holds are dropped from their bucket when it is next walked rather than searched for, so confirm and
+ * release are O(1) and a tick only costs as much as the holds that land in it, however many millions are
+ * outstanding.
+ */
+public class ExpiringSeatHoldService implements SeatHoldService, AutoCloseable {
+    private static final Duration DEFAULT_TICK = Duration.ofMillis(100);
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final SeatInventory seatInventory;
+    private final Clock clock;
+    private final long holdTtlMillis;
+    private final long tickMillis;
+    private final SeatHold[] buckets;
+    private final int mask;
+    private final AtomicReference<SeatHold> intake = new AtomicReference<>();
+    private final LongAdder activeHolds = new LongAdder();
+
+    private long currentTick;
+    private ScheduledExecutorService sweeper;
+
+    public ExpiringSeatHoldService(SeatInventory seatInventory, Duration holdTtl, Clock clock) {
+        this(seatInventory, holdTtl, clock, DEFAULT_TICK, DEFAULT_WHEEL_SIZE);
+    }
+
+    public ExpiringSeatHoldService(SeatInventory seatInventory, Duration holdTtl, Clock clock, Duration tick, int wheelSize) {
+        if(seatInventory == null) {
+            throw new IllegalArgumentException("seatInventory cannot be null");
+        }
+
+        if(holdTtl == null || holdTtl.isNegative() || holdTtl.isZero()) {
+            throw new IllegalArgumentException("holdTtl must be greater than 0");
+        }
+
+        if(clock == null) {
+            throw new IllegalArgumentException("clock cannot be null");
+        }
+
+        if(tick == null || tick.toMillis() <= 0) {
+            throw new IllegalArgumentException("tick must be at least one millisecond");
+        }
+
+        if(wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a positive power of two");
+        }
+
+        this.seatInventory = seatInventory;
+        this.clock = clock;
+        this.holdTtlMillis = holdTtl.toMillis();
+        this.tickMillis = tick.toMillis();
+        this.buckets = new SeatHold[wheelSize];
+        this.mask = wheelSize - 1;
+        this.currentTick = clock.millis() / tickMillis;
+    }
+
+    /**
+     * Starts a background thread that expires holds once per tick.
+     */
+    public synchronized void start() {
+        if(sweeper != null) {
+            return;
+        }
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "seat-hold-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::expireHolds, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if(sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+
+    @Override
+    public SeatHold hold(long screeningId, long accountId, int totalSeatsToHold) throws InvalidPurchaseException {
+        seatInventory.reserveSeat(screeningId, accountId, totalSeatsToHold);
+
+        var seatHold = new SeatHold(screeningId, accountId, totalSeatsToHold, clock.millis() + holdTtlMillis);
+        activeHolds.increment();
+
+        SeatHold head;
+        do {
+            head = intake.get();
+            seatHold.next = head;
+        } while (!intake.compareAndSet(head, seatHold));
+
+        return seatHold;
+    }
+
+    /**
+     * Confirms the hold. A hold that has already expired is only confirmed if its seats can be reserved again.
+     */
+    @Override
+    public void confirm(SeatHold seatHold) throws InvalidPurchaseException {
+        if(seatHold.transition(SeatHold.State.HELD, SeatHold.State.CONFIRMED)) {
+            activeHolds.decrement();
+            return;
+        }
+
+        switch (seatHold.getState()) {
+            case CONFIRMED:
+                return;
+            case EXPIRED:
+                try {
+                    seatInventory.reserveSeat(seatHold.getScreeningId(), seatHold.getAccountId(), seatHold.getTotalSeats());
+                } catch (InvalidPurchaseException e) {
+                    throw InvalidPurchaseException.HoldExpired;
+                }
+
+                if(!seatHold.transition(SeatHold.State.EXPIRED, SeatHold.State.CONFIRMED)) {
+                    seatInventory.releaseSeats(seatHold.getScreeningId(), seatHold.getTotalSeats());
+                }
+                return;
+            default:
+                throw new IllegalStateException("Cannot confirm a hold that has been released");
+        }
+    }
+
+    @Override
+    public void release(SeatHold seatHold) {
+        if(seatHold.transition(SeatHold.State.HELD, SeatHold.State.RELEASED)) {
+            activeHolds.decrement();
+            seatInventory.releaseSeats(seatHold.getScreeningId(), seatHold.getTotalSeats());
+            return;
+        }
+
+        if(seatHold.getState() == SeatHold.State.CONFIRMED) {
+            throw new IllegalStateException("Cannot release a hold that has been confirmed");
+        }
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        reserveSeat(TicketService.DEFAULT_SCREENING_ID, accountId, totalSeatsToAllocate);
+    }
+
+    public long getNumberOfActiveHolds() {
+        return activeHolds.sum();
+    }
+
+    /**
+     * Expires every hold whose deadline has passed. Called by the background sweeper once started, and safe to
+     * call directly.
+     */
+    public synchronized void expireHolds() {
+        var targetTick = clock.millis() / tickMillis;
+        transferIntake();
+
+        if(targetTick - currentTick > buckets.length) {
+            // Fallen more than a full rotation behind, every bucket is due
+            currentTick = targetTick;
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                sweepBucket(bucket);
+            }
+            return;
+        }
+
+        while (currentTick < targetTick) {
+            currentTick++;
+            sweepBucket((int) (currentTick & mask));
+        }
+    }
+
+    private void transferIntake() {
+        var seatHold = intake.getAndSet(null);
+        while (seatHold != null) {
+            var next = seatHold.next;
+            if(seatHold.getState() == SeatHold.State.HELD) {
+                seatHold.deadlineTick = Math.max(ceilDiv(seatHold.getExpiresAtMillis(), tickMillis), currentTick + 1);
+                var bucket = (int) (seatHold.deadlineTick & mask);
+                seatHold.next = buckets[bucket];
+                buckets[bucket] = seatHold;
+            } else {
+                seatHold.next = null;
+            }
+            seatHold = next;
+        }
+    }
+
+    private void sweepBucket(int bucket) {
+        SeatHold remaining = null;
+        var seatHold = buckets[bucket];
+        while (seatHold != null) {
+            var next = seatHold.next;
+            seatHold.next = null;
+            if(seatHold.getState() == SeatHold.State.HELD) {
+                if(seatHold.deadlineTick > currentTick) {
+                    seatHold.next = remaining;
+                    remaining = seatHold;
+                } else if(seatHold.transition(SeatHold.State.HELD, SeatHold.State.EXPIRED)) {
+                    activeHolds.decrement();
+                    releaseExpiredSeats(seatHold);
+                }
+            }
+            seatHold = next;
+        }
+        buckets[bucket] = remaining;
+    }
+
+    private void releaseExpiredSeats(SeatHold seatHold) {
+        try {
+            seatInventory.releaseSeats(seatHold.getScreeningId(), seatHold.getTotalSeats());
+        } catch (InvalidPurchaseException e) {
+            // The screening was removed while the hold was outstanding, there is nothing to give the seats back to
+        }
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+}
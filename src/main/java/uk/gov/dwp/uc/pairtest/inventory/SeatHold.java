@@ -0,0 +1,58 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Seats held for one purchase. The identity fields are immutable; the state only moves out of {@link State#HELD}
+ * once, by compare-and-set, so confirmation, release and expiry cannot both win.
+ */
+public class SeatHold {
+    private static final AtomicReferenceFieldUpdater<SeatHold, State> STATE =
+            AtomicReferenceFieldUpdater.newUpdater(SeatHold.class, State.class, "state");
+
+    private final long screeningId;
+    private final long accountId;
+    private final int totalSeats;
+    private final long expiresAtMillis;
+
+    private volatile State state = State.HELD;
+
+    // Owned by the timer wheel that tracks this hold
+    SeatHold next;
+    long deadlineTick;
+
+    SeatHold(long screeningId, long accountId, int totalSeats, long expiresAtMillis) {
+        this.screeningId = screeningId;
+        this.accountId = accountId;
+        this.totalSeats = totalSeats;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public long getScreeningId() {
+        return screeningId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getTotalSeats() {
+        return totalSeats;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    boolean transition(State from, State to) {
+        return STATE.compareAndSet(this, from, to);
+    }
+
+    public enum State {
+        HELD, CONFIRMED, RELEASED, EXPIRED
+    }
+}
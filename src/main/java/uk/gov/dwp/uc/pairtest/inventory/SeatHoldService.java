@@ -0,0 +1,23 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import thirdparty.seatbooking.ScreeningSeatReservationService;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+/**
+ * Two-phase seat reservation. Seats are held while payment is taken, then either confirmed or released.
+ * Holds that are neither confirmed nor released expire and their seats go back on sale.
+ */
+public interface SeatHoldService extends ScreeningSeatReservationService {
+
+    SeatHold hold(long screeningId, long accountId, int totalSeatsToHold) throws InvalidPurchaseException;
+
+    void confirm(SeatHold seatHold) throws InvalidPurchaseException;
+
+    void release(SeatHold seatHold);
+
+    @Override
+    default void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate) {
+        confirm(hold(screeningId, accountId, totalSeatsToAllocate));
+    }
+
+}
@@ -0,0 +1,171 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import thirdparty.seatbooking.ScreeningSeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.Arrays;
+
+/**
+ * In-memory seat inventory. Each screening tracks its remaining seats in a {@link StripedCapacity}, so concurrent
+ * reservations for the same screening scale across cores without a global lock. The set of screenings changes
+ * rarely, so it is held as sorted arrays that are copied on write and looked up with a binary search.
+ * <p>
+ * Reservations without a screening id go to {@link TicketService#DEFAULT_SCREENING_ID}.
+ */
+public class SeatInventory implements ScreeningSeatReservationService {
+    private final int numberOfStripes;
+
+    private volatile Screenings screenings = new Screenings(new long[0], new Screening[0]);
+
+    public SeatInventory() {
+        this(Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())));
+    }
+
+    public SeatInventory(int numberOfStripes) {
+        if(numberOfStripes <= 0 || Integer.bitCount(numberOfStripes) != 1) {
+            throw new IllegalArgumentException("numberOfStripes must be a positive power of two");
+        }
+
+        this.numberOfStripes = numberOfStripes;
+    }
+
+    public void addScreening(long screeningId, SeatMap seatMap) {
+        if(seatMap == null) {
+            throw new IllegalArgumentException("seatMap cannot be null");
+        }
+
+        addScreening(screeningId, seatMap, seatMap.getCapacity());
+    }
+
+    /**
+     * Adds a screening that has already sold some of its seats, such as one handed over by another inventory.
+     */
+    public synchronized void addScreening(long screeningId, SeatMap seatMap, int remainingSeats) {
+        if(seatMap == null) {
+            throw new IllegalArgumentException("seatMap cannot be null");
+        }
+
+        if(remainingSeats < 0 || remainingSeats > seatMap.getCapacity()) {
+            throw new IllegalArgumentException("remainingSeats must be between 0 and the capacity of the seat map");
+        }
+
+        var current = screenings;
+        var index = Arrays.binarySearch(current.ids, screeningId);
+        if(index >= 0) {
+            throw new IllegalArgumentException("screening " + screeningId + " already exists");
+        }
+
+        var insertAt = -(index + 1);
+        var ids = new long[current.ids.length + 1];
+        var values = new Screening[ids.length];
+        System.arraycopy(current.ids, 0, ids, 0, insertAt);
+        System.arraycopy(current.values, 0, values, 0, insertAt);
+        ids[insertAt] = screeningId;
+        values[insertAt] = new Screening(seatMap, new StripedCapacity(remainingSeats, Math.min(numberOfStripes, stripesFor(seatMap))));
+        System.arraycopy(current.ids, insertAt, ids, insertAt + 1, current.ids.length - insertAt);
+        System.arraycopy(current.values, insertAt, values, insertAt + 1, current.values.length - insertAt);
+        screenings = new Screenings(ids, values);
+    }
+
+    public synchronized void removeScreening(long screeningId) {
+        var current = screenings;
+        var index = Arrays.binarySearch(current.ids, screeningId);
+        if(index < 0) {
+            return;
+        }
+
+        var ids = new long[current.ids.length - 1];
+        var values = new Screening[ids.length];
+        System.arraycopy(current.ids, 0, ids, 0, index);
+        System.arraycopy(current.values, 0, values, 0, index);
+        System.arraycopy(current.ids, index + 1, ids, index, ids.length - index);
+        System.arraycopy(current.values, index + 1, values, index, values.length - index);
+        screenings = new Screenings(ids, values);
+    }
+
+    public long[] getScreeningIds() {
+        return screenings.ids.clone();
+    }
+
+    public SeatMap getSeatMap(long screeningId) {
+        return getScreening(screeningId).seatMap;
+    }
+
+    public int getRemainingSeats(long screeningId) {
+        return getScreening(screeningId).capacity.remaining();
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        reserveSeat(TicketService.DEFAULT_SCREENING_ID, accountId, totalSeatsToAllocate);
+    }
+
+    @Override
+    public void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate) {
+        if(totalSeatsToAllocate < 0) {
+            throw new IllegalArgumentException("totalSeatsToAllocate cannot be negative");
+        }
+
+        var screening = getScreening(screeningId);
+        if(totalSeatsToAllocate > 0 && !screening.capacity.tryAcquire(totalSeatsToAllocate)) {
+            throw InvalidPurchaseException.NotEnoughSeats;
+        }
+    }
+
+    /**
+     * Returns previously reserved seats to a screening. Callers must only release seats they reserved.
+     */
+    public void releaseSeats(long screeningId, int totalSeatsToRelease) {
+        if(totalSeatsToRelease < 0) {
+            throw new IllegalArgumentException("totalSeatsToRelease cannot be negative");
+        }
+
+        if(totalSeatsToRelease > 0) {
+            getScreening(screeningId).capacity.release(totalSeatsToRelease);
+        }
+    }
+
+    /**
+     * Takes every remaining seat of a screening, so that later reservations fail with
+     * {@link InvalidPurchaseException#NotEnoughSeats}, and returns how many there were. Reservations already under
+     * way either complete first or see none left. Give the seats back with {@link #releaseSeats}.
+     */
+    public int takeRemainingSeats(long screeningId) {
+        return getScreening(screeningId).capacity.drain();
+    }
+
+    private Screening getScreening(long screeningId) {
+        var current = screenings;
+        var index = Arrays.binarySearch(current.ids, screeningId);
+        if(index < 0) {
+            throw InvalidPurchaseException.UnknownScreening;
+        }
+        return current.values[index];
+    }
+
+    // Small screens gain nothing from striping and would send most reservations down the drain path
+    private static int stripesFor(SeatMap seatMap) {
+        return Math.max(1, Integer.highestOneBit(seatMap.getCapacity() / 32));
+    }
+
+    private static final class Screenings {
+        private final long[] ids;
+        private final Screening[] values;
+
+        private Screenings(long[] ids, Screening[] values) {
+            this.ids = ids;
+            this.values = values;
+        }
+    }
+
+    private static final class Screening {
+        private final SeatMap seatMap;
+        private final StripedCapacity capacity;
+
+        private Screening(SeatMap seatMap, StripedCapacity capacity) {
+            this.seatMap = seatMap;
+            this.capacity = capacity;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import java.util.Arrays;
+
+/**
+ * Immutable Object
+ * <p>
+ * Layout of a screen as the number of seats in each row.
+ */
+
+public class SeatMap {
+
+    private final int[] seatsPerRow;
+    private final int capacity;
+
+    public SeatMap(int... seatsPerRow) {
+        if(seatsPerRow == null || seatsPerRow.length == 0) {
+            throw new IllegalArgumentException("seatsPerRow must contain at least one row");
+        }
+
+        long capacity = 0;
+        for (int seatsInRow : seatsPerRow) {
+            if(seatsInRow <= 0) {
+                throw new IllegalArgumentException("every row must have at least one seat");
+            }
+            capacity += seatsInRow;
+        }
+
+        if(capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity cannot exceed " + Integer.MAX_VALUE);
+        }
+
+        this.seatsPerRow = seatsPerRow.clone();
+        this.capacity = (int) capacity;
+    }
+
+    public static SeatMap uniform(int numberOfRows, int seatsPerRow) {
+        if(numberOfRows <= 0) {
+            throw new IllegalArgumentException("numberOfRows must be greater than 0");
+        }
+
+        var rows = new int[numberOfRows];
+        Arrays.fill(rows, seatsPerRow);
+        return new SeatMap(rows);
+    }
+
+    public int getNumberOfRows() {
+        return seatsPerRow.length;
+    }
+
+    public int getSeatsInRow(int row) {
+        return seatsPerRow[row];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+}
@@ -0,0 +1,123 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Remaining seats of one screening, split across cache-line padded stripes so that concurrent reservations from
+ * different cores usually CAS different counters. A reservation first tries the calling thread's home stripe;
+ * if that stripe is short it drains the others under a lock and gives the seats back if there still are not
+ * enough. Only one thread drains at a time, so two large reservations cannot starve each other by each holding
+ * part of what the other needs.
+ */
+class StripedCapacity {
+    // 16 ints = 64 bytes, so each stripe sits on its own cache line
+    private static final int PADDING = 16;
+
+    private final AtomicIntegerArray stripes;
+    private final int mask;
+    private final Object drainLock = new Object();
+
+    StripedCapacity(int capacity, int numberOfStripes) {
+        if(capacity < 0) {
+            throw new IllegalArgumentException("capacity cannot be negative");
+        }
+
+        if(numberOfStripes <= 0 || Integer.bitCount(numberOfStripes) != 1) {
+            throw new IllegalArgumentException("numberOfStripes must be a positive power of two");
+        }
+
+        this.stripes = new AtomicIntegerArray(numberOfStripes * PADDING);
+        this.mask = numberOfStripes - 1;
+
+        for (int stripe = 0; stripe < numberOfStripes; stripe++) {
+            stripes.set(stripe * PADDING, capacity / numberOfStripes + (stripe < capacity % numberOfStripes ? 1 : 0));
+        }
+    }
+
+    boolean tryAcquire(int seats) {
+        var home = homeStripe();
+        if(tryAcquireFromStripe(home, seats)) {
+            return true;
+        }
+
+        synchronized (drainLock) {
+            var numberOfStripes = mask + 1;
+            var taken = new int[numberOfStripes];
+            var needed = seats;
+            for (int i = 0; i < numberOfStripes && needed > 0; i++) {
+                var stripe = (home + i) & mask;
+                taken[stripe] = drainStripe(stripe, needed);
+                needed -= taken[stripe];
+            }
+
+            if(needed == 0) {
+                return true;
+            }
+
+            for (int stripe = 0; stripe < numberOfStripes; stripe++) {
+                if(taken[stripe] > 0) {
+                    stripes.addAndGet(stripe * PADDING, taken[stripe]);
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Takes every remaining seat, leaving none for later reservations, and returns how many there were.
+     */
+    int drain() {
+        synchronized (drainLock) {
+            var drained = 0;
+            for (int stripe = 0; stripe <= mask; stripe++) {
+                drained += drainStripe(stripe, Integer.MAX_VALUE);
+            }
+            return drained;
+        }
+    }
+
+    void release(int seats) {
+        stripes.addAndGet(homeStripe() * PADDING, seats);
+    }
+
+    int remaining() {
+        var remaining = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            remaining += stripes.get(stripe * PADDING);
+        }
+        return remaining;
+    }
+
+    private boolean tryAcquireFromStripe(int stripe, int seats) {
+        var index = stripe * PADDING;
+        while (true) {
+            var available = stripes.get(index);
+            if(available < seats) {
+                return false;
+            }
+
+            if(stripes.compareAndSet(index, available, available - seats)) {
+                return true;
+            }
+        }
+    }
+
+    private int drainStripe(int stripe, int maximum) {
+        var index = stripe * PADDING;
+        while (true) {
+            var available = stripes.get(index);
+            var take = Math.min(available, maximum);
+            if(take <= 0) {
+                return 0;
+            }
+
+            if(stripes.compareAndSet(index, available, available - take)) {
+                return take;
+            }
+        }
+    }
+
+    private int homeStripe() {
+        return (int) Thread.currentThread().getId() & mask;
+    }
+}
@@ -0,0 +1,406 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatHoldService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * {@link PurchaseJournal} appended to a memory-mapped file. Entries are fixed-size and checksummed, and the file
+ * is mapped a segment at a time so that appending is a handful of stores into memory rather than a system call.
+ * <p>
+ * A single flusher thread forces written segments to disk. Every {@link #sync()} that arrives while a force is
+ * running is satisfied by the next one, so under load many purchases share each fsync (group commit); entries
+ * nobody syncs on reach disk within {@code maxFlushInterval}. A write only survives an operating system crash
+ * once forced, but survives a crash of this process as soon as it is written.
+ * <p>
+ * Entry layout, big-endian: purchase id, screening id and account id as longs; adult, child and
+ * infant counts and the total price as ints; the state ordinal plus one as a byte; three bytes of padding; and
+ * a CRC32C of the preceding 44 bytes. An all-zero or mismatching entry marks the end of the journal, which is
+ * how a torn final write is recognised.
+ */
+public class MappedPurchaseJournal implements PurchaseJournal, AutoCloseable {
+    static final int ENTRY_SIZE = 48;
+    private static final int CHECKSUM_OFFSET = 44;
+    private static final PurchaseRecord.State[] STATES = PurchaseRecord.State.values();
+
+    private final FileChannel channel;
+    private final long segmentSize;
+    private final long maxFlushIntervalNanos;
+    private final Thread flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition unflushed = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final CRC32C checksum = new CRC32C();
+    // Guarded by lock
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private final List<MappedByteBuffer> fullSegments = new ArrayList<>();
+    private long nextPurchaseId;
+    private long appended;
+    private long durable;
+    private boolean syncRequested;
+    private boolean closed;
+
+    private MappedPurchaseJournal(FileChannel channel, int entriesPerSegment, long maxFlushIntervalNanos) throws IOException {
+        this.channel = channel;
+        this.segmentSize = (long) entriesPerSegment * ENTRY_SIZE;
+        this.maxFlushIntervalNanos = maxFlushIntervalNanos;
+
+        var end = 0L;
+        var maxPurchaseId = 0L;
+        var cursor = new Cursor();
+        while (cursor.next()) {
+            end = cursor.position;
+            maxPurchaseId = Math.max(maxPurchaseId, cursor.purchaseId);
+        }
+        this.nextPurchaseId = maxPurchaseId + 1;
+        this.segmentStart = end - end % segmentSize;
+        this.segment = map(segmentStart);
+        this.segment.position((int) (end - segmentStart));
+
+        this.flusher = new Thread(this::flushLoop, "purchase-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public static MappedPurchaseJournal open(Path path) throws IOException {
+        return open(path, 1 << 20, 10, TimeUnit.MILLISECONDS);
+    }
+
+    public static MappedPurchaseJournal open(Path path, int entriesPerSegment, long maxFlushInterval, TimeUnit unit) throws IOException {
+        if(path == null) {
+            throw new IllegalArgumentException("path cannot be null");
+        }
+
+        if(entriesPerSegment <= 0) {
+            throw new IllegalArgumentException("entriesPerSegment must be greater than 0");
+        }
+
+        if(maxFlushInterval <= 0 || unit == null) {
+            throw new IllegalArgumentException("maxFlushInterval must be greater than 0");
+        }
+
+        var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new MappedPurchaseJournal(channel, entriesPerSegment, unit.toNanos(maxFlushInterval));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public PurchaseRecord accept(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets, int totalAmountToPay) {
+        lock.lock();
+        try {
+            var purchase = new PurchaseRecord(nextPurchaseId++, PurchaseRecord.State.ACCEPTED, screeningId, accountId,
+                    numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets, totalAmountToPay);
+            append(purchase, PurchaseRecord.State.ACCEPTED);
+            return purchase;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void record(PurchaseRecord purchase, PurchaseRecord.State state) {
+        if(purchase == null) {
+            throw new IllegalArgumentException("purchase cannot be null");
+        }
+
+        if(state == null) {
+            throw new IllegalArgumentException("state cannot be null");
+        }
+
+        lock.lock();
+        try {
+            append(purchase, state);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void sync() {
+        lock.lock();
+        try {
+            var target = appended;
+            if(durable >= target) {
+                return;
+            }
+
+            syncRequested = true;
+            unflushed.signal();
+            while (durable < target && !closed) {
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replays the journal against freshly built seat inventory. Completed purchases take their seats again and
+     * purchases that stopped after payment are completed. Purchases that never reached payment are aborted.
+     * Purchases whose payment was in flight are held again and returned, so each can be checked with the payment
+     * gateway and then confirmed and recorded as {@link PurchaseRecord.State#COMPLETED}, or released and recorded
+     * as {@link PurchaseRecord.State#ABORTED}, before its hold expires.
+     * <p>
+     * Seats for screenings that no longer exist or are already full are skipped, since nothing can be sold for
+     * them twice.
+     */
+    public List<RecoveredPurchase> recover(SeatHoldService seatHoldService) {
+        if(seatHoldService == null) {
+            throw new IllegalArgumentException("seatHoldService cannot be null");
+        }
+
+        var inFlight = new LinkedHashMap<Long, PurchaseRecord>();
+        try {
+            var cursor = new Cursor();
+            while (cursor.next()) {
+                var purchase = cursor.toPurchaseRecord();
+                if(purchase.getState() == PurchaseRecord.State.COMPLETED) {
+                    reserveSeats(seatHoldService, purchase);
+                }
+
+                if(purchase.getState().isTerminal()) {
+                    inFlight.remove(purchase.getPurchaseId());
+                } else {
+                    inFlight.put(purchase.getPurchaseId(), purchase);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        var recovered = new ArrayList<RecoveredPurchase>();
+        for (PurchaseRecord purchase : inFlight.values()) {
+            switch (purchase.getState()) {
+                case ACCEPTED:
+                    record(purchase, PurchaseRecord.State.ABORTED);
+                    break;
+                case PAID:
+                    reserveSeats(seatHoldService, purchase);
+                    record(purchase, PurchaseRecord.State.COMPLETED);
+                    break;
+                case REFUND_REQUIRED:
+                    // Stays open until whoever refunds the payment records it as aborted
+                    recovered.add(new RecoveredPurchase(purchase, null));
+                    break;
+                default:
+                    try {
+                        var seatHold = seatHoldService.hold(purchase.getScreeningId(), purchase.getAccountId(), purchase.getNumberOfSeats());
+                        recovered.add(new RecoveredPurchase(purchase, seatHold));
+                    } catch (InvalidPurchaseException e) {
+                        recovered.add(new RecoveredPurchase(purchase, null));
+                    }
+            }
+        }
+        sync();
+        return recovered;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if(closed) {
+                return;
+            }
+
+            closed = true;
+            unflushed.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        var interrupted = false;
+        while (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        channel.close();
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(PurchaseRecord purchase, PurchaseRecord.State state) {
+        if(closed) {
+            throw new IllegalStateException("journal is closed");
+        }
+
+        if(!segment.hasRemaining()) {
+            fullSegments.add(segment);
+            segmentStart += segmentSize;
+            try {
+                segment = map(segmentStart);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        var start = segment.position();
+        segment.putLong(purchase.getPurchaseId())
+                .putLong(purchase.getScreeningId())
+                .putLong(purchase.getAccountId())
+                .putInt(purchase.getNumberOfTickets(TicketTypeRequest.Type.ADULT))
+                .putInt(purchase.getNumberOfTickets(TicketTypeRequest.Type.CHILD))
+                .putInt(purchase.getNumberOfTickets(TicketTypeRequest.Type.INFANT))
+                .putInt(purchase.getTotalAmountToPay())
+                .put((byte) (state.ordinal() + 1))
+                .put((byte) 0)
+                .put((byte) 0)
+                .put((byte) 0);
+        segment.putInt(checksum(segment, start));
+
+        if(appended++ == durable) {
+            unflushed.signal();
+        }
+    }
+
+    private int checksum(MappedByteBuffer buffer, int start) {
+        var entry = buffer.duplicate();
+        entry.position(start).limit(start + CHECKSUM_OFFSET);
+        checksum.reset();
+        checksum.update(entry);
+        return (int) checksum.getValue();
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            MappedByteBuffer[] toForce;
+            lock.lock();
+            try {
+                while (durable == appended && !closed) {
+                    unflushed.awaitUninterruptibly();
+                }
+
+                // Give other appenders a moment to join this force unless someone is already waiting on it
+                var waitNanos = maxFlushIntervalNanos;
+                while (!syncRequested && !closed && waitNanos > 0) {
+                    try {
+                        waitNanos = unflushed.awaitNanos(waitNanos);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+
+                if(durable == appended && closed) {
+                    return;
+                }
+
+                syncRequested = false;
+                target = appended;
+                fullSegments.add(segment);
+                toForce = fullSegments.toArray(MappedByteBuffer[]::new);
+                fullSegments.clear();
+            } finally {
+                lock.unlock();
+            }
+
+            for (MappedByteBuffer buffer : toForce) {
+                buffer.force();
+            }
+
+            lock.lock();
+            try {
+                durable = target;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private MappedByteBuffer map(long position) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, segmentSize);
+    }
+
+    private void reserveSeats(SeatHoldService seatHoldService, PurchaseRecord purchase) {
+        try {
+            seatHoldService.reserveSeat(purchase.getScreeningId(), purchase.getAccountId(), purchase.getNumberOfSeats());
+        } catch (InvalidPurchaseException e) {
+            // Screening removed or already full, there are no seats left to protect
+        }
+    }
+
+    /**
+     * Walks the valid entries from the start of the file, reading without disturbing the append position.
+     */
+    private final class Cursor {
+        private final CRC32C checksum = new CRC32C();
+        private MappedByteBuffer buffer;
+        private long bufferStart = -1;
+        private long position;
+        private long purchaseId;
+        private long screeningId;
+        private long accountId;
+        private int numberOfAdultTickets;
+        private int numberOfChildTickets;
+        private int numberOfInfantTickets;
+        private int totalAmountToPay;
+        private int state;
+
+        private boolean next() throws IOException {
+            if(position + ENTRY_SIZE > channel.size()) {
+                return false;
+            }
+
+            var start = position - position % segmentSize;
+            if(start != bufferStart) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, channel.size() - start));
+                bufferStart = start;
+            }
+
+            var offset = (int) (position - bufferStart);
+            if(offset + ENTRY_SIZE > buffer.limit()) {
+                return false;
+            }
+
+            var entry = buffer.duplicate();
+            entry.position(offset).limit(offset + CHECKSUM_OFFSET);
+            checksum.reset();
+            checksum.update(entry);
+            state = buffer.get(offset + 40);
+            if(state <= 0 || state > STATES.length || buffer.getInt(offset + CHECKSUM_OFFSET) != (int) checksum.getValue()) {
+                return false;
+            }
+
+            purchaseId = buffer.getLong(offset);
+            screeningId = buffer.getLong(offset + 8);
+            accountId = buffer.getLong(offset + 16);
+            numberOfAdultTickets = buffer.getInt(offset + 24);
+            numberOfChildTickets = buffer.getInt(offset + 28);
+            numberOfInfantTickets = buffer.getInt(offset + 32);
+            totalAmountToPay = buffer.getInt(offset + 36);
+            position += ENTRY_SIZE;
+            return true;
+        }
+
+        private PurchaseRecord toPurchaseRecord() {
+            return new PurchaseRecord(purchaseId, STATES[state - 1], screeningId, accountId,
+                    numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets, totalAmountToPay);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+/**
+ * Append-only record of every accepted purchase and each state it passes through, written ahead of the side
+ * effect it describes so that a restart can tell which seat reservations and payments were left in flight.
+ */
+public interface PurchaseJournal {
+
+    PurchaseJournal NOOP = new PurchaseJournal() {
+        @Override
+        public PurchaseRecord accept(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets, int totalAmountToPay) {
+            return new PurchaseRecord(0, PurchaseRecord.State.ACCEPTED, screeningId, accountId,
+                    numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets, totalAmountToPay);
+        }
+
+        @Override
+        public void record(PurchaseRecord purchase, PurchaseRecord.State state) {
+        }
+
+        @Override
+        public void sync() {
+        }
+    };
+
+    /**
+     * Allocates a purchase id and appends the purchase as {@link PurchaseRecord.State#ACCEPTED}.
+     */
+    PurchaseRecord accept(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets, int totalAmountToPay);
+
+    /**
+     * Appends {@code purchase} again in {@code state}. Returns once the entry is written, not necessarily once it
+     * is durable.
+     */
+    void record(PurchaseRecord purchase, PurchaseRecord.State state);
+
+    /**
+     * Blocks until every entry appended before the call is durable.
+     */
+    void sync();
+
+}
@@ -0,0 +1,96 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+/**
+ * Immutable Object
+ * <p>
+ * One accepted purchase as written to a {@link PurchaseJournal}. The state is the one it was read back in;
+ * each transition is a separate journal entry carrying the whole purchase.
+ */
+public final class PurchaseRecord {
+    public enum State {
+        /** Validated and priced; seats not yet reserved and no payment attempted */
+        ACCEPTED,
+        /** Seats reserved or held; the payment is about to be taken */
+        SEATS_RESERVED,
+        /** Payment taken; the seats are not yet confirmed */
+        PAID,
+        COMPLETED,
+        ABORTED,
+        /** Payment taken but the seats could not be confirmed or the payment refunded; the customer is owed it */
+        REFUND_REQUIRED;
+
+        public boolean isTerminal() {
+            return this == COMPLETED || this == ABORTED;
+        }
+    }
+
+    private final long purchaseId;
+    private final State state;
+    private final long screeningId;
+    private final long accountId;
+    private final int numberOfAdultTickets;
+    private final int numberOfChildTickets;
+    private final int numberOfInfantTickets;
+    private final int totalAmountToPay;
+
+    public PurchaseRecord(
+            long purchaseId,
+            State state,
+            long screeningId,
+            long accountId,
+            int numberOfAdultTickets,
+            int numberOfChildTickets,
+            int numberOfInfantTickets,
+            int totalAmountToPay) {
+        if(state == null) {
+            throw new IllegalArgumentException("state cannot be null");
+        }
+
+        this.purchaseId = purchaseId;
+        this.state = state;
+        this.screeningId = screeningId;
+        this.accountId = accountId;
+        this.numberOfAdultTickets = numberOfAdultTickets;
+        this.numberOfChildTickets = numberOfChildTickets;
+        this.numberOfInfantTickets = numberOfInfantTickets;
+        this.totalAmountToPay = totalAmountToPay;
+    }
+
+    public long getPurchaseId() {
+        return purchaseId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getScreeningId() {
+        return screeningId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getNumberOfTickets(TicketTypeRequest.Type type) {
+        switch (type) {
+            case ADULT:
+                return numberOfAdultTickets;
+            case CHILD:
+                return numberOfChildTickets;
+            default:
+                return numberOfInfantTickets;
+        }
+    }
+
+    public int getNumberOfSeats() {
+        // Infants sit on an adult's lap
+        return numberOfAdultTickets + numberOfChildTickets;
+    }
+
+    public int getTotalAmountToPay() {
+        return totalAmountToPay;
+    }
+}
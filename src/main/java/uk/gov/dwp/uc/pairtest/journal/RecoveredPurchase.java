@@ -0,0 +1,29 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import uk.gov.dwp.uc.pairtest.inventory.SeatHold;
+
+/**
+ * Immutable Object
+ * <p>
+ * A purchase whose payment was in flight when the journal was last written, with the seats held for it again
+ * on recovery, or one left {@link PurchaseRecord.State#REFUND_REQUIRED}. The hold is null if the seats could not
+ * be held, for example because the screening has gone, and always for a purchase awaiting a refund; a payment
+ * taken for such a purchase has to be refunded.
+ */
+public final class RecoveredPurchase {
+    private final PurchaseRecord purchase;
+    private final SeatHold seatHold;
+
+    RecoveredPurchase(PurchaseRecord purchase, SeatHold seatHold) {
+        this.purchase = purchase;
+        this.seatHold = seatHold;
+    }
+
+    public PurchaseRecord getPurchase() {
+        return purchase;
+    }
+
+    public SeatHold getSeatHold() {
+        return seatHold;
+    }
+}
@@ -0,0 +1,79 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link PurchaseMetrics} held in memory. Latencies go into striped {@link LatencyHistogram}s and counters are
+ * {@link LongAdder}s, so recording is lock-free. Invalid purchases are counted by exception message; the known
+ * reasons are static instances, so after the first occurrence of each the lookup does not allocate.
+ */
+public class InMemoryPurchaseMetrics implements PurchaseMetrics {
+    private static final TicketTypeRequest.Type[] TYPES = TicketTypeRequest.Type.values();
+
+    private final LatencyHistogram validationLatency = new LatencyHistogram();
+    private final LatencyHistogram seatReservationLatency = new LatencyHistogram();
+    private final LatencyHistogram paymentLatency = new LatencyHistogram();
+    private final ConcurrentHashMap<String, LongAdder> invalidPurchases = new ConcurrentHashMap<>();
+    private final LongAdder[] ticketsSold = new LongAdder[TYPES.length];
+
+    public InMemoryPurchaseMetrics() {
+        for (int type = 0; type < ticketsSold.length; type++) {
+            ticketsSold[type] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void recordValidationLatency(long nanos) {
+        validationLatency.record(nanos);
+    }
+
+    @Override
+    public void recordSeatReservationLatency(long nanos) {
+        seatReservationLatency.record(nanos);
+    }
+
+    @Override
+    public void recordPaymentLatency(long nanos) {
+        paymentLatency.record(nanos);
+    }
+
+    @Override
+    public void recordInvalidPurchase(InvalidPurchaseException reason) {
+        invalidPurchases.computeIfAbsent(String.valueOf(reason.getMessage()), message -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void recordTicketsSold(int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) {
+        ticketsSold[TicketTypeRequest.Type.ADULT.ordinal()].add(numberOfAdultTickets);
+        ticketsSold[TicketTypeRequest.Type.CHILD.ordinal()].add(numberOfChildTickets);
+        ticketsSold[TicketTypeRequest.Type.INFANT.ordinal()].add(numberOfInfantTickets);
+    }
+
+    public LatencyHistogram.Snapshot getValidationLatency() {
+        return validationLatency.snapshot();
+    }
+
+    public LatencyHistogram.Snapshot getSeatReservationLatency() {
+        return seatReservationLatency.snapshot();
+    }
+
+    public LatencyHistogram.Snapshot getPaymentLatency() {
+        return paymentLatency.snapshot();
+    }
+
+    public Map<String, Long> getInvalidPurchases() {
+        var counts = new TreeMap<String, Long>();
+        invalidPurchases.forEach((message, count) -> counts.put(message, count.sum()));
+        return counts;
+    }
+
+    public long getTicketsSold(TicketTypeRequest.Type type) {
+        return ticketsSold[type.ordinal()].sum();
+    }
+}
@@ -0,0 +1,124 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram in the style of HdrHistogram. Values below 128 are counted exactly; above that
+ * each power of two is split into 64 linear sub-buckets, so a recorded value is reported to within about 1.6%
+ * across the whole {@code long} range.
+ * <p>
+ * Counts are striped by thread so that concurrent recorders on different cores rarely increment the same cache
+ * line. {@link #snapshot()} sums the stripes; it is not atomic with respect to concurrent recording, which only
+ * matters to a reader comparing counts to the nanosecond.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_HALF_COUNT << 1;
+    private static final int NUMBER_OF_BUCKETS = indexOf(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray[] stripes;
+    private final int mask;
+
+    public LatencyHistogram() {
+        this(Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())));
+    }
+
+    public LatencyHistogram(int numberOfStripes) {
+        if(numberOfStripes <= 0 || Integer.bitCount(numberOfStripes) != 1) {
+            throw new IllegalArgumentException("numberOfStripes must be a positive power of two");
+        }
+
+        this.stripes = new AtomicLongArray[numberOfStripes];
+        for (int stripe = 0; stripe < numberOfStripes; stripe++) {
+            stripes[stripe] = new AtomicLongArray(NUMBER_OF_BUCKETS);
+        }
+        this.mask = numberOfStripes - 1;
+    }
+
+    public void record(long value) {
+        var stripe = stripes[(int) Thread.currentThread().getId() & mask];
+        stripe.getAndIncrement(indexOf(Math.max(0, value)));
+    }
+
+    public Snapshot snapshot() {
+        var counts = new long[NUMBER_OF_BUCKETS];
+        for (AtomicLongArray stripe : stripes) {
+            for (int index = 0; index < NUMBER_OF_BUCKETS; index++) {
+                counts[index] += stripe.get(index);
+            }
+        }
+        return new Snapshot(counts);
+    }
+
+    static int indexOf(long value) {
+        if(value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+
+        var exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (exponent << SUB_BUCKET_BITS) + (int) (value >>> exponent);
+    }
+
+    static long lowestValueAt(int index) {
+        if(index < LINEAR_LIMIT) {
+            return index;
+        }
+
+        var exponent = (index >>> SUB_BUCKET_BITS) - 1;
+        return (long) (index - (exponent << SUB_BUCKET_BITS)) << exponent;
+    }
+
+    /**
+     * Immutable Object
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long totalCount;
+
+        private Snapshot(long[] counts) {
+            this.counts = counts;
+            var totalCount = 0L;
+            for (long count : counts) {
+                totalCount += count;
+            }
+            this.totalCount = totalCount;
+        }
+
+        public long getCount() {
+            return totalCount;
+        }
+
+        /**
+         * Lowest value of the bucket holding the given percentile, or 0 if nothing has been recorded.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if(percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100");
+            }
+
+            if(totalCount == 0) {
+                return 0;
+            }
+
+            var target = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+            var seen = 0L;
+            for (int index = 0; index < counts.length; index++) {
+                seen += counts[index];
+                if(seen >= target) {
+                    return lowestValueAt(index);
+                }
+            }
+            return getMax();
+        }
+
+        public long getMax() {
+            for (int index = counts.length - 1; index >= 0; index--) {
+                if(counts[index] > 0) {
+                    return lowestValueAt(index);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+/**
+ * Instrumentation points on the purchase hot path. Implementations are called on every purchase and must not
+ * allocate, block or take locks.
+ */
+public interface PurchaseMetrics {
+
+    PurchaseMetrics NOOP = new PurchaseMetrics() {
+        @Override
+        public void recordValidationLatency(long nanos) {
+        }
+
+        @Override
+        public void recordSeatReservationLatency(long nanos) {
+        }
+
+        @Override
+        public void recordPaymentLatency(long nanos) {
+        }
+
+        @Override
+        public void recordInvalidPurchase(InvalidPurchaseException reason) {
+        }
+
+        @Override
+        public void recordTicketsSold(int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) {
+        }
+    };
+
+    void recordValidationLatency(long nanos);
+
+    void recordSeatReservationLatency(long nanos);
+
+    void recordPaymentLatency(long nanos);
+
+    void recordInvalidPurchase(InvalidPurchaseException reason);
+
+    void recordTicketsSold(int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets);
+
+}
@@ -0,0 +1,365 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Prices loaded from a properties file, for example:
+ * <pre>
+ * zone=Europe/London
+ *
+ * price.ADULT=20
+ * price.CHILD=10
+ * price.INFANT=0
+ *
+ * band.matinee.from=10:00
+ * band.matinee.to=16:00
+ * band.matinee.price.ADULT=15
+ *
+ * screening.42.starts=19:30
+ * screening.42.price.ADULT=25
+ *
+ * promotion.halfterm.screenings=42,43
+ * promotion.halfterm.price.CHILD=5
+ * </pre>
+ * Base {@code price.*} entries are required for every ticket type. Time-of-day bands apply to every screening,
+ * screening prices override the bands and promotions override everything; any type a layer does not mention
+ * keeps the price from the layer below. {@code from}/{@code to} are optional, {@code to} is exclusive and a band
+ * may wrap past midnight. Bands may not overlap, since which one wins would otherwise be arbitrary.
+ * <p>
+ * A band is a time of the show, so a screening with a {@code starts} time is priced by the band that time falls
+ * in, whenever the tickets are bought. Screenings are not otherwise scheduled in this service, so one without a
+ * {@code starts} time falls back to the band for the time of purchase. Promotion windows are always matched
+ * against the time of purchase.
+ * <p>
+ * The configuration is compiled into a {@link PriceTable} per minute of the day for each screening that has its
+ * own prices, so a lookup is a binary search on the screening id and an array index. {@link #reload(Path)}
+ * compiles the new configuration off to the side and swaps it in with a single volatile write, so in-flight
+ * purchases see either the old prices or the new ones, never a mixture.
+ */
+public class ConfigurablePricingEngine implements PricingEngine {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_DAY = MINUTES_PER_DAY * MILLIS_PER_MINUTE;
+    private static final TicketTypeRequest.Type[] TYPES = TicketTypeRequest.Type.values();
+
+    private volatile Snapshot snapshot;
+
+    public ConfigurablePricingEngine(Properties configuration) {
+        this.snapshot = Snapshot.compile(configuration);
+    }
+
+    public static ConfigurablePricingEngine load(Path path) throws IOException {
+        return new ConfigurablePricingEngine(read(path));
+    }
+
+    /**
+     * Replaces the prices with those in {@code path}. If the file cannot be read or is invalid the current
+     * prices are left in place.
+     */
+    public void reload(Path path) throws IOException {
+        update(read(path));
+    }
+
+    public void update(Properties configuration) {
+        snapshot = Snapshot.compile(configuration);
+    }
+
+    @Override
+    public PriceTable getPriceTable(long screeningId, long epochMilli) {
+        var current = snapshot;
+        var index = Arrays.binarySearch(current.screeningIds, screeningId);
+        var priceTables = index >= 0 ? current.screeningPriceTables[index] : current.defaultPriceTables;
+        return priceTables[current.minuteOfDay(epochMilli)];
+    }
+
+    private static Properties read(Path path) throws IOException {
+        var configuration = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            configuration.load(reader);
+        }
+        return configuration;
+    }
+
+    private static final class Snapshot {
+        private final ZoneRules zoneRules;
+        private final PriceTable[] defaultPriceTables;
+        private final long[] screeningIds;
+        private final PriceTable[][] screeningPriceTables;
+        private volatile OffsetPeriod offsetPeriod;
+
+        private Snapshot(ZoneRules zoneRules, PriceTable[] defaultPriceTables, long[] screeningIds, PriceTable[][] screeningPriceTables) {
+            this.zoneRules = zoneRules;
+            this.defaultPriceTables = defaultPriceTables;
+            this.screeningIds = screeningIds;
+            this.screeningPriceTables = screeningPriceTables;
+            this.offsetPeriod = OffsetPeriod.around(zoneRules, System.currentTimeMillis());
+        }
+
+        private int minuteOfDay(long epochMilli) {
+            var period = offsetPeriod;
+            if(epochMilli < period.fromMillis || epochMilli >= period.untilMillis) {
+                // Only crossing a clock change gets here, so looking the offset up again is rare
+                period = OffsetPeriod.around(zoneRules, epochMilli);
+                offsetPeriod = period;
+            }
+            return (int) (Math.floorMod(epochMilli + period.offsetMillis, MILLIS_PER_DAY) / MILLIS_PER_MINUTE);
+        }
+
+        private static Snapshot compile(Properties configuration) {
+            if(configuration == null) {
+                throw new IllegalArgumentException("configuration cannot be null");
+            }
+
+            ZoneId zone = ZoneOffset.UTC;
+            var basePrices = new Integer[TYPES.length];
+            var bands = new TreeMap<String, Layer>();
+            var screenings = new TreeMap<Long, Layer>();
+            var promotions = new TreeMap<String, Layer>();
+
+            for (String key : configuration.stringPropertyNames()) {
+                var value = configuration.getProperty(key).trim();
+                var parts = key.split("\\.");
+                try {
+                    switch (parts[0]) {
+                        case "zone":
+                            requireLength(key, parts, 1);
+                            zone = ZoneId.of(value);
+                            break;
+                        case "price":
+                            requireLength(key, parts, 2);
+                            basePrices[TicketTypeRequest.Type.valueOf(parts[1]).ordinal()] = parsePrice(value);
+                            break;
+                        case "band":
+                            requireLength(key, parts, 3, 4);
+                            bands.computeIfAbsent(parts[1], name -> new Layer(true)).set(key, parts, value);
+                            break;
+                        case "screening":
+                            requireLength(key, parts, 3, 4);
+                            var screeningId = Long.parseLong(parts[1]);
+                            var layer = screenings.computeIfAbsent(screeningId, id -> new Layer(false));
+                            layer.screeningIds = new long[]{screeningId};
+                            layer.set(key, parts, value);
+                            break;
+                        case "promotion":
+                            requireLength(key, parts, 3, 4);
+                            promotions.computeIfAbsent(parts[1], name -> new Layer(false)).set(key, parts, value);
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown pricing key: " + key);
+                    }
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Invalid pricing entry " + key + "=" + value, e);
+                }
+            }
+
+            for (TicketTypeRequest.Type type : TYPES) {
+                if(basePrices[type.ordinal()] == null) {
+                    throw new IllegalArgumentException("Missing pricing key: price." + type);
+                }
+            }
+
+            requireNoOverlap(bands);
+
+            var layers = new ArrayList<Layer>();
+            layers.addAll(bands.values());
+            layers.addAll(screenings.values());
+            layers.addAll(promotions.values());
+
+            var scopedScreeningIds = new TreeSet<Long>();
+            for (Layer layer : layers) {
+                if(layer.screeningIds != null) {
+                    for (long screeningId : layer.screeningIds) {
+                        scopedScreeningIds.add(screeningId);
+                    }
+                }
+            }
+
+            var interned = new HashMap<PriceTable, PriceTable>();
+            var defaultPriceTables = compileDay(basePrices, layers, null, -1, interned);
+            var screeningIds = new long[scopedScreeningIds.size()];
+            var screeningPriceTables = new PriceTable[screeningIds.length][];
+            int i = 0;
+            for (long screeningId : scopedScreeningIds) {
+                var screening = screenings.get(screeningId);
+                var startMinute = screening == null ? -1 : screening.startMinute;
+                screeningIds[i] = screeningId;
+                screeningPriceTables[i] = compileDay(basePrices, layers, screeningId, startMinute, interned);
+                i++;
+            }
+
+            return new Snapshot(zone.getRules(), defaultPriceTables, screeningIds, screeningPriceTables);
+        }
+
+        /**
+         * Compiles the prices for each minute of the purchase day, matching bands against {@code startMinute}
+         * instead when it is not negative.
+         */
+        private static PriceTable[] compileDay(
+                Integer[] basePrices,
+                List<Layer> layers,
+                Long screeningId,
+                int startMinute,
+                Map<PriceTable, PriceTable> interned) {
+            var priceTables = new PriceTable[MINUTES_PER_DAY];
+            var prices = new int[TYPES.length];
+            for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+                for (int type = 0; type < prices.length; type++) {
+                    prices[type] = basePrices[type];
+                }
+
+                for (Layer layer : layers) {
+                    var layerMinute = layer.band && startMinute >= 0 ? startMinute : minute;
+                    if(layer.appliesTo(screeningId, layerMinute)) {
+                        layer.applyTo(prices);
+                    }
+                }
+
+                var priceTable = new PriceTable(prices);
+                priceTables[minute] = interned.computeIfAbsent(priceTable, p -> p);
+            }
+            return priceTables;
+        }
+
+        private static void requireNoOverlap(Map<String, Layer> bands) {
+            var owners = new String[MINUTES_PER_DAY];
+            for (Map.Entry<String, Layer> band : bands.entrySet()) {
+                for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+                    if(!band.getValue().appliesTo(null, minute)) {
+                        continue;
+                    }
+
+                    if(owners[minute] != null) {
+                        throw new IllegalArgumentException("Pricing bands " + owners[minute] + " and " + band.getKey() + " overlap");
+                    }
+                    owners[minute] = band.getKey();
+                }
+            }
+        }
+
+        private static void requireLength(String key, String[] parts, int... allowedLengths) {
+            for (int allowedLength : allowedLengths) {
+                if(parts.length == allowedLength) {
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("Unknown pricing key: " + key);
+        }
+
+        private static int parsePrice(String value) {
+            var price = Integer.parseInt(value);
+            if(price < 0) {
+                throw new IllegalArgumentException("prices cannot be negative");
+            }
+            return price;
+        }
+    }
+
+    private static final class Layer {
+        private final boolean band;
+        private final Integer[] prices = new Integer[TYPES.length];
+        private int fromMinute = 0;
+        private int toMinute = MINUTES_PER_DAY;
+        private int startMinute = -1;
+        private long[] screeningIds;
+
+        private Layer(boolean band) {
+            this.band = band;
+        }
+
+        private void set(String key, String[] parts, String value) {
+            var attribute = parts[2];
+            var screening = parts[0].equals("screening");
+            if(attribute.equals("price") && parts.length == 4) {
+                prices[TicketTypeRequest.Type.valueOf(parts[3]).ordinal()] = Snapshot.parsePrice(value);
+            } else if(attribute.equals("starts") && parts.length == 3 && screening) {
+                startMinute = LocalTime.parse(value).toSecondOfDay() / 60;
+            } else if(attribute.equals("from") && parts.length == 3 && !screening) {
+                fromMinute = LocalTime.parse(value).toSecondOfDay() / 60;
+            } else if(attribute.equals("to") && parts.length == 3 && !screening) {
+                toMinute = LocalTime.parse(value).toSecondOfDay() / 60;
+            } else if(attribute.equals("screenings") && parts.length == 3 && parts[0].equals("promotion")) {
+                screeningIds = Arrays.stream(value.split(","))
+                        .map(String::trim)
+                        .mapToLong(Long::parseLong)
+                        .sorted()
+                        .toArray();
+            } else {
+                throw new IllegalArgumentException("Unknown pricing key: " + key);
+            }
+        }
+
+        private boolean appliesTo(Long screeningId, int minute) {
+            if(screeningIds != null && (screeningId == null || Arrays.binarySearch(screeningIds, screeningId) < 0)) {
+                return false;
+            }
+
+            if(fromMinute == toMinute % MINUTES_PER_DAY) {
+                return true;
+            }
+
+            return fromMinute < toMinute
+                    ? minute >= fromMinute && minute < toMinute
+                    : minute >= fromMinute || minute < toMinute;
+        }
+
+        private void applyTo(int[] prices) {
+            for (int type = 0; type < prices.length; type++) {
+                if(this.prices[type] != null) {
+                    prices[type] = this.prices[type];
+                }
+            }
+        }
+    }
+
+    /**
+     * The span of time over which a zone keeps the same offset from UTC, so the offset for any instant in it is
+     * a comparison away.
+     * <p>
+     * Immutable Object
+     */
+    private static final class OffsetPeriod {
+        private final long fromMillis;
+        private final long untilMillis;
+        private final long offsetMillis;
+
+        private OffsetPeriod(long fromMillis, long untilMillis, long offsetMillis) {
+            this.fromMillis = fromMillis;
+            this.untilMillis = untilMillis;
+            this.offsetMillis = offsetMillis;
+        }
+
+        private static OffsetPeriod around(ZoneRules zoneRules, long epochMilli) {
+            var instant = Instant.ofEpochMilli(epochMilli);
+            var offsetMillis = zoneRules.getOffset(instant).getTotalSeconds() * 1000L;
+            if(zoneRules.isFixedOffset()) {
+                return new OffsetPeriod(Long.MIN_VALUE, Long.MAX_VALUE, offsetMillis);
+            }
+
+            // Transitions fall on whole seconds, so the one before the next millisecond is the last at or before this one
+            var previous = zoneRules.previousTransition(Instant.ofEpochMilli(epochMilli + 1));
+            var next = zoneRules.nextTransition(instant);
+            return new OffsetPeriod(
+                    previous == null ? Long.MIN_VALUE : previous.toEpochSecond() * 1000L,
+                    next == null ? Long.MAX_VALUE : next.toEpochSecond() * 1000L,
+                    offsetMillis);
+        }
+    }
+}
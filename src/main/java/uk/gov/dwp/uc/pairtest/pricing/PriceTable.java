@@ -0,0 +1,87 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.Arrays;
+
+/**
+ * Immutable Object
+ * <p>
+ * Price of a single ticket of each type, indexed by {@link TicketTypeRequest.Type#ordinal()}.
+ */
+
+public class PriceTable {
+
+    private static final TicketTypeRequest.Type[] TYPES = TicketTypeRequest.Type.values();
+    private static final int ADULT = TicketTypeRequest.Type.ADULT.ordinal();
+    private static final int CHILD = TicketTypeRequest.Type.CHILD.ordinal();
+    private static final int INFANT = TicketTypeRequest.Type.INFANT.ordinal();
+
+    public static final PriceTable STANDARD = new PriceTable(20, 10, 0);
+
+    private final int[] prices;
+
+    public PriceTable(int adultTicketPrice, int childTicketPrice, int infantTicketPrice) {
+        this(toArray(adultTicketPrice, childTicketPrice, infantTicketPrice));
+    }
+
+    PriceTable(int[] prices) {
+        if(prices.length != TYPES.length) {
+            throw new IllegalArgumentException("a price is required for every ticket type");
+        }
+
+        for (int price : prices) {
+            if(price < 0) {
+                throw new IllegalArgumentException("prices cannot be negative");
+            }
+        }
+
+        this.prices = prices.clone();
+    }
+
+    public int getPrice(TicketTypeRequest.Type type) {
+        return prices[type.ordinal()];
+    }
+
+    public int getTotalPrice(int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) {
+        return (numberOfAdultTickets * prices[ADULT]) +
+                (numberOfChildTickets * prices[CHILD]) +
+                (numberOfInfantTickets * prices[INFANT]);
+    }
+
+    int[] toArray() {
+        return prices.clone();
+    }
+
+    private static int[] toArray(int adultTicketPrice, int childTicketPrice, int infantTicketPrice) {
+        var prices = new int[TYPES.length];
+        prices[ADULT] = adultTicketPrice;
+        prices[CHILD] = childTicketPrice;
+        prices[INFANT] = infantTicketPrice;
+        return prices;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) {
+            return true;
+        }
+
+        if(!(o instanceof PriceTable)) {
+            return false;
+        }
+
+        return Arrays.equals(prices, ((PriceTable) o).prices);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(prices);
+    }
+
+    @Override
+    public String toString() {
+        return "PriceTable" + Arrays.toString(prices);
+    }
+
+}
@@ -0,0 +1,19 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+public interface PricingEngine {
+
+    /**
+     * Prices in force for {@code screeningId} at {@code epochMilli}. Implementations must not block or allocate
+     * per call, since this is on the purchase hot path.
+     */
+    PriceTable getPriceTable(long screeningId, long epochMilli);
+
+    static PricingEngine fixed(PriceTable priceTable) {
+        if(priceTable == null) {
+            throw new IllegalArgumentException("priceTable cannot be null");
+        }
+
+        return (screeningId, epochMilli) -> priceTable;
+    }
+
+}
@@ -0,0 +1,182 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker. The outcomes of the last {@code windowSize} calls are kept in a ring buffer; once
+ * at least {@code minimumNumberOfCalls} have been seen and the share that failed or took longer than
+ * {@code slowCallThreshold} reaches {@code failureRatePercent}, the breaker opens and refuses every call for
+ * {@code openDuration}. After that it lets {@code permittedCallsInHalfOpenState} trial calls through: if they
+ * all succeed quickly it closes again, and the first bad one opens it for another {@code openDuration}.
+ * <p>
+ * Asking for permission while closed is a single volatile read. Recording an outcome takes a lock, which is
+ * cheap next to the remote call it describes.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final boolean[] badCalls;
+    private final int minimumNumberOfCalls;
+    private final int failureRatePercent;
+    private final long slowCallThresholdNanos;
+    private final long openDurationMillis;
+    private final int permittedCallsInHalfOpenState;
+    private final Clock clock;
+
+    private volatile State state = State.CLOSED;
+
+    // Guarded by this
+    private int position;
+    private int numberOfCalls;
+    private int numberOfBadCalls;
+    private long openedAtMillis;
+    private int remainingHalfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(
+            int windowSize,
+            int minimumNumberOfCalls,
+            int failureRatePercent,
+            Duration slowCallThreshold,
+            Duration openDuration,
+            int permittedCallsInHalfOpenState,
+            Clock clock) {
+        if(windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be greater than 0");
+        }
+
+        if(minimumNumberOfCalls <= 0 || minimumNumberOfCalls > windowSize) {
+            throw new IllegalArgumentException("minimumNumberOfCalls must be between 1 and windowSize");
+        }
+
+        if(failureRatePercent <= 0 || failureRatePercent > 100) {
+            throw new IllegalArgumentException("failureRatePercent must be between 1 and 100");
+        }
+
+        if(slowCallThreshold == null) {
+            throw new IllegalArgumentException("slowCallThreshold cannot be null");
+        }
+
+        if(openDuration == null) {
+            throw new IllegalArgumentException("openDuration cannot be null");
+        }
+
+        if(permittedCallsInHalfOpenState <= 0) {
+            throw new IllegalArgumentException("permittedCallsInHalfOpenState must be greater than 0");
+        }
+
+        if(clock == null) {
+            throw new IllegalArgumentException("clock cannot be null");
+        }
+
+        this.badCalls = new boolean[windowSize];
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+        this.openDurationMillis = openDuration.toMillis();
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        this.clock = clock;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Whether a call may go ahead. Every permitted call must be followed by exactly one of {@link #onSuccess},
+     * {@link #onFailure} or {@link #releasePermission}.
+     */
+    public boolean tryAcquirePermission() {
+        if(state == State.CLOSED) {
+            return true;
+        }
+
+        synchronized (this) {
+            if(state == State.OPEN) {
+                if(clock.millis() - openedAtMillis < openDurationMillis) {
+                    return false;
+                }
+
+                remainingHalfOpenPermits = permittedCallsInHalfOpenState;
+                halfOpenSuccesses = 0;
+                state = State.HALF_OPEN;
+            }
+
+            if(state == State.HALF_OPEN) {
+                if(remainingHalfOpenPermits == 0) {
+                    return false;
+                }
+
+                remainingHalfOpenPermits--;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Hands back a permission whose call never reached the dependency, so it says nothing about its health.
+     */
+    public synchronized void releasePermission() {
+        if(state == State.HALF_OPEN && remainingHalfOpenPermits < permittedCallsInHalfOpenState - halfOpenSuccesses) {
+            remainingHalfOpenPermits++;
+        }
+    }
+
+    public void onSuccess(long durationNanos) {
+        record(durationNanos >= slowCallThresholdNanos);
+    }
+
+    public void onFailure() {
+        record(true);
+    }
+
+    private synchronized void record(boolean bad) {
+        switch (state) {
+            case HALF_OPEN:
+                if(bad) {
+                    open();
+                } else if(++halfOpenSuccesses == permittedCallsInHalfOpenState) {
+                    close();
+                }
+                return;
+            case OPEN:
+                // A call let through before the breaker opened; the window it belonged to is gone
+                return;
+            default:
+                if(numberOfCalls == badCalls.length) {
+                    if(badCalls[position]) {
+                        numberOfBadCalls--;
+                    }
+                } else {
+                    numberOfCalls++;
+                }
+
+                badCalls[position] = bad;
+                if(bad) {
+                    numberOfBadCalls++;
+                }
+                position = (position + 1) % badCalls.length;
+
+                if(numberOfCalls >= minimumNumberOfCalls && numberOfBadCalls * 100 >= failureRatePercent * numberOfCalls) {
+                    open();
+                }
+        }
+    }
+
+    private void open() {
+        openedAtMillis = clock.millis();
+        state = State.OPEN;
+    }
+
+    private void close() {
+        position = 0;
+        numberOfCalls = 0;
+        numberOfBadCalls = 0;
+        state = State.CLOSED;
+    }
+}
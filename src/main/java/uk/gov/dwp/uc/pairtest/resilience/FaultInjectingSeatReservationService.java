@@ -0,0 +1,33 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+import java.time.Duration;
+
+/**
+ * Local stand-in for the seat booking service that can be made slow or unreliable, for exercising
+ * {@link ResilientSeatReservationService} without a real booking service.
+ */
+public class FaultInjectingSeatReservationService implements SeatReservationService {
+    private final FaultInjector faultInjector = new FaultInjector();
+
+    public void setLatency(Duration latency) {
+        faultInjector.setLatency(latency);
+    }
+
+    /**
+     * Share of reservations, between 0 and 1, that throw {@link IllegalStateException}.
+     */
+    public void setFailureRate(double failureRate) {
+        faultInjector.setFailureRate(failureRate);
+    }
+
+    public long getNumberOfCalls() {
+        return faultInjector.getNumberOfCalls();
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        faultInjector.inject("reserveSeat");
+    }
+}
@@ -0,0 +1,33 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+import java.time.Duration;
+
+/**
+ * Local stand-in for the payment gateway that can be made slow or unreliable, for exercising
+ * {@link ResilientTicketPaymentService} without a real gateway.
+ */
+public class FaultInjectingTicketPaymentService implements TicketPaymentService {
+    private final FaultInjector faultInjector = new FaultInjector();
+
+    public void setLatency(Duration latency) {
+        faultInjector.setLatency(latency);
+    }
+
+    /**
+     * Share of payments, between 0 and 1, that throw {@link IllegalStateException}.
+     */
+    public void setFailureRate(double failureRate) {
+        faultInjector.setFailureRate(failureRate);
+    }
+
+    public long getNumberOfCalls() {
+        return faultInjector.getNumberOfCalls();
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        faultInjector.inject("makePayment");
+    }
+}
@@ -0,0 +1,55 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and failures shared by the fault-injecting stubs. Settings are volatile so a test can degrade and
+ * restore a running stub.
+ */
+class FaultInjector {
+    private volatile long latencyNanos;
+    private volatile double failureRate;
+    private final LongAdder numberOfCalls = new LongAdder();
+
+    void setLatency(Duration latency) {
+        if(latency == null || latency.isNegative()) {
+            throw new IllegalArgumentException("latency cannot be null or negative");
+        }
+
+        this.latencyNanos = latency.toNanos();
+    }
+
+    void setFailureRate(double failureRate) {
+        if(!(failureRate >= 0 && failureRate <= 1)) {
+            throw new IllegalArgumentException("failureRate must be between 0 and 1");
+        }
+
+        this.failureRate = failureRate;
+    }
+
+    long getNumberOfCalls() {
+        return numberOfCalls.sum();
+    }
+
+    void inject(String operation) {
+        numberOfCalls.increment();
+
+        var latencyNanos = this.latencyNanos;
+        if(latencyNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(latencyNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(operation + " interrupted");
+            }
+        }
+
+        var failureRate = this.failureRate;
+        if(failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException(operation + " failed");
+        }
+    }
+}
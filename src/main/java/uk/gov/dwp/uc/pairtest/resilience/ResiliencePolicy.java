@@ -0,0 +1,176 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Isolates calls to one dependency. At most {@code maxConcurrentCalls} calls are in flight at once (the
+ * bulkhead), each on one of the policy's own threads while the caller waits up to {@code timeout} for it, and a
+ * {@link CircuitBreaker} decides whether to try at all. A full bulkhead, a timeout or an open breaker all fail
+ * the purchase straight away with {@link InvalidPurchaseException#ServiceUnavailable}, so a dependency that hangs
+ * ties up at most its own threads, and each caller for no longer than the timeout.
+ * <p>
+ * A timed-out call is interrupted but may still have taken effect; calls that take something can say how to give
+ * it back if they do. {@link InvalidPurchaseException}s thrown by the dependency are business outcomes: they are
+ * passed on unchanged and count as healthy calls.
+ */
+public class ResiliencePolicy implements AutoCloseable {
+    private final Semaphore bulkhead;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutNanos;
+    private final CircuitBreaker circuitBreaker;
+
+    public ResiliencePolicy(String name, int maxConcurrentCalls, Duration timeout, CircuitBreaker circuitBreaker) {
+        if(name == null) {
+            throw new IllegalArgumentException("name cannot be null");
+        }
+
+        if(maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("maxConcurrentCalls must be greater than 0");
+        }
+
+        if(timeout == null) {
+            throw new IllegalArgumentException("timeout cannot be null");
+        }
+
+        if(circuitBreaker == null) {
+            throw new IllegalArgumentException("circuitBreaker cannot be null");
+        }
+
+        var threadNumber = new AtomicInteger();
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        // Bounded by the bulkhead permits rather than by the pool, so a finished call never races its successor
+        this.executor = new ThreadPoolExecutor(
+                0,
+                Integer.MAX_VALUE,
+                60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    var thread = new Thread(runnable, name + "-bulkhead-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.timeoutNanos = timeout.toNanos();
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void execute(Runnable call) {
+        execute(() -> {
+            call.run();
+            return null;
+        }, ignored -> {
+        });
+    }
+
+    /**
+     * Runs {@code call} under the policy and returns its result. A call the caller gives up on may still go on to
+     * succeed, and then {@code undo} is handed the result nobody received, so that whatever the call took, such
+     * as seats, can be given back. {@code undo} runs on the policy's thread and exactly one of the caller and
+     * {@code undo} ever sees each result.
+     */
+    public <T> T execute(Supplier<T> call, Consumer<? super T> undo) {
+        if(!circuitBreaker.tryAcquirePermission()) {
+            throw InvalidPurchaseException.ServiceUnavailable;
+        }
+
+        if(!bulkhead.tryAcquire()) {
+            circuitBreaker.releasePermission();
+            throw InvalidPurchaseException.ServiceUnavailable;
+        }
+
+        var start = System.nanoTime();
+        var started = new AtomicBoolean();
+        var settled = new AtomicBoolean();
+        var outcome = new AtomicReference<T>();
+        Future<?> future;
+        try {
+            // The permit is held until the call really finishes, so a hung call keeps its place in the bulkhead
+            future = executor.submit(() -> {
+                if(!started.compareAndSet(false, true)) {
+                    return;
+                }
+
+                try {
+                    var result = call.get();
+                    outcome.set(result);
+                    if(!settled.compareAndSet(false, true)) {
+                        undo.accept(result);
+                    }
+                } finally {
+                    bulkhead.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            circuitBreaker.releasePermission();
+            throw InvalidPurchaseException.ServiceUnavailable;
+        }
+
+        try {
+            future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+            return outcome.get();
+        } catch (TimeoutException e) {
+            if(!settled.compareAndSet(false, true)) {
+                // Finished just as the caller gave up, so the result is already there and nothing needs undoing
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+                return outcome.get();
+            }
+
+            cancel(future, started);
+            circuitBreaker.onFailure();
+            throw InvalidPurchaseException.ServiceUnavailable;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if(!settled.compareAndSet(false, true)) {
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+                return outcome.get();
+            }
+
+            cancel(future, started);
+            circuitBreaker.releasePermission();
+            throw InvalidPurchaseException.ServiceUnavailable;
+        } catch (ExecutionException e) {
+            var cause = e.getCause();
+            if(cause instanceof InvalidPurchaseException) {
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+                throw (InvalidPurchaseException) cause;
+            }
+
+            circuitBreaker.onFailure();
+            if(cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+
+    private void cancel(Future<?> future, AtomicBoolean started) {
+        if(started.compareAndSet(false, true)) {
+            bulkhead.release();
+        }
+        future.cancel(true);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,29 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.paymentgateway.BatchTicketPaymentService;
+
+/**
+ * {@link ResilientTicketPaymentService} for a {@link BatchTicketPaymentService}. A batch goes through the policy
+ * as one call, and a batch taken after the caller timed out is refunded payment by payment where the gateway can
+ * refund.
+ */
+public class ResilientBatchTicketPaymentService extends ResilientTicketPaymentService implements BatchTicketPaymentService {
+    private final BatchTicketPaymentService batchTicketPaymentService;
+
+    public ResilientBatchTicketPaymentService(BatchTicketPaymentService batchTicketPaymentService, ResiliencePolicy policy) {
+        super(batchTicketPaymentService, policy);
+        this.batchTicketPaymentService = batchTicketPaymentService;
+    }
+
+    @Override
+    public void makePayments(long[] accountIds, int[] totalAmountsToPay) {
+        getPolicy().execute(() -> {
+            batchTicketPaymentService.makePayments(accountIds, totalAmountsToPay);
+            return Boolean.TRUE;
+        }, paid -> {
+            for (int i = 0; i < accountIds.length; i++) {
+                refundLatePayment(accountIds[i], totalAmountsToPay[i]);
+            }
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.paymentgateway.BatchTicketPaymentService;
+import thirdparty.paymentgateway.RefundableTicketPaymentService;
+
+/**
+ * {@link ResilientBatchTicketPaymentService} for a gateway that can also refund. Refunds go straight to the
+ * gateway, as they do in {@link ResilientRefundableTicketPaymentService}.
+ */
+public class ResilientRefundableBatchTicketPaymentService extends ResilientBatchTicketPaymentService implements RefundableTicketPaymentService {
+    private final RefundableTicketPaymentService refundableTicketPaymentService;
+
+    public ResilientRefundableBatchTicketPaymentService(BatchTicketPaymentService batchTicketPaymentService, ResiliencePolicy policy) {
+        super(batchTicketPaymentService, policy);
+        if(!(batchTicketPaymentService instanceof RefundableTicketPaymentService)) {
+            throw new IllegalArgumentException("batchTicketPaymentService must be refundable");
+        }
+
+        this.refundableTicketPaymentService = (RefundableTicketPaymentService) batchTicketPaymentService;
+    }
+
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        refundableTicketPaymentService.refundPayment(accountId, totalAmountToRefund);
+    }
+}
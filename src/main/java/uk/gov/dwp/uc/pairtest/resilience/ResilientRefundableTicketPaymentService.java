@@ -0,0 +1,22 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.paymentgateway.RefundableTicketPaymentService;
+
+/**
+ * {@link ResilientTicketPaymentService} for a {@link RefundableTicketPaymentService}. Refunds give back a payment
+ * that has already been taken, so they go straight to the gateway: they have to get through while the breaker is
+ * open, or a purchase that failed after paying would keep the customer's money.
+ */
+public class ResilientRefundableTicketPaymentService extends ResilientTicketPaymentService implements RefundableTicketPaymentService {
+    private final RefundableTicketPaymentService refundableTicketPaymentService;
+
+    public ResilientRefundableTicketPaymentService(RefundableTicketPaymentService refundableTicketPaymentService, ResiliencePolicy policy) {
+        super(refundableTicketPaymentService, policy);
+        this.refundableTicketPaymentService = refundableTicketPaymentService;
+    }
+
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        refundableTicketPaymentService.refundPayment(accountId, totalAmountToRefund);
+    }
+}
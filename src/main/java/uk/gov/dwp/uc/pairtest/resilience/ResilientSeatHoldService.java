@@ -0,0 +1,45 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatHold;
+import uk.gov.dwp.uc.pairtest.inventory.SeatHoldService;
+
+/**
+ * {@link ResilientSeatReservationService} for a {@link SeatHoldService}, so seats are still held while payment is
+ * taken behind the policy. Taking a hold goes through the policy, and a hold granted after the caller timed out
+ * is released straight away rather than left to expire.
+ * <p>
+ * Confirming and releasing settle a hold that has already been taken, so they go straight to the seat service:
+ * they have to get through while the breaker is open, or seats already paid for would be lost and unpaid ones
+ * kept until their hold expires.
+ */
+public class ResilientSeatHoldService extends ResilientSeatReservationService implements SeatHoldService {
+    private final SeatHoldService seatHoldService;
+    private final ResiliencePolicy policy;
+
+    public ResilientSeatHoldService(SeatHoldService seatHoldService, ResiliencePolicy policy) {
+        super(seatHoldService, policy);
+        this.seatHoldService = seatHoldService;
+        this.policy = policy;
+    }
+
+    @Override
+    public SeatHold hold(long screeningId, long accountId, int totalSeatsToHold) throws InvalidPurchaseException {
+        return policy.execute(() -> seatHoldService.hold(screeningId, accountId, totalSeatsToHold), seatHoldService::release);
+    }
+
+    @Override
+    public void confirm(SeatHold seatHold) throws InvalidPurchaseException {
+        seatHoldService.confirm(seatHold);
+    }
+
+    @Override
+    public void release(SeatHold seatHold) {
+        seatHoldService.release(seatHold);
+    }
+
+    @Override
+    public void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate) {
+        confirm(hold(screeningId, accountId, totalSeatsToAllocate));
+    }
+}
@@ -0,0 +1,69 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.seatbooking.ScreeningSeatReservationService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.inventory.SeatHoldService;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+
+/**
+ * Runs every reservation through a {@link ResiliencePolicy}. Screening-aware reservations are passed on to a
+ * {@link ScreeningSeatReservationService}; any other service reserves against its only screening. Seats that a
+ * {@link SeatInventory} reserves after the caller has timed out are released again; other services have no way
+ * to give seats back.
+ * <p>
+ * Use {@link #of} to keep two-phase holds working when the service is a {@link SeatHoldService}.
+ */
+public class ResilientSeatReservationService implements ScreeningSeatReservationService {
+    private final SeatReservationService seatReservationService;
+    private final ResiliencePolicy policy;
+
+    public ResilientSeatReservationService(SeatReservationService seatReservationService, ResiliencePolicy policy) {
+        if(seatReservationService == null) {
+            throw new IllegalArgumentException("seatReservationService cannot be null");
+        }
+
+        if(policy == null) {
+            throw new IllegalArgumentException("policy cannot be null");
+        }
+
+        this.seatReservationService = seatReservationService;
+        this.policy = policy;
+    }
+
+    /**
+     * Wraps {@code seatReservationService} in a {@link ResilientSeatHoldService} if it holds seats, so callers
+     * that check for a {@link SeatHoldService} still find one.
+     */
+    public static ResilientSeatReservationService of(SeatReservationService seatReservationService, ResiliencePolicy policy) {
+        if(seatReservationService instanceof SeatHoldService) {
+            return new ResilientSeatHoldService((SeatHoldService) seatReservationService, policy);
+        }
+
+        return new ResilientSeatReservationService(seatReservationService, policy);
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        policy.execute(() -> seatReservationService.reserveSeat(accountId, totalSeatsToAllocate));
+    }
+
+    @Override
+    public void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate) {
+        if(seatReservationService instanceof SeatInventory) {
+            var seatInventory = (SeatInventory) seatReservationService;
+            policy.execute(() -> {
+                seatInventory.reserveSeat(screeningId, accountId, totalSeatsToAllocate);
+                return Boolean.TRUE;
+            }, reserved -> seatInventory.releaseSeats(screeningId, totalSeatsToAllocate));
+            return;
+        }
+
+        if(seatReservationService instanceof ScreeningSeatReservationService) {
+            var screeningSeatReservationService = (ScreeningSeatReservationService) seatReservationService;
+            policy.execute(() -> screeningSeatReservationService.reserveSeat(screeningId, accountId, totalSeatsToAllocate));
+            return;
+        }
+
+        reserveSeat(accountId, totalSeatsToAllocate);
+    }
+}
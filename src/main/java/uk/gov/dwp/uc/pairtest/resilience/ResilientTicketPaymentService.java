@@ -0,0 +1,78 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.paymentgateway.BatchTicketPaymentService;
+import thirdparty.paymentgateway.RefundableTicketPaymentService;
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * Runs every payment through a {@link ResiliencePolicy}. A payment the gateway takes after the caller has timed
+ * out is refunded if the gateway is a {@link RefundableTicketPaymentService}; other gateways have no way to give
+ * the money back, so such payments need reconciling against the gateway.
+ * <p>
+ * Use {@link #of} to keep refunds and batch payments working when the gateway offers them.
+ */
+public class ResilientTicketPaymentService implements TicketPaymentService {
+    private final TicketPaymentService ticketPaymentService;
+    private final ResiliencePolicy policy;
+
+    public ResilientTicketPaymentService(TicketPaymentService ticketPaymentService, ResiliencePolicy policy) {
+        if(ticketPaymentService == null) {
+            throw new IllegalArgumentException("ticketPaymentService cannot be null");
+        }
+
+        if(policy == null) {
+            throw new IllegalArgumentException("policy cannot be null");
+        }
+
+        this.ticketPaymentService = ticketPaymentService;
+        this.policy = policy;
+    }
+
+    /**
+     * Wraps {@code ticketPaymentService} in the variant that is refundable or takes batches, or both, as it does,
+     * so callers that check for those capabilities still find them.
+     */
+    public static ResilientTicketPaymentService of(TicketPaymentService ticketPaymentService, ResiliencePolicy policy) {
+        var refundable = ticketPaymentService instanceof RefundableTicketPaymentService;
+        if(ticketPaymentService instanceof BatchTicketPaymentService) {
+            var batchTicketPaymentService = (BatchTicketPaymentService) ticketPaymentService;
+            return refundable
+                    ? new ResilientRefundableBatchTicketPaymentService(batchTicketPaymentService, policy)
+                    : new ResilientBatchTicketPaymentService(batchTicketPaymentService, policy);
+        }
+
+        if(refundable) {
+            return new ResilientRefundableTicketPaymentService((RefundableTicketPaymentService) ticketPaymentService, policy);
+        }
+
+        return new ResilientTicketPaymentService(ticketPaymentService, policy);
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        policy.execute(() -> {
+            ticketPaymentService.makePayment(accountId, totalAmountToPay);
+            return Boolean.TRUE;
+        }, paid -> refundLatePayment(accountId, totalAmountToPay));
+    }
+
+    ResiliencePolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Gives back a payment that was taken after the caller gave up on it. Runs on the policy's thread, so a refund
+     * that fails is left for reconciliation rather than thrown at nobody.
+     */
+    void refundLatePayment(long accountId, int totalAmountToRefund) {
+        if(!(ticketPaymentService instanceof RefundableTicketPaymentService)) {
+            return;
+        }
+
+        try {
+            ((RefundableTicketPaymentService) ticketPaymentService).refundPayment(accountId, totalAmountToRefund);
+        } catch (RuntimeException e) {
+            // Taken and not given back, the gateway's records show it for reconciliation
+        }
+    }
+}
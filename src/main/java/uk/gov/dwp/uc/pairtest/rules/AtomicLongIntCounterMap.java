@@ -0,0 +1,148 @@
+package uk.gov.dwp.uc.pairtest.rules;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size map of {@code long} keys to {@code int} counters, open addressed with linear probing and updated
+ * with compare-and-set only. Keys are never removed: the owner drops the whole map when its contents expire,
+ * which keeps every operation wait-free apart from the CAS claiming a new slot.
+ * <p>
+ * Each key costs twelve bytes and the table is kept at most half full, so {@code maximumKeys} bounds the heap
+ * the map will ever use.
+ */
+final class AtomicLongIntCounterMap {
+    private static final long EMPTY = 0L;
+
+    private final AtomicLongArray keys;
+    private final AtomicIntegerArray counters;
+    private final int mask;
+    private final int maximumKeys;
+    private final AtomicInteger size = new AtomicInteger();
+    // 0 marks an empty slot, so its counter lives outside the table
+    private final AtomicInteger zeroKeyCounter = new AtomicInteger();
+
+    AtomicLongIntCounterMap(int maximumKeys) {
+        if(maximumKeys <= 0 || maximumKeys > 1 << 29) {
+            throw new IllegalArgumentException("maximumKeys must be between 1 and 2^29");
+        }
+
+        var capacity = Integer.highestOneBit(maximumKeys * 2 - 1) << 1;
+        this.keys = new AtomicLongArray(capacity);
+        this.counters = new AtomicIntegerArray(capacity);
+        this.mask = capacity - 1;
+        this.maximumKeys = maximumKeys;
+    }
+
+    int get(long key) {
+        if(key == EMPTY) {
+            return zeroKeyCounter.get();
+        }
+
+        for (int slot = indexFor(key), probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            var slotKey = keys.get(slot);
+            if(slotKey == key) {
+                return counters.get(slot);
+            }
+
+            if(slotKey == EMPTY) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Adds {@code delta} to the key's counter, returning false without changing anything if the key is new and
+     * the map already holds {@code maximumKeys} keys.
+     */
+    boolean add(long key, int delta) {
+        if(key == EMPTY) {
+            zeroKeyCounter.addAndGet(delta);
+            return true;
+        }
+
+        for (int slot = indexFor(key), probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            var slotKey = keys.get(slot);
+            if(slotKey == EMPTY) {
+                if(!reserveSpace()) {
+                    // Another thread may be claiming this very key, so look once more before giving up
+                    return addIfPresent(key, delta, slot);
+                }
+
+                if(keys.compareAndSet(slot, EMPTY, key)) {
+                    counters.addAndGet(slot, delta);
+                    return true;
+                }
+
+                size.decrementAndGet();
+                slotKey = keys.get(slot);
+            }
+
+            if(slotKey == key) {
+                counters.addAndGet(slot, delta);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether {@link #add} would count the key now: it is already in the map or there is room for it.
+     */
+    boolean canAdd(long key) {
+        if(key == EMPTY || size.get() < maximumKeys) {
+            return true;
+        }
+
+        for (int slot = indexFor(key), probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            var slotKey = keys.get(slot);
+            if(slotKey == key) {
+                return true;
+            }
+
+            if(slotKey == EMPTY) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean addIfPresent(long key, int delta, int fromSlot) {
+        for (int slot = fromSlot, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            var slotKey = keys.get(slot);
+            if(slotKey == key) {
+                counters.addAndGet(slot, delta);
+                return true;
+            }
+
+            if(slotKey == EMPTY) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean reserveSpace() {
+        while (true) {
+            var current = size.get();
+            if(current >= maximumKeys) {
+                return false;
+            }
+
+            if(size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private int indexFor(long key) {
+        // Murmur3 finaliser, so sequential account ids spread over the table
+        var hash = key;
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+}
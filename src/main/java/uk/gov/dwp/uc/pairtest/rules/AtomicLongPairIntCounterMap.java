@@ -0,0 +1,171 @@
+package uk.gov.dwp.uc.pairtest.rules;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size map of pairs of {@code long} keys to {@code int} counters, laid out like
+ * {@link AtomicLongIntCounterMap} but comparing both halves of the key, so two pairs never share a counter.
+ * <p>
+ * Every entry is stamped with the generation it was added in, and an entry from an older generation counts as an
+ * empty slot. Moving on to a newer generation therefore forgets the whole map without clearing or reallocating
+ * it, so one map can serve a slot of a ring of time buckets for as long as the ring turns.
+ * <p>
+ * A slot is claimed by a compare-and-set of its stamp; the claimer then writes the two halves of the key and
+ * publishes them with a volatile write of the ready stamp. Nobody waits for a claim in progress: readers and other
+ * adders step over it, so two threads adding the same new pair at once may each claim a slot for it. Reads sum
+ * every slot a pair has, so such duplicates only cost space. Each slot costs twenty-eight bytes and the table is
+ * kept at most half full, so {@code maximumKeys} bounds the heap the map will ever use.
+ */
+final class AtomicLongPairIntCounterMap {
+    // A stamp is the generation times four plus one of these, or 0 for a slot that has never been used
+    private static final long CLAIMING = 1;
+    private static final long READY = 2;
+    private static final long STATE_MASK = 3;
+
+    private final long[] firstKeys;
+    private final long[] secondKeys;
+    private final AtomicLongArray stamps;
+    private final AtomicIntegerArray counters;
+    private final int mask;
+    private final int maximumKeys;
+    // Low half of the generation in the high 32 bits, keys added in that generation in the low 32 bits
+    private final AtomicLong occupancy = new AtomicLong();
+
+    AtomicLongPairIntCounterMap(int maximumKeys) {
+        if(maximumKeys <= 0 || maximumKeys > 1 << 29) {
+            throw new IllegalArgumentException("maximumKeys must be between 1 and 2^29");
+        }
+
+        var capacity = Integer.highestOneBit(maximumKeys * 2 - 1) << 1;
+        this.firstKeys = new long[capacity];
+        this.secondKeys = new long[capacity];
+        this.stamps = new AtomicLongArray(capacity);
+        this.counters = new AtomicIntegerArray(capacity);
+        this.mask = capacity - 1;
+        this.maximumKeys = maximumKeys;
+    }
+
+    int get(long generation, long firstKey, long secondKey) {
+        var ready = generation * 4 + READY;
+        var count = 0;
+        for (int slot = indexFor(firstKey, secondKey), probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            var stamp = stamps.get(slot);
+            if(isFree(stamp, generation)) {
+                break;
+            }
+
+            if(stamp == ready && firstKeys[slot] == firstKey && secondKeys[slot] == secondKey) {
+                count += counters.get(slot);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds {@code delta} to the pair's counter in {@code generation}, returning false without changing anything if
+     * the pair is new and the generation already holds {@code maximumKeys} pairs, or if the map has moved on to a
+     * newer generation.
+     */
+    boolean add(long generation, long firstKey, long secondKey, int delta) {
+        var ready = generation * 4 + READY;
+        var slot = indexFor(firstKey, secondKey);
+        var probes = 0;
+        while (probes <= mask) {
+            var stamp = stamps.get(slot);
+            if(isFree(stamp, generation)) {
+                if(!reserveSpace(generation)) {
+                    // Another thread may have added this very pair, so look once more before giving up
+                    return addIfPresent(generation, firstKey, secondKey, delta, slot);
+                }
+
+                if(stamps.compareAndSet(slot, stamp, generation * 4 + CLAIMING)) {
+                    firstKeys[slot] = firstKey;
+                    secondKeys[slot] = secondKey;
+                    counters.set(slot, delta);
+                    stamps.set(slot, ready);
+                    return true;
+                }
+
+                // Lost the slot, so look at it again: it may now hold this very pair
+                releaseSpace(generation);
+                continue;
+            }
+
+            if(stamp == ready && firstKeys[slot] == firstKey && secondKeys[slot] == secondKey) {
+                counters.addAndGet(slot, delta);
+                return true;
+            }
+
+            slot = (slot + 1) & mask;
+            probes++;
+        }
+        return false;
+    }
+
+    private boolean addIfPresent(long generation, long firstKey, long secondKey, int delta, int fromSlot) {
+        var ready = generation * 4 + READY;
+        for (int slot = fromSlot, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            var stamp = stamps.get(slot);
+            if(isFree(stamp, generation)) {
+                return false;
+            }
+
+            if(stamp == ready && firstKeys[slot] == firstKey && secondKeys[slot] == secondKey) {
+                counters.addAndGet(slot, delta);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A slot is free for a generation if it has never been used or was last used by an older generation. The
+     * volatile read of a ready stamp makes the claimer's writes of the key visible.
+     */
+    private static boolean isFree(long stamp, long generation) {
+        return (stamp & STATE_MASK) == 0 || (stamp >> 2) < generation;
+    }
+
+    private boolean reserveSpace(long generation) {
+        while (true) {
+            var current = occupancy.get();
+            var age = (int) generation - (int) (current >>> 32);
+            if(age < 0) {
+                return false;
+            }
+
+            var size = age == 0 ? (int) current : 0;
+            if(size >= maximumKeys) {
+                return false;
+            }
+
+            if(occupancy.compareAndSet(current, ((long) (int) generation << 32) | (size + 1))) {
+                return true;
+            }
+        }
+    }
+
+    private void releaseSpace(long generation) {
+        while (true) {
+            var current = occupancy.get();
+            if((int) (current >>> 32) != (int) generation) {
+                return;
+            }
+
+            if(occupancy.compareAndSet(current, current - 1)) {
+                return;
+            }
+        }
+    }
+
+    private int indexFor(long firstKey, long secondKey) {
+        // Murmur3 finaliser over both halves, so sequential ids spread over the table
+        var hash = firstKey * 0x9e3779b97f4a7c15L + secondKey;
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+}
@@ -0,0 +1,41 @@
+package uk.gov.dwp.uc.pairtest.rules;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+final class CompositePurchaseRules implements PurchaseRules {
+    private final PurchaseRules[] rules;
+
+    CompositePurchaseRules(PurchaseRules[] rules) {
+        this.rules = rules;
+    }
+
+    @Override
+    public void check(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) throws InvalidPurchaseException {
+        for (int i = 0; i < rules.length; i++) {
+            try {
+                rules[i].check(screeningId, accountId, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+            } catch (RuntimeException e) {
+                // Give back whatever the rules that already passed have reserved
+                var numberOfTickets = numberOfAdultTickets + numberOfChildTickets + numberOfInfantTickets;
+                for (int passed = 0; passed < i; passed++) {
+                    rules[passed].cancelPurchase(screeningId, accountId, numberOfTickets);
+                }
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void recordPurchase(long screeningId, long accountId, int numberOfTickets) {
+        for (PurchaseRules rule : rules) {
+            rule.recordPurchase(screeningId, accountId, numberOfTickets);
+        }
+    }
+
+    @Override
+    public void cancelPurchase(long screeningId, long accountId, int numberOfTickets) {
+        for (PurchaseRules rule : rules) {
+            rule.cancelPurchase(screeningId, accountId, numberOfTickets);
+        }
+    }
+}
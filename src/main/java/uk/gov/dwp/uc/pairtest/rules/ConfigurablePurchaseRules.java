@@ -0,0 +1,419 @@
+package uk.gov.dwp.uc.pairtest.rules;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Purchase rules loaded from a properties file, for example:
+ * <pre>
+ * max-tickets=20
+ * max-infants-per-adult=1
+ * children-require-adult=true
+ *
+ * venue.riverside.screenings=42,43
+ * venue.riverside.max-tickets=10
+ * venue.riverside.max-tickets-per-account=12
+ *
+ * screening.43.max-tickets=6
+ * </pre>
+ * Every key is optional and defaults to the standard rules: at most 20 tickets in one transaction, no more
+ * infants than adults and no children without an adult. Venue settings apply to the venue's screenings and
+ * screening settings override them; any setting a layer does not mention keeps the value from the layer below.
+ * {@code max-tickets-per-account} caps the tickets one account may buy for a screening across all of its
+ * transactions and is off unless set.
+ * <p>
+ * The configuration is compiled into a flat array of rules for each screening that has its own settings, holding
+ * only the checks that are switched on, so a check is a binary search on the screening id and one pass over the
+ * array on the raw ticket counts. {@link #reload(Path)} compiles the new configuration off to the side and swaps
+ * it in with a single volatile write.
+ * <p>
+ * Account caps count the purchases passed to {@link #recordPurchase}, and the counts are kept across reloads.
+ * Checking and recording are separate steps, so concurrent purchases for one account can overshoot its cap unless
+ * they are serialised, as {@link uk.gov.dwp.uc.pairtest.ShardedTicketService} does.
+ * <p>
+ * The counts for each screening are held in an {@link AtomicLongIntCounterMap} of tickets by account, found by a
+ * binary search on the screening id, so neither checking nor recording allocates. Each map holds at most
+ * {@code maximumAccountsPerScreening} accounts, 4096 unless given. Once a capped screening's map is full, the cap
+ * fails closed: accounts it has not counted yet are turned away with
+ * {@link InvalidPurchaseException#TooManyAccounts}, so the limit should be sized to the largest audience a
+ * screening can have. A purchase can only go uncounted when other accounts fill the map between its check and its
+ * recording; those are reported by {@link #getNumberOfUncountedPurchases()}. A screening's counts are kept until
+ * {@link #evictScreening} drops them, which the owner should call once the screening has been shown.
+ */
+public class ConfigurablePurchaseRules implements PurchaseRules {
+    private static final int STANDARD_MAX_TICKETS = 20;
+    private static final int STANDARD_MAX_INFANTS_PER_ADULT = 1;
+    private static final int DEFAULT_MAXIMUM_ACCOUNTS_PER_SCREENING = 4096;
+
+    private final int maximumAccountsPerScreening;
+    private final LongAdder uncountedPurchases = new LongAdder();
+    private volatile AccountCounts accountCounts = new AccountCounts(new long[0], new AtomicLongIntCounterMap[0]);
+    private volatile Snapshot snapshot;
+
+    public ConfigurablePurchaseRules(Properties configuration) {
+        this(configuration, DEFAULT_MAXIMUM_ACCOUNTS_PER_SCREENING);
+    }
+
+    public ConfigurablePurchaseRules(Properties configuration, int maximumAccountsPerScreening) {
+        if(maximumAccountsPerScreening <= 0) {
+            throw new IllegalArgumentException("maximumAccountsPerScreening must be greater than 0");
+        }
+
+        this.maximumAccountsPerScreening = maximumAccountsPerScreening;
+        this.snapshot = compile(configuration);
+    }
+
+    public static ConfigurablePurchaseRules load(Path path) throws IOException {
+        return new ConfigurablePurchaseRules(read(path));
+    }
+
+    /**
+     * Replaces the rules with those in {@code path}. If the file cannot be read or is invalid the current rules
+     * are left in place.
+     */
+    public void reload(Path path) throws IOException {
+        update(read(path));
+    }
+
+    public void update(Properties configuration) {
+        snapshot = compile(configuration);
+    }
+
+    @Override
+    public void check(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) throws InvalidPurchaseException {
+        if(numberOfAdultTickets < 0 || numberOfChildTickets < 0 || numberOfInfantTickets < 0) {
+            throw new IllegalArgumentException("number of tickets cannot be negative");
+        }
+
+        var ruleChain = snapshot.ruleChainFor(screeningId);
+        var rules = ruleChain.rules;
+        for (int i = 0; i < rules.length; i++) {
+            if(rules[i].isBrokenBy(screeningId, accountId, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets)) {
+                throw ruleChain.failures[i];
+            }
+        }
+    }
+
+    @Override
+    public void recordPurchase(long screeningId, long accountId, int numberOfTickets) {
+        if(snapshot.ruleChainFor(screeningId).capsAccounts && !ticketsByAccountFor(screeningId).add(accountId, numberOfTickets)) {
+            uncountedPurchases.increment();
+        }
+    }
+
+    /**
+     * Forgets every account's tickets for the screening, so a screening that has been shown stops taking up heap.
+     */
+    public synchronized void evictScreening(long screeningId) {
+        var current = accountCounts;
+        var index = Arrays.binarySearch(current.screeningIds, screeningId);
+        if(index < 0) {
+            return;
+        }
+
+        var screeningIds = new long[current.screeningIds.length - 1];
+        var ticketsByAccount = new AtomicLongIntCounterMap[screeningIds.length];
+        System.arraycopy(current.screeningIds, 0, screeningIds, 0, index);
+        System.arraycopy(current.screeningIds, index + 1, screeningIds, index, screeningIds.length - index);
+        System.arraycopy(current.ticketsByAccount, 0, ticketsByAccount, 0, index);
+        System.arraycopy(current.ticketsByAccount, index + 1, ticketsByAccount, index, ticketsByAccount.length - index);
+        accountCounts = new AccountCounts(screeningIds, ticketsByAccount);
+    }
+
+    public long getNumberOfUncountedPurchases() {
+        return uncountedPurchases.sum();
+    }
+
+    private boolean canCount(long screeningId, long accountId) {
+        var counts = accountCounts;
+        var index = Arrays.binarySearch(counts.screeningIds, screeningId);
+        return index < 0 || counts.ticketsByAccount[index].canAdd(accountId);
+    }
+
+    private int ticketsBoughtBy(long screeningId, long accountId) {
+        var counts = accountCounts;
+        var index = Arrays.binarySearch(counts.screeningIds, screeningId);
+        return index >= 0 ? counts.ticketsByAccount[index].get(accountId) : 0;
+    }
+
+    private AtomicLongIntCounterMap ticketsByAccountFor(long screeningId) {
+        var counts = accountCounts;
+        var index = Arrays.binarySearch(counts.screeningIds, screeningId);
+        if(index >= 0) {
+            return counts.ticketsByAccount[index];
+        }
+
+        return addScreeningCounts(screeningId);
+    }
+
+    // Screenings are added far less often than purchases are counted, so the counts are copied on write
+    private synchronized AtomicLongIntCounterMap addScreeningCounts(long screeningId) {
+        var current = accountCounts;
+        var index = Arrays.binarySearch(current.screeningIds, screeningId);
+        if(index >= 0) {
+            return current.ticketsByAccount[index];
+        }
+
+        var insertAt = -index - 1;
+        var screeningIds = new long[current.screeningIds.length + 1];
+        var ticketsByAccount = new AtomicLongIntCounterMap[screeningIds.length];
+        System.arraycopy(current.screeningIds, 0, screeningIds, 0, insertAt);
+        System.arraycopy(current.screeningIds, insertAt, screeningIds, insertAt + 1, current.screeningIds.length - insertAt);
+        System.arraycopy(current.ticketsByAccount, 0, ticketsByAccount, 0, insertAt);
+        System.arraycopy(current.ticketsByAccount, insertAt, ticketsByAccount, insertAt + 1, current.ticketsByAccount.length - insertAt);
+        screeningIds[insertAt] = screeningId;
+        ticketsByAccount[insertAt] = new AtomicLongIntCounterMap(maximumAccountsPerScreening);
+        accountCounts = new AccountCounts(screeningIds, ticketsByAccount);
+        return ticketsByAccount[insertAt];
+    }
+
+    private static Properties read(Path path) throws IOException {
+        var configuration = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            configuration.load(reader);
+        }
+        return configuration;
+    }
+
+    private Snapshot compile(Properties configuration) {
+        if(configuration == null) {
+            throw new IllegalArgumentException("configuration cannot be null");
+        }
+
+        var base = new Settings();
+        base.maxTickets = STANDARD_MAX_TICKETS;
+        base.maxInfantsPerAdult = STANDARD_MAX_INFANTS_PER_ADULT;
+        base.childrenRequireAdult = true;
+        var venues = new TreeMap<String, Settings>();
+        var screenings = new TreeMap<Long, Settings>();
+
+        for (String key : configuration.stringPropertyNames()) {
+            var value = configuration.getProperty(key).trim();
+            var parts = key.split("\\.");
+            try {
+                switch (parts[0]) {
+                    case "venue":
+                        requireLength(key, parts, 3);
+                        venues.computeIfAbsent(parts[1], name -> new Settings()).set(key, parts[2], value, true);
+                        break;
+                    case "screening":
+                        requireLength(key, parts, 3);
+                        screenings.computeIfAbsent(Long.parseLong(parts[1]), id -> new Settings()).set(key, parts[2], value, false);
+                        break;
+                    default:
+                        requireLength(key, parts, 1);
+                        base.set(key, parts[0], value, false);
+                        break;
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid rule entry " + key + "=" + value, e);
+            }
+        }
+
+        var venueByScreening = new TreeMap<Long, Settings>();
+        for (Map.Entry<String, Settings> venue : venues.entrySet()) {
+            if(venue.getValue().screeningIds == null) {
+                throw new IllegalArgumentException("Missing rule key: venue." + venue.getKey() + ".screenings");
+            }
+
+            for (long screeningId : venue.getValue().screeningIds) {
+                if(venueByScreening.put(screeningId, venue.getValue()) != null) {
+                    throw new IllegalArgumentException("Screening " + screeningId + " is in more than one venue");
+                }
+            }
+        }
+
+        var scopedScreeningIds = new TreeMap<Long, List<Settings>>();
+        venueByScreening.forEach((screeningId, venue) -> scopedScreeningIds.computeIfAbsent(screeningId, id -> new ArrayList<>()).add(venue));
+        screenings.forEach((screeningId, screening) -> scopedScreeningIds.computeIfAbsent(screeningId, id -> new ArrayList<>()).add(screening));
+
+        var failures = new HashMap<String, InvalidPurchaseException>();
+        var defaultRuleChain = compileRuleChain(base, failures);
+        var screeningIds = new long[scopedScreeningIds.size()];
+        var screeningRuleChains = new RuleChain[screeningIds.length];
+        int i = 0;
+        for (Map.Entry<Long, List<Settings>> screening : scopedScreeningIds.entrySet()) {
+            var settings = base.copy();
+            for (Settings layer : screening.getValue()) {
+                settings.applyFrom(layer);
+            }
+
+            screeningIds[i] = screening.getKey();
+            screeningRuleChains[i] = compileRuleChain(settings, failures);
+            i++;
+        }
+
+        return new Snapshot(defaultRuleChain, screeningIds, screeningRuleChains);
+    }
+
+    private RuleChain compileRuleChain(Settings settings, Map<String, InvalidPurchaseException> failures) {
+        var rules = new ArrayList<Rule>();
+        var ruleFailures = new ArrayList<InvalidPurchaseException>();
+
+        rules.add((screeningId, accountId, adults, children, infants) -> (long) adults + children + infants == 0);
+        ruleFailures.add(InvalidPurchaseException.NoTickets);
+
+        int maxTickets = settings.maxTickets;
+        rules.add((screeningId, accountId, adults, children, infants) -> (long) adults + children + infants > maxTickets);
+        ruleFailures.add(maxTickets == STANDARD_MAX_TICKETS
+                ? InvalidPurchaseException.TooManyTickets
+                : failures.computeIfAbsent("max-tickets=" + maxTickets, key -> new InvalidPurchaseException("Cannot purchase more than " + maxTickets + " tickets in one transaction")));
+
+        int maxInfantsPerAdult = settings.maxInfantsPerAdult;
+        rules.add((screeningId, accountId, adults, children, infants) -> infants > (long) adults * maxInfantsPerAdult);
+        ruleFailures.add(maxInfantsPerAdult == STANDARD_MAX_INFANTS_PER_ADULT
+                ? InvalidPurchaseException.TooManyInfantTickets
+                : failures.computeIfAbsent("max-infants-per-adult=" + maxInfantsPerAdult, key -> new InvalidPurchaseException("Cannot purchase more than " + maxInfantsPerAdult + " infant tickets per adult ticket")));
+
+        if(settings.childrenRequireAdult) {
+            rules.add((screeningId, accountId, adults, children, infants) -> children > 0 && adults == 0);
+            ruleFailures.add(InvalidPurchaseException.TooManyChildTickets);
+        }
+
+        var capsAccounts = settings.maxTicketsPerAccount != null;
+        if(capsAccounts) {
+            rules.add((screeningId, accountId, adults, children, infants) -> !canCount(screeningId, accountId));
+            ruleFailures.add(InvalidPurchaseException.TooManyAccounts);
+
+            int maxTicketsPerAccount = settings.maxTicketsPerAccount;
+            rules.add((screeningId, accountId, adults, children, infants) ->
+                    (long) ticketsBoughtBy(screeningId, accountId) + adults + children + infants > maxTicketsPerAccount);
+            ruleFailures.add(failures.computeIfAbsent("max-tickets-per-account=" + maxTicketsPerAccount, key -> new InvalidPurchaseException("Cannot purchase more than " + maxTicketsPerAccount + " tickets for one screening on one account")));
+        }
+
+        return new RuleChain(rules.toArray(Rule[]::new), ruleFailures.toArray(InvalidPurchaseException[]::new), capsAccounts);
+    }
+
+    private static void requireLength(String key, String[] parts, int length) {
+        if(parts.length != length) {
+            throw new IllegalArgumentException("Unknown rule key: " + key);
+        }
+    }
+
+    private interface Rule {
+        boolean isBrokenBy(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets);
+    }
+
+    private static final class RuleChain {
+        private final Rule[] rules;
+        private final InvalidPurchaseException[] failures;
+        private final boolean capsAccounts;
+
+        private RuleChain(Rule[] rules, InvalidPurchaseException[] failures, boolean capsAccounts) {
+            this.rules = rules;
+            this.failures = failures;
+            this.capsAccounts = capsAccounts;
+        }
+    }
+
+    private static final class Snapshot {
+        private final RuleChain defaultRuleChain;
+        private final long[] screeningIds;
+        private final RuleChain[] screeningRuleChains;
+
+        private Snapshot(RuleChain defaultRuleChain, long[] screeningIds, RuleChain[] screeningRuleChains) {
+            this.defaultRuleChain = defaultRuleChain;
+            this.screeningIds = screeningIds;
+            this.screeningRuleChains = screeningRuleChains;
+        }
+
+        private RuleChain ruleChainFor(long screeningId) {
+            var index = Arrays.binarySearch(screeningIds, screeningId);
+            return index >= 0 ? screeningRuleChains[index] : defaultRuleChain;
+        }
+    }
+
+    private static final class Settings {
+        private Integer maxTickets;
+        private Integer maxInfantsPerAdult;
+        private Boolean childrenRequireAdult;
+        private Integer maxTicketsPerAccount;
+        private long[] screeningIds;
+
+        private void set(String key, String name, String value, boolean venue) {
+            switch (name) {
+                case "max-tickets":
+                    maxTickets = parseLimit(value, 1);
+                    break;
+                case "max-infants-per-adult":
+                    maxInfantsPerAdult = parseLimit(value, 0);
+                    break;
+                case "children-require-adult":
+                    childrenRequireAdult = parseBoolean(value);
+                    break;
+                case "max-tickets-per-account":
+                    maxTicketsPerAccount = parseLimit(value, 1);
+                    break;
+                case "screenings":
+                    if(!venue) {
+                        throw new IllegalArgumentException("Unknown rule key: " + key);
+                    }
+                    screeningIds = Arrays.stream(value.split(","))
+                            .map(String::trim)
+                            .mapToLong(Long::parseLong)
+                            .toArray();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown rule key: " + key);
+            }
+        }
+
+        private Settings copy() {
+            var copy = new Settings();
+            copy.applyFrom(this);
+            return copy;
+        }
+
+        private void applyFrom(Settings layer) {
+            if(layer.maxTickets != null) {
+                maxTickets = layer.maxTickets;
+            }
+            if(layer.maxInfantsPerAdult != null) {
+                maxInfantsPerAdult = layer.maxInfantsPerAdult;
+            }
+            if(layer.childrenRequireAdult != null) {
+                childrenRequireAdult = layer.childrenRequireAdult;
+            }
+            if(layer.maxTicketsPerAccount != null) {
+                maxTicketsPerAccount = layer.maxTicketsPerAccount;
+            }
+        }
+
+        private static int parseLimit(String value, int minimum) {
+            var limit = Integer.parseInt(value);
+            if(limit < minimum) {
+                throw new IllegalArgumentException("limit must be at least " + minimum);
+            }
+            return limit;
+        }
+
+        private static boolean parseBoolean(String value) {
+            if(!value.equals("true") && !value.equals("false")) {
+                throw new IllegalArgumentException("expected true or false");
+            }
+            return Boolean.parseBoolean(value);
+        }
+    }
+
+    private static final class AccountCounts {
+        private final long[] screeningIds;
+        private final AtomicLongIntCounterMap[] ticketsByAccount;
+
+        private AccountCounts(long[] screeningIds, AtomicLongIntCounterMap[] ticketsByAccount) {
+            this.screeningIds = screeningIds;
+            this.ticketsByAccount = ticketsByAccount;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package uk.gov.dwp.uc.pairtest.rules;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.Properties;
+
+public interface PurchaseRules {
+    /**
+     * At most 20 tickets per transaction, no more infants than adults and no children without an adult, for
+     * every screening.
+     */
+    PurchaseRules STANDARD = new ConfigurablePurchaseRules(new Properties())::check;
+
+    /**
+     * Throws the {@link InvalidPurchaseException} for the first rule the purchase breaks. Implementations must not
+     * block, since this is on the purchase hot path. Rules that count across transactions may reserve the
+     * purchase here, in which case {@link #cancelPurchase} is called if it fails later on.
+     *
+     * @throws IllegalArgumentException if any of the counts is negative
+     */
+    void check(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) throws InvalidPurchaseException;
+
+    /**
+     * Called once a purchase that passed {@link #check} has been paid for, for rules that count across transactions.
+     */
+    default void recordPurchase(long screeningId, long accountId, int numberOfTickets) {
+    }
+
+    /**
+     * Called when a purchase that passed {@link #check} goes on to fail, so anything reserved for it can be given back.
+     */
+    default void cancelPurchase(long screeningId, long accountId, int numberOfTickets) {
+    }
+
+    /**
+     * Checks each of {@code rules} in turn; the purchase must pass all of them.
+     */
+    static PurchaseRules allOf(PurchaseRules... rules) {
+        if(rules == null) {
+            throw new IllegalArgumentException("rules cannot be null");
+        }
+
+        for (PurchaseRules rule : rules) {
+            if(rule == null) {
+                throw new IllegalArgumentException("rules cannot contain null rules");
+            }
+        }
+
+        return new CompositePurchaseRules(rules.clone());
+    }
+}
@@ -0,0 +1,144 @@
+package uk.gov.dwp.uc.pairtest.rules;
+
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the tickets an account may buy within a sliding window, either across all screenings or for each
+ * screening separately, rejecting purchases over the cap with {@link InvalidPurchaseException#QuotaExceeded}.
+ * <p>
+ * The window is split into {@code numberOfBuckets} time buckets held in a ring, each an
+ * {@link AtomicLongPairIntCounterMap} of tickets keyed by screening and account, so no two screenings share a
+ * count; when the cap spans all screenings the screening half of the key is always 0. A purchase is counted in
+ * the bucket for the time it was made. Each bucket's map is allocated once, up front, and stamps its entries with
+ * the bucket's epoch, so when the slot comes round again a window later its old entries simply stop counting:
+ * nothing is evicted one account at a time, cleared, reallocated or locked. Purchases therefore leave the window
+ * between {@code window - window / numberOfBuckets} and {@code window} after they were made.
+ * <p>
+ * {@link #check} reserves the tickets by adding them to the current bucket before summing the window, and takes
+ * them back if that goes over the cap, so concurrent purchases for one account can never overshoot it between
+ * them. Each bucket holds at most {@code maximumAccountsPerBucket} accounts, which fixes the heap at roughly
+ * {@code 56 * numberOfBuckets * maximumAccountsPerBucket} bytes. Purchases by further accounts in a full bucket
+ * are let through uncounted rather than turned away, and reported by {@link #getNumberOfUncountedPurchases()}.
+ */
+public class SlidingWindowQuota implements PurchaseRules {
+    public enum Scope {
+        ACCOUNT,
+        SCREENING
+    }
+
+    private final Scope scope;
+    private final int maxTickets;
+    private final long bucketMillis;
+    private final AtomicLongPairIntCounterMap[] buckets;
+    private final Clock clock;
+    private final LongAdder uncountedPurchases = new LongAdder();
+
+    public SlidingWindowQuota(Scope scope, int maxTickets, Duration window, int numberOfBuckets, int maximumAccountsPerBucket, Clock clock) {
+        if(scope == null) {
+            throw new IllegalArgumentException("scope cannot be null");
+        }
+
+        if(maxTickets <= 0) {
+            throw new IllegalArgumentException("maxTickets must be greater than 0");
+        }
+
+        if(window == null) {
+            throw new IllegalArgumentException("window cannot be null");
+        }
+
+        if(numberOfBuckets <= 0) {
+            throw new IllegalArgumentException("numberOfBuckets must be greater than 0");
+        }
+
+        if(window.toMillis() < numberOfBuckets) {
+            throw new IllegalArgumentException("window must be at least a millisecond per bucket");
+        }
+
+        if(maximumAccountsPerBucket <= 0) {
+            throw new IllegalArgumentException("maximumAccountsPerBucket must be greater than 0");
+        }
+
+        if(clock == null) {
+            throw new IllegalArgumentException("clock cannot be null");
+        }
+
+        this.scope = scope;
+        this.maxTickets = maxTickets;
+        this.bucketMillis = window.toMillis() / numberOfBuckets;
+        this.buckets = new AtomicLongPairIntCounterMap[numberOfBuckets];
+        for (int i = 0; i < numberOfBuckets; i++) {
+            buckets[i] = new AtomicLongPairIntCounterMap(maximumAccountsPerBucket);
+        }
+        this.clock = clock;
+    }
+
+    @Override
+    public void check(long screeningId, long accountId, int numberOfAdultTickets, int numberOfChildTickets, int numberOfInfantTickets) throws InvalidPurchaseException {
+        if(numberOfAdultTickets < 0 || numberOfChildTickets < 0 || numberOfInfantTickets < 0) {
+            throw new IllegalArgumentException("number of tickets cannot be negative");
+        }
+
+        var totalTickets = (long) numberOfAdultTickets + numberOfChildTickets + numberOfInfantTickets;
+        if(totalTickets == 0) {
+            return;
+        }
+
+        if(totalTickets > maxTickets) {
+            throw InvalidPurchaseException.QuotaExceeded;
+        }
+
+        var numberOfTickets = (int) totalTickets;
+        var epoch = Math.floorDiv(clock.millis(), bucketMillis);
+        var current = buckets[slotFor(epoch)];
+        var screeningKey = screeningKey(screeningId);
+        if(!current.add(epoch, screeningKey, accountId, numberOfTickets)) {
+            uncountedPurchases.increment();
+            return;
+        }
+
+        if(ticketsInWindow(screeningKey, accountId, epoch) > maxTickets) {
+            current.add(epoch, screeningKey, accountId, -numberOfTickets);
+            throw InvalidPurchaseException.QuotaExceeded;
+        }
+    }
+
+    /**
+     * Takes the tickets back out of the current bucket. If the bucket has rolled over since the purchase was
+     * checked the account is briefly owed the tickets instead, until the earlier bucket leaves the window.
+     */
+    @Override
+    public void cancelPurchase(long screeningId, long accountId, int numberOfTickets) {
+        if(numberOfTickets > 0) {
+            var epoch = Math.floorDiv(clock.millis(), bucketMillis);
+            buckets[slotFor(epoch)].add(epoch, screeningKey(screeningId), accountId, -numberOfTickets);
+        }
+    }
+
+    public int getNumberOfTickets(long screeningId, long accountId) {
+        return (int) Math.max(0, ticketsInWindow(screeningKey(screeningId), accountId, Math.floorDiv(clock.millis(), bucketMillis)));
+    }
+
+    public long getNumberOfUncountedPurchases() {
+        return uncountedPurchases.sum();
+    }
+
+    private long ticketsInWindow(long screeningKey, long accountId, long epoch) {
+        var tickets = 0L;
+        for (int age = 0; age < buckets.length; age++) {
+            tickets += buckets[slotFor(epoch - age)].get(epoch - age, screeningKey, accountId);
+        }
+        return tickets;
+    }
+
+    private long screeningKey(long screeningId) {
+        return scope == Scope.SCREENING ? screeningId : 0L;
+    }
+
+    private int slotFor(long epoch) {
+        return (int) Math.floorMod(epoch, (long) buckets.length);
+    }
+}
@@ -0,0 +1,197 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import thirdparty.paymentgateway.AsyncTicketPaymentService;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.AsyncSeatReservationService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.pricing.PriceTable;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+import uk.gov.dwp.uc.pairtest.rules.PurchaseRules;
+
+import java.time.Clock;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class AsyncTicketServiceImplTests {
+    private final AsyncTicketServiceImpl ticketService;
+    private final Long VALID_ACCOUNT_ID = 1L;
+
+    private final AsyncSeatReservationService mockedSeatReservationService = Mockito.mock(AsyncSeatReservationService.class);
+    private final AsyncTicketPaymentService mockedTicketPaymentService = Mockito.mock(AsyncTicketPaymentService.class);
+
+    public AsyncTicketServiceImplTests() {
+        Mockito.when(mockedSeatReservationService.reserveSeat(anyLong(), anyInt())).thenReturn(CompletableFuture.completedFuture(null));
+        Mockito.when(mockedTicketPaymentService.makePayment(anyLong(), anyInt())).thenReturn(CompletableFuture.completedFuture(null));
+        ticketService = new AsyncTicketServiceImpl(mockedSeatReservationService, mockedTicketPaymentService, Runnable::run);
+    }
+
+    @Test
+    public void purchaseTickets_WhenCalledWithNullAccountId_ThrowsIllegalArgumentException() {
+        var ticketTypeRequest = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ticketService.purchaseTickets(null, ticketTypeRequest));
+
+        verifyNoMoreInteractions(mockedSeatReservationService);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenCalledWithInvalidTicketTypeRequests_CompletesWithFailedResult() throws Exception {
+        var result = ticketService.purchaseTickets(VALID_ACCOUNT_ID, new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1)).get();
+
+        Assertions.assertFalse(result.isSuccessful());
+        Assertions.assertEquals(InvalidPurchaseException.TooManyInfantTickets, result.getFailure());
+        verifyNoMoreInteractions(mockedSeatReservationService);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenCalledWithValidTicketTypeRequests_ReservesSeatsThenTakesPayment() throws Exception {
+        var result = ticketService.purchaseTickets(VALID_ACCOUNT_ID,
+                new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2),
+                new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1),
+                new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1)).get();
+
+        Assertions.assertTrue(result.isSuccessful());
+        Assertions.assertEquals(3, result.getTotalSeatsReserved());
+        Assertions.assertEquals(50, result.getTotalAmountPaid());
+
+        InOrder inOrder = Mockito.inOrder(mockedSeatReservationService, mockedTicketPaymentService);
+        inOrder.verify(mockedSeatReservationService).reserveSeat(VALID_ACCOUNT_ID, 3);
+        inOrder.verify(mockedTicketPaymentService).makePayment(VALID_ACCOUNT_ID, 50);
+    }
+
+    @Test
+    public void purchaseTickets_WhenSeatReservationFails_CompletesExceptionallyWithoutTakingPayment() {
+        var reservationFailure = new IllegalStateException("reservation failed");
+        Mockito.when(mockedSeatReservationService.reserveSeat(anyLong(), anyInt())).thenReturn(CompletableFuture.failedFuture(reservationFailure));
+
+        var future = ticketService.purchaseTickets(VALID_ACCOUNT_ID, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1));
+
+        var thrownException = Assertions.assertThrows(ExecutionException.class, future::get);
+        Assertions.assertSame(reservationFailure, thrownException.getCause());
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenAdaptingBlockingServices_RunsThemOnTheExecutor() throws Exception {
+        var blockingSeatReservationService = Mockito.mock(SeatReservationService.class);
+        var blockingTicketPaymentService = Mockito.mock(TicketPaymentService.class);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var adaptedTicketService = new AsyncTicketServiceImpl(blockingSeatReservationService, blockingTicketPaymentService, executor);
+
+            var result = adaptedTicketService.purchaseTickets(VALID_ACCOUNT_ID, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1))
+                    .get(5, TimeUnit.SECONDS);
+
+            Assertions.assertTrue(result.isSuccessful());
+            Mockito.verify(blockingSeatReservationService).reserveSeat(VALID_ACCOUNT_ID, 1);
+            Mockito.verify(blockingTicketPaymentService).makePayment(VALID_ACCOUNT_ID, 20);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void purchaseTickets_WhenConfiguredWithRules_ChecksAndRecordsThePurchase() throws Exception {
+        var mockedRules = Mockito.mock(PurchaseRules.class);
+        var ruledTicketService = newTicketService(mockedRules);
+
+        var result = ruledTicketService.purchaseTickets(VALID_ACCOUNT_ID, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)).get();
+
+        Assertions.assertTrue(result.isSuccessful());
+        InOrder inOrder = Mockito.inOrder(mockedRules, mockedSeatReservationService, mockedTicketPaymentService);
+        inOrder.verify(mockedRules).check(TicketService.DEFAULT_SCREENING_ID, VALID_ACCOUNT_ID, 2, 0, 0);
+        inOrder.verify(mockedSeatReservationService).reserveSeat(VALID_ACCOUNT_ID, 2);
+        inOrder.verify(mockedTicketPaymentService).makePayment(VALID_ACCOUNT_ID, 40);
+        inOrder.verify(mockedRules).recordPurchase(TicketService.DEFAULT_SCREENING_ID, VALID_ACCOUNT_ID, 2);
+        verifyNoMoreInteractions(mockedRules);
+    }
+
+    @Test
+    public void purchaseTickets_WhenCalledWithAnOrder_ChecksTheRulesForItsScreening() throws Exception {
+        var mockedRules = Mockito.mock(PurchaseRules.class);
+        var ruledTicketService = newTicketService(mockedRules);
+
+        var result = ruledTicketService.purchaseTickets(new TicketPurchaseOrder(42L, VALID_ACCOUNT_ID, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1))).get();
+
+        Assertions.assertTrue(result.isSuccessful());
+        Mockito.verify(mockedRules).check(42L, VALID_ACCOUNT_ID, 1, 0, 0);
+        Mockito.verify(mockedRules).recordPurchase(42L, VALID_ACCOUNT_ID, 1);
+        verifyNoMoreInteractions(mockedRules);
+    }
+
+    @Test
+    public void purchaseTickets_WhenRulesRejectThePurchase_CompletesWithTheirFailure() throws Exception {
+        var mockedRules = Mockito.mock(PurchaseRules.class);
+        Mockito.doThrow(InvalidPurchaseException.QuotaExceeded).when(mockedRules).check(anyLong(), anyLong(), anyInt(), anyInt(), anyInt());
+        var ruledTicketService = newTicketService(mockedRules);
+
+        var result = ruledTicketService.purchaseTickets(VALID_ACCOUNT_ID, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)).get();
+
+        Assertions.assertEquals(InvalidPurchaseException.QuotaExceeded, result.getFailure());
+        verifyNoMoreInteractions(mockedSeatReservationService);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenPaymentFailsAfterTheRulesPassed_CancelsThePurchase() {
+        var mockedRules = Mockito.mock(PurchaseRules.class);
+        Mockito.when(mockedTicketPaymentService.makePayment(anyLong(), anyInt())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("payment failed")));
+        var ruledTicketService = newTicketService(mockedRules);
+
+        var future = ruledTicketService.purchaseTickets(VALID_ACCOUNT_ID, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2));
+
+        Assertions.assertThrows(ExecutionException.class, future::get);
+        Mockito.verify(mockedRules).check(TicketService.DEFAULT_SCREENING_ID, VALID_ACCOUNT_ID, 2, 0, 0);
+        Mockito.verify(mockedRules).cancelPurchase(TicketService.DEFAULT_SCREENING_ID, VALID_ACCOUNT_ID, 2);
+        verifyNoMoreInteractions(mockedRules);
+    }
+
+    @Test
+    public void close_WhenServiceCreatedItsExecutor_ShutsItDown() {
+        var ownedExecutorTicketService = new AsyncTicketServiceImpl(mockedSeatReservationService, mockedTicketPaymentService);
+
+        ownedExecutorTicketService.close();
+
+        Assertions.assertThrows(RejectedExecutionException.class,
+                () -> ownedExecutorTicketService.purchaseTickets(VALID_ACCOUNT_ID, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)));
+    }
+
+    @Test
+    public void close_WhenExecutorWasPassedIn_LeavesItRunning() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            new AsyncTicketServiceImpl(mockedSeatReservationService, mockedTicketPaymentService, executor).close();
+
+            Assertions.assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private AsyncTicketServiceImpl newTicketService(PurchaseRules rules) {
+        return new AsyncTicketServiceImpl(
+                mockedSeatReservationService,
+                mockedTicketPaymentService,
+                Runnable::run,
+                PricingEngine.fixed(PriceTable.STANDARD),
+                Clock.systemUTC(),
+                rules);
+    }
+}
@@ -0,0 +1,166 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+
+public class ShardedTicketServiceTests {
+    private final TicketTypeRequest ADULT = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+
+    private final TicketService mockedTicketService = Mockito.mock(TicketService.class);
+    private ShardedTicketService ticketService;
+
+    public ShardedTicketServiceTests() {
+        Mockito.when(mockedTicketService.purchaseTickets(any(TicketPurchaseOrder.class))).thenAnswer(invocation -> {
+            TicketPurchaseOrder order = invocation.getArgument(0);
+            return PurchaseResult.success(order.getAccountId(), 1, 20);
+        });
+    }
+
+    @AfterEach
+    public void close() {
+        if(ticketService != null) {
+            ticketService.close();
+        }
+    }
+
+    @Test
+    public void Constructor_WhenCalledWithNullTicketService_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ShardedTicketService(null));
+    }
+
+    @Test
+    public void purchaseTickets_WhenCalledWithNullAccountId_ThrowsIllegalArgumentException() {
+        ticketService = new ShardedTicketService(mockedTicketService, 2, 16, Duration.ZERO);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ticketService.purchaseTickets(null, ADULT));
+    }
+
+    @Test
+    public void purchaseTickets_WhenDelegateRejectsPurchase_CompletesWithFailedResult() throws Exception {
+        Mockito.doReturn(PurchaseResult.failure(1L, InvalidPurchaseException.NotEnoughSeats)).when(mockedTicketService).purchaseTickets(any(TicketPurchaseOrder.class));
+        ticketService = new ShardedTicketService(mockedTicketService, 2, 16, Duration.ZERO);
+
+        var result = ticketService.purchaseTickets(1L, ADULT).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertFalse(result.isSuccessful());
+        Assertions.assertEquals(InvalidPurchaseException.NotEnoughSeats, result.getFailure());
+    }
+
+    @Test
+    public void purchaseTickets_WhenCalledWithAnOrder_PurchasesItForItsScreening() throws Exception {
+        ticketService = new ShardedTicketService(mockedTicketService, 2, 16, Duration.ZERO);
+        var order = new TicketPurchaseOrder(42L, 1L, ADULT);
+
+        var result = ticketService.purchaseTickets(order).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(result.isSuccessful());
+        Mockito.verify(mockedTicketService).purchaseTickets(order);
+        Mockito.verifyNoMoreInteractions(mockedTicketService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenCalledRepeatedlyForOneAccount_RunsInSubmissionOrderOnOneThread() throws Exception {
+        var amounts = new ArrayList<Integer>();
+        var threads = new ArrayList<Thread>();
+        Mockito.doAnswer(invocation -> {
+            TicketPurchaseOrder order = invocation.getArgument(0);
+            amounts.add(order.getTicketTypeRequests()[0].getNoOfTickets());
+            threads.add(Thread.currentThread());
+            return PurchaseResult.success(order.getAccountId(), 1, 20);
+        }).when(mockedTicketService).purchaseTickets(any(TicketPurchaseOrder.class));
+        ticketService = new ShardedTicketService(mockedTicketService, 4, 256, Duration.ZERO);
+
+        var futures = new ArrayList<CompletableFuture<PurchaseResult>>();
+        for (int i = 1; i <= 20; i++) {
+            futures.add(ticketService.purchaseTickets(7L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, i)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(i + 1, amounts.get(i));
+            Assertions.assertSame(threads.get(0), threads.get(i));
+        }
+    }
+
+    @Test
+    public void purchaseTickets_WhenAccountsAreOnDifferentShards_RunsThemInParallel() throws Exception {
+        ticketService = new ShardedTicketService(mockedTicketService, 4, 16, Duration.ZERO);
+        var otherAccountId = 2L;
+        while (ticketService.shardFor(otherAccountId) == ticketService.shardFor(1L)) {
+            otherAccountId++;
+        }
+
+        var bothRunning = new CountDownLatch(2);
+        Mockito.doAnswer(invocation -> {
+            TicketPurchaseOrder order = invocation.getArgument(0);
+            bothRunning.countDown();
+            Assertions.assertTrue(bothRunning.await(5, TimeUnit.SECONDS));
+            return PurchaseResult.success(order.getAccountId(), 1, 20);
+        }).when(mockedTicketService).purchaseTickets(any(TicketPurchaseOrder.class));
+
+        var first = ticketService.purchaseTickets(1L, ADULT);
+        var second = ticketService.purchaseTickets(otherAccountId, ADULT);
+
+        Assertions.assertTrue(first.get(10, TimeUnit.SECONDS).isSuccessful());
+        Assertions.assertTrue(second.get(10, TimeUnit.SECONDS).isSuccessful());
+    }
+
+    @Test
+    public void purchaseTickets_WhenShardQueueIsFull_CompletesWithServiceUnavailable() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            TicketPurchaseOrder order = invocation.getArgument(0);
+            started.countDown();
+            release.await();
+            return PurchaseResult.success(order.getAccountId(), 1, 20);
+        }).when(mockedTicketService).purchaseTickets(any(TicketPurchaseOrder.class));
+        ticketService = new ShardedTicketService(mockedTicketService, 1, 2, Duration.ofMillis(10));
+
+        var running = ticketService.purchaseTickets(1L, ADULT);
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        var queued = List.of(ticketService.purchaseTickets(2L, ADULT), ticketService.purchaseTickets(3L, ADULT));
+
+        var rejected = ticketService.purchaseTickets(4L, ADULT).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, rejected.getFailure());
+        release.countDown();
+        Assertions.assertTrue(running.get(5, TimeUnit.SECONDS).isSuccessful());
+        for (CompletableFuture<PurchaseResult> purchase : queued) {
+            Assertions.assertTrue(purchase.get(5, TimeUnit.SECONDS).isSuccessful());
+        }
+    }
+
+    @Test
+    public void close_WhenPurchasesAreQueued_CompletesThemBeforeReturning() throws Exception {
+        ticketService = new ShardedTicketService(mockedTicketService, 2, 64, Duration.ZERO);
+        var futures = new ArrayList<CompletableFuture<PurchaseResult>>();
+        for (long accountId = 1; accountId <= 32; accountId++) {
+            futures.add(ticketService.purchaseTickets(accountId, ADULT));
+        }
+
+        ticketService.close();
+
+        for (CompletableFuture<PurchaseResult> purchase : futures) {
+            Assertions.assertTrue(purchase.isDone());
+            Assertions.assertTrue(purchase.get().isSuccessful());
+        }
+        var afterClose = ticketService.purchaseTickets(1L, ADULT).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, afterClose.getFailure());
+    }
+}
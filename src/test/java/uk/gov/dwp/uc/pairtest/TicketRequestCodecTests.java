@@ -0,0 +1,159 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.rules.PurchaseRules;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class TicketRequestCodecTests {
+    private final ByteBuffer buffer = ByteBuffer.allocate(256);
+    private final TicketRequestFlyweight flyweight = new TicketRequestFlyweight();
+
+    @Test
+    public void encode_WhenCalledWithSmallRequest_WritesFiveBytesPerTwoTypes() {
+        TicketRequestCodec.encode(buffer, 0L, 1L,
+                new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2),
+                new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1));
+
+        Assertions.assertEquals(5, buffer.position());
+        Assertions.assertArrayEquals(new byte[]{0, 1, 2, 0x02, 0x41}, Arrays.copyOf(buffer.array(), 5));
+    }
+
+    @Test
+    public void decode_WhenCalledWithEncodedRequest_ReturnsTheSameTicketTypeRequests() {
+        TicketRequestCodec.encode(buffer, 42L, 123_456_789L,
+                new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2),
+                new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1),
+                new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 300));
+        buffer.flip();
+
+        var order = TicketRequestCodec.decode(buffer);
+
+        Assertions.assertFalse(buffer.hasRemaining());
+        Assertions.assertEquals(42L, order.getScreeningId());
+        Assertions.assertEquals(123_456_789L, order.getAccountId());
+        var ticketTypeRequests = order.getTicketTypeRequests();
+        Assertions.assertEquals(3, ticketTypeRequests.length);
+        Assertions.assertEquals(TicketTypeRequest.Type.ADULT, ticketTypeRequests[0].getTicketType());
+        Assertions.assertEquals(2, ticketTypeRequests[0].getNoOfTickets());
+        Assertions.assertEquals(TicketTypeRequest.Type.INFANT, ticketTypeRequests[1].getTicketType());
+        Assertions.assertEquals(1, ticketTypeRequests[1].getNoOfTickets());
+        Assertions.assertEquals(TicketTypeRequest.Type.CHILD, ticketTypeRequests[2].getTicketType());
+        Assertions.assertEquals(300, ticketTypeRequests[2].getNoOfTickets());
+    }
+
+    @Test
+    public void decodeBatch_WhenCalledWithEncodedBatch_ReturnsEveryOrder() {
+        var orders = List.of(
+                new TicketPurchaseOrder(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)),
+                new TicketPurchaseOrder(42L, Long.MAX_VALUE, new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 63)));
+        TicketRequestCodec.encodeBatch(buffer, orders);
+        buffer.flip();
+
+        var decoded = TicketRequestCodec.decodeBatch(buffer);
+
+        Assertions.assertEquals(2, decoded.size());
+        Assertions.assertEquals(1L, decoded.get(0).getAccountId());
+        Assertions.assertEquals(TicketService.DEFAULT_SCREENING_ID, decoded.get(0).getScreeningId());
+        Assertions.assertEquals(42L, decoded.get(1).getScreeningId());
+        Assertions.assertEquals(Long.MAX_VALUE, decoded.get(1).getAccountId());
+        Assertions.assertEquals(63, decoded.get(1).getTicketTypeRequests()[0].getNoOfTickets());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'', truncated",
+            "'00 01 02 02', truncated",
+            "'00 01 01 C1', unknown ticket type",
+            "'00 01 01 00', empty entry",
+            "'FF FF FF FF FF FF FF FF FF FF FF', varint too long"
+    })
+    public void wrap_WhenCalledWithMalformedRequest_ThrowsIllegalArgumentException(String hex, String reason) {
+        var malformed = ByteBuffer.wrap(bytes(hex));
+
+        var exception = Assertions.assertThrows(IllegalArgumentException.class, () -> flyweight.wrap(malformed, 0));
+        Assertions.assertTrue(exception.getMessage().contains(reason), exception.getMessage());
+
+        malformed.rewind();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TicketRequestCodec.decode(malformed));
+    }
+
+    @Test
+    public void wrap_WhenCalledWithEncodedRequest_TalliesCountsWithoutMovingTheBuffer() {
+        buffer.put((byte) 0x7f);
+        TicketRequestCodec.encode(buffer, 42L, 7L,
+                new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2),
+                new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 3),
+                new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1));
+        var end = buffer.position();
+
+        flyweight.wrap(buffer, 1);
+
+        Assertions.assertEquals(end, buffer.position());
+        Assertions.assertEquals(42L, flyweight.getScreeningId());
+        Assertions.assertEquals(7L, flyweight.getAccountId());
+        Assertions.assertEquals(5, flyweight.getNumberOfTickets(TicketTypeRequest.Type.ADULT));
+        Assertions.assertEquals(0, flyweight.getNumberOfTickets(TicketTypeRequest.Type.CHILD));
+        Assertions.assertEquals(1, flyweight.getNumberOfTickets(TicketTypeRequest.Type.INFANT));
+        Assertions.assertEquals(5, flyweight.getNumberOfSeats());
+        Assertions.assertEquals(end - 1, flyweight.getEncodedLength());
+    }
+
+    @Test
+    public void validate_WhenWrappedRequestBreaksTheRules_ThrowsInvalidPurchaseException() {
+        TicketRequestCodec.encode(buffer, 0L, 1L, 1, 0, 2);
+
+        var exception = Assertions.assertThrows(InvalidPurchaseException.class, () -> flyweight.wrap(buffer, 0).validate());
+
+        Assertions.assertEquals(InvalidPurchaseException.TooManyInfantTickets, exception);
+    }
+
+    @Test
+    public void validate_WhenCalledWithRules_ChecksTheWrappedRequestForItsScreeningAndAccount() {
+        var rules = Mockito.mock(PurchaseRules.class);
+        Mockito.doThrow(InvalidPurchaseException.QuotaExceeded).when(rules).check(42L, 7L, 2, 1, 0);
+        TicketRequestCodec.encode(buffer, 42L, 7L, 2, 1, 0);
+
+        var exception = Assertions.assertThrows(InvalidPurchaseException.class, () -> flyweight.wrap(buffer, 0).validate(rules));
+
+        Assertions.assertEquals(InvalidPurchaseException.QuotaExceeded, exception);
+    }
+
+    @Test
+    public void purchase_WhenWrappedRequestsAreReadOneAfterAnother_PurchasesEachThroughThePrimitiveEntryPoint() {
+        var ticketService = Mockito.mock(TicketService.class);
+        TicketRequestCodec.encode(buffer, 42L, 1L, 2, 1, 0);
+        TicketRequestCodec.encode(buffer, 43L, 2L, 1, 0, 1);
+        buffer.flip();
+
+        var offset = 0;
+        while (offset < buffer.limit()) {
+            flyweight.wrap(buffer, offset).purchase(ticketService);
+            offset += flyweight.getEncodedLength();
+        }
+
+        Mockito.verify(ticketService).purchaseTickets(42L, 1L, 2, 1, 0);
+        Mockito.verify(ticketService).purchaseTickets(43L, 2L, 1, 0, 1);
+        verifyNoMoreInteractions(ticketService);
+    }
+
+    private static byte[] bytes(String hex) {
+        var parts = hex.isEmpty() ? new String[0] : hex.split(" ");
+        var bytes = new byte[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(parts[i], 16);
+        }
+        return bytes;
+    }
+}
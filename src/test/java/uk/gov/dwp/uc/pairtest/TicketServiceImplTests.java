@@ -7,14 +7,38 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.ArgumentsProvider;
 import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
+import thirdparty.paymentgateway.BatchTicketPaymentService;
+import thirdparty.paymentgateway.RefundableTicketPaymentService;
 import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.BatchSeatReservationService;
+import thirdparty.seatbooking.ScreeningSeatReservationService;
 import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatHold;
+import uk.gov.dwp.uc.pairtest.inventory.SeatHoldService;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+import uk.gov.dwp.uc.pairtest.inventory.SeatMap;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseRecord;
+import uk.gov.dwp.uc.pairtest.metrics.InMemoryPurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.pricing.PriceTable;
+import uk.gov.dwp.uc.pairtest.pricing.PricingEngine;
+import uk.gov.dwp.uc.pairtest.rules.PurchaseRules;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 
@@ -259,4 +283,564 @@ public class TicketServiceImplTests {
                 .makePayment(VALID_ACCOUNT_ID, expectedAmountToCharge);
         verifyNoMoreInteractions(mockedTicketPaymentService);
     }
+
+    @Test
+    public void purchaseTickets_WhenCalledWithNegativeTicketCounts_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ticketService.purchaseTickets(VALID_ACCOUNT_ID, 1, -1, 0));
+
+        verifyNoMoreInteractions(mockedSeatReservationService);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenCalledWithCountsThatOverflowAnInt_ThrowsInvalidPurchaseException() {
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(VALID_ACCOUNT_ID, Integer.MAX_VALUE, Integer.MAX_VALUE, 2));
+
+        Assertions.assertEquals(InvalidPurchaseException.TooManyTickets, thrownException);
+        verifyNoMoreInteractions(mockedSeatReservationService);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 0, 0, At least one ticket must be purchased",
+            "21, 0, 0, Cannot purchase more than 20 tickets in one transaction",
+            "1, 0, 2, Cannot purchase more infant tickets than adult tickets",
+            "0, 1, 0, Cannot purchase child tickets without adult tickets"
+    })
+    public void purchaseTickets_WhenCalledWithInvalidTicketCounts_ThrowsInvalidPurchaseException(
+            int numberOfAdultTickets,
+            int numberOfChildTickets,
+            int numberOfInfantTickets,
+            String expectedMessage) {
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(VALID_ACCOUNT_ID, numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets));
+
+        Assertions.assertEquals(expectedMessage, thrownException.getMessage());
+        verifyNoMoreInteractions(mockedSeatReservationService);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, 0, 0, 1, 20",
+            "1, 1, 1, 2, 30",
+            "10, 10, 0, 20, 300"
+    })
+    public void purchaseTickets_WhenCalledWithValidTicketCounts_ReservesAndChargesCorrectly(
+            int numberOfAdultTickets,
+            int numberOfChildTickets,
+            int numberOfInfantTickets,
+            int expectedNumberOfSeatsToReserve,
+            int expectedAmountToCharge) {
+        ticketService.purchaseTickets(VALID_ACCOUNT_ID.longValue(), numberOfAdultTickets, numberOfChildTickets, numberOfInfantTickets);
+
+        Mockito.verify(mockedSeatReservationService).reserveSeat(VALID_ACCOUNT_ID, expectedNumberOfSeatsToReserve);
+        Mockito.verify(mockedTicketPaymentService).makePayment(VALID_ACCOUNT_ID, expectedAmountToCharge);
+        verifyNoMoreInteractions(mockedSeatReservationService);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenCalledForAScreening_ChargesThePricesInForceForThatScreening() {
+        var clock = Clock.fixed(Instant.ofEpochMilli(1_000L), ZoneOffset.UTC);
+        var pricingEngine = Mockito.mock(PricingEngine.class);
+        Mockito.when(pricingEngine.getPriceTable(42L, 1_000L)).thenReturn(new PriceTable(25, 12, 1));
+        var pricedTicketService = new TicketServiceImpl(mockedSeatReservationService, mockedTicketPaymentService, pricingEngine, clock);
+
+        pricedTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 1, 1);
+
+        Mockito.verify(mockedSeatReservationService).reserveSeat(VALID_ACCOUNT_ID, 3);
+        Mockito.verify(mockedTicketPaymentService).makePayment(VALID_ACCOUNT_ID, 63);
+        verifyNoMoreInteractions(mockedSeatReservationService);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenSeatServiceKnowsAboutScreenings_ReservesSeatsForThatScreening() {
+        var screeningSeatReservationService = Mockito.mock(ScreeningSeatReservationService.class);
+        var screeningTicketService = new TicketServiceImpl(screeningSeatReservationService, mockedTicketPaymentService);
+
+        screeningTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 1, 0);
+
+        Mockito.verify(screeningSeatReservationService).reserveSeat(42L, VALID_ACCOUNT_ID, 3);
+        verifyNoMoreInteractions(screeningSeatReservationService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenPaymentSucceeds_ConfirmsTheSeatHold() {
+        var seatHoldService = Mockito.mock(SeatHoldService.class);
+        var seatHold = Mockito.mock(SeatHold.class);
+        Mockito.when(seatHoldService.hold(42L, VALID_ACCOUNT_ID, 2)).thenReturn(seatHold);
+        var holdingTicketService = new TicketServiceImpl(seatHoldService, mockedTicketPaymentService);
+
+        holdingTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 0, 0);
+
+        InOrder inOrder = Mockito.inOrder(seatHoldService, mockedTicketPaymentService);
+        inOrder.verify(seatHoldService).hold(42L, VALID_ACCOUNT_ID, 2);
+        inOrder.verify(mockedTicketPaymentService).makePayment(VALID_ACCOUNT_ID, 40);
+        inOrder.verify(seatHoldService).confirm(seatHold);
+        verifyNoMoreInteractions(seatHoldService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenPaymentFails_ReleasesTheSeatHold() {
+        var seatHoldService = Mockito.mock(SeatHoldService.class);
+        var seatHold = Mockito.mock(SeatHold.class);
+        Mockito.when(seatHoldService.hold(42L, VALID_ACCOUNT_ID, 2)).thenReturn(seatHold);
+        var paymentFailure = new IllegalStateException("card declined");
+        Mockito.doThrow(paymentFailure).when(mockedTicketPaymentService).makePayment(VALID_ACCOUNT_ID, 40);
+        var holdingTicketService = new TicketServiceImpl(seatHoldService, mockedTicketPaymentService);
+
+        var thrownException = Assertions.assertThrows(IllegalStateException.class,
+                () -> holdingTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 0, 0));
+
+        Assertions.assertSame(paymentFailure, thrownException);
+        Mockito.verify(seatHoldService).release(seatHold);
+        Mockito.verify(seatHoldService, Mockito.never()).confirm(seatHold);
+    }
+
+    @Test
+    public void purchaseTickets_WhenHoldExpiresAfterPayment_RefundsThePaymentAndCancelsThePurchase() {
+        var seatHoldService = Mockito.mock(SeatHoldService.class);
+        var seatHold = Mockito.mock(SeatHold.class);
+        Mockito.when(seatHoldService.hold(42L, VALID_ACCOUNT_ID, 2)).thenReturn(seatHold);
+        Mockito.doThrow(InvalidPurchaseException.HoldExpired).when(seatHoldService).confirm(seatHold);
+        var refundablePaymentService = Mockito.mock(RefundableTicketPaymentService.class);
+        var rules = Mockito.mock(PurchaseRules.class);
+        var holdingTicketService = new TicketServiceImpl(
+                seatHoldService, refundablePaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, PurchaseJournal.NOOP, rules);
+
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class,
+                () -> holdingTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 0, 0));
+
+        Assertions.assertEquals(InvalidPurchaseException.HoldExpired, thrownException);
+        InOrder inOrder = Mockito.inOrder(refundablePaymentService, rules);
+        inOrder.verify(refundablePaymentService).makePayment(VALID_ACCOUNT_ID, 40);
+        inOrder.verify(refundablePaymentService).refundPayment(VALID_ACCOUNT_ID, 40);
+        inOrder.verify(rules).cancelPurchase(42L, VALID_ACCOUNT_ID, 2);
+    }
+
+    @Test
+    public void purchaseTickets_WhenHoldExpiresAfterPaymentThatCannotBeRefunded_KeepsThePurchaseCounted() {
+        var seatHoldService = Mockito.mock(SeatHoldService.class);
+        var seatHold = Mockito.mock(SeatHold.class);
+        Mockito.when(seatHoldService.hold(42L, VALID_ACCOUNT_ID, 2)).thenReturn(seatHold);
+        Mockito.doThrow(InvalidPurchaseException.HoldExpired).when(seatHoldService).confirm(seatHold);
+        var rules = Mockito.mock(PurchaseRules.class);
+        var holdingTicketService = new TicketServiceImpl(
+                seatHoldService, mockedTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, PurchaseJournal.NOOP, rules);
+
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class,
+                () -> holdingTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 0, 0));
+
+        Assertions.assertEquals(InvalidPurchaseException.RefundPending, thrownException);
+        Mockito.verify(rules).check(42L, VALID_ACCOUNT_ID, 2, 0, 0);
+        verifyNoMoreInteractions(rules);
+    }
+
+    @Test
+    public void purchaseTickets_WhenMetricsAreEnabled_RecordsEachStageAndTheOutcome() {
+        var metrics = new InMemoryPurchaseMetrics();
+        var instrumentedTicketService = new TicketServiceImpl(
+                mockedSeatReservationService, mockedTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), metrics);
+
+        instrumentedTicketService.purchaseTickets(VALID_ACCOUNT_ID, 2, 1, 1);
+        Assertions.assertThrows(InvalidPurchaseException.class, () -> instrumentedTicketService.purchaseTickets(VALID_ACCOUNT_ID, 0, 1, 0));
+
+        Assertions.assertEquals(1, metrics.getSeatReservationLatency().getCount());
+        Assertions.assertEquals(1, metrics.getPaymentLatency().getCount());
+        Assertions.assertEquals(1, metrics.getValidationLatency().getCount());
+        Assertions.assertEquals(2, metrics.getTicketsSold(TicketTypeRequest.Type.ADULT));
+        Assertions.assertEquals(1, metrics.getTicketsSold(TicketTypeRequest.Type.CHILD));
+        Assertions.assertEquals(1, metrics.getTicketsSold(TicketTypeRequest.Type.INFANT));
+        Assertions.assertEquals(Map.of(InvalidPurchaseException.TooManyChildTickets.getMessage(), 1L), metrics.getInvalidPurchases());
+    }
+
+    @Test
+    public void purchaseTickets_WhenRulesAreConfigured_ChecksThemForTheScreeningAndRecordsThePurchase() {
+        var rules = Mockito.mock(PurchaseRules.class);
+        var ruledTicketService = new TicketServiceImpl(
+                mockedSeatReservationService, mockedTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, PurchaseJournal.NOOP, rules);
+
+        ruledTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 1, 1);
+
+        var inOrder = Mockito.inOrder(rules, mockedSeatReservationService, mockedTicketPaymentService);
+        inOrder.verify(rules).check(42L, VALID_ACCOUNT_ID, 2, 1, 1);
+        inOrder.verify(mockedSeatReservationService).reserveSeat(VALID_ACCOUNT_ID, 3);
+        inOrder.verify(mockedTicketPaymentService).makePayment(VALID_ACCOUNT_ID, 50);
+        inOrder.verify(rules).recordPurchase(42L, VALID_ACCOUNT_ID, 4);
+        verifyNoMoreInteractions(rules);
+    }
+
+    @Test
+    public void purchaseTickets_WhenRulesRejectPurchase_ThrowsWithoutReservingOrRecording() {
+        var rules = Mockito.mock(PurchaseRules.class);
+        Mockito.doThrow(InvalidPurchaseException.TooManyTickets).when(rules).check(42L, VALID_ACCOUNT_ID, 2, 0, 0);
+        var ruledTicketService = new TicketServiceImpl(
+                mockedSeatReservationService, mockedTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, PurchaseJournal.NOOP, rules);
+
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class, () -> ruledTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 0, 0));
+
+        Assertions.assertEquals(InvalidPurchaseException.TooManyTickets, thrownException);
+        Mockito.verify(rules).check(42L, VALID_ACCOUNT_ID, 2, 0, 0);
+        verifyNoMoreInteractions(rules);
+        verifyNoMoreInteractions(mockedSeatReservationService);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenPaymentFailsAfterRulesPass_CancelsThePurchaseWithTheRules() {
+        var rules = Mockito.mock(PurchaseRules.class);
+        Mockito.doThrow(new IllegalStateException("payment failed")).when(mockedTicketPaymentService).makePayment(VALID_ACCOUNT_ID, 40);
+        var ruledTicketService = new TicketServiceImpl(
+                mockedSeatReservationService, mockedTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, PurchaseJournal.NOOP, rules);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> ruledTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 0, 1));
+
+        Mockito.verify(rules).check(42L, VALID_ACCOUNT_ID, 2, 0, 1);
+        Mockito.verify(rules).cancelPurchase(42L, VALID_ACCOUNT_ID, 3);
+        verifyNoMoreInteractions(rules);
+    }
+
+    @Test
+    public void purchaseTickets_WhenPricingFailsAfterRulesPass_CancelsThePurchaseWithTheRules() {
+        var rules = Mockito.mock(PurchaseRules.class);
+        var pricingEngine = Mockito.mock(PricingEngine.class);
+        Mockito.when(pricingEngine.getPriceTable(Mockito.eq(42L), Mockito.anyLong())).thenThrow(new IllegalStateException("no prices"));
+        var ruledTicketService = new TicketServiceImpl(
+                mockedSeatReservationService, mockedTicketPaymentService, pricingEngine, Clock.systemUTC(), PurchaseMetrics.NOOP, PurchaseJournal.NOOP, rules);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> ruledTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 0, 1));
+
+        Mockito.verify(rules).check(42L, VALID_ACCOUNT_ID, 2, 0, 1);
+        Mockito.verify(rules).cancelPurchase(42L, VALID_ACCOUNT_ID, 3);
+        verifyNoMoreInteractions(rules, mockedSeatReservationService, mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenJournalCannotAcceptThePurchase_CancelsItWithTheRulesWithoutReserving() {
+        var rules = Mockito.mock(PurchaseRules.class);
+        var journal = Mockito.mock(PurchaseJournal.class);
+        Mockito.when(journal.accept(42L, VALID_ACCOUNT_ID, 2, 0, 0, 40)).thenThrow(new IllegalStateException("journal full"));
+        var journaledTicketService = new TicketServiceImpl(
+                mockedSeatReservationService, mockedTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, journal, rules);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> journaledTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 0, 0));
+
+        Mockito.verify(rules).check(42L, VALID_ACCOUNT_ID, 2, 0, 0);
+        Mockito.verify(rules).cancelPurchase(42L, VALID_ACCOUNT_ID, 2);
+        verifyNoMoreInteractions(rules, mockedSeatReservationService, mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenJournalCannotRecordTheAbort_StillReleasesTheHoldAndCancelsThePurchase() {
+        var rules = Mockito.mock(PurchaseRules.class);
+        var journal = Mockito.mock(PurchaseJournal.class);
+        var purchase = new PurchaseRecord(1L, PurchaseRecord.State.ACCEPTED, 42L, VALID_ACCOUNT_ID, 2, 0, 0, 40);
+        Mockito.when(journal.accept(42L, VALID_ACCOUNT_ID, 2, 0, 0, 40)).thenReturn(purchase);
+        Mockito.doThrow(new IllegalStateException("journal full")).when(journal).record(purchase, PurchaseRecord.State.ABORTED);
+        var seatHoldService = Mockito.mock(SeatHoldService.class);
+        var seatHold = Mockito.mock(SeatHold.class);
+        Mockito.when(seatHoldService.hold(42L, VALID_ACCOUNT_ID, 2)).thenReturn(seatHold);
+        Mockito.doThrow(new IllegalStateException("card declined")).when(mockedTicketPaymentService).makePayment(VALID_ACCOUNT_ID, 40);
+        var journaledTicketService = new TicketServiceImpl(
+                seatHoldService, mockedTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, journal, rules);
+
+        var thrownException = Assertions.assertThrows(IllegalStateException.class, () -> journaledTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 0, 0));
+
+        Assertions.assertEquals("card declined", thrownException.getMessage());
+        Mockito.verify(seatHoldService).release(seatHold);
+        Mockito.verify(rules).cancelPurchase(42L, VALID_ACCOUNT_ID, 2);
+    }
+
+    @Test
+    public void purchaseTickets_WhenJournalIsEnabled_RecordsEachStateAheadOfThePayment() {
+        var journal = Mockito.mock(PurchaseJournal.class);
+        var purchase = new PurchaseRecord(1L, PurchaseRecord.State.ACCEPTED, 42L, VALID_ACCOUNT_ID, 2, 0, 0, 40);
+        Mockito.when(journal.accept(42L, VALID_ACCOUNT_ID, 2, 0, 0, 40)).thenReturn(purchase);
+        var seatHoldService = Mockito.mock(SeatHoldService.class);
+        var seatHold = Mockito.mock(SeatHold.class);
+        Mockito.when(seatHoldService.hold(42L, VALID_ACCOUNT_ID, 2)).thenReturn(seatHold);
+        var journaledTicketService = new TicketServiceImpl(
+                seatHoldService, mockedTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, journal);
+
+        journaledTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 0, 0);
+
+        InOrder inOrder = Mockito.inOrder(journal, seatHoldService, mockedTicketPaymentService);
+        inOrder.verify(journal).accept(42L, VALID_ACCOUNT_ID, 2, 0, 0, 40);
+        inOrder.verify(seatHoldService).hold(42L, VALID_ACCOUNT_ID, 2);
+        inOrder.verify(journal).record(purchase, PurchaseRecord.State.SEATS_RESERVED);
+        inOrder.verify(journal).sync();
+        inOrder.verify(mockedTicketPaymentService).makePayment(VALID_ACCOUNT_ID, 40);
+        inOrder.verify(journal).record(purchase, PurchaseRecord.State.PAID);
+        inOrder.verify(seatHoldService).confirm(seatHold);
+        inOrder.verify(journal).record(purchase, PurchaseRecord.State.COMPLETED);
+        verifyNoMoreInteractions(journal);
+    }
+
+    @Test
+    public void purchaseTickets_WhenJournalIsEnabledAndPaymentFails_RecordsThePurchaseAsAborted() {
+        var journal = Mockito.mock(PurchaseJournal.class);
+        var purchase = new PurchaseRecord(1L, PurchaseRecord.State.ACCEPTED, 0L, VALID_ACCOUNT_ID, 1, 0, 0, 20);
+        Mockito.when(journal.accept(0L, VALID_ACCOUNT_ID, 1, 0, 0, 20)).thenReturn(purchase);
+        Mockito.doThrow(new IllegalStateException("card declined")).when(mockedTicketPaymentService).makePayment(VALID_ACCOUNT_ID, 20);
+        var journaledTicketService = new TicketServiceImpl(
+                mockedSeatReservationService, mockedTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, journal);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> journaledTicketService.purchaseTickets(VALID_ACCOUNT_ID, 1, 0, 0));
+
+        InOrder inOrder = Mockito.inOrder(journal);
+        inOrder.verify(journal).accept(0L, VALID_ACCOUNT_ID, 1, 0, 0, 20);
+        inOrder.verify(journal).record(purchase, PurchaseRecord.State.SEATS_RESERVED);
+        inOrder.verify(journal).sync();
+        inOrder.verify(journal).record(purchase, PurchaseRecord.State.ABORTED);
+        verifyNoMoreInteractions(journal);
+    }
+
+    @Test
+    public void purchaseTickets_WhenJournalIsEnabledAndAPaymentCannotBeRefunded_RecordsThatARefundIsRequired() {
+        var journal = Mockito.mock(PurchaseJournal.class);
+        var purchase = new PurchaseRecord(1L, PurchaseRecord.State.ACCEPTED, 42L, VALID_ACCOUNT_ID, 2, 0, 0, 40);
+        Mockito.when(journal.accept(42L, VALID_ACCOUNT_ID, 2, 0, 0, 40)).thenReturn(purchase);
+        var seatHoldService = Mockito.mock(SeatHoldService.class);
+        var seatHold = Mockito.mock(SeatHold.class);
+        Mockito.when(seatHoldService.hold(42L, VALID_ACCOUNT_ID, 2)).thenReturn(seatHold);
+        Mockito.doThrow(InvalidPurchaseException.HoldExpired).when(seatHoldService).confirm(seatHold);
+        var journaledTicketService = new TicketServiceImpl(
+                seatHoldService, mockedTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, journal);
+
+        Assertions.assertThrows(InvalidPurchaseException.class, () -> journaledTicketService.purchaseTickets(42L, VALID_ACCOUNT_ID, 2, 0, 0));
+
+        InOrder inOrder = Mockito.inOrder(journal);
+        inOrder.verify(journal).record(purchase, PurchaseRecord.State.PAID);
+        inOrder.verify(journal).record(purchase, PurchaseRecord.State.REFUND_REQUIRED);
+        inOrder.verify(journal).sync();
+        Mockito.verify(journal, Mockito.never()).record(purchase, PurchaseRecord.State.ABORTED);
+    }
+
+    @Test
+    public void purchaseTickets_WhenJournalIsEnabledAndPurchaseIsInvalid_RecordsNothing() {
+        var journal = Mockito.mock(PurchaseJournal.class);
+        var journaledTicketService = new TicketServiceImpl(
+                mockedSeatReservationService, mockedTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, journal);
+
+        Assertions.assertThrows(InvalidPurchaseException.class, () -> journaledTicketService.purchaseTickets(VALID_ACCOUNT_ID, 0, 1, 0));
+
+        verifyNoMoreInteractions(journal);
+    }
+
+    @Test
+    public void purchaseTicketsBatch_WhenCalledWithNullOrders_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ticketService.purchaseTicketsBatch(null));
+
+        verifyNoMoreInteractions(mockedSeatReservationService);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTicketsBatch_WhenCalledWithAnInvalidOrder_ReportsItWithoutFailingTheRest() {
+        var results = ticketService.purchaseTicketsBatch(List.of(
+                new TicketPurchaseOrder(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)),
+                new TicketPurchaseOrder(2L, new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1)),
+                new TicketPurchaseOrder(3L,
+                        new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1),
+                        new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1))
+        ));
+
+        Assertions.assertEquals(3, results.size());
+        Assertions.assertTrue(results.get(0).isSuccessful());
+        Assertions.assertEquals(40, results.get(0).getTotalAmountPaid());
+        Assertions.assertFalse(results.get(1).isSuccessful());
+        Assertions.assertEquals(InvalidPurchaseException.TooManyChildTickets, results.get(1).getFailure());
+        Assertions.assertTrue(results.get(2).isSuccessful());
+        Assertions.assertEquals(2, results.get(2).getTotalSeatsReserved());
+
+        Mockito.verify(mockedSeatReservationService).reserveSeat(1L, 2);
+        Mockito.verify(mockedSeatReservationService).reserveSeat(3L, 2);
+        Mockito.verify(mockedTicketPaymentService).makePayment(1L, 40);
+        Mockito.verify(mockedTicketPaymentService).makePayment(3L, 30);
+        verifyNoMoreInteractions(mockedSeatReservationService);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTicketsBatch_WhenServicesSupportBatching_MakesOneCallPerService() {
+        var batchSeatReservationService = Mockito.mock(BatchSeatReservationService.class);
+        var batchTicketPaymentService = Mockito.mock(BatchTicketPaymentService.class);
+        var batchTicketService = new TicketServiceImpl(batchSeatReservationService, batchTicketPaymentService);
+
+        batchTicketService.purchaseTicketsBatch(List.of(
+                new TicketPurchaseOrder(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)),
+                new TicketPurchaseOrder(2L, new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1)),
+                new TicketPurchaseOrder(3L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 3))
+        ));
+
+        Mockito.verify(batchSeatReservationService).reserveSeats(new long[]{1L, 3L}, new int[]{1, 3});
+        Mockito.verify(batchTicketPaymentService).makePayments(new long[]{1L, 3L}, new int[]{20, 60});
+        verifyNoMoreInteractions(batchSeatReservationService);
+        verifyNoMoreInteractions(batchTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTicketsBatch_WhenEveryOrderIsInvalid_MakesNoDownstreamCalls() {
+        var results = ticketService.purchaseTicketsBatch(List.of(
+                new TicketPurchaseOrder(1L),
+                new TicketPurchaseOrder(2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 21))
+        ));
+
+        Assertions.assertEquals(InvalidPurchaseException.NoTickets, results.get(0).getFailure());
+        Assertions.assertEquals(InvalidPurchaseException.TooManyTickets, results.get(1).getFailure());
+        verifyNoMoreInteractions(mockedSeatReservationService);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenCalledWithAnOrder_ReturnsItsResultInsteadOfThrowing() {
+        var seatInventory = new SeatInventory(1);
+        seatInventory.addScreening(42L, new SeatMap(3));
+        var inventoryTicketService = new TicketServiceImpl(seatInventory, mockedTicketPaymentService);
+
+        var sold = inventoryTicketService.purchaseTickets(new TicketPurchaseOrder(42L, 1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)));
+        var notSeated = inventoryTicketService.purchaseTickets(new TicketPurchaseOrder(42L, 2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)));
+
+        Assertions.assertTrue(sold.isSuccessful());
+        Assertions.assertEquals(2, sold.getTotalSeatsReserved());
+        Assertions.assertEquals(40, sold.getTotalAmountPaid());
+        Assertions.assertEquals(InvalidPurchaseException.NotEnoughSeats, notSeated.getFailure());
+        Assertions.assertEquals(1, seatInventory.getRemainingSeats(42L));
+    }
+
+    @Test
+    public void purchaseTicketsBatch_WhenOneOrderCannotBeSeated_ReportsItAndSellsTheRest() {
+        var seatInventory = new SeatInventory(1);
+        seatInventory.addScreening(42L, new SeatMap(3));
+        seatInventory.addScreening(43L, new SeatMap(3));
+        var inventoryTicketService = new TicketServiceImpl(seatInventory, mockedTicketPaymentService);
+
+        var results = inventoryTicketService.purchaseTicketsBatch(List.of(
+                new TicketPurchaseOrder(42L, 1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)),
+                new TicketPurchaseOrder(42L, 2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)),
+                new TicketPurchaseOrder(43L, 3L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 3))
+        ));
+
+        Assertions.assertTrue(results.get(0).isSuccessful());
+        Assertions.assertEquals(InvalidPurchaseException.NotEnoughSeats, results.get(1).getFailure());
+        Assertions.assertTrue(results.get(2).isSuccessful());
+        Assertions.assertEquals(1, seatInventory.getRemainingSeats(42L));
+        Assertions.assertEquals(0, seatInventory.getRemainingSeats(43L));
+        Mockito.verify(mockedTicketPaymentService).makePayment(1L, 40);
+        Mockito.verify(mockedTicketPaymentService).makePayment(3L, 60);
+        verifyNoMoreInteractions(mockedTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTicketsBatch_WhenPaymentFailsForOneOrder_ReleasesItsSeatHoldAndSellsTheRest() {
+        var seatHoldService = Mockito.mock(SeatHoldService.class);
+        var firstHold = Mockito.mock(SeatHold.class);
+        var secondHold = Mockito.mock(SeatHold.class);
+        Mockito.when(seatHoldService.hold(42L, 1L, 1)).thenReturn(firstHold);
+        Mockito.when(seatHoldService.hold(43L, 2L, 1)).thenReturn(secondHold);
+        Mockito.doThrow(new IllegalStateException("card declined")).when(mockedTicketPaymentService).makePayment(1L, 20);
+        var rules = Mockito.mock(PurchaseRules.class);
+        var holdingTicketService = new TicketServiceImpl(
+                seatHoldService, mockedTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, PurchaseJournal.NOOP, rules);
+
+        var results = holdingTicketService.purchaseTicketsBatch(List.of(
+                new TicketPurchaseOrder(42L, 1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)),
+                new TicketPurchaseOrder(43L, 2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1))
+        ));
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, results.get(0).getFailure());
+        Assertions.assertTrue(results.get(1).isSuccessful());
+        Mockito.verify(seatHoldService).release(firstHold);
+        Mockito.verify(seatHoldService, Mockito.never()).confirm(firstHold);
+        Mockito.verify(seatHoldService).confirm(secondHold);
+        Mockito.verify(rules).cancelPurchase(42L, 1L, 1);
+        Mockito.verify(rules).recordPurchase(43L, 2L, 1);
+    }
+
+    @Test
+    public void purchaseTicketsBatch_WhenPricingFailsForOneOrder_CancelsItAndSellsTheRest() {
+        var rules = Mockito.mock(PurchaseRules.class);
+        var pricingEngine = Mockito.mock(PricingEngine.class);
+        Mockito.when(pricingEngine.getPriceTable(Mockito.eq(42L), Mockito.anyLong())).thenThrow(new IllegalStateException("no prices"));
+        Mockito.when(pricingEngine.getPriceTable(Mockito.eq(43L), Mockito.anyLong())).thenReturn(PriceTable.STANDARD);
+        var batchTicketPaymentService = Mockito.mock(BatchTicketPaymentService.class);
+        var batchTicketService = new TicketServiceImpl(
+                mockedSeatReservationService, batchTicketPaymentService, pricingEngine, Clock.systemUTC(), PurchaseMetrics.NOOP, PurchaseJournal.NOOP, rules);
+
+        var results = batchTicketService.purchaseTicketsBatch(List.of(
+                new TicketPurchaseOrder(42L, 1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)),
+                new TicketPurchaseOrder(43L, 2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)),
+                new TicketPurchaseOrder(43L, 3L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1))
+        ));
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, results.get(0).getFailure());
+        Assertions.assertTrue(results.get(1).isSuccessful());
+        Assertions.assertTrue(results.get(2).isSuccessful());
+        Mockito.verify(rules).cancelPurchase(42L, 1L, 1);
+        Mockito.verify(rules).recordPurchase(43L, 2L, 1);
+        Mockito.verify(rules).recordPurchase(43L, 3L, 1);
+        Mockito.verify(batchTicketPaymentService).makePayments(new long[]{2L, 3L}, new int[]{20, 20});
+    }
+
+    @Test
+    public void purchaseTicketsBatch_WhenJournalCannotRecordSeatsReserved_ReleasesEveryHoldWithoutTakingPayment() {
+        var rules = Mockito.mock(PurchaseRules.class);
+        var journal = Mockito.mock(PurchaseJournal.class);
+        var firstPurchase = new PurchaseRecord(1L, PurchaseRecord.State.ACCEPTED, 42L, 1L, 1, 0, 0, 20);
+        var secondPurchase = new PurchaseRecord(2L, PurchaseRecord.State.ACCEPTED, 42L, 2L, 2, 0, 0, 40);
+        Mockito.when(journal.accept(42L, 1L, 1, 0, 0, 20)).thenReturn(firstPurchase);
+        Mockito.when(journal.accept(42L, 2L, 2, 0, 0, 40)).thenReturn(secondPurchase);
+        Mockito.doThrow(new IllegalStateException("disk full")).when(journal).sync();
+        var seatHoldService = Mockito.mock(SeatHoldService.class);
+        var firstHold = Mockito.mock(SeatHold.class);
+        var secondHold = Mockito.mock(SeatHold.class);
+        Mockito.when(seatHoldService.hold(42L, 1L, 1)).thenReturn(firstHold);
+        Mockito.when(seatHoldService.hold(42L, 2L, 2)).thenReturn(secondHold);
+        var batchTicketPaymentService = Mockito.mock(BatchTicketPaymentService.class);
+        var batchTicketService = new TicketServiceImpl(
+                seatHoldService, batchTicketPaymentService, PricingEngine.fixed(PriceTable.STANDARD), Clock.systemUTC(), PurchaseMetrics.NOOP, journal, rules);
+
+        var results = batchTicketService.purchaseTicketsBatch(List.of(
+                new TicketPurchaseOrder(42L, 1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)),
+                new TicketPurchaseOrder(42L, 2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2))
+        ));
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, results.get(0).getFailure());
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, results.get(1).getFailure());
+        Mockito.verify(seatHoldService).release(firstHold);
+        Mockito.verify(seatHoldService).release(secondHold);
+        Mockito.verify(rules).cancelPurchase(42L, 1L, 1);
+        Mockito.verify(rules).cancelPurchase(42L, 2L, 2);
+        Mockito.verify(journal).record(firstPurchase, PurchaseRecord.State.ABORTED);
+        Mockito.verify(journal).record(secondPurchase, PurchaseRecord.State.ABORTED);
+        verifyNoMoreInteractions(batchTicketPaymentService);
+    }
+
+    @Test
+    public void purchaseTicketsBatch_WhenBatchPaymentIsRefused_PaysForEachOrderOnItsOwn() {
+        var seatHoldService = Mockito.mock(SeatHoldService.class);
+        var firstHold = Mockito.mock(SeatHold.class);
+        var secondHold = Mockito.mock(SeatHold.class);
+        Mockito.when(seatHoldService.hold(42L, 1L, 1)).thenReturn(firstHold);
+        Mockito.when(seatHoldService.hold(42L, 2L, 2)).thenReturn(secondHold);
+        var batchTicketPaymentService = Mockito.mock(BatchTicketPaymentService.class);
+        Mockito.doThrow(InvalidPurchaseException.ServiceUnavailable).when(batchTicketPaymentService).makePayments(any(), any());
+        Mockito.doThrow(InvalidPurchaseException.ServiceUnavailable).when(batchTicketPaymentService).makePayment(2L, 40);
+        var batchTicketService = new TicketServiceImpl(seatHoldService, batchTicketPaymentService);
+
+        var results = batchTicketService.purchaseTicketsBatch(List.of(
+                new TicketPurchaseOrder(42L, 1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)),
+                new TicketPurchaseOrder(42L, 2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2))
+        ));
+
+        Assertions.assertTrue(results.get(0).isSuccessful());
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, results.get(1).getFailure());
+        Mockito.verify(batchTicketPaymentService).makePayments(new long[]{1L, 2L}, new int[]{20, 40});
+        Mockito.verify(seatHoldService).confirm(firstHold);
+        Mockito.verify(seatHoldService).release(secondHold);
+    }
 }
@@ -0,0 +1,195 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import uk.gov.dwp.uc.pairtest.MutableClock;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class AdmissionControlledTicketServiceTests {
+    private final Long VALID_ACCOUNT_ID = 1L;
+    private final TicketTypeRequest ADULT = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+
+    private final MutableClock clock = new MutableClock();
+    private final TicketService mockedTicketService = Mockito.mock(TicketService.class);
+    private final AdmissionControlledTicketService ticketService = new AdmissionControlledTicketService(
+            mockedTicketService,
+            new TokenBucketRateLimiter(2, 1, 16, clock),
+            16,
+            Duration.ofMinutes(10),
+            clock);
+
+    public AdmissionControlledTicketServiceTests() {
+        Mockito.when(mockedTicketService.purchaseTickets(any(TicketPurchaseOrder.class))).thenAnswer(invocation -> {
+            TicketPurchaseOrder order = invocation.getArgument(0);
+            return PurchaseResult.success(order.getAccountId(), 1, 20);
+        });
+        Mockito.when(mockedTicketService.purchaseTicketsBatch(anyList())).thenAnswer(invocation -> {
+            List<TicketPurchaseOrder> orders = invocation.getArgument(0);
+            return orders.stream().map(order -> PurchaseResult.success(order.getAccountId(), 1, 20)).collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    public void purchaseTickets_WhenCalledWithNullIdempotencyKey_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ticketService.purchaseTickets(null, VALID_ACCOUNT_ID, ADULT));
+
+        verifyNoMoreInteractions(mockedTicketService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenRetriedWithSameIdempotencyKey_ReturnsOriginalResultWithoutPurchasingAgain() {
+        var first = ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT);
+        var retry = ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT);
+        var retryAgain = ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT);
+
+        Assertions.assertTrue(first.isSuccessful());
+        Assertions.assertSame(first, retry);
+        Assertions.assertSame(first, retryAgain);
+        verify(mockedTicketService, times(1)).purchaseTickets(any(TicketPurchaseOrder.class));
+        verifyNoMoreInteractions(mockedTicketService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenSameIdempotencyKeyUsedByAnotherAccount_PurchasesSeparately() {
+        var first = ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT);
+        var other = ticketService.purchaseTickets("key", 2L, ADULT);
+
+        Assertions.assertNotSame(first, other);
+        Assertions.assertEquals(2L, other.getAccountId());
+        verify(mockedTicketService, times(2)).purchaseTickets(any(TicketPurchaseOrder.class));
+    }
+
+    @Test
+    public void purchaseTickets_WhenIdempotencyKeyHasExpired_PurchasesAgain() {
+        var first = ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT);
+
+        clock.advance(Duration.ofMinutes(10));
+        var retry = ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT);
+
+        Assertions.assertNotSame(first, retry);
+        verify(mockedTicketService, times(2)).purchaseTickets(any(TicketPurchaseOrder.class));
+    }
+
+    @Test
+    public void purchaseTickets_WhenRateLimitExceeded_ReturnsTooManyRequestsAndDoesNotRememberIt() {
+        ticketService.purchaseTickets("first", VALID_ACCOUNT_ID, ADULT);
+        ticketService.purchaseTickets("second", VALID_ACCOUNT_ID, ADULT);
+
+        var limited = ticketService.purchaseTickets("third", VALID_ACCOUNT_ID, ADULT);
+
+        Assertions.assertFalse(limited.isSuccessful());
+        Assertions.assertEquals(InvalidPurchaseException.TooManyRequests, limited.getFailure());
+
+        clock.advance(Duration.ofSeconds(1));
+        var retry = ticketService.purchaseTickets("third", VALID_ACCOUNT_ID, ADULT);
+
+        Assertions.assertTrue(retry.isSuccessful());
+        verify(mockedTicketService, times(3)).purchaseTickets(any(TicketPurchaseOrder.class));
+    }
+
+    @Test
+    public void purchaseTickets_WhenRetriedAfterRateLimitExceeded_ReturnsOriginalResultWithoutSpendingToken() {
+        var first = ticketService.purchaseTickets("first", VALID_ACCOUNT_ID, ADULT);
+        ticketService.purchaseTickets("second", VALID_ACCOUNT_ID, ADULT);
+
+        var retry = ticketService.purchaseTickets("first", VALID_ACCOUNT_ID, ADULT);
+
+        Assertions.assertSame(first, retry);
+    }
+
+    @Test
+    public void purchaseTickets_WhenDelegateThrowsUnexpectedException_AllowsRetryWithSameIdempotencyKey() {
+        Mockito.when(mockedTicketService.purchaseTickets(any(TicketPurchaseOrder.class)))
+                .thenThrow(new IllegalStateException("payment gateway unavailable"))
+                .thenReturn(PurchaseResult.success(VALID_ACCOUNT_ID, 1, 20));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT));
+        var retry = ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT);
+
+        Assertions.assertTrue(retry.isSuccessful());
+        verify(mockedTicketService, times(2)).purchaseTickets(any(TicketPurchaseOrder.class));
+    }
+
+    @Test
+    public void purchaseTickets_WhenDelegateFailsWithServiceUnavailable_AllowsRetryWithSameIdempotencyKey() {
+        Mockito.when(mockedTicketService.purchaseTickets(any(TicketPurchaseOrder.class)))
+                .thenReturn(PurchaseResult.failure(VALID_ACCOUNT_ID, InvalidPurchaseException.ServiceUnavailable))
+                .thenReturn(PurchaseResult.success(VALID_ACCOUNT_ID, 1, 20));
+
+        var first = ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT);
+        var retry = ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT);
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, first.getFailure());
+        Assertions.assertTrue(retry.isSuccessful());
+        verify(mockedTicketService, times(2)).purchaseTickets(any(TicketPurchaseOrder.class));
+    }
+
+    @Test
+    public void purchaseTickets_WhenDelegateRejectsThePurchase_RemembersTheRejection() {
+        Mockito.when(mockedTicketService.purchaseTickets(any(TicketPurchaseOrder.class)))
+                .thenReturn(PurchaseResult.failure(VALID_ACCOUNT_ID, InvalidPurchaseException.NotEnoughSeats));
+
+        var first = ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT);
+        var retry = ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT);
+
+        Assertions.assertSame(first, retry);
+        verify(mockedTicketService, times(1)).purchaseTickets(any(TicketPurchaseOrder.class));
+    }
+
+    @Test
+    public void purchaseTickets_WhenIdempotencyKeyIsReusedForADifferentOrder_ThrowsIllegalArgumentException() {
+        ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, ADULT);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ticketService.purchaseTickets("key", VALID_ACCOUNT_ID, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)));
+        verify(mockedTicketService, times(1)).purchaseTickets(any(TicketPurchaseOrder.class));
+    }
+
+    @Test
+    public void purchaseTickets_WhenRateLimitExceeded_ThrowsTooManyRequests() {
+        ticketService.purchaseTickets(VALID_ACCOUNT_ID, ADULT);
+        ticketService.purchaseTickets(VALID_ACCOUNT_ID, 1, 0, 0);
+
+        var exception = Assertions.assertThrows(InvalidPurchaseException.class, () -> ticketService.purchaseTickets(VALID_ACCOUNT_ID, ADULT));
+
+        Assertions.assertEquals(InvalidPurchaseException.TooManyRequests, exception);
+        verify(mockedTicketService).purchaseTickets(VALID_ACCOUNT_ID, ADULT);
+        verify(mockedTicketService).purchaseTickets(VALID_ACCOUNT_ID.longValue(), 1, 0, 0);
+        verifyNoMoreInteractions(mockedTicketService);
+    }
+
+    @Test
+    public void purchaseTicketsBatch_WhenSomeOrdersExceedRateLimit_OnlyForwardsAdmittedOrders() {
+        var orders = List.of(
+                new TicketPurchaseOrder(VALID_ACCOUNT_ID, ADULT),
+                new TicketPurchaseOrder(2L, ADULT),
+                new TicketPurchaseOrder(VALID_ACCOUNT_ID, ADULT),
+                new TicketPurchaseOrder(VALID_ACCOUNT_ID, ADULT));
+
+        var results = ticketService.purchaseTicketsBatch(orders);
+
+        Assertions.assertEquals(4, results.size());
+        Assertions.assertTrue(results.get(0).isSuccessful());
+        Assertions.assertTrue(results.get(1).isSuccessful());
+        Assertions.assertEquals(2L, results.get(1).getAccountId());
+        Assertions.assertTrue(results.get(2).isSuccessful());
+        Assertions.assertEquals(InvalidPurchaseException.TooManyRequests, results.get(3).getFailure());
+        verify(mockedTicketService).purchaseTicketsBatch(List.of(orders.get(0), orders.get(1), orders.get(2)));
+        verifyNoMoreInteractions(mockedTicketService);
+    }
+}
@@ -0,0 +1,59 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.MutableClock;
+
+import java.time.Duration;
+
+public class TokenBucketRateLimiterTests {
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    public void Constructor_WhenCalledWithNonPositiveCapacity_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(0, 1, 16, clock));
+    }
+
+    @Test
+    public void Constructor_WhenCalledWithNullClock_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(1, 1, 16, null));
+    }
+
+    @Test
+    public void tryAcquire_WhenBurstExhausted_RejectsUntilRefilled() {
+        var rateLimiter = new TokenBucketRateLimiter(3, 2, 16, clock);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(1L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(1L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(1L));
+        Assertions.assertFalse(rateLimiter.tryAcquire(1L));
+
+        clock.advance(Duration.ofMillis(499));
+        Assertions.assertFalse(rateLimiter.tryAcquire(1L));
+
+        clock.advance(Duration.ofMillis(1));
+        Assertions.assertTrue(rateLimiter.tryAcquire(1L));
+        Assertions.assertFalse(rateLimiter.tryAcquire(1L));
+    }
+
+    @Test
+    public void tryAcquire_WhenCalledForDifferentAccounts_UsesSeparateBuckets() {
+        var rateLimiter = new TokenBucketRateLimiter(1, 1, 16, clock);
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(1L));
+        Assertions.assertFalse(rateLimiter.tryAcquire(1L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(2L));
+    }
+
+    @Test
+    public void tryAcquire_WhenIdleLongerThanRefill_NeverExceedsCapacity() {
+        var rateLimiter = new TokenBucketRateLimiter(2, 1, 16, clock);
+        Assertions.assertTrue(rateLimiter.tryAcquire(1L));
+
+        clock.advance(Duration.ofHours(1));
+
+        Assertions.assertTrue(rateLimiter.tryAcquire(1L));
+        Assertions.assertTrue(rateLimiter.tryAcquire(1L));
+        Assertions.assertFalse(rateLimiter.tryAcquire(1L));
+    }
+}
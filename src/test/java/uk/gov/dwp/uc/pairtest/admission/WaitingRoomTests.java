@@ -0,0 +1,260 @@
+package uk.gov.dwp.uc.pairtest.admission;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketPurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+
+public class WaitingRoomTests {
+    private final TicketTypeRequest ADULT = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+    private final long MEMBER_ACCOUNT_ID = 1000L;
+
+    private final TicketService mockedTicketService = Mockito.mock(TicketService.class);
+    private final List<Long> purchasedAccountIds = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch firstPurchaseStarted = new CountDownLatch(1);
+    private final CountDownLatch releasePurchases = new CountDownLatch(1);
+    private WaitingRoom waitingRoom;
+
+    public WaitingRoomTests() {
+        Mockito.when(mockedTicketService.purchaseTickets(any(TicketPurchaseOrder.class))).thenAnswer(invocation -> {
+            TicketPurchaseOrder order = invocation.getArgument(0);
+            purchasedAccountIds.add(order.getAccountId());
+            return PurchaseResult.success(order.getAccountId(), 1, 20);
+        });
+    }
+
+    @AfterEach
+    public void close() {
+        releasePurchases.countDown();
+        if(waitingRoom != null) {
+            waitingRoom.close();
+        }
+    }
+
+    @Test
+    public void Constructor_WhenCalledWithNullTicketService_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new WaitingRoom(null, 100));
+    }
+
+    @Test
+    public void purchaseTickets_WhenAdmitted_CompletesWithDelegateResult() throws Exception {
+        waitingRoom = new WaitingRoom(mockedTicketService, 1000);
+
+        var result = waitingRoom.purchaseTickets(1L, ADULT).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(result.isSuccessful());
+        Assertions.assertEquals(List.of(1L), purchasedAccountIds);
+    }
+
+    @Test
+    public void join_WhenPurchasesAreWaiting_ReportsPositionsAndEstimatedWaits() throws Exception {
+        blockPurchases();
+        waitingRoom = new WaitingRoom(mockedTicketService, 1000, 1, 1, accountId -> 0, 100);
+        waitingRoom.join(1L, ADULT);
+        Assertions.assertTrue(firstPurchaseStarted.await(5, TimeUnit.SECONDS));
+
+        var places = List.of(waitingRoom.join(2L, ADULT), waitingRoom.join(3L, ADULT), waitingRoom.join(4L, ADULT));
+
+        for (int position = 0; position < places.size(); position++) {
+            Assertions.assertFalse(places.get(position).isAdmitted());
+            Assertions.assertEquals(position, places.get(position).getPosition());
+            Assertions.assertEquals(Duration.ofMillis(position), places.get(position).getEstimatedWait());
+        }
+        Assertions.assertEquals(3, waitingRoom.getNumberOfWaiting());
+
+        releasePurchases.countDown();
+        for (WaitingRoom.Place place : places) {
+            Assertions.assertTrue(place.getResult().get(5, TimeUnit.SECONDS).isSuccessful());
+            Assertions.assertEquals(0, place.getPosition());
+        }
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L), purchasedAccountIds);
+    }
+
+    @Test
+    public void join_WhenHigherTierJoinsLater_AdmitsItFirst() throws Exception {
+        blockPurchases();
+        waitingRoom = new WaitingRoom(mockedTicketService, 1000, 1, 2, accountId -> accountId >= MEMBER_ACCOUNT_ID ? 0 : 1, 100);
+        waitingRoom.join(1L, ADULT);
+        Assertions.assertTrue(firstPurchaseStarted.await(5, TimeUnit.SECONDS));
+
+        var general = waitingRoom.join(2L, ADULT);
+        var member = waitingRoom.join(MEMBER_ACCOUNT_ID, ADULT);
+
+        Assertions.assertEquals(0, member.getTier());
+        Assertions.assertEquals(0, member.getPosition());
+        Assertions.assertEquals(1, general.getPosition());
+
+        releasePurchases.countDown();
+        Assertions.assertTrue(general.getResult().get(5, TimeUnit.SECONDS).isSuccessful());
+        Assertions.assertEquals(List.of(1L, MEMBER_ACCOUNT_ID, 2L), purchasedAccountIds);
+    }
+
+    @Test
+    public void join_WhenAccountIsAlreadyWaiting_ReturnsItsExistingPlace() throws Exception {
+        blockPurchases();
+        waitingRoom = new WaitingRoom(mockedTicketService, 1000, 1, 1, accountId -> 0, 100);
+        waitingRoom.join(1L, ADULT);
+        Assertions.assertTrue(firstPurchaseStarted.await(5, TimeUnit.SECONDS));
+
+        var place = waitingRoom.join(2L, ADULT);
+        waitingRoom.join(3L, ADULT);
+        var retry = waitingRoom.join(2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1));
+
+        Assertions.assertSame(place, retry);
+        Assertions.assertEquals(0, retry.getPosition());
+        Assertions.assertEquals(2, waitingRoom.getNumberOfWaiting());
+    }
+
+    @Test
+    public void join_WhenAccountIsAlreadyWaitingWithADifferentOrder_CompletesWithTooManyRequests() throws Exception {
+        blockPurchases();
+        waitingRoom = new WaitingRoom(mockedTicketService, 1000, 1, 1, accountId -> 0, 100);
+        waitingRoom.join(1L, ADULT);
+        Assertions.assertTrue(firstPurchaseStarted.await(5, TimeUnit.SECONDS));
+        var place = waitingRoom.join(2L, ADULT);
+
+        var rejected = waitingRoom.join(2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 5));
+
+        Assertions.assertNotSame(place, rejected);
+        Assertions.assertEquals(InvalidPurchaseException.TooManyRequests, rejected.getResult().get(5, TimeUnit.SECONDS).getFailure());
+        Assertions.assertFalse(place.getResult().isDone());
+        Assertions.assertEquals(1, waitingRoom.getNumberOfWaiting());
+
+        releasePurchases.countDown();
+        Assertions.assertTrue(place.getResult().get(5, TimeUnit.SECONDS).isSuccessful());
+        Assertions.assertEquals(List.of(1L, 2L), purchasedAccountIds);
+    }
+
+    @Test
+    public void join_WhenRoomIsFull_CompletesWithServiceUnavailable() throws Exception {
+        blockPurchases();
+        waitingRoom = new WaitingRoom(mockedTicketService, 1000, 1, 1, accountId -> 0, 2);
+        waitingRoom.join(1L, ADULT);
+        Assertions.assertTrue(firstPurchaseStarted.await(5, TimeUnit.SECONDS));
+        waitingRoom.join(2L, ADULT);
+        waitingRoom.join(3L, ADULT);
+
+        var rejected = waitingRoom.purchaseTickets(4L, ADULT).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, rejected.getFailure());
+        Assertions.assertEquals(2, waitingRoom.getNumberOfWaiting());
+    }
+
+    @Test
+    public void join_WhenAdmitRateIsLimited_AdmitsNoFasterThanTheRate() throws Exception {
+        waitingRoom = new WaitingRoom(mockedTicketService, 50, 4, 1, accountId -> 0, 100);
+        var start = System.nanoTime();
+
+        var purchases = new ArrayList<CompletableFuture<PurchaseResult>>();
+        for (long accountId = 1; accountId <= 10; accountId++) {
+            purchases.add(waitingRoom.purchaseTickets(accountId, ADULT));
+        }
+        CompletableFuture.allOf(purchases.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(170));
+    }
+
+    @Test
+    public void join_WhenCalledConcurrently_AdmitsEveryPurchase() throws Exception {
+        waitingRoom = new WaitingRoom(mockedTicketService, 1_000_000, 4, 2, accountId -> (int) (accountId & 1), 100_000);
+        var purchases = Collections.synchronizedList(new ArrayList<CompletableFuture<PurchaseResult>>());
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            var firstAccountId = t * 1000L;
+            var thread = new Thread(() -> {
+                for (long accountId = firstAccountId; accountId < firstAccountId + 1000; accountId++) {
+                    purchases.add(waitingRoom.purchaseTickets(accountId, ADULT));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        CompletableFuture.allOf(purchases.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(8000, purchasedAccountIds.size());
+        Assertions.assertEquals(0, waitingRoom.getNumberOfWaiting());
+    }
+
+    @Test
+    public void join_WhenCalledConcurrently_ReportsPositionsInTheOrderPlacesAreAdmitted() throws Exception {
+        blockPurchases();
+        waitingRoom = new WaitingRoom(mockedTicketService, 1_000_000, 1, 1, accountId -> 0, 100_000);
+        waitingRoom.join(0L, ADULT);
+        Assertions.assertTrue(firstPurchaseStarted.await(5, TimeUnit.SECONDS));
+
+        var places = Collections.synchronizedList(new ArrayList<WaitingRoom.Place>());
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            var firstAccountId = 1 + t * 1000L;
+            var thread = new Thread(() -> {
+                for (long accountId = firstAccountId; accountId < firstAccountId + 1000; accountId++) {
+                    places.add(waitingRoom.join(accountId, ADULT));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        var placesByPosition = new WaitingRoom.Place[places.size()];
+        for (WaitingRoom.Place place : places) {
+            var position = (int) place.getPosition();
+            Assertions.assertNull(placesByPosition[position]);
+            placesByPosition[position] = place;
+        }
+
+        releasePurchases.countDown();
+        var expectedAccountIds = new ArrayList<Long>();
+        for (WaitingRoom.Place place : placesByPosition) {
+            expectedAccountIds.add(place.getResult().get(30, TimeUnit.SECONDS).getAccountId());
+        }
+        Assertions.assertEquals(expectedAccountIds, purchasedAccountIds.subList(1, purchasedAccountIds.size()));
+    }
+
+    @Test
+    public void close_WhenPurchasesAreWaiting_FailsThemWithServiceUnavailable() throws Exception {
+        blockPurchases();
+        waitingRoom = new WaitingRoom(mockedTicketService, 1000, 1, 1, accountId -> 0, 100);
+        var running = waitingRoom.join(1L, ADULT);
+        Assertions.assertTrue(firstPurchaseStarted.await(5, TimeUnit.SECONDS));
+        var waiting = waitingRoom.join(2L, ADULT);
+
+        waitingRoom.close();
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, waiting.getResult().get(5, TimeUnit.SECONDS).getFailure());
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, waitingRoom.purchaseTickets(3L, ADULT).get(5, TimeUnit.SECONDS).getFailure());
+        releasePurchases.countDown();
+        Assertions.assertTrue(running.getResult().get(5, TimeUnit.SECONDS).isSuccessful());
+    }
+
+    private void blockPurchases() {
+        Mockito.doAnswer(invocation -> {
+            TicketPurchaseOrder order = invocation.getArgument(0);
+            purchasedAccountIds.add(order.getAccountId());
+            firstPurchaseStarted.countDown();
+            releasePurchases.await();
+            return PurchaseResult.success(order.getAccountId(), 1, 20);
+        }).when(mockedTicketService).purchaseTickets(any(TicketPurchaseOrder.class));
+    }
+}
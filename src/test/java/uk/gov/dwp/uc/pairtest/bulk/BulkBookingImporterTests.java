@@ -0,0 +1,127 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+import uk.gov.dwp.uc.pairtest.inventory.SeatMap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkBookingImporterTests {
+    private final SeatInventory seatInventory = new SeatInventory();
+    private final TicketService ticketService = new TicketServiceImpl(seatInventory, new TicketPaymentServiceImpl());
+
+    @TempDir
+    Path directory;
+
+    public BulkBookingImporterTests() {
+        seatInventory.addScreening(TicketService.DEFAULT_SCREENING_ID, SeatMap.uniform(10, 30));
+    }
+
+    @Test
+    public void Constructor_WhenCalledWithNullTicketService_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BulkBookingImporter(null));
+    }
+
+    @Test
+    public void importBookings_WhenFileSpansManyChunks_WritesResultsInInputOrder() throws IOException {
+        var rows = new ArrayList<String>();
+        for (int accountId = 1; accountId <= 100; accountId++) {
+            rows.add(accountId + "," + (accountId % 5 + 1) + ",0,0");
+        }
+        var importer = new BulkBookingImporter(ticketService, 4, 3);
+
+        var summary = importer.importBookings(bookings(rows), directory.resolve("results.csv"));
+
+        var results = results();
+        Assertions.assertEquals(BulkBookingImporter.RESULTS_HEADER, results.get(0));
+        for (int accountId = 1; accountId <= 100; accountId++) {
+            var tickets = accountId % 5 + 1;
+            Assertions.assertEquals(accountId + "," + accountId + ",SUCCESS," + tickets + "," + (20 * tickets) + ",", results.get(accountId));
+        }
+        Assertions.assertEquals(100, summary.getNumberOfRows());
+        Assertions.assertEquals(100, summary.getNumberOfSuccessfulRows());
+        Assertions.assertEquals(0, seatInventory.getRemainingSeats(TicketService.DEFAULT_SCREENING_ID));
+    }
+
+    @Test
+    public void importBookings_WhenFileHasHeaderAndBlankLines_SkipsThem() throws IOException {
+        var importer = new BulkBookingImporter(ticketService, 2, 10);
+
+        var summary = importer.importBookings(bookings(List.of("accountId,adults,children,infants", "", "1,2,0,0")), directory.resolve("results.csv"));
+
+        Assertions.assertEquals(List.of(BulkBookingImporter.RESULTS_HEADER, "3,1,SUCCESS,2,40,"), results());
+        Assertions.assertEquals(1, summary.getNumberOfRows());
+    }
+
+    @Test
+    public void importBookings_WhenRowsAreMalformed_ReportsThemWithoutPurchasing() throws IOException {
+        var importer = new BulkBookingImporter(ticketService, 2, 10);
+
+        var summary = importer.importBookings(bookings(List.of("1,2,0", "2,x,0,0", "3,-1,0,0")), directory.resolve("results.csv"));
+
+        Assertions.assertEquals(List.of(
+                BulkBookingImporter.RESULTS_HEADER,
+                "1,1,MALFORMED,0,0,\"expected accountId,adults,children,infants\"",
+                "2,2,MALFORMED,0,0,\"expected accountId,adults,children,infants\"",
+                "3,3,MALFORMED,0,0,\"number of tickets cannot be negative\""), results());
+        Assertions.assertEquals(3, summary.getNumberOfMalformedRows());
+        Assertions.assertEquals(300, seatInventory.getRemainingSeats(TicketService.DEFAULT_SCREENING_ID));
+    }
+
+    @Test
+    public void importBookings_WhenPurchasesAreRejected_ReportsTheirReasons() throws IOException {
+        var importer = new BulkBookingImporter(ticketService, 2, 10);
+
+        var summary = importer.importBookings(bookings(List.of("1,1,0,0", "2,0,1,0", "3,299,0,0")), directory.resolve("results.csv"));
+
+        Assertions.assertEquals(List.of(
+                BulkBookingImporter.RESULTS_HEADER,
+                "1,1,SUCCESS,1,20,",
+                "2,2,REJECTED,0,0,\"" + InvalidPurchaseException.TooManyChildTickets.getMessage() + "\"",
+                "3,3,REJECTED,0,0,\"" + InvalidPurchaseException.TooManyTickets.getMessage() + "\""), results());
+        Assertions.assertEquals(1, summary.getNumberOfSuccessfulRows());
+        Assertions.assertEquals(2, summary.getNumberOfRejectedRows());
+        Assertions.assertEquals(299, seatInventory.getRemainingSeats(TicketService.DEFAULT_SCREENING_ID));
+    }
+
+    @Test
+    public void importBookings_WhenOnePurchaseFailsOutright_ReportsOnlyThatRowAsFailed() throws IOException {
+        TicketPaymentService paymentService = (accountId, totalAmountToPay) -> {
+            if(accountId == 2L) {
+                throw new IllegalStateException("payment down");
+            }
+        };
+        var importer = new BulkBookingImporter(new TicketServiceImpl(seatInventory, paymentService), 2, 10);
+
+        var summary = importer.importBookings(bookings(List.of("1,1,0,0", "bad", "2,1,0,0", "3,2,0,0")), directory.resolve("results.csv"));
+
+        Assertions.assertEquals(List.of(
+                BulkBookingImporter.RESULTS_HEADER,
+                "1,1,SUCCESS,1,20,",
+                "2,bad,MALFORMED,0,0,\"expected accountId,adults,children,infants\"",
+                "3,2,FAILED,0,0,\"payment down\"",
+                "4,3,SUCCESS,2,40,"), results());
+        Assertions.assertEquals(2, summary.getNumberOfSuccessfulRows());
+        Assertions.assertEquals(1, summary.getNumberOfFailedRows());
+        Assertions.assertEquals(1, summary.getNumberOfMalformedRows());
+    }
+
+    private Path bookings(List<String> rows) throws IOException {
+        return Files.write(directory.resolve("bookings.csv"), rows);
+    }
+
+    private List<String> results() throws IOException {
+        return Files.readAllLines(directory.resolve("results.csv"));
+    }
+}
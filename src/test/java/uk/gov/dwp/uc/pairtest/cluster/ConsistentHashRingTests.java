@@ -0,0 +1,70 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+public class ConsistentHashRingTests {
+    private static final int NUMBER_OF_SCREENINGS = 30_000;
+
+    private final ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+
+    @Test
+    public void ownerOf_WhenRingHasNoNodes_ThrowsIllegalStateException() {
+        var emptyRing = new ConsistentHashRing(List.of(), 128);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> emptyRing.ownerOf(1));
+    }
+
+    @Test
+    public void ownerOf_WhenCalledForManyScreenings_SpreadsThemEvenly() {
+        var screeningsByNode = new HashMap<String, Integer>();
+        for (long screeningId = 0; screeningId < NUMBER_OF_SCREENINGS; screeningId++) {
+            screeningsByNode.merge(ring.ownerOf(screeningId), 1, Integer::sum);
+        }
+
+        for (String nodeId : ring.getNodeIds()) {
+            var share = screeningsByNode.get(nodeId) / (double) NUMBER_OF_SCREENINGS;
+            Assertions.assertTrue(share > 0.25 && share < 0.42, nodeId + " owns " + share);
+        }
+    }
+
+    @Test
+    public void ownerOf_WhenRingIsBuiltInAnotherOrder_AgreesOnEveryOwner() {
+        var reordered = new ConsistentHashRing(List.of("c", "a", "b"), 128);
+
+        for (long screeningId = 0; screeningId < 1000; screeningId++) {
+            Assertions.assertEquals(ring.ownerOf(screeningId), reordered.ownerOf(screeningId));
+        }
+    }
+
+    @Test
+    public void withNode_WhenCalled_OnlyMovesScreeningsOntoTheNewNode() {
+        var grown = ring.withNode("d");
+
+        var moved = 0;
+        for (long screeningId = 0; screeningId < NUMBER_OF_SCREENINGS; screeningId++) {
+            if(!grown.ownerOf(screeningId).equals(ring.ownerOf(screeningId))) {
+                Assertions.assertEquals("d", grown.ownerOf(screeningId));
+                moved++;
+            }
+        }
+
+        var share = moved / (double) NUMBER_OF_SCREENINGS;
+        Assertions.assertTrue(share > 0.17 && share < 0.33, "moved " + share);
+        Assertions.assertEquals(List.of("a", "b", "c", "d"), grown.getNodeIds());
+    }
+
+    @Test
+    public void withoutNode_WhenCalled_OnlyMovesTheRemovedNodesScreenings() {
+        var shrunk = ring.withoutNode("b");
+
+        for (long screeningId = 0; screeningId < NUMBER_OF_SCREENINGS; screeningId++) {
+            if(!ring.ownerOf(screeningId).equals("b")) {
+                Assertions.assertEquals(ring.ownerOf(screeningId), shrunk.ownerOf(screeningId));
+            }
+        }
+    }
+}
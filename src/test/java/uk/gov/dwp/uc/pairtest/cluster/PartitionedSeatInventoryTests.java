@@ -0,0 +1,270 @@
+package uk.gov.dwp.uc.pairtest.cluster;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import thirdparty.paymentgateway.TicketPaymentService;
+import uk.gov.dwp.uc.pairtest.MutableClock;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+import uk.gov.dwp.uc.pairtest.inventory.SeatMap;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+public class PartitionedSeatInventoryTests {
+    private static final long ACCOUNT_ID = 1L;
+    private static final int NUMBER_OF_SCREENINGS = 40;
+
+    private final LoopbackTransport transport = new LoopbackTransport();
+    private final Map<String, LocalInventoryNode> nodes = new HashMap<>();
+    private final PartitionedSeatInventory seatInventory;
+
+    public PartitionedSeatInventoryTests() {
+        for (String nodeId : List.of("a", "b", "c", "d")) {
+            nodes.put(nodeId, transport.addNode(nodeId));
+        }
+        seatInventory = new PartitionedSeatInventory(transport, List.of("a", "b", "c"));
+        for (long screeningId = 1; screeningId <= NUMBER_OF_SCREENINGS; screeningId++) {
+            seatInventory.addScreening(screeningId, SeatMap.uniform(10, 10));
+        }
+    }
+
+    @Test
+    public void reserveSeat_WhenCalled_ReservesOnTheNodeThatOwnsTheScreening() {
+        seatInventory.reserveSeat(7, ACCOUNT_ID, 5);
+
+        var owner = nodes.get(seatInventory.getOwnerId(7));
+        Assertions.assertEquals(95, owner.getRemainingSeats(7));
+        Assertions.assertEquals(95, seatInventory.getRemainingSeats(7));
+    }
+
+    @Test
+    public void purchaseTickets_WhenTicketServiceUsesPartitionedInventory_ReservesForTheScreening() {
+        var ticketService = new TicketServiceImpl(seatInventory, Mockito.mock(TicketPaymentService.class));
+
+        ticketService.purchaseTickets(12L, ACCOUNT_ID, 2, 1, 1);
+
+        Assertions.assertEquals(97, seatInventory.getRemainingSeats(12));
+    }
+
+    @Test
+    public void reserveSeat_WhenScreeningDoesNotExist_ThrowsUnknownScreening() {
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class, () -> seatInventory.reserveSeat(999, ACCOUNT_ID, 1));
+
+        Assertions.assertEquals(InvalidPurchaseException.UnknownScreening, thrownException);
+    }
+
+    @Test
+    public void reserveSeat_WhenOwnerIsDisconnected_ThrowsServiceUnavailable() {
+        transport.disconnect(seatInventory.getOwnerId(7));
+
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class, () -> seatInventory.reserveSeat(7, ACCOUNT_ID, 1));
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, thrownException);
+    }
+
+    @Test
+    public void addNode_WhenCalled_MovesScreeningsWithTheirRemainingSeats() {
+        for (long screeningId = 1; screeningId <= NUMBER_OF_SCREENINGS; screeningId++) {
+            seatInventory.reserveSeat(screeningId, ACCOUNT_ID, (int) screeningId);
+        }
+
+        seatInventory.addNode("d");
+
+        Assertions.assertTrue(nodes.get("d").getScreeningIds().length > 0);
+        for (long screeningId = 1; screeningId <= NUMBER_OF_SCREENINGS; screeningId++) {
+            var owner = nodes.get(seatInventory.getOwnerId(screeningId));
+            Assertions.assertEquals(100 - screeningId, owner.getRemainingSeats(screeningId));
+        }
+    }
+
+    @Test
+    public void removeNode_WhenCalled_MovesEveryScreeningOffTheNode() {
+        seatInventory.reserveSeat(7, ACCOUNT_ID, 5);
+
+        var removedNodeId = seatInventory.getOwnerId(7);
+
+        seatInventory.removeNode(removedNodeId);
+
+        Assertions.assertEquals(0, nodes.get(removedNodeId).getScreeningIds().length);
+        Assertions.assertNotEquals(removedNodeId, seatInventory.getOwnerId(7));
+        Assertions.assertEquals(95, seatInventory.getRemainingSeats(7));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> seatInventory.removeNode("z"));
+    }
+
+    @Test
+    public void addNode_WhenSourceDisconnectsPartWayThroughAMove_FinishesTheMoveWhenRetried() {
+        for (long screeningId = 1; screeningId <= NUMBER_OF_SCREENINGS; screeningId++) {
+            seatInventory.reserveSeat(screeningId, ACCOUNT_ID, (int) screeningId);
+        }
+        var interruptedScreeningId = new AtomicLong();
+        var sourceNodeId = new AtomicReference<String>();
+        InventoryTransport faultyTransport = nodeId -> {
+            var connection = transport.connect(nodeId);
+            if(!nodeId.equals("d")) {
+                return connection;
+            }
+
+            var node = Mockito.mock(InventoryNode.class, AdditionalAnswers.delegatesTo(connection));
+            Mockito.doAnswer(invocation -> {
+                long screeningId = invocation.getArgument(0);
+                connection.addScreening(screeningId, invocation.getArgument(1), invocation.getArgument(2));
+                // The old owner drops off once the new owner has the first screening, before it can let it go
+                if(sourceNodeId.compareAndSet(null, seatInventory.getOwnerId(screeningId))) {
+                    interruptedScreeningId.set(screeningId);
+                    transport.disconnect(sourceNodeId.get());
+                }
+                return null;
+            }).when(node).addScreening(anyLong(), any(SeatMap.class), anyInt());
+            return node;
+        };
+        var router = new PartitionedSeatInventory(faultyTransport, List.of("a", "b", "c"));
+
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class, () -> router.addNode("d"));
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, thrownException);
+        Assertions.assertFalse(router.getNodeIds().contains("d"));
+        Assertions.assertThrows(ScreeningMovedException.class, () -> nodes.get(sourceNodeId.get()).getRemainingSeats(interruptedScreeningId.get()));
+
+        transport.reconnect(sourceNodeId.get());
+        router.addNode("d");
+
+        Assertions.assertEquals("d", router.getOwnerId(interruptedScreeningId.get()));
+        for (long screeningId = 1; screeningId <= NUMBER_OF_SCREENINGS; screeningId++) {
+            var holders = 0;
+            for (LocalInventoryNode node : nodes.values()) {
+                if(Arrays.stream(node.getScreeningIds()).anyMatch(Long.valueOf(screeningId)::equals)) {
+                    holders++;
+                }
+            }
+            Assertions.assertEquals(1, holders);
+            Assertions.assertEquals(100 - screeningId, router.getRemainingSeats(screeningId));
+        }
+    }
+
+    @Test
+    public void reserveSeat_WhenRouterHasAnOutOfDateRing_IsRedirectedToTheNewOwner() {
+        var staleRouter = new PartitionedSeatInventory(transport, List.of("a", "b", "c"));
+        seatInventory.addNode("d");
+        var movedScreeningId = firstScreeningOwnedBy("d");
+
+        staleRouter.reserveSeat(movedScreeningId, ACCOUNT_ID, 10);
+
+        Assertions.assertEquals(90, nodes.get("d").getRemainingSeats(movedScreeningId));
+        Assertions.assertNotEquals("d", staleRouter.getOwnerId(movedScreeningId));
+    }
+
+    @Test
+    public void reserveSeat_WhenNodesJoinAndLeaveDuringReservations_NeverOverbooks() throws InterruptedException {
+        var reserved = new AtomicIntegerArray(NUMBER_OF_SCREENINGS + 1);
+        var running = new AtomicBoolean(true);
+        var failure = new AtomicReference<Throwable>();
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            var offset = t;
+            var thread = new Thread(() -> {
+                var screeningId = 1L + offset;
+                while (running.get()) {
+                    try {
+                        seatInventory.reserveSeat(screeningId, ACCOUNT_ID, 1);
+                        reserved.incrementAndGet((int) screeningId);
+                    } catch (InvalidPurchaseException e) {
+                        if(e != InvalidPurchaseException.NotEnoughSeats) {
+                            failure.compareAndSet(null, e);
+                        }
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                    screeningId = screeningId % NUMBER_OF_SCREENINGS + 1;
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        for (int round = 0; round < 20; round++) {
+            seatInventory.addNode("d");
+            seatInventory.removeNode("a");
+            seatInventory.addNode("a");
+            seatInventory.removeNode("d");
+        }
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertNull(failure.get());
+        for (long screeningId = 1; screeningId <= NUMBER_OF_SCREENINGS; screeningId++) {
+            Assertions.assertEquals(100, reserved.get((int) screeningId) + seatInventory.getRemainingSeats(screeningId));
+        }
+    }
+
+    @Test
+    public void reserveSeat_WhenATransferIsAbortedWhileItFoundNoSeats_TriesAgain() {
+        var node = new AtomicReference<LocalInventoryNode>();
+        var interrupted = new AtomicBoolean();
+        var inventory = new SeatInventory() {
+            @Override
+            public void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate) {
+                if(!interrupted.compareAndSet(false, true)) {
+                    super.reserveSeat(screeningId, accountId, totalSeatsToAllocate);
+                    return;
+                }
+
+                // The screening is frozen just before this reservation and given its seats back just after
+                var transfer = node.get().beginTransfer(screeningId);
+                try {
+                    super.reserveSeat(screeningId, accountId, totalSeatsToAllocate);
+                } finally {
+                    node.get().abortTransfer(transfer);
+                }
+            }
+        };
+        node.set(new LocalInventoryNode(inventory));
+        node.get().addScreening(7, SeatMap.uniform(10, 10), 100);
+
+        node.get().reserveSeat(7, ACCOUNT_ID, 5);
+
+        Assertions.assertEquals(95, node.get().getRemainingSeats(7));
+    }
+
+    @Test
+    public void reserveSeat_WhenTheForwardingAddressHasExpired_ForgetsTheMove() {
+        var clock = new MutableClock();
+        var node = new LocalInventoryNode(new SeatInventory(), Duration.ofMinutes(10), clock);
+        node.addScreening(7, SeatMap.uniform(10, 10), 100);
+        node.beginTransfer(7);
+        node.completeTransfer(7, "d");
+
+        var moved = Assertions.assertThrows(ScreeningMovedException.class, () -> node.reserveSeat(7, ACCOUNT_ID, 1));
+        Assertions.assertEquals("d", moved.getNewOwnerId());
+
+        clock.advance(Duration.ofMinutes(10));
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class, () -> node.reserveSeat(7, ACCOUNT_ID, 1));
+        Assertions.assertEquals(InvalidPurchaseException.UnknownScreening, thrownException);
+    }
+
+    private long firstScreeningOwnedBy(String nodeId) {
+        for (long screeningId = 1; screeningId <= NUMBER_OF_SCREENINGS; screeningId++) {
+            if(seatInventory.getOwnerId(screeningId).equals(nodeId)) {
+                return screeningId;
+            }
+        }
+        throw new AssertionError("no screening owned by " + nodeId);
+    }
+}
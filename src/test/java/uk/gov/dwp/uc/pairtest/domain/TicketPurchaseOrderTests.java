@@ -0,0 +1,21 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TicketPurchaseOrderTests {
+
+    @Test
+    public void Constructor_WhenCalledWithNullAccountId_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new TicketPurchaseOrder(null, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1));
+        });
+    }
+
+    @Test
+    public void Constructor_WhenCalledWithNullTicketTypeRequests_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new TicketPurchaseOrder(1L, (TicketTypeRequest[]) null);
+        });
+    }
+}
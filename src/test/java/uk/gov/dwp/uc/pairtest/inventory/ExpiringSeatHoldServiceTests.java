@@ -0,0 +1,120 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.MutableClock;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+
+public class ExpiringSeatHoldServiceTests {
+    private static final long SCREENING_ID = 7L;
+    private static final long ACCOUNT_ID = 1L;
+    private static final Duration HOLD_TTL = Duration.ofMinutes(5);
+
+    private final MutableClock clock = new MutableClock();
+    private final SeatInventory seatInventory = new SeatInventory(1);
+    private final ExpiringSeatHoldService seatHoldService;
+
+    public ExpiringSeatHoldServiceTests() {
+        seatInventory.addScreening(SCREENING_ID, new SeatMap(10));
+        seatHoldService = new ExpiringSeatHoldService(seatInventory, HOLD_TTL, clock, Duration.ofSeconds(1), 64);
+    }
+
+    @Test
+    public void hold_WhenSeatsRemain_TakesThemOutOfTheInventory() {
+        var seatHold = seatHoldService.hold(SCREENING_ID, ACCOUNT_ID, 4);
+
+        Assertions.assertEquals(SeatHold.State.HELD, seatHold.getState());
+        Assertions.assertEquals(6, seatInventory.getRemainingSeats(SCREENING_ID));
+        Assertions.assertEquals(1, seatHoldService.getNumberOfActiveHolds());
+    }
+
+    @Test
+    public void release_WhenHeld_ReturnsTheSeats() {
+        var seatHold = seatHoldService.hold(SCREENING_ID, ACCOUNT_ID, 4);
+
+        seatHoldService.release(seatHold);
+
+        Assertions.assertEquals(SeatHold.State.RELEASED, seatHold.getState());
+        Assertions.assertEquals(10, seatInventory.getRemainingSeats(SCREENING_ID));
+        Assertions.assertEquals(0, seatHoldService.getNumberOfActiveHolds());
+    }
+
+    @Test
+    public void expireHolds_WhenTheTtlHasNotPassed_KeepsTheHold() {
+        var seatHold = seatHoldService.hold(SCREENING_ID, ACCOUNT_ID, 4);
+        clock.advance(HOLD_TTL.minusSeconds(1));
+
+        seatHoldService.expireHolds();
+
+        Assertions.assertEquals(SeatHold.State.HELD, seatHold.getState());
+        Assertions.assertEquals(6, seatInventory.getRemainingSeats(SCREENING_ID));
+    }
+
+    @Test
+    public void expireHolds_WhenTheTtlHasPassed_ReturnsTheSeats() {
+        var seatHold = seatHoldService.hold(SCREENING_ID, ACCOUNT_ID, 4);
+        seatHoldService.expireHolds();
+        clock.advance(HOLD_TTL.plusSeconds(1));
+
+        seatHoldService.expireHolds();
+
+        Assertions.assertEquals(SeatHold.State.EXPIRED, seatHold.getState());
+        Assertions.assertEquals(10, seatInventory.getRemainingSeats(SCREENING_ID));
+        Assertions.assertEquals(0, seatHoldService.getNumberOfActiveHolds());
+    }
+
+    @Test
+    public void expireHolds_WhenTheHoldWasConfirmed_KeepsTheSeatsReserved() {
+        var seatHold = seatHoldService.hold(SCREENING_ID, ACCOUNT_ID, 4);
+        seatHoldService.confirm(seatHold);
+        clock.advance(HOLD_TTL.plusSeconds(1));
+
+        seatHoldService.expireHolds();
+
+        Assertions.assertEquals(SeatHold.State.CONFIRMED, seatHold.getState());
+        Assertions.assertEquals(6, seatInventory.getRemainingSeats(SCREENING_ID));
+    }
+
+    @Test
+    public void confirm_WhenTheHoldExpiredButSeatsRemain_ReservesThemAgain() {
+        var seatHold = seatHoldService.hold(SCREENING_ID, ACCOUNT_ID, 4);
+        clock.advance(HOLD_TTL.plusSeconds(1));
+        seatHoldService.expireHolds();
+
+        seatHoldService.confirm(seatHold);
+
+        Assertions.assertEquals(SeatHold.State.CONFIRMED, seatHold.getState());
+        Assertions.assertEquals(6, seatInventory.getRemainingSeats(SCREENING_ID));
+    }
+
+    @Test
+    public void confirm_WhenTheHoldExpiredAndTheSeatsHaveSold_ThrowsInvalidPurchaseException() {
+        var seatHold = seatHoldService.hold(SCREENING_ID, ACCOUNT_ID, 4);
+        clock.advance(HOLD_TTL.plusSeconds(1));
+        seatHoldService.expireHolds();
+        seatInventory.reserveSeat(SCREENING_ID, 2L, 8);
+
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class, () -> seatHoldService.confirm(seatHold));
+
+        Assertions.assertEquals(InvalidPurchaseException.HoldExpired, thrownException);
+        Assertions.assertEquals(2, seatInventory.getRemainingSeats(SCREENING_ID));
+    }
+
+    @Test
+    public void expireHolds_WhenHoldsSpanMoreThanOneRotation_ExpiresEachOnlyOnceItIsDue() {
+        var shortHoldService = new ExpiringSeatHoldService(seatInventory, Duration.ofSeconds(100), clock, Duration.ofSeconds(1), 8);
+        var first = shortHoldService.hold(SCREENING_ID, ACCOUNT_ID, 1);
+        clock.advance(Duration.ofSeconds(3));
+        var second = shortHoldService.hold(SCREENING_ID, ACCOUNT_ID, 1);
+
+        for (int tick = 0; tick < 98; tick++) {
+            clock.advance(Duration.ofSeconds(1));
+            shortHoldService.expireHolds();
+        }
+
+        Assertions.assertEquals(SeatHold.State.EXPIRED, first.getState());
+        Assertions.assertEquals(SeatHold.State.HELD, second.getState());
+    }
+}
@@ -0,0 +1,136 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class SeatInventoryTests {
+    private static final long SCREENING_ID = 7L;
+    private static final long ACCOUNT_ID = 1L;
+
+    private final SeatInventory seatInventory = new SeatInventory(8);
+
+    @Test
+    public void reserveSeat_WhenSeatsRemain_ReducesRemainingSeats() {
+        seatInventory.addScreening(SCREENING_ID, SeatMap.uniform(10, 20));
+
+        seatInventory.reserveSeat(SCREENING_ID, ACCOUNT_ID, 5);
+
+        Assertions.assertEquals(195, seatInventory.getRemainingSeats(SCREENING_ID));
+    }
+
+    @Test
+    public void reserveSeat_WhenScreeningDoesNotExist_ThrowsInvalidPurchaseException() {
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class,
+                () -> seatInventory.reserveSeat(SCREENING_ID, ACCOUNT_ID, 1));
+
+        Assertions.assertEquals(InvalidPurchaseException.UnknownScreening, thrownException);
+    }
+
+    @Test
+    public void reserveSeat_WhenNotEnoughSeatsRemain_ThrowsInvalidPurchaseExceptionAndReservesNothing() {
+        seatInventory.addScreening(SCREENING_ID, new SeatMap(3, 3));
+        seatInventory.reserveSeat(SCREENING_ID, ACCOUNT_ID, 4);
+
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class,
+                () -> seatInventory.reserveSeat(SCREENING_ID, ACCOUNT_ID, 3));
+
+        Assertions.assertEquals(InvalidPurchaseException.NotEnoughSeats, thrownException);
+        Assertions.assertEquals(2, seatInventory.getRemainingSeats(SCREENING_ID));
+    }
+
+    @Test
+    public void reserveSeat_WhenSeatsAreSpreadAcrossStripes_CanReserveEveryLastSeat() {
+        seatInventory.addScreening(SCREENING_ID, SeatMap.uniform(16, 16));
+
+        for (int i = 0; i < 16; i++) {
+            seatInventory.reserveSeat(SCREENING_ID, ACCOUNT_ID, 15);
+        }
+        seatInventory.reserveSeat(SCREENING_ID, ACCOUNT_ID, 16);
+
+        Assertions.assertEquals(0, seatInventory.getRemainingSeats(SCREENING_ID));
+    }
+
+    @Test
+    public void releaseSeats_WhenCalled_MakesSeatsAvailableAgain() {
+        seatInventory.addScreening(SCREENING_ID, new SeatMap(2));
+        seatInventory.reserveSeat(SCREENING_ID, ACCOUNT_ID, 2);
+
+        seatInventory.releaseSeats(SCREENING_ID, 2);
+
+        Assertions.assertEquals(2, seatInventory.getRemainingSeats(SCREENING_ID));
+    }
+
+    @Test
+    public void addScreening_WhenScreeningAlreadyExists_ThrowsIllegalArgumentException() {
+        seatInventory.addScreening(SCREENING_ID, new SeatMap(2));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> seatInventory.addScreening(SCREENING_ID, new SeatMap(2)));
+    }
+
+    @Test
+    public void addScreening_WhenCalledWithRemainingSeats_StartsPartlySold() {
+        seatInventory.addScreening(SCREENING_ID, SeatMap.uniform(10, 20), 150);
+
+        Assertions.assertEquals(150, seatInventory.getRemainingSeats(SCREENING_ID));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> seatInventory.addScreening(SCREENING_ID + 1, SeatMap.uniform(10, 20), 201));
+    }
+
+    @Test
+    public void takeRemainingSeats_WhenCalled_LeavesNoneToReserve() {
+        seatInventory.addScreening(SCREENING_ID, SeatMap.uniform(10, 20));
+        seatInventory.reserveSeat(SCREENING_ID, ACCOUNT_ID, 5);
+
+        Assertions.assertEquals(195, seatInventory.takeRemainingSeats(SCREENING_ID));
+
+        Assertions.assertEquals(InvalidPurchaseException.NotEnoughSeats, Assertions.assertThrows(InvalidPurchaseException.class,
+                () -> seatInventory.reserveSeat(SCREENING_ID, ACCOUNT_ID, 1)));
+        seatInventory.releaseSeats(SCREENING_ID, 195);
+        Assertions.assertEquals(195, seatInventory.getRemainingSeats(SCREENING_ID));
+    }
+
+    @Test
+    public void reserveSeat_WhenCalledConcurrently_NeverOverbooks() throws Exception {
+        var capacity = 2_000;
+        seatInventory.addScreening(SCREENING_ID, new SeatMap(capacity));
+        var numberOfThreads = 8;
+        var executor = Executors.newFixedThreadPool(numberOfThreads);
+        var start = new CountDownLatch(1);
+        try {
+            var futures = new ArrayList<Future<Integer>>();
+            for (int thread = 0; thread < numberOfThreads; thread++) {
+                var seatsPerReservation = 1 + thread % 3;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    var reserved = 0;
+                    for (int i = 0; i < capacity; i++) {
+                        try {
+                            seatInventory.reserveSeat(SCREENING_ID, ACCOUNT_ID, seatsPerReservation);
+                            reserved += seatsPerReservation;
+                        } catch (InvalidPurchaseException e) {
+                            Assertions.assertEquals(InvalidPurchaseException.NotEnoughSeats, e);
+                        }
+                    }
+                    return reserved;
+                }));
+            }
+            start.countDown();
+
+            var totalReserved = 0;
+            for (Future<Integer> future : futures) {
+                totalReserved += future.get(30, TimeUnit.SECONDS);
+            }
+
+            Assertions.assertEquals(capacity, totalReserved);
+            Assertions.assertEquals(0, seatInventory.getRemainingSeats(SCREENING_ID));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
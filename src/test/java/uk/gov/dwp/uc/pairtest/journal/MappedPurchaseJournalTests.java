@@ -0,0 +1,179 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.dwp.uc.pairtest.MutableClock;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.inventory.ExpiringSeatHoldService;
+import uk.gov.dwp.uc.pairtest.inventory.SeatHold;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+import uk.gov.dwp.uc.pairtest.inventory.SeatMap;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class MappedPurchaseJournalTests {
+    private static final long SCREENING_ID = 7L;
+
+    @TempDir
+    Path directory;
+
+    private final SeatInventory seatInventory = new SeatInventory();
+    private final ExpiringSeatHoldService seatHoldService = new ExpiringSeatHoldService(seatInventory, Duration.ofMinutes(5), new MutableClock());
+
+    public MappedPurchaseJournalTests() {
+        seatInventory.addScreening(SCREENING_ID, SeatMap.uniform(10, 10));
+    }
+
+    @Test
+    public void open_WhenCalledWithNullPath_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MappedPurchaseJournal.open(null));
+    }
+
+    @Test
+    public void accept_WhenJournalIsReopened_ContinuesPurchaseIdsAfterTheLastOne() throws Exception {
+        var path = directory.resolve("purchases.journal");
+        try (var journal = MappedPurchaseJournal.open(path)) {
+            Assertions.assertEquals(1, journal.accept(SCREENING_ID, 1L, 1, 0, 0, 20).getPurchaseId());
+            Assertions.assertEquals(2, journal.accept(SCREENING_ID, 2L, 1, 0, 0, 20).getPurchaseId());
+        }
+
+        try (var journal = MappedPurchaseJournal.open(path)) {
+            var purchase = journal.accept(SCREENING_ID, 3L, 2, 1, 1, 50);
+
+            Assertions.assertEquals(3, purchase.getPurchaseId());
+            Assertions.assertEquals(2, purchase.getNumberOfTickets(TicketTypeRequest.Type.ADULT));
+            Assertions.assertEquals(1, purchase.getNumberOfTickets(TicketTypeRequest.Type.INFANT));
+            Assertions.assertEquals(3, purchase.getNumberOfSeats());
+        }
+    }
+
+    @Test
+    public void recover_WhenJournalHoldsPurchasesInEveryState_RebuildsSeatsAndReturnsPaymentsInFlight() throws Exception {
+        var path = directory.resolve("purchases.journal");
+        try (var journal = MappedPurchaseJournal.open(path, 4, 10, TimeUnit.MILLISECONDS)) {
+            var completed = journal.accept(SCREENING_ID, 1L, 3, 0, 0, 60);
+            journal.record(completed, PurchaseRecord.State.SEATS_RESERVED);
+            journal.record(completed, PurchaseRecord.State.PAID);
+            journal.record(completed, PurchaseRecord.State.COMPLETED);
+
+            var aborted = journal.accept(SCREENING_ID, 2L, 5, 0, 0, 100);
+            journal.record(aborted, PurchaseRecord.State.ABORTED);
+
+            journal.accept(SCREENING_ID, 3L, 7, 0, 0, 140);
+
+            var paymentInFlight = journal.accept(SCREENING_ID, 4L, 2, 1, 0, 50);
+            journal.record(paymentInFlight, PurchaseRecord.State.SEATS_RESERVED);
+
+            var paid = journal.accept(SCREENING_ID, 5L, 4, 0, 0, 80);
+            journal.record(paid, PurchaseRecord.State.SEATS_RESERVED);
+            journal.record(paid, PurchaseRecord.State.PAID);
+        }
+
+        try (var journal = MappedPurchaseJournal.open(path, 4, 10, TimeUnit.MILLISECONDS)) {
+            var recovered = journal.recover(seatHoldService);
+
+            Assertions.assertEquals(1, recovered.size());
+            var purchase = recovered.get(0).getPurchase();
+            Assertions.assertEquals(4L, purchase.getAccountId());
+            Assertions.assertEquals(PurchaseRecord.State.SEATS_RESERVED, purchase.getState());
+            Assertions.assertEquals(50, purchase.getTotalAmountToPay());
+            Assertions.assertEquals(SeatHold.State.HELD, recovered.get(0).getSeatHold().getState());
+            Assertions.assertEquals(100 - 3 - 4 - 3, seatInventory.getRemainingSeats(SCREENING_ID));
+        }
+
+        var restarted = new SeatInventory();
+        restarted.addScreening(SCREENING_ID, SeatMap.uniform(10, 10));
+        try (var journal = MappedPurchaseJournal.open(path, 4, 10, TimeUnit.MILLISECONDS)) {
+            var recovered = journal.recover(new ExpiringSeatHoldService(restarted, Duration.ofMinutes(5), new MutableClock()));
+
+            // The accepted purchase was aborted and the paid one completed by the first recovery
+            Assertions.assertEquals(1, recovered.size());
+            Assertions.assertEquals(100 - 3 - 4 - 3, restarted.getRemainingSeats(SCREENING_ID));
+        }
+    }
+
+    @Test
+    public void recover_WhenAPaymentIsAwaitingRefund_ReturnsItWithoutHoldingSeatsUntilItIsAborted() throws Exception {
+        var path = directory.resolve("purchases.journal");
+        try (var journal = MappedPurchaseJournal.open(path)) {
+            var purchase = journal.accept(SCREENING_ID, 1L, 2, 0, 0, 40);
+            journal.record(purchase, PurchaseRecord.State.SEATS_RESERVED);
+            journal.record(purchase, PurchaseRecord.State.PAID);
+            journal.record(purchase, PurchaseRecord.State.REFUND_REQUIRED);
+        }
+
+        try (var journal = MappedPurchaseJournal.open(path)) {
+            var recovered = journal.recover(seatHoldService);
+
+            Assertions.assertEquals(1, recovered.size());
+            Assertions.assertEquals(PurchaseRecord.State.REFUND_REQUIRED, recovered.get(0).getPurchase().getState());
+            Assertions.assertNull(recovered.get(0).getSeatHold());
+            Assertions.assertEquals(100, seatInventory.getRemainingSeats(SCREENING_ID));
+
+            journal.record(recovered.get(0).getPurchase(), PurchaseRecord.State.ABORTED);
+        }
+
+        try (var journal = MappedPurchaseJournal.open(path)) {
+            Assertions.assertTrue(journal.recover(seatHoldService).isEmpty());
+        }
+    }
+
+    @Test
+    public void recover_WhenLastEntryIsTorn_IgnoresItAndAppendsOverIt() throws Exception {
+        var path = directory.resolve("purchases.journal");
+        try (var journal = MappedPurchaseJournal.open(path)) {
+            var purchase = journal.accept(SCREENING_ID, 1L, 2, 0, 0, 40);
+            journal.record(purchase, PurchaseRecord.State.COMPLETED);
+            journal.accept(SCREENING_ID, 2L, 1, 0, 0, 20);
+        }
+
+        try (var file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(2L * MappedPurchaseJournal.ENTRY_SIZE + 20);
+            file.write(0x7f);
+        }
+
+        try (var journal = MappedPurchaseJournal.open(path)) {
+            Assertions.assertTrue(journal.recover(seatHoldService).isEmpty());
+            Assertions.assertEquals(98, seatInventory.getRemainingSeats(SCREENING_ID));
+            Assertions.assertEquals(2, journal.accept(SCREENING_ID, 3L, 1, 0, 0, 20).getPurchaseId());
+        }
+    }
+
+    @Test
+    public void sync_WhenCalledConcurrently_ReturnsOnceEveryEntryIsDurable() throws Exception {
+        var path = directory.resolve("purchases.journal");
+        var executor = Executors.newFixedThreadPool(8);
+        try (var journal = MappedPurchaseJournal.open(path, 64, 1, TimeUnit.SECONDS)) {
+            var futures = new ArrayList<Future<?>>();
+            for (int thread = 0; thread < 8; thread++) {
+                var accountId = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        var purchase = journal.accept(SCREENING_ID, accountId, 1, 0, 0, 20);
+                        journal.record(purchase, PurchaseRecord.State.COMPLETED);
+                        journal.sync();
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                // Well under the flush interval per sync, so syncs must not wait for the timer
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (var journal = MappedPurchaseJournal.open(path)) {
+            Assertions.assertTrue(journal.recover(seatHoldService).isEmpty());
+            Assertions.assertEquals(401, journal.accept(SCREENING_ID, 1L, 1, 0, 0, 20).getPurchaseId());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package uk.gov.dwp.uc.pairtest.loadtest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import uk.gov.dwp.uc.pairtest.TicketService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.resilience.FaultInjectingSeatReservationService;
+import uk.gov.dwp.uc.pairtest.resilience.FaultInjectingTicketPaymentService;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+public class LoadGeneratorTests {
+    private final FaultInjectingSeatReservationService seatReservationService = new FaultInjectingSeatReservationService();
+    private final FaultInjectingTicketPaymentService ticketPaymentService = new FaultInjectingTicketPaymentService();
+    private final TicketService ticketService = new TicketServiceImpl(seatReservationService, ticketPaymentService);
+
+    private static LoadProfile profile(String... entries) {
+        var configuration = new Properties();
+        configuration.setProperty("arrivals-per-second", "1000");
+        configuration.setProperty("duration", "PT0.2S");
+        configuration.setProperty("concurrency", "4");
+        for (String entry : entries) {
+            var separator = entry.indexOf('=');
+            configuration.setProperty(entry.substring(0, separator), entry.substring(separator + 1));
+        }
+        return LoadProfile.from(configuration);
+    }
+
+    @Test
+    public void Constructor_WhenCalledWithNullTicketService_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LoadGenerator(null, profile()));
+    }
+
+    @Test
+    public void run_WhenCalled_OffersPurchasesAtTheArrivalRate() throws InterruptedException {
+        var report = new LoadGenerator(ticketService, profile("invalid-ratio=0")).run();
+
+        Assertions.assertEquals(200, report.getNumberOfPurchases());
+        Assertions.assertEquals(200, report.getNumberOfSuccessfulPurchases());
+        Assertions.assertEquals(200, seatReservationService.getNumberOfCalls());
+        Assertions.assertEquals(200, report.getResponseTime().getCount());
+        Assertions.assertTrue(report.getThroughputPerSecond() > 500);
+    }
+
+    @Test
+    public void run_WhenEveryPurchaseIsInvalid_ReportsThemAsRejected() throws InterruptedException {
+        var report = new LoadGenerator(ticketService, profile("invalid-ratio=1")).run();
+
+        Assertions.assertEquals(200, report.getNumberOfRejectedPurchases());
+        Assertions.assertEquals(0, seatReservationService.getNumberOfCalls());
+    }
+
+    @Test
+    public void run_WhenThirdPartyFails_ReportsThePurchasesAsFailed() throws InterruptedException {
+        ticketPaymentService.setFailureRate(1);
+
+        var report = new LoadGenerator(ticketService, profile("invalid-ratio=0")).run();
+
+        Assertions.assertEquals(200, report.getNumberOfFailedPurchases());
+    }
+
+    @Test
+    public void run_WhenServiceStalls_ChargesTheStallToEveryPurchaseDueDuringIt() throws InterruptedException {
+        var stalled = new AtomicBoolean();
+        var stallingTicketService = Mockito.mock(TicketService.class);
+        Mockito.doAnswer(invocation -> {
+            if(stalled.compareAndSet(false, true)) {
+                Thread.sleep(200);
+            }
+            return null;
+        }).when(stallingTicketService).purchaseTickets(anyLong(), anyInt(), anyInt(), anyInt());
+
+        var report = new LoadGenerator(stallingTicketService, profile("arrivals-per-second=100", "duration=PT0.5S", "concurrency=1")).run();
+
+        // One purchase took 200ms, but the twenty due while it ran each waited up to that long to be sent
+        Assertions.assertTrue(report.getServiceTime().getValueAtPercentile(90) < 20_000_000L);
+        Assertions.assertTrue(report.getResponseTime().getValueAtPercentile(90) >= 50_000_000L);
+    }
+
+    @Test
+    public void from_WhenAnEntryIsInvalid_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> profile("arrivals-per-second=0"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> profile("mix.TODDLER=1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> profile("mix.ADULT=0"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> profile("invalid-ratio=2"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> profile("rate=10"));
+    }
+}
@@ -0,0 +1,43 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class LatencyHistogramTests {
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 127, 128, 129, 1_000, 65_535, 1_000_000_007L, Long.MAX_VALUE})
+    public void indexOf_WhenCalledWithAValue_MapsToABucketWithinTwoPercent(long value) {
+        var lowestValue = LatencyHistogram.lowestValueAt(LatencyHistogram.indexOf(value));
+
+        Assertions.assertTrue(lowestValue <= value);
+        Assertions.assertTrue(value - lowestValue <= value / 64);
+    }
+
+    @Test
+    public void snapshot_WhenNothingRecorded_ReportsZero() {
+        var snapshot = new LatencyHistogram(2).snapshot();
+
+        Assertions.assertEquals(0, snapshot.getCount());
+        Assertions.assertEquals(0, snapshot.getValueAtPercentile(99));
+        Assertions.assertEquals(0, snapshot.getMax());
+    }
+
+    @Test
+    public void snapshot_WhenValuesRecorded_ReportsPercentiles() {
+        var histogram = new LatencyHistogram(2);
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        histogram.record(1_000_000);
+
+        var snapshot = histogram.snapshot();
+
+        Assertions.assertEquals(101, snapshot.getCount());
+        Assertions.assertEquals(51, snapshot.getValueAtPercentile(50));
+        Assertions.assertEquals(100, snapshot.getValueAtPercentile(99));
+        Assertions.assertEquals(LatencyHistogram.lowestValueAt(LatencyHistogram.indexOf(1_000_000)), snapshot.getMax());
+    }
+}
@@ -0,0 +1,150 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Properties;
+
+public class ConfigurablePricingEngineTests {
+    private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+    private final ConfigurablePricingEngine pricingEngine;
+
+    public ConfigurablePricingEngineTests() throws IOException, URISyntaxException {
+        pricingEngine = ConfigurablePricingEngine.load(Path.of(getClass().getResource("/pricing.properties").toURI()));
+    }
+
+    private static long at(String localDateTime) {
+        return LocalDateTime.parse(localDateTime).atZone(LONDON).toInstant().toEpochMilli();
+    }
+
+    private static Properties standardPrices() {
+        var configuration = new Properties();
+        configuration.setProperty("price.ADULT", "20");
+        configuration.setProperty("price.CHILD", "10");
+        configuration.setProperty("price.INFANT", "0");
+        return configuration;
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, 2024-07-01T09:59, 20, 10, 0",
+            "1, 2024-07-01T10:00, 15, 10, 0",
+            "1, 2024-07-01T15:59, 15, 10, 0",
+            "1, 2024-07-01T16:00, 20, 10, 0",
+            "1, 2024-07-01T23:30, 20, 8, 0",
+            "1, 2024-07-02T01:59, 20, 8, 0",
+            "1, 2024-12-01T10:30, 15, 10, 0",
+            "42, 2024-07-01T09:00, 25, 5, 0",
+            "42, 2024-07-01T12:00, 25, 5, 0",
+            "43, 2024-07-01T12:00, 15, 5, 0",
+            "43, 2024-07-01T23:00, 20, 5, 0"
+    })
+    public void getPriceTable_WhenCalledForAScreeningAndTime_AppliesLayersInPriorityOrder(
+            long screeningId,
+            String localDateTime,
+            int expectedAdultPrice,
+            int expectedChildPrice,
+            int expectedInfantPrice) {
+        var priceTable = pricingEngine.getPriceTable(screeningId, at(localDateTime));
+
+        Assertions.assertEquals(new PriceTable(expectedAdultPrice, expectedChildPrice, expectedInfantPrice), priceTable);
+    }
+
+    @Test
+    public void getPriceTable_WhenPricesAreTheSame_ReturnsTheSameInstance() {
+        Assertions.assertSame(
+                pricingEngine.getPriceTable(1, at("2024-07-01T11:00")),
+                pricingEngine.getPriceTable(7, at("2024-07-01T12:00")));
+    }
+
+    @Test
+    public void getPriceTable_WhenCalledEitherSideOfAClockChange_UsesTheOffsetInForceAtEachTime() {
+        Assertions.assertEquals(15, pricingEngine.getPriceTable(1, at("2024-07-01T10:30")).getPrice(TicketTypeRequest.Type.ADULT));
+        Assertions.assertEquals(20, pricingEngine.getPriceTable(1, at("2024-12-01T09:30")).getPrice(TicketTypeRequest.Type.ADULT));
+        Assertions.assertEquals(15, pricingEngine.getPriceTable(1, at("2024-12-01T10:30")).getPrice(TicketTypeRequest.Type.ADULT));
+        Assertions.assertEquals(20, pricingEngine.getPriceTable(1, at("2024-07-01T09:30")).getPrice(TicketTypeRequest.Type.ADULT));
+    }
+
+    @Test
+    public void getPriceTable_WhenScreeningHasAStartTime_PricesItByTheBandItStartsIn() {
+        var configuration = standardPrices();
+        configuration.setProperty("band.matinee.from", "10:00");
+        configuration.setProperty("band.matinee.to", "16:00");
+        configuration.setProperty("band.matinee.price.ADULT", "15");
+        configuration.setProperty("screening.7.starts", "11:00");
+        configuration.setProperty("promotion.evening.screenings", "7");
+        configuration.setProperty("promotion.evening.from", "18:00");
+        configuration.setProperty("promotion.evening.to", "19:00");
+        configuration.setProperty("promotion.evening.price.CHILD", "5");
+        var engine = new ConfigurablePricingEngine(configuration);
+
+        Assertions.assertEquals(new PriceTable(15, 10, 0), engine.getPriceTable(7, 20 * 60 * 60_000L));
+        Assertions.assertEquals(new PriceTable(15, 5, 0), engine.getPriceTable(7, 18 * 60 * 60_000L));
+        Assertions.assertEquals(new PriceTable(20, 10, 0), engine.getPriceTable(8, 20 * 60 * 60_000L));
+    }
+
+    @Test
+    public void Constructor_WhenBandsOverlap_ThrowsIllegalArgumentException() {
+        var configuration = standardPrices();
+        configuration.setProperty("band.matinee.from", "10:00");
+        configuration.setProperty("band.matinee.to", "16:00");
+        configuration.setProperty("band.lunch.from", "12:00");
+        configuration.setProperty("band.lunch.to", "14:00");
+
+        var exception = Assertions.assertThrows(IllegalArgumentException.class, () -> new ConfigurablePricingEngine(configuration));
+
+        Assertions.assertTrue(exception.getMessage().contains("overlap"), exception.getMessage());
+    }
+
+    @Test
+    public void Constructor_WhenABasePriceIsMissing_ThrowsIllegalArgumentException() {
+        var configuration = standardPrices();
+        configuration.remove("price.INFANT");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ConfigurablePricingEngine(configuration));
+    }
+
+    @Test
+    public void Constructor_WhenAKeyIsUnknown_ThrowsIllegalArgumentException() {
+        var configuration = standardPrices();
+        configuration.setProperty("band.matinee.price.SENIOR", "5");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ConfigurablePricingEngine(configuration));
+    }
+
+    @Test
+    public void update_WhenCalledWithNewPrices_SwapsThemIn() {
+        var engine = new ConfigurablePricingEngine(standardPrices());
+        var configuration = standardPrices();
+        configuration.setProperty("price.ADULT", "30");
+
+        engine.update(configuration);
+
+        Assertions.assertEquals(30, engine.getPriceTable(1, 0).getPrice(TicketTypeRequest.Type.ADULT));
+    }
+
+    @Test
+    public void reload_WhenTheFileIsInvalid_KeepsTheCurrentPrices() throws IOException {
+        var engine = new ConfigurablePricingEngine(standardPrices());
+        var invalidFile = Files.createTempFile("pricing", ".properties");
+        try {
+            Files.writeString(invalidFile, "price.ADULT=-1\n");
+
+            Assertions.assertThrows(IllegalArgumentException.class, () -> engine.reload(invalidFile));
+
+            Assertions.assertEquals(PriceTable.STANDARD, engine.getPriceTable(1, 0));
+        } finally {
+            Files.delete(invalidFile);
+        }
+    }
+}
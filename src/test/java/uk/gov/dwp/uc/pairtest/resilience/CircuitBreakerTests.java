@@ -0,0 +1,128 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.MutableClock;
+
+import java.time.Duration;
+
+public class CircuitBreakerTests {
+    private static final long FAST = Duration.ofMillis(1).toNanos();
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    private final MutableClock clock = new MutableClock();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(
+            4, 4, 50, Duration.ofMillis(500), Duration.ofSeconds(10), 2, clock);
+
+    @Test
+    public void Constructor_WhenMinimumNumberOfCallsExceedsWindow_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new CircuitBreaker(4, 5, 50, Duration.ofMillis(500), Duration.ofSeconds(10), 1, clock));
+    }
+
+    @Test
+    public void onFailure_WhenBelowMinimumNumberOfCalls_StaysClosed() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        Assertions.assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void onFailure_WhenFailureRateReached_OpensAndRefusesCalls() {
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void onSuccess_WhenSlowCallRateReached_Opens() {
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(SLOW);
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(SLOW);
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void onSuccess_WhenOldFailuresLeaveTheWindow_StaysClosed() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess(FAST);
+
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void tryAcquirePermission_WhenOpenDurationElapsed_PermitsLimitedTrialCalls() {
+        open();
+
+        clock.advance(Duration.ofSeconds(10));
+
+        Assertions.assertTrue(circuitBreaker.tryAcquirePermission());
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        Assertions.assertTrue(circuitBreaker.tryAcquirePermission());
+        Assertions.assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void onSuccess_WhenAllTrialCallsSucceed_Closes() {
+        open();
+        clock.advance(Duration.ofSeconds(10));
+        circuitBreaker.tryAcquirePermission();
+        circuitBreaker.tryAcquirePermission();
+
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        circuitBreaker.onFailure();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void onFailure_WhenTrialCallFails_OpensAgain() {
+        open();
+        clock.advance(Duration.ofSeconds(10));
+        circuitBreaker.tryAcquirePermission();
+
+        circuitBreaker.onSuccess(SLOW);
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void releasePermission_WhenHalfOpen_ReturnsTrialPermit() {
+        open();
+        clock.advance(Duration.ofSeconds(10));
+        circuitBreaker.tryAcquirePermission();
+        circuitBreaker.tryAcquirePermission();
+
+        circuitBreaker.releasePermission();
+        circuitBreaker.releasePermission();
+        circuitBreaker.releasePermission();
+
+        Assertions.assertTrue(circuitBreaker.tryAcquirePermission());
+        Assertions.assertTrue(circuitBreaker.tryAcquirePermission());
+        Assertions.assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onFailure();
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+}
@@ -0,0 +1,280 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import thirdparty.paymentgateway.BatchTicketPaymentService;
+import thirdparty.paymentgateway.RefundableTicketPaymentService;
+import thirdparty.seatbooking.ScreeningSeatReservationService;
+import uk.gov.dwp.uc.pairtest.MutableClock;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.inventory.ExpiringSeatHoldService;
+import uk.gov.dwp.uc.pairtest.inventory.SeatHold;
+import uk.gov.dwp.uc.pairtest.inventory.SeatHoldService;
+import uk.gov.dwp.uc.pairtest.inventory.SeatInventory;
+import uk.gov.dwp.uc.pairtest.inventory.SeatMap;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class ResiliencePolicyTests {
+    private final MutableClock clock = new MutableClock();
+    private final FaultInjectingTicketPaymentService paymentGateway = new FaultInjectingTicketPaymentService();
+    private final FaultInjectingSeatReservationService seatBooking = new FaultInjectingSeatReservationService();
+    private final ResiliencePolicy paymentPolicy = new ResiliencePolicy("payment", 2, Duration.ofMillis(100),
+            new CircuitBreaker(4, 4, 50, Duration.ofMillis(50), Duration.ofSeconds(30), 1, clock));
+    private final ResiliencePolicy seatPolicy = new ResiliencePolicy("seats", 2, Duration.ofMillis(100),
+            new CircuitBreaker(4, 4, 50, Duration.ofMillis(50), Duration.ofSeconds(30), 1, clock));
+    private final ResilientTicketPaymentService ticketPaymentService = new ResilientTicketPaymentService(paymentGateway, paymentPolicy);
+    private final ResilientSeatReservationService seatReservationService = new ResilientSeatReservationService(seatBooking, seatPolicy);
+
+    @AfterEach
+    public void closePolicies() {
+        paymentPolicy.close();
+        seatPolicy.close();
+    }
+
+    @Test
+    public void execute_WhenCallSucceeds_CompletesNormally() {
+        ticketPaymentService.makePayment(1L, 20);
+        seatReservationService.reserveSeat(1L, 1);
+
+        Assertions.assertEquals(1, paymentGateway.getNumberOfCalls());
+        Assertions.assertEquals(1, seatBooking.getNumberOfCalls());
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, paymentPolicy.getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void execute_WhenCallTimesOut_ThrowsServiceUnavailable() {
+        paymentGateway.setLatency(Duration.ofSeconds(5));
+
+        var start = System.nanoTime();
+        var exception = Assertions.assertThrows(InvalidPurchaseException.class, () -> ticketPaymentService.makePayment(1L, 20));
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, exception);
+        Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    public void execute_WhenDependencyThrows_RethrowsItsException() {
+        seatBooking.setFailureRate(1);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> seatReservationService.reserveSeat(1L, 1));
+    }
+
+    @Test
+    public void execute_WhenFailuresAreSustained_OpensCircuitAndFailsFastWithoutCallingDependency() {
+        paymentGateway.setFailureRate(1);
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertThrows(IllegalStateException.class, () -> ticketPaymentService.makePayment(1L, 20));
+        }
+
+        var exception = Assertions.assertThrows(InvalidPurchaseException.class, () -> ticketPaymentService.makePayment(1L, 20));
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, exception);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, paymentPolicy.getCircuitBreaker().getState());
+        Assertions.assertEquals(4, paymentGateway.getNumberOfCalls());
+    }
+
+    @Test
+    public void execute_WhenDependencyRecovers_ClosesCircuitAfterOpenDuration() {
+        paymentGateway.setFailureRate(1);
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertThrows(IllegalStateException.class, () -> ticketPaymentService.makePayment(1L, 20));
+        }
+
+        paymentGateway.setFailureRate(0);
+        clock.advance(Duration.ofSeconds(30));
+        ticketPaymentService.makePayment(1L, 20);
+
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, paymentPolicy.getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void execute_WhenBulkheadIsFull_ThrowsServiceUnavailableWithoutWaiting() throws Exception {
+        var policy = new ResiliencePolicy("blocked", 1, Duration.ofSeconds(5),
+                new CircuitBreaker(4, 4, 50, Duration.ofSeconds(5), Duration.ofSeconds(30), 1, clock));
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var caller = new Thread(() -> policy.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        caller.start();
+
+        try {
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            var exception = Assertions.assertThrows(InvalidPurchaseException.class, () -> policy.execute(() -> { }));
+
+            Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, exception);
+            Assertions.assertEquals(CircuitBreaker.State.CLOSED, policy.getCircuitBreaker().getState());
+        } finally {
+            release.countDown();
+            caller.join();
+            policy.close();
+        }
+    }
+
+    @Test
+    public void execute_WhenDependencyRejectsPurchase_RethrowsWithoutCountingFailure() {
+        var mockedSeatReservationService = Mockito.mock(ScreeningSeatReservationService.class);
+        Mockito.doThrow(InvalidPurchaseException.NotEnoughSeats).when(mockedSeatReservationService).reserveSeat(7L, 1L, 1);
+        var reservations = new ResilientSeatReservationService(mockedSeatReservationService, seatPolicy);
+
+        for (int i = 0; i < 4; i++) {
+            var exception = Assertions.assertThrows(InvalidPurchaseException.class, () -> reservations.reserveSeat(7L, 1L, 1));
+            Assertions.assertEquals(InvalidPurchaseException.NotEnoughSeats, exception);
+        }
+
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, seatPolicy.getCircuitBreaker().getState());
+        Mockito.verify(mockedSeatReservationService, Mockito.times(4)).reserveSeat(7L, 1L, 1);
+        verifyNoMoreInteractions(mockedSeatReservationService);
+    }
+
+    @Test
+    public void purchaseTickets_WhenPaymentGatewayIsSlow_FailsFastWithServiceUnavailable() {
+        var ticketService = new TicketServiceImpl(seatReservationService, ticketPaymentService);
+        paymentGateway.setLatency(Duration.ofSeconds(5));
+
+        var exception = Assertions.assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)));
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, exception);
+        Assertions.assertEquals(1, seatBooking.getNumberOfCalls());
+    }
+
+    @Test
+    public void of_WhenServiceHoldsSeats_GivesTheSeatsBackWhenPaymentFails() {
+        var seatInventory = new SeatInventory();
+        seatInventory.addScreening(7L, SeatMap.uniform(1, 10));
+        var seatHoldService = new ExpiringSeatHoldService(seatInventory, Duration.ofMinutes(5), clock);
+        var seatReservationService = ResilientSeatReservationService.of(seatHoldService, seatPolicy);
+        var ticketService = new TicketServiceImpl(seatReservationService, ticketPaymentService);
+        paymentGateway.setFailureRate(1);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> ticketService.purchaseTickets(7L, 1L, 2, 0, 0));
+
+        Assertions.assertTrue(seatReservationService instanceof SeatHoldService);
+        Assertions.assertEquals(10, seatInventory.getRemainingSeats(7L));
+        Assertions.assertEquals(0, seatHoldService.getNumberOfActiveHolds());
+    }
+
+    @Test
+    public void hold_WhenHoldArrivesAfterTheTimeout_ReleasesIt() {
+        var mockedSeatHoldService = Mockito.mock(SeatHoldService.class);
+        var seatHold = Mockito.mock(SeatHold.class);
+        Mockito.when(mockedSeatHoldService.hold(7L, 1L, 2)).thenAnswer(invocation -> {
+            sleepUninterruptibly(Duration.ofMillis(300));
+            return seatHold;
+        });
+        var seatHoldService = new ResilientSeatHoldService(mockedSeatHoldService, seatPolicy);
+
+        var exception = Assertions.assertThrows(InvalidPurchaseException.class, () -> seatHoldService.hold(7L, 1L, 2));
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, exception);
+        Mockito.verify(mockedSeatHoldService, Mockito.timeout(5000)).release(seatHold);
+    }
+
+    @Test
+    public void reserveSeat_WhenInventoryReservesAfterTheTimeout_ReleasesTheSeats() throws Exception {
+        var reserved = new CountDownLatch(1);
+        var slowSeatInventory = new SeatInventory() {
+            @Override
+            public void reserveSeat(long screeningId, long accountId, int totalSeatsToAllocate) {
+                sleepUninterruptibly(Duration.ofMillis(300));
+                super.reserveSeat(screeningId, accountId, totalSeatsToAllocate);
+                reserved.countDown();
+            }
+        };
+        slowSeatInventory.addScreening(7L, SeatMap.uniform(1, 10));
+        var reservations = ResilientSeatReservationService.of(slowSeatInventory, seatPolicy);
+
+        var exception = Assertions.assertThrows(InvalidPurchaseException.class, () -> reservations.reserveSeat(7L, 1L, 2));
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, exception);
+        Assertions.assertTrue(reserved.await(5, TimeUnit.SECONDS));
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (slowSeatInventory.getRemainingSeats(7L) != 10 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(10, slowSeatInventory.getRemainingSeats(7L));
+    }
+
+    @Test
+    public void makePayment_WhenPaymentIsTakenAfterTheTimeout_RefundsIt() {
+        var mockedPaymentService = Mockito.mock(RefundableTicketPaymentService.class);
+        Mockito.doAnswer(invocation -> {
+            sleepUninterruptibly(Duration.ofMillis(300));
+            return null;
+        }).when(mockedPaymentService).makePayment(1L, 20);
+        var paymentService = ResilientTicketPaymentService.of(mockedPaymentService, paymentPolicy);
+
+        var exception = Assertions.assertThrows(InvalidPurchaseException.class, () -> paymentService.makePayment(1L, 20));
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, exception);
+        Mockito.verify(mockedPaymentService, Mockito.timeout(5000)).refundPayment(1L, 20);
+    }
+
+    @Test
+    public void makePayments_WhenBatchIsTakenAfterTheTimeout_RefundsEachPayment() {
+        var mockedPaymentService = Mockito.mock(BatchTicketPaymentService.class,
+                Mockito.withSettings().extraInterfaces(RefundableTicketPaymentService.class));
+        var accountIds = new long[]{1L, 2L};
+        var totalAmountsToPay = new int[]{20, 40};
+        Mockito.doAnswer(invocation -> {
+            sleepUninterruptibly(Duration.ofMillis(300));
+            return null;
+        }).when(mockedPaymentService).makePayments(accountIds, totalAmountsToPay);
+        var paymentService = ResilientTicketPaymentService.of(mockedPaymentService, paymentPolicy);
+
+        var exception = Assertions.assertThrows(InvalidPurchaseException.class,
+                () -> ((BatchTicketPaymentService) paymentService).makePayments(accountIds, totalAmountsToPay));
+
+        Assertions.assertEquals(InvalidPurchaseException.ServiceUnavailable, exception);
+        var refundable = (RefundableTicketPaymentService) mockedPaymentService;
+        Mockito.verify(refundable, Mockito.timeout(5000)).refundPayment(1L, 20);
+        Mockito.verify(refundable, Mockito.timeout(5000)).refundPayment(2L, 40);
+    }
+
+    @Test
+    public void of_WhenGatewayRefundsAndTakesBatches_KeepsBothWhileTheCircuitIsOpen() {
+        var mockedPaymentService = Mockito.mock(BatchTicketPaymentService.class,
+                Mockito.withSettings().extraInterfaces(RefundableTicketPaymentService.class));
+        var paymentService = ResilientTicketPaymentService.of(mockedPaymentService, paymentPolicy);
+        Mockito.doThrow(new IllegalStateException("gateway down")).when(mockedPaymentService).makePayment(1L, 20);
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertThrows(IllegalStateException.class, () -> paymentService.makePayment(1L, 20));
+        }
+
+        Assertions.assertTrue(paymentService instanceof BatchTicketPaymentService);
+        Assertions.assertTrue(paymentService instanceof RefundableTicketPaymentService);
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, paymentPolicy.getCircuitBreaker().getState());
+        ((RefundableTicketPaymentService) paymentService).refundPayment(2L, 40);
+        Mockito.verify((RefundableTicketPaymentService) mockedPaymentService).refundPayment(2L, 40);
+    }
+
+    private static void sleepUninterruptibly(Duration duration) {
+        var deadline = System.nanoTime() + duration.toNanos();
+        var interrupted = false;
+        for (long remaining = duration.toNanos(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package uk.gov.dwp.uc.pairtest.rules;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.Properties;
+
+public class ConfigurablePurchaseRulesTests {
+    private static final long ACCOUNT_ID = 1L;
+
+    private final ConfigurablePurchaseRules rules;
+
+    public ConfigurablePurchaseRulesTests() throws IOException, URISyntaxException {
+        rules = ConfigurablePurchaseRules.load(Path.of(getClass().getResource("/rules.properties").toURI()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, 20, 0, 0",
+            "1, 1, 1, 1",
+            "42, 10, 0, 0",
+            "43, 6, 0, 0",
+            "50, 2, 0, 4",
+            "60, 0, 3, 0"
+    })
+    public void check_WhenPurchaseIsWithinTheScreeningsRules_DoesNotThrow(long screeningId, int adults, int children, int infants) {
+        Assertions.assertDoesNotThrow(() -> rules.check(screeningId, ACCOUNT_ID, adults, children, infants));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, 21, 0, 0, Cannot purchase more than 20 tickets in one transaction",
+            "1, 1, 0, 2, Cannot purchase more infant tickets than adult tickets",
+            "1, 0, 1, 0, Cannot purchase child tickets without adult tickets",
+            "1, 0, 0, 0, At least one ticket must be purchased",
+            "42, 11, 0, 0, Cannot purchase more than 10 tickets in one transaction",
+            "43, 7, 0, 0, Cannot purchase more than 6 tickets in one transaction",
+            "50, 2, 0, 5, Cannot purchase more than 2 infant tickets per adult ticket",
+            "60, 0, 0, 1, Cannot purchase more infant tickets than adult tickets"
+    })
+    public void check_WhenPurchaseBreaksTheScreeningsRules_ThrowsInvalidPurchaseException(long screeningId, int adults, int children, int infants, String expectedMessage) {
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class, () -> rules.check(screeningId, ACCOUNT_ID, adults, children, infants));
+
+        Assertions.assertEquals(expectedMessage, thrownException.getMessage());
+    }
+
+    @Test
+    public void check_WhenStandardRuleIsBroken_ThrowsTheSharedException() {
+        Assertions.assertSame(InvalidPurchaseException.TooManyTickets, Assertions.assertThrows(InvalidPurchaseException.class, () -> rules.check(1, ACCOUNT_ID, 21, 0, 0)));
+        Assertions.assertSame(InvalidPurchaseException.TooManyInfantTickets, Assertions.assertThrows(InvalidPurchaseException.class, () -> rules.check(42, ACCOUNT_ID, 1, 0, 2)));
+    }
+
+    @Test
+    public void check_WhenCalledWithNegativeCount_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rules.check(1, ACCOUNT_ID, -1, 0, 0));
+    }
+
+    @Test
+    public void check_WhenAccountReachesItsCapAcrossTransactions_ThrowsInvalidPurchaseException() {
+        rules.check(42, ACCOUNT_ID, 8, 0, 0);
+        rules.recordPurchase(42, ACCOUNT_ID, 8);
+
+        Assertions.assertDoesNotThrow(() -> rules.check(42, ACCOUNT_ID, 4, 0, 0));
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class, () -> rules.check(42, ACCOUNT_ID, 5, 0, 0));
+        Assertions.assertEquals("Cannot purchase more than 12 tickets for one screening on one account", thrownException.getMessage());
+
+        // Other accounts and other screenings at the venue have their own allowance
+        Assertions.assertDoesNotThrow(() -> rules.check(42, ACCOUNT_ID + 1, 10, 0, 0));
+        Assertions.assertDoesNotThrow(() -> rules.check(43, ACCOUNT_ID, 6, 0, 0));
+    }
+
+    @Test
+    public void recordPurchase_WhenScreeningHasNoAccountCap_IsNotCounted() {
+        rules.recordPurchase(1, ACCOUNT_ID, 20);
+
+        Assertions.assertDoesNotThrow(() -> rules.check(1, ACCOUNT_ID, 20, 0, 0));
+    }
+
+    @Test
+    public void evictScreening_WhenCalled_ForgetsOnlyThatScreeningsCounts() {
+        rules.recordPurchase(42, ACCOUNT_ID, 12);
+        rules.recordPurchase(43, ACCOUNT_ID, 12);
+
+        rules.evictScreening(42);
+
+        Assertions.assertDoesNotThrow(() -> rules.check(42, ACCOUNT_ID, 10, 0, 0));
+        Assertions.assertThrows(InvalidPurchaseException.class, () -> rules.check(43, ACCOUNT_ID, 1, 0, 0));
+    }
+
+    @Test
+    public void check_WhenScreeningHoldsTheMaximumAccounts_TurnsFurtherAccountsAway() {
+        var configuration = new Properties();
+        configuration.setProperty("max-tickets-per-account", "4");
+        var boundedRules = new ConfigurablePurchaseRules(configuration, 1);
+        boundedRules.check(1, ACCOUNT_ID, 2, 0, 0);
+        boundedRules.recordPurchase(1, ACCOUNT_ID, 2);
+
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class, () -> boundedRules.check(1, ACCOUNT_ID + 1, 1, 0, 0));
+
+        Assertions.assertEquals(InvalidPurchaseException.TooManyAccounts, thrownException);
+        Assertions.assertDoesNotThrow(() -> boundedRules.check(1, ACCOUNT_ID, 2, 0, 0));
+        Assertions.assertDoesNotThrow(() -> boundedRules.check(2, ACCOUNT_ID + 1, 4, 0, 0));
+    }
+
+    @Test
+    public void recordPurchase_WhenTheScreeningFillsUpAfterTheCheck_ReportsThePurchaseAsUncounted() {
+        var configuration = new Properties();
+        configuration.setProperty("max-tickets-per-account", "4");
+        var boundedRules = new ConfigurablePurchaseRules(configuration, 1);
+        boundedRules.check(1, ACCOUNT_ID, 4, 0, 0);
+        boundedRules.check(1, ACCOUNT_ID + 1, 4, 0, 0);
+
+        boundedRules.recordPurchase(1, ACCOUNT_ID, 4);
+        boundedRules.recordPurchase(1, ACCOUNT_ID + 1, 4);
+
+        Assertions.assertEquals(1, boundedRules.getNumberOfUncountedPurchases());
+    }
+
+    @Test
+    public void update_WhenCalled_ReplacesRulesAndKeepsAccountCounts() {
+        rules.recordPurchase(42, ACCOUNT_ID, 12);
+        var configuration = new Properties();
+        configuration.setProperty("screening.42.max-tickets-per-account", "14");
+
+        rules.update(configuration);
+
+        Assertions.assertDoesNotThrow(() -> rules.check(42, ACCOUNT_ID, 2, 0, 0));
+        Assertions.assertThrows(InvalidPurchaseException.class, () -> rules.check(42, ACCOUNT_ID, 3, 0, 0));
+        Assertions.assertDoesNotThrow(() -> rules.check(43, ACCOUNT_ID, 20, 0, 0));
+    }
+
+    @Test
+    public void Constructor_WhenConfigurationIsEmpty_AppliesTheStandardRules() {
+        var standardRules = new ConfigurablePurchaseRules(new Properties());
+
+        Assertions.assertDoesNotThrow(() -> standardRules.check(1, ACCOUNT_ID, 10, 5, 5));
+        Assertions.assertSame(InvalidPurchaseException.TooManyChildTickets, Assertions.assertThrows(InvalidPurchaseException.class, () -> standardRules.check(1, ACCOUNT_ID, 0, 1, 0)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "max-ticket, 20",
+            "max-tickets, 0",
+            "max-tickets, lots",
+            "children-require-adult, yes",
+            "screening.42.screenings, 42",
+            "venue.riverside.max-tickets, 10",
+            "screening.x.max-tickets, 10"
+    })
+    public void Constructor_WhenAnEntryIsInvalid_ThrowsIllegalArgumentException(String key, String value) {
+        var configuration = new Properties();
+        configuration.setProperty(key, value);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ConfigurablePurchaseRules(configuration));
+    }
+
+    @Test
+    public void Constructor_WhenScreeningIsInTwoVenues_ThrowsIllegalArgumentException() {
+        var configuration = new Properties();
+        configuration.setProperty("venue.a.screenings", "1,2");
+        configuration.setProperty("venue.b.screenings", "2");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ConfigurablePurchaseRules(configuration));
+    }
+}
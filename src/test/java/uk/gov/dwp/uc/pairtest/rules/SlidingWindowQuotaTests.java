@@ -0,0 +1,183 @@
+package uk.gov.dwp.uc.pairtest.rules;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import uk.gov.dwp.uc.pairtest.MutableClock;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SlidingWindowQuotaTests {
+    private static final long ACCOUNT_ID = 1L;
+
+    private final MutableClock clock = new MutableClock();
+
+    private SlidingWindowQuota quota(SlidingWindowQuota.Scope scope, int maximumAccountsPerBucket) {
+        return new SlidingWindowQuota(scope, 10, Duration.ofHours(24), 24, maximumAccountsPerBucket, clock);
+    }
+
+    @Test
+    public void Constructor_WhenCalledWithNullClock_ThrowsIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new SlidingWindowQuota(SlidingWindowQuota.Scope.ACCOUNT, 10, Duration.ofHours(24), 24, 1000, null));
+    }
+
+    @Test
+    public void check_WhenAccountGoesOverItsQuotaAcrossTransactions_ThrowsQuotaExceeded() {
+        var quota = quota(SlidingWindowQuota.Scope.ACCOUNT, 1000);
+        quota.check(1, ACCOUNT_ID, 4, 0, 0);
+        quota.check(2, ACCOUNT_ID, 2, 2, 2);
+
+        var thrownException = Assertions.assertThrows(InvalidPurchaseException.class, () -> quota.check(3, ACCOUNT_ID, 1, 0, 0));
+
+        Assertions.assertEquals(InvalidPurchaseException.QuotaExceeded, thrownException);
+        // The rejected purchase is not counted
+        Assertions.assertEquals(10, quota.getNumberOfTickets(3, ACCOUNT_ID));
+        Assertions.assertDoesNotThrow(() -> quota.check(1, ACCOUNT_ID + 1, 10, 0, 0));
+    }
+
+    @Test
+    public void check_WhenScopedToScreenings_CountsEachScreeningSeparately() {
+        var quota = quota(SlidingWindowQuota.Scope.SCREENING, 1000);
+        quota.check(1, ACCOUNT_ID, 10, 0, 0);
+
+        Assertions.assertDoesNotThrow(() -> quota.check(2, ACCOUNT_ID, 10, 0, 0));
+        Assertions.assertThrows(InvalidPurchaseException.class, () -> quota.check(1, ACCOUNT_ID, 1, 0, 0));
+    }
+
+    @Test
+    public void check_WhenScopedToScreenings_NeverSharesACountBetweenPairs() {
+        var quota = quota(SlidingWindowQuota.Scope.SCREENING, 1000);
+        // These two pairs shared a count when the screening was hashed into the account id
+        var otherAccountId = ACCOUNT_ID ^ mix(1) ^ mix(2);
+        quota.check(1, ACCOUNT_ID, 10, 0, 0);
+
+        Assertions.assertEquals(0, quota.getNumberOfTickets(2, otherAccountId));
+        Assertions.assertDoesNotThrow(() -> quota.check(2, otherAccountId, 10, 0, 0));
+    }
+
+    @Test
+    public void check_WhenTicketCountsOverflowAnInt_ThrowsQuotaExceeded() {
+        var quota = quota(SlidingWindowQuota.Scope.ACCOUNT, 1000);
+
+        Assertions.assertThrows(InvalidPurchaseException.class, () -> quota.check(1, ACCOUNT_ID, Integer.MAX_VALUE, 1, 0));
+        Assertions.assertEquals(0, quota.getNumberOfTickets(1, ACCOUNT_ID));
+    }
+
+    @Test
+    public void check_WhenPurchasesLeaveTheWindow_AllowsMore() {
+        var quota = quota(SlidingWindowQuota.Scope.ACCOUNT, 1000);
+        quota.check(1, ACCOUNT_ID, 6, 0, 0);
+        clock.advance(Duration.ofHours(12));
+        quota.check(1, ACCOUNT_ID, 4, 0, 0);
+
+        clock.advance(Duration.ofHours(11));
+        Assertions.assertThrows(InvalidPurchaseException.class, () -> quota.check(1, ACCOUNT_ID, 1, 0, 0));
+
+        clock.advance(Duration.ofHours(1));
+        Assertions.assertEquals(4, quota.getNumberOfTickets(1, ACCOUNT_ID));
+        Assertions.assertDoesNotThrow(() -> quota.check(1, ACCOUNT_ID, 6, 0, 0));
+    }
+
+    @Test
+    public void cancelPurchase_WhenCalled_GivesTheTicketsBack() {
+        var quota = quota(SlidingWindowQuota.Scope.ACCOUNT, 1000);
+        quota.check(1, ACCOUNT_ID, 10, 0, 0);
+
+        quota.cancelPurchase(1, ACCOUNT_ID, 10);
+
+        Assertions.assertEquals(0, quota.getNumberOfTickets(1, ACCOUNT_ID));
+        Assertions.assertDoesNotThrow(() -> quota.check(1, ACCOUNT_ID, 10, 0, 0));
+    }
+
+    @Test
+    public void check_WhenBucketIsFull_LetsNewAccountsThroughUncounted() {
+        var quota = quota(SlidingWindowQuota.Scope.ACCOUNT, 2);
+        quota.check(1, 1L, 10, 0, 0);
+        quota.check(1, 2L, 10, 0, 0);
+
+        quota.check(1, 3L, 10, 0, 0);
+        quota.check(1, 3L, 10, 0, 0);
+
+        Assertions.assertEquals(2, quota.getNumberOfUncountedPurchases());
+        Assertions.assertThrows(InvalidPurchaseException.class, () -> quota.check(1, 1L, 1, 0, 0));
+    }
+
+    @Test
+    public void check_WhenABucketComesRoundAgain_ForgetsItsOldAccountsAndCountsNewOnes() {
+        var quota = quota(SlidingWindowQuota.Scope.ACCOUNT, 2);
+        quota.check(1, 1L, 10, 0, 0);
+        quota.check(1, 2L, 10, 0, 0);
+
+        clock.advance(Duration.ofHours(24));
+        quota.check(1, 3L, 10, 0, 0);
+        quota.check(1, 4L, 10, 0, 0);
+
+        Assertions.assertEquals(0, quota.getNumberOfUncountedPurchases());
+        Assertions.assertEquals(0, quota.getNumberOfTickets(1, 1L));
+        Assertions.assertEquals(10, quota.getNumberOfTickets(1, 3L));
+        Assertions.assertThrows(InvalidPurchaseException.class, () -> quota.check(1, 4L, 1, 0, 0));
+    }
+
+    @Test
+    public void check_WhenCalledConcurrentlyForOneAccount_NeverAdmitsMoreThanTheQuota() throws InterruptedException {
+        var quota = new SlidingWindowQuota(SlidingWindowQuota.Scope.ACCOUNT, 100, Duration.ofHours(24), 24, 1000, clock);
+        var admitted = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            var thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                for (int i = 0; i < 100; i++) {
+                    try {
+                        quota.check(1, ACCOUNT_ID, 1, 0, 0);
+                        admitted.incrementAndGet();
+                    } catch (InvalidPurchaseException e) {
+                        // Over quota
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertTrue(admitted.get() <= 100);
+        Assertions.assertEquals(admitted.get(), quota.getNumberOfTickets(1, ACCOUNT_ID));
+    }
+
+    @Test
+    public void allOf_WhenALaterRuleRejects_CancelsTheEarlierRules() {
+        var first = Mockito.mock(PurchaseRules.class);
+        var second = Mockito.mock(PurchaseRules.class);
+        Mockito.doThrow(InvalidPurchaseException.TooManyTickets).when(second).check(1, ACCOUNT_ID, 2, 1, 0);
+        var rules = PurchaseRules.allOf(first, second);
+
+        Assertions.assertThrows(InvalidPurchaseException.class, () -> rules.check(1, ACCOUNT_ID, 2, 1, 0));
+
+        Mockito.verify(first).check(1, ACCOUNT_ID, 2, 1, 0);
+        Mockito.verify(first).cancelPurchase(1, ACCOUNT_ID, 3);
+        Mockito.verify(second).check(1, ACCOUNT_ID, 2, 1, 0);
+        Mockito.verifyNoMoreInteractions(first, second);
+    }
+
+    private static long mix(long screeningId) {
+        var hash = screeningId;
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}